@@ -954,5 +954,14 @@ public class OpticalPathProvisionerTest {
         public long getDispatchTimeLimit() {
             return 0;
         }
+
+        @Override
+        public void setDispatchLoops(int loops) {
+        }
+
+        @Override
+        public int getDispatchLoops() {
+            return 1;
+        }
     }
 }
\ No newline at end of file
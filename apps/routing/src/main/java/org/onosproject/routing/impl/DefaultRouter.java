@@ -19,20 +19,15 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import com.googlecode.concurrenttrees.common.KeyValuePair;
-import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
-import com.googlecode.concurrenttrees.radixinverted.ConcurrentInvertedRadixTree;
-import com.googlecode.concurrenttrees.radixinverted.InvertedRadixTree;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
-import org.onlab.packet.Ip4Address;
-import org.onlab.packet.Ip6Address;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpPrefix;
+import org.onlab.packet.IpPrefixTrie;
 import org.onlab.packet.MacAddress;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.Host;
@@ -53,9 +48,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
@@ -65,7 +58,6 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static org.onosproject.routing.RouteEntry.createBinaryString;
 
 /**
  * This class processes route updates and maintains a Routing Information Base
@@ -83,10 +75,9 @@ public class DefaultRouter implements RoutingService {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultRouter.class);
 
-    // Route entries are stored in a radix tree.
-    // The key in this tree is the binary string of prefix of the route.
-    private InvertedRadixTree<RouteEntry> ribTable4;
-    private InvertedRadixTree<RouteEntry> ribTable6;
+    // Route entries are stored in prefix tries, keyed by the prefix of the route.
+    private IpPrefixTrie<RouteEntry> ribTable4;
+    private IpPrefixTrie<RouteEntry> ribTable6;
 
     // Stores all incoming route updates in a queue.
     private final BlockingQueue<Collection<RouteUpdate>> routeUpdatesQueue =
@@ -118,10 +109,8 @@ public class DefaultRouter implements RoutingService {
 
     @Activate
     public void activate() {
-        ribTable4 = new ConcurrentInvertedRadixTree<>(
-                new DefaultByteArrayNodeFactory());
-        ribTable6 = new ConcurrentInvertedRadixTree<>(
-                new DefaultByteArrayNodeFactory());
+        ribTable4 = new IpPrefixTrie<>(IpAddress.Version.INET);
+        ribTable6 = new IpPrefixTrie<>(IpAddress.Version.INET6);
 
         routesWaitingOnArp = Multimaps.synchronizedSetMultimap(
                 HashMultimap.create());
@@ -163,10 +152,8 @@ public class DefaultRouter implements RoutingService {
 
         synchronized (this) {
             // Cleanup all local state
-            ribTable4 = new ConcurrentInvertedRadixTree<>(
-                    new DefaultByteArrayNodeFactory());
-            ribTable6 = new ConcurrentInvertedRadixTree<>(
-                    new DefaultByteArrayNodeFactory());
+            ribTable4 = new IpPrefixTrie<>(IpAddress.Version.INET);
+            ribTable6 = new IpPrefixTrie<>(IpAddress.Version.INET6);
             routeUpdatesQueue.clear();
             routesWaitingOnArp.clear();
             ip2Mac.clear();
@@ -219,17 +206,7 @@ public class DefaultRouter implements RoutingService {
      */
     @Override
     public Collection<RouteEntry> getRoutes4() {
-        Iterator<KeyValuePair<RouteEntry>> it =
-                ribTable4.getKeyValuePairsForKeysStartingWith("").iterator();
-
-        List<RouteEntry> routes = new LinkedList<>();
-
-        while (it.hasNext()) {
-            KeyValuePair<RouteEntry> entry = it.next();
-            routes.add(entry.getValue());
-        }
-
-        return routes;
+        return ribTable4.values();
     }
 
     /**
@@ -239,17 +216,7 @@ public class DefaultRouter implements RoutingService {
      */
     @Override
     public Collection<RouteEntry> getRoutes6() {
-        Iterator<KeyValuePair<RouteEntry>> it =
-                ribTable6.getKeyValuePairsForKeysStartingWith("").iterator();
-
-        List<RouteEntry> routes = new LinkedList<>();
-
-        while (it.hasNext()) {
-            KeyValuePair<RouteEntry> entry = it.next();
-            routes.add(entry.getValue());
-        }
-
-        return routes;
+        return ribTable6.values();
     }
 
     /**
@@ -260,13 +227,12 @@ public class DefaultRouter implements RoutingService {
      * @return the route if found, otherwise null
      */
     RouteEntry findRibRoute(IpPrefix prefix) {
-        String binaryString = createBinaryString(prefix);
         if (prefix.isIp4()) {
             // IPv4
-            return ribTable4.getValueForExactKey(binaryString);
+            return ribTable4.get(prefix);
         }
         // IPv6
-        return ribTable6.getValueForExactKey(binaryString);
+        return ribTable6.get(prefix);
     }
 
     /**
@@ -277,10 +243,10 @@ public class DefaultRouter implements RoutingService {
     void addRibRoute(RouteEntry routeEntry) {
         if (routeEntry.isIp4()) {
             // IPv4
-            ribTable4.put(createBinaryString(routeEntry.prefix()), routeEntry);
+            ribTable4.put(routeEntry.prefix(), routeEntry);
         } else {
             // IPv6
-            ribTable6.put(createBinaryString(routeEntry.prefix()), routeEntry);
+            ribTable6.put(routeEntry.prefix(), routeEntry);
         }
     }
 
@@ -294,10 +260,10 @@ public class DefaultRouter implements RoutingService {
     boolean removeRibRoute(IpPrefix prefix) {
         if (prefix.isIp4()) {
             // IPv4
-            return ribTable4.remove(createBinaryString(prefix));
+            return ribTable4.remove(prefix) != null;
         }
         // IPv6
-        return ribTable6.remove(createBinaryString(prefix));
+        return ribTable6.remove(prefix) != null;
     }
 
     /**
@@ -466,7 +432,7 @@ public class DefaultRouter implements RoutingService {
                 macAddress);
 
         //
-        // We synchronize on "this" to prevent changes to the Radix tree
+        // We synchronize on "this" to prevent changes to the RIB tries
         // while we're pushing intents. If the tree changes, the
         // tree and the intents could get out of sync.
         //
@@ -542,26 +508,10 @@ public class DefaultRouter implements RoutingService {
 
     @Override
     public RouteEntry getLongestMatchableRouteEntry(IpAddress ipAddress) {
-        RouteEntry routeEntry = null;
-        Iterable<RouteEntry> routeEntries;
-
         if (ipAddress.isIp4()) {
-            routeEntries = ribTable4.getValuesForKeysPrefixing(
-                    createBinaryString(
-                    IpPrefix.valueOf(ipAddress, Ip4Address.BIT_LENGTH)));
-        } else {
-            routeEntries = ribTable6.getValuesForKeysPrefixing(
-                    createBinaryString(
-                    IpPrefix.valueOf(ipAddress, Ip6Address.BIT_LENGTH)));
-        }
-        if (routeEntries == null) {
-            return null;
-        }
-        Iterator<RouteEntry> it = routeEntries.iterator();
-        while (it.hasNext()) {
-            routeEntry = it.next();
+            return ribTable4.longestPrefixMatch(ipAddress);
         }
-        return routeEntry;
+        return ribTable6.longestPrefixMatch(ipAddress);
     }
 
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.distributedprimitives.cli;
+
+import com.google.common.collect.Maps;
+import org.apache.karaf.shell.commands.Argument;
+import org.apache.karaf.shell.commands.Command;
+import org.onosproject.cli.AbstractShellCommand;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.Serializer;
+import org.onosproject.store.service.StorageService;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * CLI command to compare the throughput of single-key and batched operations
+ * on a consistent map.
+ */
+@Command(scope = "onos", name = "map-batch-test",
+        description = "Compare single-key and batched consistent map operations")
+public class ConsistentMapBatchTestCommand extends AbstractShellCommand {
+
+    @Argument(index = 0, name = "name",
+            description = "map name",
+            required = true, multiValued = false)
+    String name = null;
+
+    @Argument(index = 1, name = "count",
+            description = "number of keys",
+            required = false, multiValued = false)
+    int count = 1000;
+
+    @Override
+    protected void execute() {
+        StorageService storageService = get(StorageService.class);
+        AsyncConsistentMap<String, String> map = storageService.<String, String>consistentMapBuilder()
+                                    .withName(name)
+                                    .withSerializer(Serializer.using(KryoNamespaces.BASIC))
+                                    .buildAsyncMap();
+
+        Map<String, String> entries = Maps.newHashMap();
+        for (int i = 0; i < count; i++) {
+            entries.put("key" + i, "value" + i);
+        }
+
+        // Every variant starts from the same contents, so that batched and
+        // single-key operations do the same work: puts insert new keys and
+        // removes delete existing ones.
+        Supplier<CompletableFuture<?>> empty = map::clear;
+        Supplier<CompletableFuture<?>> filled = () -> map.clear().thenCompose(v -> map.putAll(entries));
+
+        run("put", empty, () -> CompletableFuture.allOf(entries.entrySet().stream()
+                .map(e -> map.put(e.getKey(), e.getValue()))
+                .toArray(CompletableFuture[]::new)));
+        run("putAll", empty, () -> map.putAll(entries));
+        run("get", filled, () -> CompletableFuture.allOf(entries.keySet().stream()
+                .map(map::get)
+                .toArray(CompletableFuture[]::new)));
+        run("getAll", filled, () -> map.getAll(entries.keySet()));
+        run("remove", filled, () -> CompletableFuture.allOf(entries.keySet().stream()
+                .map(map::remove)
+                .toArray(CompletableFuture[]::new)));
+        run("removeAll", filled, () -> map.removeAll(entries.keySet()));
+        map.clear().join();
+    }
+
+    private void run(String operation, Supplier<CompletableFuture<?>> prepare,
+                     Supplier<CompletableFuture<?>> batch) {
+        prepare.get().join();
+        long start = System.nanoTime();
+        batch.get().join();
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        print("%-10s %6d keys in %6d ms (%d ops/s)", operation, count,
+              elapsed / 1_000_000, count * 1_000_000_000L / elapsed);
+    }
+}
@@ -35,4 +35,20 @@ public interface EventDeliveryService extends EventDispatcher, EventSinkRegistry
      */
     long getDispatchTimeLimit();
 
+    /**
+     * Sets the number of loops used to dispatch events. Events of the same
+     * class are always dispatched by the same loop in the order they were
+     * posted, so an event sink is never invoked concurrently.
+     *
+     * @param loops number of dispatch loops; must be positive
+     */
+    void setDispatchLoops(int loops);
+
+    /**
+     * Returns the number of loops used to dispatch events.
+     *
+     * @return number of dispatch loops
+     */
+    int getDispatchLoops();
+
 }
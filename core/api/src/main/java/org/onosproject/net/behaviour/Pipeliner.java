@@ -22,6 +22,9 @@ import org.onosproject.net.driver.HandlerBehaviour;
 import org.onosproject.net.flowobjective.FilteringObjective;
 import org.onosproject.net.flowobjective.ForwardingObjective;
 import org.onosproject.net.flowobjective.NextObjective;
+import org.onosproject.net.flowobjective.Objective;
+import org.onosproject.net.flowobjective.ObjectiveError;
+import org.slf4j.LoggerFactory;
 
 /**
  * Behaviour for handling various pipelines.
@@ -57,6 +60,37 @@ public interface Pipeliner extends HandlerBehaviour {
      */
     void next(NextObjective nextObjective);
 
+    /**
+     * Installs a batch of objectives onto the device, in the given order.
+     * <p>
+     * By default the objectives are handed one at a time to
+     * {@link #filter(FilteringObjective)}, {@link #forward(ForwardingObjective)}
+     * and {@link #next(NextObjective)}; an objective whose installation throws
+     * is reported as failed through its context, without affecting the others.
+     * Pipeliners able to program several objectives together may override
+     * this method.
+     * </p>
+     *
+     * @param objectives filtering, forwarding and next objectives
+     */
+    default void apply(List<Objective> objectives) {
+        for (Objective objective : objectives) {
+            try {
+                if (objective instanceof NextObjective) {
+                    next((NextObjective) objective);
+                } else if (objective instanceof ForwardingObjective) {
+                    forward((ForwardingObjective) objective);
+                } else {
+                    filter((FilteringObjective) objective);
+                }
+            } catch (RuntimeException e) {
+                LoggerFactory.getLogger(getClass())
+                        .warn("Exception while installing flow objective {}", objective.id(), e);
+                objective.context().ifPresent(c -> c.onError(objective, ObjectiveError.UNKNOWN));
+            }
+        }
+    }
+
     /**
      *  Retrieves a mapping of the nextObjective to the groups in the dataplane,
      *  and returns it in a form that can be displayed on the CLI. Typically
@@ -67,6 +67,33 @@ public class DefaultFlowEntry extends DefaultFlowRule
         this.lastSeen = System.currentTimeMillis();
     }
 
+    /**
+     * Restores a flow entry from all of its attributes, e.g. when a stored
+     * flow entry is deserialized. The creation time of the given rule is
+     * preserved.
+     *
+     * @param rule flow rule of the entry
+     * @param state flow entry state
+     * @param life flow entry life, in seconds
+     * @param packets number of packets matched
+     * @param bytes number of bytes matched
+     * @param errType error type, or -1 if the entry has not failed
+     * @param errCode error code, or -1 if the entry has not failed
+     * @param lastSeen time the entry was last seen
+     */
+    public DefaultFlowEntry(DefaultFlowRule rule, FlowEntryState state,
+                            long life, long packets, long bytes,
+                            int errType, int errCode, long lastSeen) {
+        super(rule, rule.created());
+        this.state = state;
+        this.life = life;
+        this.packets = packets;
+        this.bytes = bytes;
+        this.errType = errType;
+        this.errCode = errCode;
+        this.lastSeen = lastSeen;
+    }
+
     @Override
     public long life() {
         return life;
@@ -52,6 +52,16 @@ public class DefaultFlowRule implements FlowRule {
     private final FlowRuleExtPayLoad payLoad;
 
     public DefaultFlowRule(FlowRule rule) {
+        this(rule, System.currentTimeMillis());
+    }
+
+    /**
+     * Creates a copy of a flow rule with the given creation time.
+     *
+     * @param rule flow rule to copy
+     * @param created creation time of the copy
+     */
+    protected DefaultFlowRule(FlowRule rule, long created) {
         this.deviceId = rule.deviceId();
         this.priority = rule.priority();
         this.selector = rule.selector();
@@ -61,11 +71,48 @@ public class DefaultFlowRule implements FlowRule {
         this.id = rule.id();
         this.timeout = rule.timeout();
         this.permanent = rule.isPermanent();
-        this.created = System.currentTimeMillis();
+        this.created = created;
         this.tableId = rule.tableId();
         this.payLoad = rule.payLoad();
     }
 
+    /**
+     * Restores a flow rule from all of its attributes, including its creation
+     * time, e.g. when a stored flow rule is deserialized.
+     *
+     * @param deviceId the identity of the device where this rule applies
+     * @param id flow id
+     * @param appId application short id
+     * @param groupId group id
+     * @param priority the flow rule priority given in natural order
+     * @param timeout the timeout for this flow requested by an application
+     * @param permanent whether the flow is permanent i.e. does not time out
+     * @param tableId table id
+     * @param created creation time
+     * @param selector the traffic selector that identifies what traffic this
+     *            rule
+     * @param treatment the traffic treatment that applies to selected traffic
+     * @param payLoad 3rd-party origin private flow
+     */
+    public DefaultFlowRule(DeviceId deviceId, FlowId id, short appId,
+                           GroupId groupId, int priority, int timeout,
+                           boolean permanent, int tableId, long created,
+                           TrafficSelector selector, TrafficTreatment treatment,
+                           FlowRuleExtPayLoad payLoad) {
+        this.deviceId = deviceId;
+        this.id = id;
+        this.appId = appId;
+        this.groupId = groupId;
+        this.priority = priority;
+        this.timeout = timeout;
+        this.permanent = permanent;
+        this.tableId = tableId;
+        this.created = created;
+        this.selector = selector;
+        this.treatment = treatment;
+        this.payLoad = payLoad;
+    }
+
     private DefaultFlowRule(DeviceId deviceId, TrafficSelector selector,
                             TrafficTreatment treatment, Integer priority,
                             FlowId flowId, Boolean permanent, Integer timeout,
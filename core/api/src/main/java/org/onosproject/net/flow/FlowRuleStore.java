@@ -17,6 +17,7 @@ package org.onosproject.net.flow;
 
 import java.util.List;
 
+import com.google.common.collect.Iterables;
 import org.onosproject.net.DeviceId;
 import org.onosproject.store.Store;
 
@@ -32,6 +33,50 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     int getFlowRuleCount();
 
+    /**
+     * Returns the number of flow rules stored for a device.
+     *
+     * @param deviceId the device ID
+     * @return number of flow rules of the device
+     */
+    default int getFlowRuleCount(DeviceId deviceId) {
+        return Iterables.size(getFlowEntries(deviceId));
+    }
+
+    /**
+     * Returns the sum of the {@link #cookieHash(FlowRule) cookie hashes} of
+     * the flow rules stored for a device. Along with the number of rules, it
+     * tells cheaply whether a device may hold the same rules as the store.
+     *
+     * @param deviceId the device ID
+     * @return sum of the cookie hashes of the flow rules of the device
+     */
+    default long getFlowRuleCookieHash(DeviceId deviceId) {
+        long hash = 0;
+        for (FlowEntry entry : getFlowEntries(deviceId)) {
+            hash += cookieHash(entry);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the hash of the cookie of a flow rule, spreading its bits so
+     * that sums of such hashes make a good order-independent hash of a set
+     * of rules.
+     *
+     * @param rule flow rule
+     * @return cookie hash
+     */
+    static long cookieHash(FlowRule rule) {
+        long h = rule.id().value();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
     /**
      * Returns the stored flow.
      *
@@ -43,7 +43,27 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors, to be
+     * given only the packets which may match the specified selector.
+     * It will be added into the list in the order of priority. The higher
+     * numbers will be processing the packets after the lower numbers.
+     * <p>
+     * Packets are pre-filtered on their ethertype, IP protocol and transport
+     * ports only, so the processor may still be given packets which do not
+     * match the remaining selector criteria. By default, the processor is
+     * given all packets.
+     * </p>
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param selector  traffic selector describing the packets of interest
+     * @throws java.lang.IllegalArgumentException if a processor with the
+     *                                            given priority already exists
+     */
+    default void addProcessor(PacketProcessor processor, int priority, TrafficSelector selector) {
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
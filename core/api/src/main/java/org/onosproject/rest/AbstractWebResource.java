@@ -15,19 +15,34 @@
  */
 package org.onosproject.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Splitter;
 import org.onlab.rest.BaseResource;
 import org.onosproject.codec.CodecContext;
 import org.onosproject.codec.CodecService;
 import org.onosproject.codec.JsonCodec;
 
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Abstract REST resource.
  */
 public class AbstractWebResource extends BaseResource implements CodecContext {
 
+    /**
+     * Field holding the cursor of the next page in paginated responses.
+     */
+    public static final String NEXT = "next";
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     @Override
@@ -63,6 +78,103 @@ public class AbstractWebResource extends BaseResource implements CodecContext {
         return result;
     }
 
+    /**
+     * Returns a response entity which streams the JSON object wrapping the
+     * array encoding of the specified items. Unlike
+     * {@link #encodeArray(Class, String, Iterable)}, the items are encoded
+     * and written one at a time while the response is sent, so that the
+     * memory used does not grow with the number of items.
+     *
+     * @param codecClass codec item class
+     * @param field      field holding the array
+     * @param items      items to be encoded into array
+     * @param <T>        item type
+     * @return streaming response entity
+     */
+    protected <T> StreamingOutput streamArray(Class<T> codecClass, String field,
+                                              Iterable<T> items) {
+        return streamArray(codecClass, field, items, null, null, null);
+    }
+
+    /**
+     * Returns a response entity which streams one page of the JSON object
+     * wrapping the array encoding of the specified items.
+     * <p>
+     * The page holds at most {@code limit} items, starting at the given
+     * cursor. When more items follow, the object also holds the cursor of the
+     * next page in its {@value #NEXT} field. Cursors are opaque to clients and
+     * refer to positions in the iteration order of the items, so pages are
+     * only consistent while the underlying collection does not change. When
+     * fields are given, the encoding of each item only retains those
+     * top-level fields.
+     * </p>
+     *
+     * @param codecClass codec item class
+     * @param field      field holding the array
+     * @param items      items to be encoded into array
+     * @param limit      maximum number of items; null for all items
+     * @param cursor     cursor of the page; null for the first page
+     * @param fields     comma-separated list of the fields to retain; null
+     *                   for all fields
+     * @param <T>        item type
+     * @return streaming response entity
+     * @throws IllegalArgumentException if the limit or cursor are invalid
+     */
+    protected <T> StreamingOutput streamArray(Class<T> codecClass, String field,
+                                              Iterable<T> items, Integer limit,
+                                              String cursor, String fields) {
+        checkArgument(limit == null || limit > 0, "Limit must be positive");
+        long start = cursor == null ? 0 : parseCursor(cursor);
+        List<String> retained = fields == null ? null :
+                Splitter.on(',').trimResults().omitEmptyStrings().splitToList(fields);
+        JsonCodec<T> codec = codec(codecClass);
+
+        return output -> {
+            try (JsonGenerator generator = generator(output)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart(field);
+
+                Iterator<T> iterator = items.iterator();
+                long position = 0;
+                while (position < start && iterator.hasNext()) {
+                    iterator.next();
+                    position++;
+                }
+                long end = limit == null ? Long.MAX_VALUE : start + limit;
+                while (position < end && iterator.hasNext()) {
+                    ObjectNode node = codec.encode(iterator.next(), this);
+                    if (retained != null) {
+                        node.retain(retained);
+                    }
+                    mapper.writeTree(generator, node);
+                    position++;
+                }
+                generator.writeEndArray();
+
+                if (iterator.hasNext()) {
+                    generator.writeStringField(NEXT, Long.toString(position));
+                }
+                generator.writeEndObject();
+            }
+        };
+    }
+
+    private JsonGenerator generator(OutputStream output) throws IOException {
+        // Leave the response stream to the container
+        return mapper.getFactory().createGenerator(output)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private static long parseCursor(String cursor) {
+        try {
+            long position = Long.parseLong(cursor);
+            checkArgument(position >= 0, "Invalid cursor %s", cursor);
+            return position;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor, e);
+        }
+    }
+
     @Override
     public <T> T getService(Class<T> serviceClass) {
         return get(serviceClass);
@@ -15,10 +15,16 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import org.onlab.util.Tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * Interface for low level messaging primitives.
@@ -35,6 +41,26 @@ public interface MessagingService {
      */
     CompletableFuture<Void> sendAsync(Endpoint ep, String type, byte[] payload);
 
+    /**
+     * Sends a message asynchronously to the specified communication end point.
+     * The payload is written by the given writer directly into the transport
+     * buffer, avoiding an intermediate byte array where supported. The writer
+     * is invoked synchronously, before this method returns.
+     * @param ep end point to send the message to.
+     * @param type type of message.
+     * @param payloadWriter writer of the message payload.
+     * @return future that is completed when the message is sent
+     */
+    default CompletableFuture<Void> sendAsync(Endpoint ep, String type, Consumer<OutputStream> payloadWriter) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            payloadWriter.accept(out);
+            return sendAsync(ep, type, out.toByteArray());
+        } catch (RuntimeException e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
     /**
      * Sends a message asynchronously and expects a response.
      * @param ep end point to send the message to.
@@ -54,6 +80,28 @@ public interface MessagingService {
      */
     CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, byte[] payload, Executor executor);
 
+    /**
+     * Sends a message asynchronously and expects a response.
+     * The payload is written by the given writer directly into the transport
+     * buffer, avoiding an intermediate byte array where supported. The writer
+     * is invoked synchronously, before this method returns.
+     * @param ep end point to send the message to.
+     * @param type type of message.
+     * @param payloadWriter writer of the message payload.
+     * @param executor executor over which any follow up actions after completion will be executed.
+     * @return a response future
+     */
+    default CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type,
+                                                     Consumer<OutputStream> payloadWriter, Executor executor) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            payloadWriter.accept(out);
+            return sendAndReceive(ep, type, out.toByteArray(), executor);
+        } catch (RuntimeException e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
     /**
      * Registers a new message handler for message type.
      * @param type message type.
@@ -77,9 +125,53 @@ public interface MessagingService {
      */
     void registerHandler(String type, BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> handler);
 
+    /**
+     * Registers a new message handler for message type that consumes the
+     * payload as a read-only buffer. The buffer is only valid for the
+     * duration of the handler invocation and must not be retained.
+     * @param type message type.
+     * @param handler message handler
+     * @param executor executor to use for running message handler logic.
+     */
+    default void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        BiConsumer<Endpoint, byte[]> arrayHandler =
+                (ep, payload) -> handler.accept(ep, ByteBuffer.wrap(payload).asReadOnlyBuffer());
+        registerHandler(type, arrayHandler, executor);
+    }
+
+    /**
+     * Registers a new message handler for message type that consumes the
+     * payload as a read-only buffer. The buffer is only valid for the
+     * duration of the handler invocation and must not be retained.
+     * @param type message type.
+     * @param handler message handler
+     * @param executor executor to use for running message handler logic.
+     */
+    default void registerBufferHandler(String type, BiFunction<Endpoint, ByteBuffer, byte[]> handler,
+                                       Executor executor) {
+        BiFunction<Endpoint, byte[], byte[]> arrayHandler =
+                (ep, payload) -> handler.apply(ep, ByteBuffer.wrap(payload).asReadOnlyBuffer());
+        registerHandler(type, arrayHandler, executor);
+    }
+
+    /**
+     * Registers a new message handler for message type that consumes the
+     * payload as a read-only buffer. The buffer is only valid until the
+     * handler returns and must not be retained by the returned future.
+     * @param type message type.
+     * @param handler message handler
+     */
+    default void registerBufferHandler(String type,
+                                       BiFunction<Endpoint, ByteBuffer, CompletableFuture<byte[]>> handler) {
+        BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> arrayHandler =
+                (ep, payload) -> handler.apply(ep, ByteBuffer.wrap(payload).asReadOnlyBuffer());
+        registerHandler(type, arrayHandler);
+    }
+
     /**
      * Unregister current handler, if one exists for message type.
      * @param type message type
      */
     void unregisterHandler(String type);
+
 }
@@ -17,6 +17,7 @@
 package org.onosproject.store.service;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -29,6 +30,7 @@ import java.util.function.Predicate;
 import org.onosproject.store.primitives.DefaultConsistentMap;
 import org.onosproject.store.primitives.TransactionId;
 
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.MoreExecutors;
 
 /**
@@ -109,6 +111,28 @@ public interface AsyncConsistentMap<K, V> extends DistributedPrimitive {
      */
     CompletableFuture<Versioned<V>> get(K key);
 
+    /**
+     * Returns the values (and versions) to which the specified keys are mapped.
+     * <p>
+     * Implementations may read the keys held by the same partition with a single
+     * operation; the default implementation reads each key separately.
+     *
+     * @param keys the keys whose associated values (and versions) are to be returned
+     * @return a future map of the keys which are present in this map to their
+     * values (and versions)
+     */
+    default CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        Map<K, Versioned<V>> values = Maps.newConcurrentMap();
+        return CompletableFuture.allOf(keys.stream()
+                                           .map(key -> get(key).thenAccept(value -> {
+                                               if (value != null) {
+                                                   values.put(key, value);
+                                               }
+                                           }))
+                                           .toArray(CompletableFuture[]::new))
+                                .thenApply(v -> values);
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null),
      * attempts to compute its value using the given mapping function and enters it into
@@ -202,6 +226,41 @@ public interface AsyncConsistentMap<K, V> extends DistributedPrimitive {
      */
     CompletableFuture<Versioned<V>> remove(K key);
 
+    /**
+     * Associates the specified values with the specified keys in this map.
+     * <p>
+     * Implementations may write the entries held by the same partition with a
+     * single operation, in which case they are written atomically; entries held
+     * by different partitions are not. The default implementation writes each
+     * entry separately.
+     *
+     * @param entries the entries to be written; values must not be null
+     * @return future that will be completed when all the entries are written
+     */
+    default CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return CompletableFuture.allOf(entries.entrySet()
+                                              .stream()
+                                              .map(e -> put(e.getKey(), e.getValue()))
+                                              .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Removes the mappings for the specified keys from this map if they are present.
+     * <p>
+     * Implementations may remove the keys held by the same partition with a
+     * single operation, in which case they are removed atomically; keys held by
+     * different partitions are not. The default implementation removes each key
+     * separately.
+     *
+     * @param keys the keys whose mappings are to be removed
+     * @return future that will be completed when all the keys are removed
+     */
+    default CompletableFuture<Void> removeAll(Set<K> keys) {
+        return CompletableFuture.allOf(keys.stream()
+                                           .map(this::remove)
+                                           .toArray(CompletableFuture[]::new));
+    }
+
     /**
      * Removes all of the mappings from this map (optional operation).
      * The map will be empty after this call returns.
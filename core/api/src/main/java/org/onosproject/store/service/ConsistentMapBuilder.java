@@ -17,6 +17,11 @@ package org.onosproject.store.service;
 
 import org.onosproject.store.primitives.DistributedPrimitiveBuilder;
 
+import java.util.function.ToIntBiFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Builder for {@link ConsistentMap} instances.
  *
@@ -27,6 +32,9 @@ public abstract class ConsistentMapBuilder<K, V>
     extends DistributedPrimitiveBuilder<ConsistentMapBuilder<K, V>, ConsistentMap<K, V>> {
 
     private boolean purgeOnUninstall = false;
+    private int cacheSize = 0;
+    private long cacheMaximumWeight = 0;
+    private ToIntBiFunction<? super K, ? super V> cacheWeigher;
 
     public ConsistentMapBuilder() {
         super(DistributedPrimitive.Type.CONSISTENT_MAP);
@@ -50,6 +58,62 @@ public abstract class ConsistentMapBuilder<K, V>
         return purgeOnUninstall;
     }
 
+    /**
+     * Sets the maximum number of entries held in the local cache used when
+     * read consistency is relaxed.
+     *
+     * @param cacheSize maximum number of cached entries
+     * @return this builder
+     */
+    public ConsistentMapBuilder<K, V> withCacheSize(int cacheSize) {
+        checkArgument(cacheSize > 0, "Cache size must be positive");
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    /**
+     * Bounds the local cache used when read consistency is relaxed by the
+     * total weight of its entries instead of their number.
+     *
+     * @param maximumWeight maximum total weight of the cached entries
+     * @param weigher function computing the weight of an entry
+     * @return this builder
+     */
+    public ConsistentMapBuilder<K, V> withCacheWeigher(long maximumWeight,
+                                                      ToIntBiFunction<? super K, ? super V> weigher) {
+        checkArgument(maximumWeight > 0, "Maximum weight must be positive");
+        this.cacheMaximumWeight = maximumWeight;
+        this.cacheWeigher = checkNotNull(weigher);
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of entries held in the local cache.
+     *
+     * @return maximum number of cached entries; 0 if not set
+     */
+    public int cacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Returns the maximum total weight of the entries held in the local cache.
+     *
+     * @return maximum total weight; 0 if the cache is not bounded by weight
+     */
+    public long cacheMaximumWeight() {
+        return cacheMaximumWeight;
+    }
+
+    /**
+     * Returns the function computing the weight of a cached entry.
+     *
+     * @return weigher; null if the cache is not bounded by weight
+     */
+    public ToIntBiFunction<? super K, ? super V> cacheWeigher() {
+        return cacheWeigher;
+    }
+
     /**
      * Builds an async consistent map based on the configuration options
      * supplied to this builder.
@@ -190,6 +190,20 @@ public interface EventuallyConsistentMapBuilder<K, V> {
      */
     EventuallyConsistentMapBuilder<K, V> withPersistence();
 
+    /**
+     * Configures anti-entropy to first exchange a hash for each of the given
+     * number of key buckets and only exchange entry digests for the buckets
+     * whose hashes differ. Suited to large maps whose replicas are usually in
+     * sync, where advertising the digest of every entry is costly.
+     * <p>
+     * The default behavior is to advertise the digests of all entries.
+     * </p>
+     *
+     * @param buckets number of key buckets; must be greater than 0
+     * @return this EventuallyConsistentMapBuilder
+     */
+    EventuallyConsistentMapBuilder<K, V> withBucketAntiEntropy(int buckets);
+
     /**
      * Builds an eventually consistent map based on the configuration options
      * supplied to this builder.
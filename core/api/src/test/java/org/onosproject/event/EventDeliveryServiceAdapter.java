@@ -31,6 +31,16 @@ public class EventDeliveryServiceAdapter implements EventDeliveryService {
         return 0;
     }
 
+    @Override
+    public void setDispatchLoops(int loops) {
+
+    }
+
+    @Override
+    public int getDispatchLoops() {
+        return 1;
+    }
+
     @Override
     public void post(Event event) {
 
@@ -0,0 +1,488 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.common;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onlab.graph.EdgeWeight;
+import org.onlab.graph.TarjanGraphSearch;
+import org.onlab.graph.TarjanGraphSearch.SccResult;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyGraph;
+import org.onosproject.net.topology.TopologyVertex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.onosproject.net.Link.State.INACTIVE;
+import static org.onosproject.net.Link.Type.INDIRECT;
+
+/**
+ * Partition of a topology graph into strongly connected clusters.
+ * <p>
+ * Clusters are formed over active, direct links only, while the cluster edge
+ * sets hold all links between the cluster devices. Clusters are ordered by
+ * the device id of their root, i.e. the lexicographically smallest device id
+ * in the cluster, so that the same graph always yields the same partition
+ * irrespective of how it was computed.
+ * </p>
+ * <p>
+ * A partition can either be searched for from scratch or be derived from the
+ * partition of the previous graph and the devices and links that changed
+ * since, in which case only the clusters touched by the changes are searched
+ * again.
+ * </p>
+ */
+final class ClusterPartition {
+
+    private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN = new TarjanGraphSearch<>();
+    private static final EdgeWeight<TopologyVertex, TopologyEdge> NO_INDIRECT_LINKS =
+            edge -> isClusterEdge(edge) ? 1 : -1;
+
+    private static final Comparator<Cluster> BY_ROOT =
+            Comparator.comparing(cluster -> cluster.root.deviceId().toString());
+
+    private static final int NONE = -1;
+
+    private final List<Cluster> clusters;
+    private final Map<TopologyVertex, Integer> clusterIndexes;
+
+    private ClusterPartition(List<Cluster> clusters) {
+        clusters.sort(BY_ROOT);
+        this.clusters = Collections.unmodifiableList(clusters);
+        this.clusterIndexes = Maps.newHashMapWithExpectedSize(clusters.size());
+        for (int i = 0; i < clusters.size(); i++) {
+            for (TopologyVertex vertex : clusters.get(i).vertexes) {
+                clusterIndexes.put(vertex, i);
+            }
+        }
+    }
+
+    /**
+     * Searches the given graph for clusters from scratch.
+     *
+     * @param graph topology graph
+     * @return cluster partition
+     */
+    static ClusterPartition search(TopologyGraph graph) {
+        List<Cluster> clusters = new ArrayList<>();
+        addClusters(TARJAN.search(graph, NO_INDIRECT_LINKS), clusters);
+        return new ClusterPartition(clusters);
+    }
+
+    /**
+     * Derives the partition of a graph from the partition of its predecessor
+     * and the devices and links that changed in between. Only the clusters
+     * affected by the changes are searched again; all other clusters are
+     * carried over as they are. The new graph is searched from scratch
+     * instead if the changes do not account for all differences between the
+     * two graphs, or if the clusters they affect span more than half of the
+     * new graph.
+     *
+     * @param previous partition of the previous graph
+     * @param oldGraph previous graph
+     * @param newGraph new graph
+     * @param devices  devices which were added, removed or changed
+     * @param links    links which were added, removed or changed
+     * @return cluster partition of the new graph
+     */
+    static ClusterPartition update(ClusterPartition previous, TopologyGraph oldGraph, TopologyGraph newGraph,
+                                   Collection<DeviceId> devices, Collection<Link> links) {
+        int limit = newGraph.getVertexes().size() / 2;
+
+        // Devices that came or went bring or take all their links with them.
+        Set<TopologyVertex> removedVertexes = new HashSet<>();
+        Set<TopologyVertex> addedVertexes = new HashSet<>();
+        for (DeviceId deviceId : devices) {
+            TopologyVertex vertex = new DefaultTopologyVertex(deviceId);
+            boolean before = oldGraph.getVertexes().contains(vertex);
+            boolean after = newGraph.getVertexes().contains(vertex);
+            if (before && !after) {
+                removedVertexes.add(vertex);
+            } else if (after && !before) {
+                addedVertexes.add(vertex);
+            }
+        }
+
+        // A changed link counts as having been removed from the old graph
+        // and added to the new one, whichever of the two it is part of.
+        Set<TopologyEdge> removed = new HashSet<>();
+        Set<TopologyEdge> added = new HashSet<>();
+        for (Link link : links) {
+            removed.addAll(edges(oldGraph, link));
+            added.addAll(edges(newGraph, link));
+        }
+        for (TopologyVertex vertex : removedVertexes) {
+            removed.addAll(oldGraph.getEdgesFrom(vertex));
+            removed.addAll(oldGraph.getEdgesTo(vertex));
+        }
+        for (TopologyVertex vertex : addedVertexes) {
+            added.addAll(newGraph.getEdgesFrom(vertex));
+            added.addAll(newGraph.getEdgesTo(vertex));
+        }
+
+        // Whatever was not changed must be the same in both graphs.
+        if (!unchanged(oldGraph, newGraph, removedVertexes, addedVertexes, removed, added)) {
+            return search(newGraph);
+        }
+
+        Set<Integer> dirty = new HashSet<>();
+        Set<Integer> touched = new HashSet<>();
+        Set<TopologyVertex> dirtyNewVertexes = new HashSet<>();
+
+        // Clusters which lost a device need to be searched again.
+        removedVertexes.forEach(vertex -> dirty.add(previous.clusterIndex(vertex)));
+
+        // Removing a link between clusters never changes the clusters;
+        // removing one within a cluster may split it, which is checked
+        // once all changes are known.
+        List<TopologyEdge> splitCandidates = new ArrayList<>();
+        for (TopologyEdge edge : removed) {
+            int src = previous.clusterIndex(edge.src());
+            if (src == previous.clusterIndex(edge.dst())) {
+                touched.add(src);
+                if (isClusterEdge(edge)) {
+                    splitCandidates.add(edge);
+                }
+            }
+        }
+
+        // Adding a link within a cluster never changes the clusters; adding
+        // one between clusters may merge all clusters along the way back.
+        List<TopologyEdge> mergeCandidates = new ArrayList<>();
+        for (TopologyEdge edge : added) {
+            int src = previous.clusterIndex(edge.src());
+            if (src != NONE && src == previous.clusterIndex(edge.dst())) {
+                touched.add(src);
+            } else if (isClusterEdge(edge)) {
+                mergeCandidates.add(edge);
+            }
+        }
+
+        // Searching most of the graph again is cheaper done in one go.
+        if (previous.size(Sets.union(dirty, touched)) > limit) {
+            return search(newGraph);
+        }
+
+        // A cluster that lost a link stays whole as long as the link source
+        // can still reach the link destination within the cluster.
+        for (TopologyEdge edge : splitCandidates) {
+            int index = previous.clusterIndex(edge.src());
+            if (!dirty.contains(index)) {
+                Set<TopologyVertex> members = previous.clusters.get(index).vertexes;
+                if (!reach(newGraph, edge.src(), TopologyGraph::getEdgesFrom, TopologyEdge::dst,
+                           members::contains, limit).contains(edge.dst())) {
+                    dirty.add(index);
+                }
+            }
+        }
+
+        // A link between clusters closes a cycle if its destination can
+        // reach its source; everything on such cycles merges into one.
+        for (TopologyEdge edge : mergeCandidates) {
+            Set<TopologyVertex> forward = reach(newGraph, edge.dst(), TopologyGraph::getEdgesFrom, TopologyEdge::dst,
+                                                v -> true, limit);
+            if (forward == null) {
+                return search(newGraph);
+            }
+            if (!forward.contains(edge.src())) {
+                continue;
+            }
+            Set<TopologyVertex> backward = reach(newGraph, edge.src(), TopologyGraph::getEdgesTo, TopologyEdge::src,
+                                                 forward::contains, limit);
+            for (TopologyVertex vertex : backward) {
+                int index = previous.clusterIndex(vertex);
+                if (index == NONE) {
+                    dirtyNewVertexes.add(vertex);
+                } else {
+                    dirty.add(index);
+                }
+            }
+        }
+
+        List<Cluster> clusters = new ArrayList<>();
+
+        // Carry over the clusters that are still intact.
+        for (int i = 0; i < previous.clusters.size(); i++) {
+            if (dirty.contains(i)) {
+                continue;
+            }
+            Cluster cluster = previous.clusters.get(i);
+            if (touched.contains(i)) {
+                clusters.add(new Cluster(cluster.vertexes, changedEdges(cluster, removed, added),
+                                         cluster.root, NONE));
+            } else {
+                clusters.add(new Cluster(cluster.vertexes, cluster.edges, cluster.root, i));
+            }
+        }
+
+        // Devices that are new and did not join a cycle form their own cluster.
+        Set<TopologyVertex> region = new HashSet<>(dirtyNewVertexes);
+        for (TopologyVertex vertex : addedVertexes) {
+            if (!dirtyNewVertexes.contains(vertex)) {
+                Set<TopologyVertex> vertexes = ImmutableSet.of(vertex);
+                clusters.add(new Cluster(vertexes, clusterEdges(newGraph, vertexes), vertex, NONE));
+            }
+        }
+
+        // Search the dirty region again, from scratch.
+        for (int i : dirty) {
+            for (TopologyVertex vertex : previous.clusters.get(i).vertexes) {
+                if (!removedVertexes.contains(vertex)) {
+                    region.add(vertex);
+                }
+            }
+        }
+        if (!region.isEmpty()) {
+            Set<TopologyEdge> regionEdges = new HashSet<>();
+            region.forEach(vertex -> newGraph.getEdgesFrom(vertex).stream()
+                    .filter(edge -> region.contains(edge.dst()))
+                    .forEach(regionEdges::add));
+            addClusters(TARJAN.search(new DefaultTopologyGraph(region, regionEdges), NO_INDIRECT_LINKS), clusters);
+        }
+        return new ClusterPartition(clusters);
+    }
+
+    /**
+     * Returns the number of clusters.
+     *
+     * @return cluster count
+     */
+    int clusterCount() {
+        return clusters.size();
+    }
+
+    /**
+     * Returns the vertexes of the specified cluster.
+     *
+     * @param index cluster index
+     * @return cluster vertexes
+     */
+    Set<TopologyVertex> vertexes(int index) {
+        return clusters.get(index).vertexes;
+    }
+
+    /**
+     * Returns the edges between the vertexes of the specified cluster.
+     *
+     * @param index cluster index
+     * @return cluster edges
+     */
+    Set<TopologyEdge> edges(int index) {
+        return clusters.get(index).edges;
+    }
+
+    /**
+     * Returns the root vertex of the specified cluster.
+     *
+     * @param index cluster index
+     * @return cluster root
+     */
+    TopologyVertex root(int index) {
+        return clusters.get(index).root;
+    }
+
+    /**
+     * Returns the index the specified cluster had in the previous partition
+     * if the cluster, including all its edges, was carried over unchanged.
+     *
+     * @param index cluster index
+     * @return index in the previous partition or -1 if the cluster is new
+     * or changed
+     */
+    int origin(int index) {
+        return clusters.get(index).origin;
+    }
+
+    // Returns the index of the cluster containing the vertex or -1.
+    private int clusterIndex(TopologyVertex vertex) {
+        Integer index = clusterIndexes.get(vertex);
+        return index != null ? index : NONE;
+    }
+
+    // Indicates whether the edge may be used to form clusters.
+    private static boolean isClusterEdge(TopologyEdge edge) {
+        return edge.link().state() != INACTIVE && edge.link().type() != INDIRECT;
+    }
+
+    // Returns the number of vertexes in the specified clusters.
+    private int size(Set<Integer> indexes) {
+        int size = 0;
+        for (int index : indexes) {
+            size += clusters.get(index).vertexes.size();
+        }
+        return size;
+    }
+
+    // Returns the edges of the graph between the end-points of the link.
+    // Checks that every device and link not reported as changed is present,
+    // in the same state, in both graphs, i.e. that the reported changes
+    // account for all differences between the two graphs.
+    private static boolean unchanged(TopologyGraph oldGraph, TopologyGraph newGraph,
+                                     Set<TopologyVertex> removedVertexes, Set<TopologyVertex> addedVertexes,
+                                     Set<TopologyEdge> removed, Set<TopologyEdge> added) {
+        for (TopologyVertex vertex : oldGraph.getVertexes()) {
+            if (!removedVertexes.contains(vertex) && !newGraph.getVertexes().contains(vertex)) {
+                return false;
+            }
+        }
+        for (TopologyVertex vertex : newGraph.getVertexes()) {
+            if (!addedVertexes.contains(vertex) && !oldGraph.getVertexes().contains(vertex)) {
+                return false;
+            }
+        }
+
+        // Links are equal irrespective of their state, so look up the
+        // new edge to compare the states as well.
+        Map<TopologyEdge, TopologyEdge> newEdges = Maps.newHashMapWithExpectedSize(newGraph.getEdges().size());
+        for (TopologyEdge edge : newGraph.getEdges()) {
+            if (!added.contains(edge)) {
+                if (!oldGraph.getEdges().contains(edge)) {
+                    return false;
+                }
+                newEdges.put(edge, edge);
+            }
+        }
+        for (TopologyEdge edge : oldGraph.getEdges()) {
+            if (!removed.contains(edge)) {
+                TopologyEdge newEdge = newEdges.get(edge);
+                if (newEdge == null || newEdge.link().state() != edge.link().state()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Set<TopologyEdge> edges(TopologyGraph graph, Link link) {
+        Set<TopologyEdge> edges = new HashSet<>();
+        for (TopologyEdge edge : graph.getEdgesFrom(new DefaultTopologyVertex(link.src().deviceId()))) {
+            if (edge.link().src().equals(link.src()) && edge.link().dst().equals(link.dst())) {
+                edges.add(edge);
+            }
+        }
+        return edges;
+    }
+
+    // Collects all vertexes reachable from the start vertex over cluster
+    // edges, in the given direction, without leaving the allowed vertexes;
+    // gives up and returns null once more than the limit have been reached.
+    private static Set<TopologyVertex> reach(TopologyGraph graph, TopologyVertex start,
+                                             EdgeLookup edges,
+                                             Function<TopologyEdge, TopologyVertex> next,
+                                             Predicate<TopologyVertex> allowed, int limit) {
+        Set<TopologyVertex> seen = Sets.newHashSet(start);
+        Deque<TopologyVertex> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            for (TopologyEdge edge : edges.edges(graph, queue.poll())) {
+                TopologyVertex vertex = next.apply(edge);
+                if (isClusterEdge(edge) && allowed.test(vertex) && seen.add(vertex)) {
+                    if (seen.size() > limit) {
+                        return null;
+                    }
+                    queue.add(vertex);
+                }
+            }
+        }
+        return seen;
+    }
+
+    // Collects all edges of the graph between the given vertexes.
+    private static Set<TopologyEdge> clusterEdges(TopologyGraph graph, Set<TopologyVertex> vertexes) {
+        Set<TopologyEdge> edges = new HashSet<>();
+        for (TopologyVertex vertex : vertexes) {
+            for (TopologyEdge edge : graph.getEdgesFrom(vertex)) {
+                if (vertexes.contains(edge.dst())) {
+                    edges.add(edge);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(edges);
+    }
+
+    // Applies the removed and added edges between the cluster vertexes to
+    // the cluster edges.
+    private static Set<TopologyEdge> changedEdges(Cluster cluster, Set<TopologyEdge> removed,
+                                                  Set<TopologyEdge> added) {
+        Set<TopologyEdge> edges = new HashSet<>(cluster.edges);
+        removed.stream().filter(cluster::contains).forEach(edges::remove);
+        added.stream().filter(cluster::contains).forEach(edges::add);
+        return Collections.unmodifiableSet(edges);
+    }
+
+    // Adds the clusters found by the search to the list.
+    private static void addClusters(SccResult<TopologyVertex, TopologyEdge> result, List<Cluster> clusters) {
+        for (int i = 0, n = result.clusterCount(); i < n; i++) {
+            Set<TopologyVertex> vertexes = result.clusterVertexes().get(i);
+            clusters.add(new Cluster(vertexes, result.clusterEdges().get(i), findRoot(vertexes), NONE));
+        }
+    }
+
+    // Finds the vertex whose device id is the lexicographical minimum in the
+    // specified set.
+    private static TopologyVertex findRoot(Set<TopologyVertex> vertexSet) {
+        TopologyVertex minVertex = null;
+        for (TopologyVertex vertex : vertexSet) {
+            if ((minVertex == null) || (vertex.deviceId()
+                    .toString().compareTo(minVertex.deviceId().toString()) < 0)) {
+                minVertex = vertex;
+            }
+        }
+        return minVertex;
+    }
+
+    // Edge lookup in one direction of the graph.
+    @FunctionalInterface
+    private interface EdgeLookup {
+        Set<TopologyEdge> edges(TopologyGraph graph, TopologyVertex vertex);
+    }
+
+    // Vertexes, edges and root of a single cluster.
+    private static final class Cluster {
+        private final Set<TopologyVertex> vertexes;
+        private final Set<TopologyEdge> edges;
+        private final TopologyVertex root;
+        private final int origin;
+
+        private Cluster(Set<TopologyVertex> vertexes, Set<TopologyEdge> edges,
+                        TopologyVertex root, int origin) {
+            this.vertexes = vertexes;
+            this.edges = edges;
+            this.root = root;
+            this.origin = origin;
+        }
+
+        // Indicates whether the edge lies between vertexes of this cluster.
+        private boolean contains(TopologyEdge edge) {
+            return vertexes.contains(edge.src()) && vertexes.contains(edge.dst());
+        }
+    }
+}
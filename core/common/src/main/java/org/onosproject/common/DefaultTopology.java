@@ -15,21 +15,23 @@
  */
 package org.onosproject.common;
 
+import com.codahale.metrics.Counter;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
-import com.google.common.collect.ImmutableSetMultimap.Builder;
+import org.onlab.graph.CompactGraph;
 import org.onlab.graph.DijkstraGraphSearch;
 import org.onlab.graph.DisjointPathPair;
 import org.onlab.graph.GraphPathSearch;
 import org.onlab.graph.GraphPathSearch.Result;
 import org.onlab.graph.SrlgGraphSearch;
 import org.onlab.graph.SuurballeGraphSearch;
-import org.onlab.graph.TarjanGraphSearch;
-import org.onlab.graph.TarjanGraphSearch.SccResult;
+import org.onosproject.event.Event;
 import org.onosproject.net.AbstractModel;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultDisjointPath;
@@ -38,6 +40,8 @@ import org.onosproject.net.DeviceId;
 import org.onosproject.net.DisjointPath;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.topology.ClusterId;
 import org.onosproject.net.topology.DefaultTopologyCluster;
@@ -53,10 +57,15 @@ import org.onosproject.net.topology.TopologyVertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -64,8 +73,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
 import static org.onlab.util.Tools.isNullOrEmpty;
 import static org.onosproject.core.CoreService.CORE_PROVIDER_ID;
-import static org.onosproject.net.Link.State.INACTIVE;
-import static org.onosproject.net.Link.Type.INDIRECT;
 
 /**
  * Default implementation of the topology descriptor. This carries the backing
@@ -76,26 +83,41 @@ public class DefaultTopology extends AbstractModel implements Topology {
     private static final Logger log = LoggerFactory.getLogger(DefaultTopology.class);
 
     private static final DijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA = new DijkstraGraphSearch<>();
-    private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN = new TarjanGraphSearch<>();
     private static final SuurballeGraphSearch<TopologyVertex, TopologyEdge> SUURBALLE = new SuurballeGraphSearch<>();
 
     private static LinkWeight defaultLinkWeight = null;
     private static GraphPathSearch<TopologyVertex, TopologyEdge> defaultGraphPathSearch = null;
 
+    public static final int DEFAULT_PATH_CACHE_SIZE = 128;
+    private static int pathCacheSize = DEFAULT_PATH_CACHE_SIZE;
+    private static Counter pathCacheHits = new Counter();
+    private static Counter pathCacheMisses = new Counter();
+
+    // Orders equally good back-links, so that broadcast sets do not depend
+    // on the order in which the search visited the devices.
+    private static final Comparator<TopologyEdge> BACK_LINK_ORDER =
+            Comparator.comparing((TopologyEdge edge) -> edge.link().src().toString())
+                    .thenComparing(edge -> edge.link().dst().toString());
+
     private final long time;
     private final long creationTime;
     private final long computeCost;
     private final TopologyGraph graph;
+    private final Supplier<CompactGraph<TopologyVertex, TopologyEdge>> compactGraph;
 
     private final LinkWeight hopCountWeight;
 
-    private final Supplier<SccResult<TopologyVertex, TopologyEdge>> clusterResults;
+    private final Supplier<ClusterPartition> clusterResults;
     private final Supplier<ImmutableMap<ClusterId, TopologyCluster>> clusters;
     private final Supplier<ImmutableSet<ConnectPoint>> infrastructurePoints;
-    private final Supplier<ImmutableSetMultimap<ClusterId, ConnectPoint>> broadcastSets;
+    private final ConcurrentMap<ClusterId, ImmutableSet<ConnectPoint>> broadcastSets = new ConcurrentHashMap<>();
     private final Function<ConnectPoint, Boolean> broadcastFunction;
     private final Supplier<ClusterIndexes> clusterIndexes;
 
+    // Single-source shortest-path trees computed on demand; being bound to
+    // this topology instance, they go away when the topology is replaced.
+    private final Cache<PathTreeKey, ImmutableSetMultimap<DeviceId, Path>> pathTrees;
+
     /**
      * Sets the default link-weight to be used when computing paths. If null is
      * specified, the builtin default link-weight measuring hop-counts will be
@@ -119,6 +141,30 @@ public class DefaultTopology extends AbstractModel implements Topology {
         defaultGraphPathSearch = graphPathSearch;
     }
 
+    /**
+     * Sets the maximum number of single-source shortest-path trees retained
+     * by each subsequently created topology. If 0 is specified, paths will
+     * be searched for on every request.
+     *
+     * @param size maximum number of cached shortest-path trees
+     */
+    public static void setPathCacheSize(int size) {
+        checkArgument(size >= 0, "Path cache size must not be negative");
+        log.info("Setting new path cache size to {}", size);
+        pathCacheSize = size;
+    }
+
+    /**
+     * Sets the counters to be updated on shortest-path cache hits and misses.
+     *
+     * @param hits   counter of path requests served from cache
+     * @param misses counter of path requests that required a search
+     */
+    public static void setPathCacheMetrics(Counter hits, Counter misses) {
+        pathCacheHits = hits;
+        pathCacheMisses = misses;
+    }
+
 
     /**
      * Creates a topology descriptor attributed to the specified provider.
@@ -129,6 +175,28 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, null, null);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * deriving its clusters incrementally from the given previous topology
+     * and the device and link events that led from it to the new one. Only
+     * the clusters touched by those events are searched for again, and the
+     * broadcast sets already computed for untouched clusters are reused. The
+     * result is the same as if the topology was computed from scratch, which
+     * is what happens if no previous topology or no events are given.
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param previous          previous topology; null to compute from scratch
+     * @param reasons           events since the previous topology; null to
+     *                          compute from scratch
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           DefaultTopology previous, List<Event> reasons) {
         super(providerId);
         this.broadcastFunction = broadcastFunction;
         this.time = description.timestamp();
@@ -137,14 +205,28 @@ public class DefaultTopology extends AbstractModel implements Topology {
         // Build the graph
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                                               description.edges());
-
-        this.clusterResults = Suppliers.memoize(() -> searchForClusters());
+        this.compactGraph = Suppliers.memoize(() -> CompactGraph.copyOf(graph));
+
+        Set<DeviceId> changedDevices = new HashSet<>();
+        Set<Link> changedLinks = new HashSet<>();
+        if (previous != null && collectChanges(reasons, changedDevices, changedLinks)) {
+            // Derive eagerly so that no reference to the previous topology
+            // is held on to.
+            ClusterPartition partition =
+                    ClusterPartition.update(previous.clusterResults.get(), previous.graph, graph,
+                                            changedDevices, changedLinks);
+            reuseBroadcastSets(partition, previous);
+            this.clusterResults = Suppliers.ofInstance(partition);
+        } else {
+            this.clusterResults = Suppliers.memoize(() -> ClusterPartition.search(graph));
+        }
         this.clusters = Suppliers.memoize(() -> buildTopologyClusters());
 
         this.clusterIndexes = Suppliers.memoize(() -> buildIndexes());
 
         this.hopCountWeight = new HopCountLinkWeight(graph.getVertexes().size());
-        this.broadcastSets = Suppliers.memoize(() -> buildBroadcastSets());
+        this.pathTrees = pathCacheSize > 0 ?
+                CacheBuilder.newBuilder().maximumSize(pathCacheSize).build() : null;
         this.infrastructurePoints = Suppliers.memoize(() -> findInfrastructurePoints());
         this.computeCost = Math.max(0, System.nanoTime() - time);
     }
@@ -291,7 +373,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
         // If the broadcast set is null or empty, or if the point explicitly
         // belongs to it, return true.
-        Set<ConnectPoint> points = broadcastSets.get().get(cluster.id());
+        Set<ConnectPoint> points = broadcastSet(cluster.id());
         return isNullOrEmpty(points) || points.contains(connectPoint);
     }
 
@@ -302,7 +384,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
      * @return size of the cluster broadcast set
      */
     public int broadcastSetSize(ClusterId clusterId) {
-        return broadcastSets.get().get(clusterId).size();
+        return broadcastSet(clusterId).size();
     }
 
     /**
@@ -312,7 +394,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
      * @return set of cluster broadcast points
      */
     public Set<ConnectPoint> broadcastPoints(ClusterId clusterId) {
-        return broadcastSets.get().get(clusterId);
+        return broadcastSet(clusterId);
     }
 
     /**
@@ -330,6 +412,12 @@ public class DefaultTopology extends AbstractModel implements Topology {
     /**
      * Computes on-demand the set of shortest paths between source and
      * destination devices.
+     * <p>
+     * When the default Dijkstra search and the default link weight function
+     * are in use, the shortest paths from the source to all other devices are
+     * computed at once and retained for subsequent requests from the same
+     * source. Other link weight functions, typically created anew for each
+     * request, get a single source to destination search.
      *
      * @param src    source device
      * @param dst    destination device
@@ -345,8 +433,18 @@ public class DefaultTopology extends AbstractModel implements Topology {
             return ImmutableSet.of();
         }
 
-        GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
-                graphPathSearch().search(graph, srcV, dstV, weight, ALL_PATHS);
+        if (graphPathSearch() == DIJKSTRA) {
+            if (pathTrees != null && (weight == null || weight == linkWeight())) {
+                return pathTree(srcV, weight).get(dst);
+            }
+            return networkPaths(DIJKSTRA.search(compactGraph.get(), srcV, dstV, weight, ALL_PATHS));
+        }
+
+        return networkPaths(graphPathSearch().search(graph, srcV, dstV, weight, ALL_PATHS));
+    }
+
+    // Converts the paths found by the given search into network paths.
+    private Set<Path> networkPaths(GraphPathSearch.Result<TopologyVertex, TopologyEdge> result) {
         ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
         for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
             builder.add(networkPath(path));
@@ -354,6 +452,28 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return builder.build();
     }
 
+    // Returns the shortest paths from the given source to all reachable
+    // devices, indexed by their destination device.
+    private ImmutableSetMultimap<DeviceId, Path> pathTree(TopologyVertex srcV, LinkWeight weight) {
+        PathTreeKey key = new PathTreeKey(srcV, weight);
+        ImmutableSetMultimap<DeviceId, Path> tree = pathTrees.getIfPresent(key);
+        if (tree != null) {
+            pathCacheHits.inc();
+            return tree;
+        }
+
+        pathCacheMisses.inc();
+        GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
+                DIJKSTRA.search(compactGraph.get(), srcV, null, weight, ALL_PATHS);
+        ImmutableSetMultimap.Builder<DeviceId, Path> builder = ImmutableSetMultimap.builder();
+        for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
+            builder.put(path.dst().deviceId(), networkPath(path));
+        }
+        tree = builder.build();
+        pathTrees.put(key, tree);
+        return tree;
+    }
+
     /**
      * /**
      * Returns the set of pre-computed shortest disjoint path pairs between source and
@@ -483,85 +603,92 @@ public class DefaultTopology extends AbstractModel implements Topology {
                                        (DefaultPath) networkPath(path.secondary()));
     }
 
-    // Searches for SCC clusters in the network topology graph using Tarjan
-    // algorithm.
-    private SccResult<TopologyVertex, TopologyEdge> searchForClusters() {
-        return TARJAN.search(graph, new NoIndirectLinksWeight());
-    }
-
     // Builds the topology clusters and returns the id-cluster bindings.
     private ImmutableMap<ClusterId, TopologyCluster> buildTopologyClusters() {
         ImmutableMap.Builder<ClusterId, TopologyCluster> clusterBuilder = ImmutableMap.builder();
-        SccResult<TopologyVertex, TopologyEdge> results = clusterResults.get();
+        ClusterPartition results = clusterResults.get();
 
-        // Extract both vertexes and edges from the results; the lists form
-        // pairs along the same index.
-        List<Set<TopologyVertex>> clusterVertexes = results.clusterVertexes();
-        List<Set<TopologyEdge>> clusterEdges = results.clusterEdges();
-
-        // Scan over the lists and create a cluster from the results.
+        // Scan over the partition and create a cluster from each entry.
         for (int i = 0, n = results.clusterCount(); i < n; i++) {
-            Set<TopologyVertex> vertexSet = clusterVertexes.get(i);
-            Set<TopologyEdge> edgeSet = clusterEdges.get(i);
-
             ClusterId cid = ClusterId.clusterId(i);
             DefaultTopologyCluster cluster = new DefaultTopologyCluster(cid,
-                                                                        vertexSet.size(),
-                                                                        edgeSet.size(),
-                                                                        findRoot(vertexSet));
+                                                                        results.vertexes(i).size(),
+                                                                        results.edges(i).size(),
+                                                                        results.root(i));
             clusterBuilder.put(cid, cluster);
         }
         return clusterBuilder.build();
     }
 
-    // Finds the vertex whose device id is the lexicographical minimum in the
-    // specified set.
-    private TopologyVertex findRoot(Set<TopologyVertex> vertexSet) {
-        TopologyVertex minVertex = null;
-        for (TopologyVertex vertex : vertexSet) {
-            if ((minVertex == null) || (vertex.deviceId()
-                    .toString().compareTo(minVertex.deviceId().toString()) < 0)) {
-                minVertex = vertex;
+    // Collects the devices and links the events are about, and indicates
+    // whether those are all that changed.
+    private static boolean collectChanges(List<Event> reasons, Set<DeviceId> devices, Set<Link> links) {
+        if (isNullOrEmpty(reasons)) {
+            return false;
+        }
+        for (Event event : reasons) {
+            if (event instanceof DeviceEvent) {
+                devices.add(((DeviceEvent) event).subject().id());
+            } else if (event instanceof LinkEvent) {
+                links.add(((LinkEvent) event).subject());
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Carries over the broadcast sets the previous topology has computed for
+    // clusters that did not change.
+    private void reuseBroadcastSets(ClusterPartition partition, DefaultTopology previous) {
+        for (int i = 0, n = partition.clusterCount(); i < n; i++) {
+            int origin = partition.origin(i);
+            if (origin >= 0) {
+                ImmutableSet<ConnectPoint> points = previous.broadcastSets.get(ClusterId.clusterId(origin));
+                if (points != null) {
+                    broadcastSets.put(ClusterId.clusterId(i), points);
+                }
             }
         }
-        return minVertex;
     }
 
-    // Processes a map of broadcast sets for each cluster.
-    private ImmutableSetMultimap<ClusterId, ConnectPoint> buildBroadcastSets() {
-        Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap.builder();
-        for (TopologyCluster cluster : clusters.get().values()) {
-            addClusterBroadcastSet(cluster, builder);
+    // Returns the broadcast set of a cluster, computing it on first use.
+    private ImmutableSet<ConnectPoint> broadcastSet(ClusterId clusterId) {
+        TopologyCluster cluster = clusters.get().get(clusterId);
+        if (cluster == null) {
+            return ImmutableSet.of();
         }
-        return builder.build();
+        return broadcastSets.computeIfAbsent(clusterId, id -> buildClusterBroadcastSet(cluster));
     }
 
     // Finds all broadcast points for the cluster. These are those connection
     // points which lie along the shortest paths between the cluster root and
     // all other devices within the cluster.
-    private void addClusterBroadcastSet(TopologyCluster cluster, Builder<ClusterId, ConnectPoint> builder) {
-        // Use the graph root search results to build the broadcast set.
-        Result<TopologyVertex, TopologyEdge> result = DIJKSTRA.search(graph, cluster.root(), null, hopCountWeight, 1);
-        for (Map.Entry<TopologyVertex, Set<TopologyEdge>> entry : result.parents().entrySet()) {
-            TopologyVertex vertex = entry.getKey();
-
-            // Ignore any parents that lead outside the cluster.
-            if (clustersByDevice().get(vertex.deviceId()) != cluster) {
-                continue;
-            }
+    private ImmutableSet<ConnectPoint> buildClusterBroadcastSet(TopologyCluster cluster) {
+        ImmutableSet.Builder<ConnectPoint> builder = ImmutableSet.builder();
+
+        // Search the cluster alone, so that its broadcast set stays the same
+        // as long as the cluster does.
+        ClusterPartition partition = clusterResults.get();
+        int index = cluster.id().index();
+        TopologyGraph clusterGraph = new DefaultTopologyGraph(partition.vertexes(index), partition.edges(index));
 
+        // Use the cluster root search results to build the broadcast set.
+        Result<TopologyVertex, TopologyEdge> result =
+                DIJKSTRA.search(clusterGraph, cluster.root(), null, hopCountWeight, 1);
+        for (Set<TopologyEdge> parents : result.parents().values()) {
             // Ignore any back-link sets that are empty.
-            Set<TopologyEdge> parents = entry.getValue();
             if (parents.isEmpty()) {
                 continue;
             }
 
-            // Use the first back-link source and destinations to add to the
-            // broadcast set.
-            Link link = parents.iterator().next().link();
-            builder.put(cluster.id(), link.src());
-            builder.put(cluster.id(), link.dst());
+            // Use the first back-link, in a stable order, source and
+            // destinations to add to the broadcast set.
+            Link link = parents.stream().min(BACK_LINK_ORDER).get().link();
+            builder.add(link.src());
+            builder.add(link.dst());
         }
+        return builder.build();
     }
 
     // Collects and returns an set of all infrastructure link end-points.
@@ -589,13 +716,13 @@ public class DefaultTopology extends AbstractModel implements Topology {
             int i = cluster.id().index();
 
             // Scan through all the cluster vertexes.
-            for (TopologyVertex vertex : clusterResults.get().clusterVertexes().get(i)) {
+            for (TopologyVertex vertex : clusterResults.get().vertexes(i)) {
                 devicesBuilder.put(cluster, vertex.deviceId());
                 clusterBuilder.put(vertex.deviceId(), cluster);
             }
 
             // Scan through all the cluster edges.
-            for (TopologyEdge edge : clusterResults.get().clusterEdges().get(i)) {
+            for (TopologyEdge edge : clusterResults.get().edges(i)) {
                 linksBuilder.put(cluster, edge.link());
             }
         }
@@ -614,12 +741,33 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return defaultLinkWeight != null ? defaultLinkWeight : hopCountWeight;
     }
 
-    // Link weight for preventing traversal over indirect links.
-    private static class NoIndirectLinksWeight implements LinkWeight {
+    // Identifies a shortest-path tree by its source and link weight function;
+    // only the default weight functions are used, so identity is enough.
+    private static final class PathTreeKey {
+        private final TopologyVertex src;
+        private final LinkWeight weight;
+
+        private PathTreeKey(TopologyVertex src, LinkWeight weight) {
+            this.src = src;
+            this.weight = weight;
+        }
+
         @Override
-        public double weight(TopologyEdge edge) {
-            return (edge.link().state() == INACTIVE)
-                    || (edge.link().type() == INDIRECT) ? -1 : 1;
+        public int hashCode() {
+            return Objects.hash(src, weight);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof PathTreeKey) {
+                PathTreeKey that = (PathTreeKey) obj;
+                return Objects.equals(src, that.src) &&
+                        Objects.equals(weight, that.weight);
+            }
+            return false;
         }
     }
 
@@ -15,6 +15,7 @@
  */
 package org.onosproject.common;
 
+import com.codahale.metrics.Counter;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.packet.ChassisId;
@@ -38,6 +39,7 @@ import org.onosproject.net.topology.TopologyVertex;
 import java.util.Set;
 
 import static com.google.common.collect.ImmutableSet.of;
+import static java.util.stream.Collectors.toSet;
 import static org.junit.Assert.*;
 import static org.onosproject.net.DeviceId.deviceId;
 import static org.onosproject.net.PortNumber.portNumber;
@@ -109,6 +111,41 @@ public class DefaultTopologyTest {
         assertEquals("incorrect path count", 1, paths.size());
     }
 
+    @Test
+    public void cachedPaths() {
+        Counter hits = new Counter();
+        Counter misses = new Counter();
+        DefaultTopology.setPathCacheMetrics(hits, misses);
+        try {
+            assertEquals("incorrect path count", 2, dt.getPaths(D1, D3).size());
+            assertEquals("incorrect path count", 1, dt.getPaths(D1, D2).size());
+            assertEquals("incorrect path count", 1, dt.getPaths(D1, D3, WEIGHT).size());
+            assertEquals("incorrect path count", 1, dt.getPaths(D3, D1, WEIGHT).size());
+            assertEquals("incorrect path count", 1, dt.getPaths(D1, D3, WEIGHT).size());
+            assertEquals("incorrect path count", 2, dt.getPaths(D1, D3, null).size());
+            // Paths for other link weight functions are searched, not cached
+            assertEquals("incorrect cache hits", 1, hits.getCount());
+            assertEquals("incorrect cache misses", 2, misses.getCount());
+
+            DefaultTopology.setPathCacheSize(0);
+            DefaultTopology uncached = new DefaultTopology(PID, new DefaultGraphDescription(
+                    0L, 0L, dt.getGraph().getVertexes().stream()
+                    .map(v -> device(v.deviceId().toString().substring(3))).collect(toSet()),
+                    dt.getGraph().getEdges().stream().map(e -> e.link()).collect(toSet())));
+            for (TopologyVertex src : dt.getGraph().getVertexes()) {
+                for (TopologyVertex dst : dt.getGraph().getVertexes()) {
+                    assertEquals("incorrect paths",
+                                 uncached.getPaths(src.deviceId(), dst.deviceId()),
+                                 dt.getPaths(src.deviceId(), dst.deviceId()));
+                }
+            }
+            assertEquals("incorrect cache misses", 2 + 4, misses.getCount());
+        } finally {
+            DefaultTopology.setPathCacheSize(DefaultTopology.DEFAULT_PATH_CACHE_SIZE);
+            DefaultTopology.setPathCacheMetrics(new Counter(), new Counter());
+        }
+    }
+
     @Test
     public void pointRelated() {
         assertTrue("should be infrastructure point",
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.common;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+import org.onosproject.event.Event;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.link.LinkEvent;
+import org.onosproject.net.topology.ClusterId;
+import org.onosproject.net.topology.DefaultGraphDescription;
+import org.onosproject.net.topology.TopologyCluster;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.onosproject.common.DefaultTopologyTest.PID;
+import static org.onosproject.common.DefaultTopologyTest.device;
+import static org.onosproject.common.DefaultTopologyTest.did;
+import static org.onosproject.net.PortNumber.portNumber;
+import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_ADDED;
+import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_REMOVED;
+import static org.onosproject.net.link.LinkEvent.Type.LINK_ADDED;
+import static org.onosproject.net.link.LinkEvent.Type.LINK_REMOVED;
+import static org.onosproject.net.link.LinkEvent.Type.LINK_UPDATED;
+
+/**
+ * Verifies that incrementally derived topologies are the same as topologies
+ * computed from scratch.
+ */
+public class IncrementalTopologyTest {
+
+    private static final int DEVICES = 40;
+    private static final int ROUNDS = 300;
+
+    private final Random random = new Random(4242);
+
+    private final Map<String, Device> devices = Maps.newHashMap();
+    private final Map<String, Link> links = Maps.newHashMap();
+    private final List<Event> reasons = Lists.newArrayList();
+
+    @Test
+    public void randomChanges() {
+        for (int i = 0; i < DEVICES; i++) {
+            addDevice();
+        }
+        for (int i = 0; i < DEVICES * 2; i++) {
+            addLink();
+        }
+
+        DefaultTopology previous = new DefaultTopology(PID, description());
+        for (int round = 0; round < ROUNDS; round++) {
+            // Compute some, but not all, broadcast sets so that both reuse
+            // and on-demand computation get exercised.
+            for (TopologyCluster cluster : previous.getClusters()) {
+                if (random.nextBoolean()) {
+                    previous.broadcastPoints(cluster.id());
+                }
+            }
+
+            reasons.clear();
+            int changes = 1 + random.nextInt(4);
+            for (int i = 0; i < changes; i++) {
+                mutate();
+            }
+
+            DefaultGraphDescription description = description();
+            DefaultTopology incremental = new DefaultTopology(PID, description, null, previous, reasons);
+            DefaultTopology full = new DefaultTopology(PID, description);
+            assertSameTopology("round " + round, full, incremental);
+            previous = incremental;
+        }
+    }
+
+    @Test
+    public void unreportedChanges() {
+        for (int i = 0; i < DEVICES; i++) {
+            addDevice();
+        }
+        for (int i = 0; i < DEVICES * 2; i++) {
+            addLink();
+        }
+        DefaultTopology previous = new DefaultTopology(PID, description());
+
+        // Changes the events do not account for must not go unnoticed.
+        reasons.clear();
+        addLink();
+        Event reason = reasons.get(0);
+        links.remove(pick(Lists.newArrayList(links.keySet())));
+        addDevice();
+
+        DefaultGraphDescription description = description();
+        DefaultTopology incremental = new DefaultTopology(PID, description, null, previous,
+                                                          ImmutableList.of(reason));
+        assertSameTopology("unreported", new DefaultTopology(PID, description), incremental);
+    }
+
+    @Test
+    public void unreportedChangesWithSameCounts() {
+        // Two clusters of two devices each.
+        for (String id : new String[]{"1", "2", "3", "4"}) {
+            devices.put(id, device(id));
+        }
+        putLink("1", "2", Link.State.ACTIVE);
+        putLink("2", "1", Link.State.ACTIVE);
+        putLink("3", "4", Link.State.ACTIVE);
+        putLink("4", "3", Link.State.ACTIVE);
+        DefaultTopology previous = new DefaultTopology(PID, description());
+
+        // A link removal and a link addition which leave the link count as
+        // it was, neither of them reported.
+        reasons.clear();
+        addDevice("5");
+        links.remove("2-1");
+        putLink("1", "3", Link.State.ACTIVE);
+
+        DefaultGraphDescription description = description();
+        DefaultTopology incremental = new DefaultTopology(PID, description, null, previous,
+                                                          ImmutableList.copyOf(reasons));
+        assertSameTopology("unreported link swap", new DefaultTopology(PID, description), incremental);
+
+        // A link that went inactive without being reported.
+        previous = incremental;
+        reasons.clear();
+        addDevice("6");
+        putLink("4", "3", Link.State.INACTIVE);
+
+        description = description();
+        incremental = new DefaultTopology(PID, description, null, previous, ImmutableList.copyOf(reasons));
+        assertSameTopology("unreported link state", new DefaultTopology(PID, description), incremental);
+    }
+
+    private void assertSameTopology(String msg, DefaultTopology expected, DefaultTopology actual) {
+        assertEquals(msg, expected.getClusters(), actual.getClusters());
+        for (TopologyCluster cluster : expected.getClusters()) {
+            ClusterId id = cluster.id();
+            assertEquals(msg, cluster, actual.getCluster(id));
+            assertEquals(msg, expected.getClusterDevices(cluster), actual.getClusterDevices(cluster));
+            assertEquals(msg, expected.getClusterLinks(cluster), actual.getClusterLinks(cluster));
+            assertEquals(msg, expected.broadcastPoints(id), actual.broadcastPoints(id));
+        }
+        for (Device device : devices.values()) {
+            assertEquals(msg, expected.getCluster(device.id()), actual.getCluster(device.id()));
+        }
+    }
+
+    private void mutate() {
+        switch (random.nextInt(6)) {
+            case 0:
+                addDevice();
+                break;
+            case 1:
+                if (!devices.isEmpty()) {
+                    removeDevice(pick(Lists.newArrayList(devices.keySet())));
+                }
+                break;
+            case 2:
+            case 3:
+                addLink();
+                break;
+            case 4:
+                if (!links.isEmpty()) {
+                    Link link = links.remove(pick(Lists.newArrayList(links.keySet())));
+                    reasons.add(new LinkEvent(LINK_REMOVED, link));
+                }
+                break;
+            default:
+                if (!links.isEmpty()) {
+                    String key = pick(Lists.newArrayList(links.keySet()));
+                    Link link = links.get(key);
+                    link = link(link.src(), link.dst(), link.type(),
+                                link.state() == Link.State.ACTIVE ? Link.State.INACTIVE : Link.State.ACTIVE);
+                    links.put(key, link);
+                    reasons.add(new LinkEvent(LINK_UPDATED, link));
+                }
+                break;
+        }
+    }
+
+    private void addDevice() {
+        String id = Integer.toString(random.nextInt(DEVICES * 2));
+        if (!devices.containsKey(id)) {
+            devices.put(id, device(id));
+            reasons.add(new DeviceEvent(DEVICE_ADDED, devices.get(id)));
+        }
+    }
+
+    private void addDevice(String id) {
+        devices.put(id, device(id));
+        reasons.add(new DeviceEvent(DEVICE_ADDED, devices.get(id)));
+    }
+
+    // Adds or replaces a link without reporting it
+    private void putLink(String src, String dst, Link.State state) {
+        links.put(src + "-" + dst, link(new ConnectPoint(did(src), portNumber(1)),
+                                        new ConnectPoint(did(dst), portNumber(2)), Link.Type.DIRECT, state));
+    }
+
+    private void removeDevice(String id) {
+        DeviceId deviceId = did(id);
+        reasons.add(new DeviceEvent(DEVICE_REMOVED, devices.remove(id)));
+        // Links go with the device, without events of their own.
+        links.values().removeIf(l -> l.src().deviceId().equals(deviceId) ||
+                l.dst().deviceId().equals(deviceId));
+    }
+
+    private void addLink() {
+        List<String> ids = Lists.newArrayList(devices.keySet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        String src = pick(ids);
+        String dst = pick(ids);
+        int port = 1 + random.nextInt(4);
+        Link.Type type = random.nextInt(8) == 0 ? Link.Type.INDIRECT : Link.Type.DIRECT;
+        Link.State state = random.nextInt(8) == 0 ? Link.State.INACTIVE : Link.State.ACTIVE;
+        Link link = link(new ConnectPoint(did(src), portNumber(port)),
+                         new ConnectPoint(did(dst), portNumber(port)), type, state);
+        links.put(src + "/" + port + "-" + dst + "/" + port, link);
+        reasons.add(new LinkEvent(LINK_ADDED, link));
+    }
+
+    private <T> T pick(List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+
+    private DefaultGraphDescription description() {
+        return new DefaultGraphDescription(System.nanoTime(), System.currentTimeMillis(),
+                                           devices.values(), links.values());
+    }
+
+    private static Link link(ConnectPoint src, ConnectPoint dst, Link.Type type, Link.State state) {
+        return DefaultLink.builder().providerId(PID)
+                .src(src).dst(dst).type(type).state(state)
+                .build();
+    }
+}
@@ -94,6 +94,12 @@ public class CoreManager implements CoreService {
             label = "Maximum number of millis an event sink has to process an event")
     private int maxEventTimeLimit = DEFAULT_EVENT_TIME;
 
+    private static final int DEFAULT_EVENT_DISPATCH_LOOPS = 1;
+    @Property(name = "eventDispatchLoops", intValue = DEFAULT_EVENT_DISPATCH_LOOPS,
+            label = "Number of loops used to dispatch events; events of the same class are always " +
+                    "dispatched by the same loop")
+    private int eventDispatchLoops = DEFAULT_EVENT_DISPATCH_LOOPS;
+
     private static final boolean DEFAULT_PERFORMANCE_CHECK = false;
     @Property(name = "sharedThreadPerformanceCheck", boolValue = DEFAULT_PERFORMANCE_CHECK,
             label = "Enable queue performance check on shared pool")
@@ -190,13 +196,22 @@ public class CoreManager implements CoreService {
             log.warn("maxEventTimeLimit must be greater than or equal to 0");
         }
 
+        Integer dispatchLoops = Tools.getIntegerProperty(properties, "eventDispatchLoops");
+        if (dispatchLoops != null && dispatchLoops > 0) {
+            eventDispatchLoops = dispatchLoops;
+            eventDeliveryService.setDispatchLoops(eventDispatchLoops);
+        } else if (dispatchLoops != null) {
+            log.warn("eventDispatchLoops must be greater than 0");
+        }
+
         Boolean performanceCheck = Tools.isPropertyEnabled(properties, "sharedThreadPerformanceCheck");
         if (performanceCheck != null) {
             calculatePoolPerformance = performanceCheck;
             SharedExecutors.setCalculatePoolPerformance(calculatePoolPerformance, metricsService);
         }
 
-        log.info("Settings: sharedThreadPoolSize={}, maxEventTimeLimit={}, calculatePoolPerformance={}",
-                 sharedThreadPoolSize, maxEventTimeLimit, calculatePoolPerformance);
+        log.info("Settings: sharedThreadPoolSize={}, maxEventTimeLimit={}, eventDispatchLoops={}, " +
+                         "calculatePoolPerformance={}",
+                 sharedThreadPoolSize, maxEventTimeLimit, eventDispatchLoops, calculatePoolPerformance);
     }
 }
@@ -18,7 +18,12 @@ package org.onosproject.event.impl;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedExecutors;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.DefaultEventSinkRegistry;
@@ -27,17 +32,27 @@ import org.onosproject.event.EventDeliveryService;
 import org.onosproject.event.EventSink;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimerTask;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.EVENT_READ;
@@ -45,6 +60,12 @@ import static org.onosproject.security.AppPermission.Type.EVENT_WRITE;
 import static org.slf4j.LoggerFactory.getLogger;
 /**
  * Simple implementation of an event dispatching service.
+ * <p>
+ * Events are partitioned across a configurable number of dispatch loops by
+ * event class. All events of a class are delivered by the same loop, so their
+ * relative order is preserved and their sink is never invoked concurrently,
+ * while events of different classes are delivered in parallel.
+ * </p>
  */
 @Component(immediate = true)
 @Service
@@ -58,36 +79,70 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     // Default number of millis a sink can take to process an event.
     private static final long DEFAULT_EXECUTE_MS = 5_000; // ms
     private static final long WATCHDOG_MS = 250; // ms
+    private static final int DEFAULT_DISPATCH_LOOPS = 1;
+    // Number of millis new dispatch loops wait for the ones they replace.
+    private static final long DRAIN_TIMEOUT_MS = 30_000; // ms
 
-    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    private static final String METRICS_COMPONENT = "EventDispatcher";
+    private static final String QUEUE_DEPTH = "queueDepth";
+    private static final String PROCESS_TIME = "processTime";
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
 
     private final ExecutorService executor =
-            newSingleThreadExecutor(groupedThreads("onos/event", "dispatch-%d", log));
+            newCachedThreadPool(groupedThreads("onos/event", "dispatch-%d", log));
 
     @SuppressWarnings("unchecked")
     private static final Event KILL_PILL = new AbstractEvent(null, 0) {
     };
 
-    private DispatchLoop dispatchLoop;
+    private volatile DispatchLane[] lanes = new DispatchLane[0];
+    // Lanes replaced by a change of the loop count that are still draining
+    private final Set<DispatchLane> retiredLanes = Sets.newConcurrentHashSet();
     private long maxProcessMillis = DEFAULT_EXECUTE_MS;
 
+    // Per event class metrics
+    private final Map<Class<?>, SinkMetrics> sinkMetrics = Maps.newConcurrentMap();
+
     // Means to detect long-running sinks
     private TimerTask watchdog;
-    private EventSink lastSink;
-    private final Stopwatch stopwatch = Stopwatch.createUnstarted();
-    private Future<?> dispatchFuture;
 
     @Override
     public void post(Event event) {
-        if (!events.add(event)) {
+        DispatchLane[] current = lanes;
+        if (current.length == 0) {
             log.error("Unable to post event {}", event);
+            return;
+        }
+        DispatchLane lane = current[laneIndex(event, current.length)];
+        if (!lane.events.add(event)) {
+            log.error("Unable to post event {}", event);
+            return;
+        }
+        SinkMetrics metrics = sinkMetrics(event.getClass());
+        if (metrics != null) {
+            metrics.queueDepth.inc();
+        }
+        // The lane may have been retired and drained in the meantime
+        if (lane.drained) {
+            lane.forwardStragglers();
+        }
+    }
+
+    // Picks the lane for the event based on the name of its class only, so
+    // that the assignment is the same on every run; sinks expect to process
+    // the events of their class one at a time
+    private static int laneIndex(Event event, int laneCount) {
+        if (laneCount == 1) {
+            return 0;
         }
+        return Math.floorMod(event.getClass().getName().hashCode(), laneCount);
     }
 
     @Activate
     public void activate() {
-        dispatchLoop = new DispatchLoop();
-        dispatchFuture = executor.submit(dispatchLoop);
+        lanes = createLanes(DEFAULT_DISPATCH_LOOPS, null);
 
         if (maxProcessMillis != 0) {
             startWatchdog();
@@ -98,12 +153,24 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     @Deactivate
     public void deactivate() {
-        dispatchLoop.stop();
         stopWatchdog();
-        post(KILL_PILL);
+        for (DispatchLane lane : lanes) {
+            lane.stop();
+        }
+        retiredLanes.forEach(DispatchLane::stop);
+        retiredLanes.clear();
         log.info("Stopped");
     }
 
+    private DispatchLane[] createLanes(int count, CountDownLatch predecessors) {
+        DispatchLane[] newLanes = new DispatchLane[count];
+        for (int i = 0; i < count; i++) {
+            newLanes[i] = new DispatchLane(i, predecessors);
+            newLanes[i].start();
+        }
+        return newLanes;
+    }
+
     private void startWatchdog() {
         log.info("Starting watchdog task");
         watchdog = new Watchdog();
@@ -138,46 +205,207 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         return maxProcessMillis;
     }
 
-    // Auxiliary event dispatching loop that feeds off the events queue.
+    @Override
+    public synchronized void setDispatchLoops(int loops) {
+        checkPermission(EVENT_WRITE);
+        checkArgument(loops > 0, "Number of dispatch loops must be positive");
+        if (loops == lanes.length) {
+            return;
+        }
+        repartition(loops);
+    }
+
+    @Override
+    public int getDispatchLoops() {
+        checkPermission(EVENT_READ);
+        return lanes.length;
+    }
+
+    // Replaces the current lanes with the given number of new ones. The new
+    // lanes hold off dispatching until the old ones have drained their queues
+    // so that events are still delivered in the order they were posted. The
+    // old lanes remain under the watchdog until they have drained.
+    private void repartition(int count) {
+        DispatchLane[] oldLanes = lanes;
+        CountDownLatch drained = new CountDownLatch(oldLanes.length);
+        retiredLanes.addAll(Arrays.asList(oldLanes));
+        lanes = createLanes(count, drained);
+        for (DispatchLane lane : oldLanes) {
+            lane.retire(drained);
+        }
+        log.info("Dispatching events using {} loops", count);
+    }
+
+    private SinkMetrics sinkMetrics(Class<?> eventClass) {
+        if (metricsService == null) {
+            return null;
+        }
+        return sinkMetrics.computeIfAbsent(eventClass, SinkMetrics::new);
+    }
+
+    // Queue depth and processing latency of a single event sink
+    private final class SinkMetrics {
+        private final Counter queueDepth;
+        private final Timer processTime;
+
+        private SinkMetrics(Class<?> eventClass) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(eventClass.getSimpleName());
+            queueDepth = metricsService.createCounter(component, feature, QUEUE_DEPTH);
+            processTime = metricsService.createTimer(component, feature, PROCESS_TIME);
+        }
+    }
+
+    // Event queue along with the dispatch loop currently draining it.
+    private final class DispatchLane {
+        private final int index;
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch predecessors;
+        private volatile CountDownLatch successors;
+        private volatile boolean drained;
+        private volatile DispatchLoop loop;
+        private Future<?> dispatchFuture;
+
+        private DispatchLane(int index, CountDownLatch predecessors) {
+            this.index = index;
+            this.predecessors = predecessors;
+        }
+
+        private synchronized void start() {
+            loop = new DispatchLoop(this);
+            dispatchFuture = executor.submit(loop);
+        }
+
+        // Cancels the current dispatch loop and spawns a new one on the same queue.
+        private synchronized void restart() {
+            loop.stop();
+            dispatchFuture.cancel(true);
+            start();
+        }
+
+        // Lets the lane drain its queue and then signals the replacement lanes.
+        private void retire(CountDownLatch drained) {
+            successors = drained;
+            events.add(KILL_PILL);
+        }
+
+        // Hands over events that raced with retirement and releases the replacement lanes.
+        private void drained() {
+            CountDownLatch latch = successors;
+            if (latch != null) {
+                // from here on posters forward their own late events
+                drained = true;
+                forwardStragglers();
+                retiredLanes.remove(this);
+                latch.countDown();
+            }
+        }
+
+        // Moves whatever is left in the queue of this retired lane to the current lanes.
+        private void forwardStragglers() {
+            List<Event> stragglers = Lists.newArrayList();
+            events.drainTo(stragglers);
+            DispatchLane[] current = lanes;
+            stragglers.stream()
+                    .filter(event -> event != KILL_PILL)
+                    .forEach(event -> current[laneIndex(event, current.length)].events.add(event));
+        }
+
+        private void stop() {
+            loop.stop();
+            events.add(KILL_PILL);
+        }
+    }
+
+    // Auxiliary event dispatching loop that feeds off a lane's events queue.
     private class DispatchLoop implements Runnable {
+        private final DispatchLane lane;
+        private final Stopwatch stopwatch = Stopwatch.createUnstarted();
+        private volatile EventSink lastSink;
         private volatile boolean stopped;
 
+        DispatchLoop(DispatchLane lane) {
+            this.lane = lane;
+        }
+
         @Override
         public void run() {
             stopped = false;
-            log.info("Dispatch loop initiated");
+            log.info("Dispatch loop {} initiated", lane.index);
+            if (!awaitPredecessors()) {
+                return;
+            }
             while (!stopped) {
                 try {
                     // Fetch the next event and if it is the kill-pill, bail
-                    Event event = events.take();
+                    Event event = lane.events.take();
                     if (event == KILL_PILL) {
+                        lane.drained();
                         break;
                     }
                     process(event);
                 } catch (InterruptedException e) {
-                    log.warn("Dispatch loop interrupted");
+                    log.warn("Dispatch loop {} interrupted", lane.index);
                 } catch (Exception | Error e) {
                     log.warn("Error encountered while dispatching event:", e);
                 }
             }
-            log.info("Dispatch loop terminated");
+            log.info("Dispatch loop {} terminated", lane.index);
+        }
+
+        // Waits for the lanes this one replaces to finish their queued events;
+        // gives up after a while so that a stuck sink cannot stall all dispatch
+        private boolean awaitPredecessors() {
+            if (lane.predecessors == null) {
+                return true;
+            }
+            try {
+                if (!lane.predecessors.await(DRAIN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    log.warn("Dispatch loop {} timed out waiting for {} replaced loops to drain; " +
+                                     "events may be delivered out of order",
+                             lane.index, lane.predecessors.getCount());
+                }
+                return true;
+            } catch (InterruptedException e) {
+                log.warn("Dispatch loop {} interrupted", lane.index);
+                Thread.currentThread().interrupt();
+                return false;
+            }
         }
 
         // Locate the sink for the event class and use it to process the event
         @SuppressWarnings("unchecked")
         private void process(Event event) {
+            SinkMetrics metrics = sinkMetrics(event.getClass());
             EventSink sink = getSink(event.getClass());
-            if (sink != null) {
-                lastSink = sink;
-                stopwatch.start();
-                sink.process(event);
-                stopwatch.reset();
-            } else {
-                log.warn("No sink registered for event class {}",
-                         event.getClass().getName());
+            try {
+                if (sink != null) {
+                    lastSink = sink;
+                    stopwatch.start();
+                    sink.process(event);
+                } else {
+                    log.warn("No sink registered for event class {}",
+                             event.getClass().getName());
+                }
+            } finally {
+                if (stopwatch.isRunning()) {
+                    long elapsed = stopwatch.elapsed(TimeUnit.NANOSECONDS);
+                    stopwatch.reset();
+                    if (metrics != null) {
+                        metrics.processTime.update(elapsed, TimeUnit.NANOSECONDS);
+                    }
+                }
+                if (metrics != null) {
+                    metrics.queueDepth.dec();
+                }
             }
         }
 
+        // Returns the number of millis the current sink has been processing for
+        long elapsedMillis() {
+            return stopwatch.isRunning() ? stopwatch.elapsed(TimeUnit.MILLISECONDS) : 0;
+        }
+
         void stop() {
             stopped = true;
         }
@@ -187,20 +415,28 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     private class Watchdog extends TimerTask {
         @Override
         public void run() {
-            long elapsedTimeMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+            for (DispatchLane lane : lanes) {
+                check(lane);
+            }
+            for (DispatchLane lane : retiredLanes) {
+                check(lane);
+            }
+        }
+
+        private void check(DispatchLane lane) {
+            DispatchLoop loop = lane.loop;
+            long elapsedTimeMillis = loop.elapsedMillis();
             if (elapsedTimeMillis > maxProcessMillis) {
-                stopwatch.reset();
-                log.warn("Event sink {} exceeded execution time limit: {} ms; spawning new dispatch loop",
-                          lastSink.getClass().getName(), elapsedTimeMillis);
+                EventSink sink = loop.lastSink;
+                log.warn("Event sink {} exceeded execution time limit: {} ms; " +
+                                 "spawning new dispatch loop {}",
+                         sink.getClass().getName(), elapsedTimeMillis, lane.index);
 
                 // Notify the sink that it has exceeded its time limit.
-                lastSink.onProcessLimit();
+                sink.onProcessLimit();
 
                 // Cancel the old dispatch loop and submit a new one.
-                dispatchLoop.stop();
-                dispatchLoop = new DispatchLoop();
-                dispatchFuture.cancel(true);
-                dispatchFuture = executor.submit(dispatchLoop);
+                lane.restart();
             }
         }
     }
@@ -111,6 +111,12 @@ public class FlowRuleManager
             label = "Purge entries associated with a device when the device goes offline")
     private boolean purgeOnDisconnection = false;
 
+    private static final boolean INCREMENTAL_RECONCILIATION = true;
+    @Property(name = "incrementalReconciliation", boolValue = INCREMENTAL_RECONCILIATION,
+            label = "Only compare the flow rules on a device with those in the store when " +
+                    "their count or cookies differ; otherwise just update the flow statistics")
+    private boolean incrementalReconciliation = INCREMENTAL_RECONCILIATION;
+
     private static final int DEFAULT_POLL_FREQUENCY = 30;
     @Property(name = "fallbackFlowPollFrequency", intValue = DEFAULT_POLL_FREQUENCY,
             label = "Frequency (in seconds) for polling flow statistics via fallback provider")
@@ -212,6 +218,16 @@ public class FlowRuleManager
                     purgeOnDisconnection ? "enabled" : "disabled");
         }
 
+        flag = Tools.isPropertyEnabled(properties, "incrementalReconciliation");
+        if (flag == null) {
+            log.info("IncrementalReconciliation is not configured, " +
+                    "using current value of {}", incrementalReconciliation);
+        } else {
+            incrementalReconciliation = flag;
+            log.info("Configured. IncrementalReconciliation is {}",
+                    incrementalReconciliation ? "enabled" : "disabled");
+        }
+
         String s = get(properties, "fallbackFlowPollFrequency");
         try {
             fallbackFlowPollFrequency = isNullOrEmpty(s) ? DEFAULT_POLL_FREQUENCY : Integer.parseInt(s);
@@ -389,10 +405,14 @@ public class FlowRuleManager
         }
 
         private void flowAdded(FlowEntry flowEntry) {
+            flowAdded(flowEntry, store.getFlowEntry(flowEntry));
+        }
+
+        private void flowAdded(FlowEntry flowEntry, FlowEntry storedRule) {
             checkNotNull(flowEntry, FLOW_RULE_NULL);
             checkValidity();
 
-            if (checkRuleLiveness(flowEntry, store.getFlowEntry(flowEntry))) {
+            if (checkRuleLiveness(flowEntry, storedRule)) {
                 FlowRuleEvent event = store.addOrUpdateFlowRule(flowEntry);
                 if (event == null) {
                     log.debug("No flow store event generated.");
@@ -444,6 +464,10 @@ public class FlowRuleManager
 
         private void pushFlowMetricsInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
                                              boolean useMissingFlow) {
+            if (incrementalReconciliation && updateFlowMetrics(deviceId, flowEntries)) {
+                return;
+            }
+
             Map<FlowEntry, FlowEntry> storedRules = Maps.newHashMap();
             store.getFlowEntries(deviceId).forEach(f -> storedRules.put(f, f));
 
@@ -453,7 +477,7 @@ public class FlowRuleManager
                     if (storedRule != null) {
                         if (storedRule.exactMatch(rule)) {
                             // we both have the rule, let's update some info then.
-                            flowAdded(rule);
+                            flowAdded(rule, storedRule);
                         } else {
                             // the two rules are not an exact match - remove the
                             // switch's rule and install our rule
@@ -485,6 +509,53 @@ public class FlowRuleManager
             }
         }
 
+        /**
+         * Updates the statistics of the stored flow entries from the given
+         * device entries, provided that the device has exactly the rules in
+         * the store. Whether it may have is first judged by comparing the
+         * number of rules and a hash of their cookies with those the store
+         * maintains, so that the stored entries need not be read at all.
+         *
+         * @param deviceId    device identifier
+         * @param flowEntries flow entries reported by the device
+         * @return true if the statistics were updated; false if the rules on
+         * the device need to be reconciled with the store
+         */
+        private boolean updateFlowMetrics(DeviceId deviceId, Iterable<FlowEntry> flowEntries) {
+            int count = 0;
+            long hash = 0;
+            for (FlowEntry rule : flowEntries) {
+                count++;
+                hash += FlowRuleStore.cookieHash(rule);
+            }
+            if (count != store.getFlowRuleCount(deviceId) ||
+                    hash != store.getFlowRuleCookieHash(deviceId)) {
+                return false;
+            }
+
+            // Look up each rule by its cookie before updating any of them,
+            // so that all of them are left for full reconciliation if need be.
+            List<FlowEntry> rules = Lists.newArrayListWithCapacity(count);
+            List<FlowEntry> storedRules = Lists.newArrayListWithCapacity(count);
+            for (FlowEntry rule : flowEntries) {
+                FlowEntry storedRule = store.getFlowEntry(rule);
+                if (storedRule == null || !storedRule.exactMatch(rule)) {
+                    return false;
+                }
+                rules.add(rule);
+                storedRules.add(storedRule);
+            }
+
+            for (int i = 0; i < rules.size(); i++) {
+                try {
+                    flowAdded(rules.get(i), storedRules.get(i));
+                } catch (Exception e) {
+                    log.debug("Can't process added rule {}", e.getMessage());
+                }
+            }
+            return true;
+        }
+
         @Override
         public void batchOperationCompleted(long batchId, CompletedBatchOperation operation) {
             store.batchOperationComplete(FlowRuleBatchEvent.completed(
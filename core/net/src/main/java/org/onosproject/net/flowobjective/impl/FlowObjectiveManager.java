@@ -15,6 +15,8 @@
  */
 package org.onosproject.net.flowobjective.impl;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
@@ -23,9 +25,13 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.osgi.DefaultServiceDirectory;
 import org.onlab.osgi.ServiceDirectory;
 import org.onlab.util.ItemNotFoundException;
+import org.onlab.util.SharedScheduledExecutors;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.mastership.MastershipEvent;
 import org.onosproject.mastership.MastershipListener;
@@ -55,14 +61,16 @@ import org.onosproject.net.group.GroupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
-import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
@@ -78,6 +86,13 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     public static final int INSTALL_RETRY_ATTEMPTS = 5;
     public static final long INSTALL_RETRY_INTERVAL = 1000; // ms
 
+    // Maximum number of objectives handed to a pipeliner at once
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private static final String METRICS_COMPONENT = "FlowObjectiveManager";
+    private static final String QUEUE_DEPTH = "queueDepth";
+    private static final String INSTALL_LATENCY = "installLatency";
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -104,6 +119,9 @@ public class FlowObjectiveManager implements FlowObjectiveService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowObjectiveStore flowObjectiveStore;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     // Note: This must remain an optional dependency to allow re-install of default drivers.
     // Note: For now disabled until we can move to OPTIONAL_UNARY dependency
     // @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY, policy = ReferencePolicy.DYNAMIC)
@@ -123,6 +141,9 @@ public class FlowObjectiveManager implements FlowObjectiveService {
 
     private final Map<Integer, Set<PendingNext>> pendingForwards = Maps.newConcurrentMap();
 
+    // Objectives waiting to be installed, queued separately for each device
+    private final Map<DeviceId, DeviceQueue> deviceQueues = Maps.newConcurrentMap();
+
     // local store to track which nextObjectives were sent to which device
     // for debugging purposes
     private Map<Integer, DeviceId> nextToDevice = Maps.newConcurrentMap();
@@ -148,64 +169,178 @@ public class FlowObjectiveManager implements FlowObjectiveService {
         pipeliners.clear();
         driverHandlers.clear();
         nextToDevice.clear();
+        deviceQueues.clear();
         log.info("Stopped");
     }
 
     /**
-     * Task that passes the flow objective down to the driver. The task will
-     * make a few attempts to find the appropriate driver, then eventually give
-     * up and report an error if no suitable driver could be found.
+     * Queue of the objectives to install on a device. Objectives are handed to
+     * the device pipeliner in batches and in the order they were submitted, by
+     * at most one pool thread at a time, while the queues of different devices
+     * are drained in parallel. When the device has no pipeliner yet, draining
+     * is retried a few times before the queued objectives are reported as
+     * failed; the retries are scheduled rather than waited for, so no pool
+     * thread is held meanwhile. Once the device is removed the queue is
+     * closed and accepts no more objectives.
      */
-    private class ObjectiveInstaller implements Runnable {
+    private final class DeviceQueue {
         private final DeviceId deviceId;
-        private final Objective objective;
+        private final Deque<QueuedObjective> objectives = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+        private int attempts;
 
-        private final int numAttempts;
+        private final Counter queueDepth;
+        private final Timer installLatency;
 
-        public ObjectiveInstaller(DeviceId deviceId, Objective objective) {
-            this(deviceId, objective, 1);
+        private DeviceQueue(DeviceId deviceId) {
+            this.deviceId = deviceId;
+            if (metricsService != null) {
+                MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+                MetricsFeature feature = component.registerFeature(deviceId.toString());
+                queueDepth = metricsService.createCounter(component, feature, QUEUE_DEPTH);
+                installLatency = metricsService.createTimer(component, feature, INSTALL_LATENCY);
+            } else {
+                queueDepth = null;
+                installLatency = null;
+            }
         }
 
-        public ObjectiveInstaller(DeviceId deviceId, Objective objective, int attemps) {
-            this.deviceId = checkNotNull(deviceId);
-            this.objective = checkNotNull(objective);
-            this.numAttempts = checkNotNull(attemps);
+        // Returns false, without queueing the objective, if the queue is closed
+        private boolean add(Objective objective) {
+            boolean start;
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                objectives.add(new QueuedObjective(objective, System.nanoTime()));
+                start = !draining;
+                draining = true;
+            }
+            if (queueDepth != null) {
+                queueDepth.inc();
+            }
+            if (start) {
+                executorService.execute(this::drain);
+            }
+            return true;
         }
 
-        @Override
-        public void run() {
+        private void drain() {
+            Pipeliner pipeliner = getDevicePipeliner(deviceId);
+            if (pipeliner == null) {
+                retryOrFail();
+                return;
+            }
+            attempts = 0;
+
+            List<QueuedObjective> batch = take(MAX_BATCH_SIZE);
+            List<Objective> batchObjectives = new ArrayList<>(batch.size());
+            batch.forEach(queued -> batchObjectives.add(queued.objective));
             try {
-                Pipeliner pipeliner = getDevicePipeliner(deviceId);
+                pipeliner.apply(batchObjectives);
+            } catch (Exception e) {
+                // Only pipeliners overriding apply() get here, without telling
+                // which objectives got installed; report the whole batch
+                log.warn("Exception while installing flow objectives on {}", deviceId, e);
+                fail(batch, ObjectiveError.UNKNOWN);
+            }
+            if (installLatency != null) {
+                long now = System.nanoTime();
+                batch.forEach(queued -> installLatency.update(now - queued.queuedNanos, TimeUnit.NANOSECONDS));
+            }
 
-                if (pipeliner != null) {
-                    if (objective instanceof NextObjective) {
-                        pipeliner.next((NextObjective) objective);
-                    } else if (objective instanceof ForwardingObjective) {
-                        pipeliner.forward((ForwardingObjective) objective);
-                    } else {
-                        pipeliner.filter((FilteringObjective) objective);
-                    }
-                    //Attempts to check if pipeliner is null for retry attempts
-                } else if (numAttempts < INSTALL_RETRY_ATTEMPTS) {
-                    Thread.sleep(INSTALL_RETRY_INTERVAL);
-                    executorService.execute(new ObjectiveInstaller(deviceId, objective, numAttempts + 1));
-                } else {
-                    // Otherwise we've tried a few times and failed, report an
-                    // error back to the user.
-                    objective.context().ifPresent(
-                            c -> c.onError(objective, ObjectiveError.NOPIPELINER));
+            synchronized (this) {
+                if (objectives.isEmpty()) {
+                    draining = false;
+                    return;
                 }
-                //Excpetion thrown
-            } catch (Exception e) {
-                log.warn("Exception while installing flow objective", e);
             }
+            // Yield the thread to other devices before the next batch
+            executorService.execute(this::drain);
+        }
+
+        private void retryOrFail() {
+            if (++attempts < INSTALL_RETRY_ATTEMPTS) {
+                SharedScheduledExecutors.getSingleThreadExecutor().schedule(() -> {
+                    if (!executorService.isShutdown()) {
+                        executorService.execute(this::drain);
+                    }
+                }, INSTALL_RETRY_INTERVAL, TimeUnit.MILLISECONDS);
+                return;
+            }
+
+            // We've tried a few times and failed, report an error back to the users
+            attempts = 0;
+            List<QueuedObjective> failed;
+            synchronized (this) {
+                failed = take(objectives.size());
+                draining = false;
+            }
+            log.warn("No pipeliner for device {}; dropping {} flow objectives", deviceId, failed.size());
+            fail(failed, ObjectiveError.NOPIPELINER);
+        }
+
+        // Fails the objectives still queued and drops the device metrics
+        private void close() {
+            List<QueuedObjective> failed;
+            synchronized (this) {
+                closed = true;
+                failed = take(Integer.MAX_VALUE);
+            }
+            if (!failed.isEmpty()) {
+                log.warn("Device {} removed; dropping {} flow objectives", deviceId, failed.size());
+                fail(failed, ObjectiveError.DEVICEMISSING);
+            }
+            if (metricsService != null) {
+                MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+                MetricsFeature feature = component.registerFeature(deviceId.toString());
+                metricsService.removeMetric(component, feature, QUEUE_DEPTH);
+                metricsService.removeMetric(component, feature, INSTALL_LATENCY);
+            }
+        }
+
+        private void fail(List<QueuedObjective> failed, ObjectiveError error) {
+            failed.forEach(queued -> queued.objective.context().ifPresent(
+                    c -> c.onError(queued.objective, error)));
+        }
+
+        private synchronized List<QueuedObjective> take(int count) {
+            List<QueuedObjective> batch = new ArrayList<>(Math.min(count, objectives.size()));
+            while (batch.size() < count && !objectives.isEmpty()) {
+                batch.add(objectives.poll());
+            }
+            if (queueDepth != null) {
+                queueDepth.dec(batch.size());
+            }
+            return batch;
+        }
+    }
+
+    // Objective along with the time it was queued
+    private static final class QueuedObjective {
+        private final Objective objective;
+        private final long queuedNanos;
+
+        private QueuedObjective(Objective objective, long queuedNanos) {
+            this.objective = objective;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+
+    // Queues the objective for installation on the device. A queue closed
+    // by the removal of the device is no longer mapped, so the retry
+    // queues the objective on a new one.
+    private void install(DeviceId deviceId, Objective objective) {
+        while (!deviceQueues.computeIfAbsent(deviceId, DeviceQueue::new).add(objective)) {
+            log.debug("Queue of removed device {} closed; retrying", deviceId);
         }
     }
 
     @Override
     public void filter(DeviceId deviceId, FilteringObjective filteringObjective) {
         checkPermission(FLOWRULE_WRITE);
-        executorService.execute(new ObjectiveInstaller(deviceId, filteringObjective));
+        install(deviceId, filteringObjective);
     }
 
     @Override
@@ -214,14 +349,14 @@ public class FlowObjectiveManager implements FlowObjectiveService {
         if (queueObjective(deviceId, forwardingObjective)) {
             return;
         }
-        executorService.execute(new ObjectiveInstaller(deviceId, forwardingObjective));
+        install(deviceId, forwardingObjective);
     }
 
     @Override
     public void next(DeviceId deviceId, NextObjective nextObjective) {
         checkPermission(FLOWRULE_WRITE);
         nextToDevice.put(nextObjective.id(), deviceId);
-        executorService.execute(new ObjectiveInstaller(deviceId, nextObjective));
+        install(deviceId, nextObjective);
     }
 
     @Override
@@ -239,28 +374,37 @@ public class FlowObjectiveManager implements FlowObjectiveService {
             // fast path
             return false;
         }
-        boolean queued = false;
-        synchronized (pendingForwards) {
-            // double check the flow objective store, because this block could run
-            // after a notification arrives
-            if (flowObjectiveStore.getNextGroup(fwd.nextId()) == null) {
-                pendingForwards.compute(fwd.nextId(), (id, pending) -> {
-                    PendingNext next = new PendingNext(deviceId, fwd);
-                    if (pending == null) {
-                        return Sets.newHashSet(next);
-                    } else {
-                        pending.add(next);
-                        return pending;
-                    }
-                });
-                queued = true;
+        PendingNext next = new PendingNext(deviceId, fwd);
+        pendingForwards.compute(fwd.nextId(), (id, pending) -> {
+            if (pending == null) {
+                return Sets.newHashSet(next);
+            } else {
+                pending.add(next);
+                return pending;
             }
+        });
+        log.debug("Queued forwarding objective {} for nextId {} meant for device {}",
+                  fwd.id(), fwd.nextId(), deviceId);
+
+        // Check the flow objective store again, outside of the map lock, as
+        // the next objective may have been added since. Its notification
+        // removes the pending objectives under the same key: it either comes
+        // after they were queued and installs them, or before, in which case
+        // the store already holds the group and they are installed here.
+        if (flowObjectiveStore.getNextGroup(fwd.nextId()) != null) {
+            installPending(fwd.nextId());
         }
-        if (queued) {
-            log.debug("Queued forwarding objective {} for nextId {} meant for device {}",
-                      fwd.id(), fwd.nextId(), deviceId);
+        return true;
+    }
+
+    // Installs the forwarding objectives waiting for the next objective
+    private void installPending(Integer nextId) {
+        Set<PendingNext> pending = pendingForwards.remove(nextId);
+        if (pending != null) {
+            log.debug("Processing {} pending forwarding objectives for nextId {}",
+                      pending.size(), nextId);
+            pending.forEach(p -> install(p.deviceId(), p.forwardingObjective()));
         }
-        return queued;
     }
 
     // Retrieves the device pipeline behaviour from the cache.
@@ -347,6 +491,10 @@ public class FlowObjectiveManager implements FlowObjectiveService {
                 case DEVICE_UPDATED:
                     break;
                 case DEVICE_REMOVED:
+                    DeviceQueue queue = deviceQueues.remove(event.subject().id());
+                    if (queue != null) {
+                        queue.close();
+                    }
                     break;
                 case DEVICE_SUSPENDED:
                     break;
@@ -405,21 +553,7 @@ public class FlowObjectiveManager implements FlowObjectiveService {
         public void notify(ObjectiveEvent event) {
             if (event.type() == Type.ADD) {
                 log.debug("Received notification of obj event {}", event);
-                Set<PendingNext> pending;
-                synchronized (pendingForwards) {
-                    // needs to be synchronized for queueObjective lookup
-                    pending = pendingForwards.remove(event.subject());
-                }
-
-                if (pending == null) {
-                    log.debug("Nothing pending for this obj event {}", event);
-                    return;
-                }
-
-                log.debug("Processing {} pending forwarding objectives for nextId {}",
-                         pending.size(), event.subject());
-                pending.forEach(p -> getDevicePipeliner(p.deviceId())
-                                .forward(p.forwardingObjective()));
+                installPending(event.subject());
             }
         }
     }
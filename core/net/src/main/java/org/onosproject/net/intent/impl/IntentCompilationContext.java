@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Path;
+import org.onosproject.net.intent.Constraint;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Context shared by the compilations of all intents processed as part of the
+ * same batch. It allows compilers to reuse the paths computed for one intent
+ * when compiling other intents between the same end-points and with the same
+ * constraints, rather than searching the topology again.
+ * <p>
+ * Paths are only shared for the lifetime of a batch; compilers are still
+ * expected to validate any shared path against the constraints of each intent.
+ * </p>
+ */
+public final class IntentCompilationContext {
+
+    private static final ThreadLocal<IntentCompilationContext> CURRENT = new ThreadLocal<>();
+
+    private final ConcurrentMap<PathKey, Set<Path>> paths = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the compilation context in effect for the calling thread.
+     *
+     * @return current compilation context; null if none
+     */
+    public static IntentCompilationContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the given task with this context in effect for the calling thread.
+     *
+     * @param task task to run
+     * @param <T>  type of the task result
+     * @return task result
+     */
+    public <T> T run(Supplier<T> task) {
+        IntentCompilationContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns the paths between the given end-points that were already
+     * computed in this context with the same constraints, or computes them
+     * using the supplied search if there are none yet.
+     *
+     * @param owner       class on whose behalf paths are computed; paths are
+     *                    only shared between compilers of the same class
+     * @param one         start of the paths
+     * @param two         end of the paths
+     * @param constraints constraints used to weigh the links
+     * @param search      path search to use if there are no paths yet
+     * @return set of paths
+     */
+    public Set<Path> getPaths(Class<?> owner, ElementId one, ElementId two,
+                              List<Constraint> constraints, Supplier<Set<Path>> search) {
+        return paths.computeIfAbsent(new PathKey(owner, one, two, constraints), k -> search.get());
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("paths", paths.size())
+                .toString();
+    }
+
+    // Identifies the paths computed between a pair of end-points.
+    private static final class PathKey {
+        private final Class<?> owner;
+        private final ElementId one;
+        private final ElementId two;
+        private final List<Constraint> constraints;
+
+        private PathKey(Class<?> owner, ElementId one, ElementId two, List<Constraint> constraints) {
+            this.owner = owner;
+            this.one = one;
+            this.two = two;
+            this.constraints = constraints == null ? ImmutableList.of() : ImmutableList.copyOf(constraints);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(owner, one, two, constraints);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof PathKey) {
+                PathKey that = (PathKey) obj;
+                return Objects.equals(owner, that.owner) &&
+                        Objects.equals(one, that.one) &&
+                        Objects.equals(two, that.two) &&
+                        Objects.equals(constraints, that.constraints);
+            }
+            return false;
+        }
+    }
+}
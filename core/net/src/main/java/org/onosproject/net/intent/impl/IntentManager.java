@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.intent.impl;
 
+import com.google.common.collect.ImmutableSet;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -54,6 +55,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
@@ -66,6 +68,7 @@ import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.intent.IntentState.*;
 import static org.onosproject.net.intent.constraint.PartialFailureConstraint.intentAllowsPartialFailure;
 import static org.onosproject.net.intent.impl.phase.IntentProcessPhase.newInitialPhase;
+import static org.onosproject.net.intent.impl.phase.IntentProcessPhase.prepare;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.INTENT_READ;
 import static org.onosproject.security.AppPermission.Type.INTENT_WRITE;
@@ -386,29 +389,51 @@ public class IntentManager
     }
 
     private class InternalBatchDelegate implements IntentBatchDelegate {
+
+        // Installation of the most recently submitted batch and the keys of
+        // its intents; only accessed on the single-threaded batchExecutor.
+        private CompletableFuture<Void> lastInstall = CompletableFuture.completedFuture(null);
+        private Set<Key> lastKeys = ImmutableSet.of();
+
         @Override
         public void execute(Collection<IntentData> operations) {
             log.debug("Execute {} operation(s).", operations.size());
             log.trace("Execute operations: {}", operations);
 
-            // batchExecutor is single-threaded, so only one batch is in flight at a time
+            // Batches are compiled in parallel with the installation of the
+            // batch before them, while installations happen one batch at a
+            // time and in order.
             CompletableFuture.runAsync(() -> {
-                // process intent until the phase reaches one of the final phases
-                List<CompletableFuture<IntentData>> futures = operations.stream()
-                        .map(x -> CompletableFuture.completedFuture(x)
-                                .thenApply(IntentManager.this::createInitialPhase)
-                                .thenApplyAsync(IntentProcessPhase::process, workerExecutor)
-                                .thenApply(FinalIntentProcessPhase::data)
+                CompletableFuture<Void> previousInstall = lastInstall;
+                Set<Key> previousKeys = lastKeys;
+                IntentCompilationContext context = new IntentCompilationContext();
+
+                // compile intents until the phase reaches one of the final phases;
+                // intents still being installed as part of the previous batch
+                // have to wait for it, as they depend on what it stores
+                List<CompletableFuture<FinalIntentProcessPhase>> compiled = operations.stream()
+                        .map(x -> (previousKeys.contains(x.key()) ?
+                                previousInstall.thenApply(v -> x) : CompletableFuture.completedFuture(x))
+                                .thenApplyAsync(data -> context.run(() -> prepare(createInitialPhase(data))),
+                                                workerExecutor)
                                 .exceptionally(e -> {
                                     //FIXME
                                     log.warn("Future failed: {}", e);
                                     return null;
                                 })).collect(Collectors.toList());
-
-                // write multiple data to store in order
-                store.batchWrite(Tools.allOf(futures).join().stream()
-                                         .filter(Objects::nonNull)
-                                         .collect(Collectors.toList()));
+                CompletableFuture<List<FinalIntentProcessPhase>> phases = Tools.allOf(compiled);
+
+                lastKeys = operations.stream().map(IntentData::key).collect(Collectors.toSet());
+                lastInstall = phases.thenCombine(previousInstall, (p, v) -> p)
+                        .thenComposeAsync(this::install, batchExecutor)
+                        .exceptionally(e -> {
+                            log.error("Error installing batch:", e);
+                            return null;
+                        });
+
+                // accept the next batch once this one is compiled and the one
+                // before it is installed
+                phases.thenCombine(previousInstall, (p, v) -> v).whenComplete((v, e) -> accumulator.ready());
             }, batchExecutor).exceptionally(e -> {
                 log.error("Error submitting batches:", e);
                 // FIXME incomplete Intents should be cleaned up
@@ -417,9 +442,27 @@ public class IntentManager
                 // the batch has failed
                 // TODO: maybe we should do more?
                 log.error("Walk the plank, matey...");
+                accumulator.ready();
                 return null;
-            }).thenRun(accumulator::ready);
+            });
+        }
 
+        // Executes the final phases of the compiled intents and then writes
+        // their data to the store in order.
+        private CompletableFuture<Void> install(List<FinalIntentProcessPhase> phases) {
+            List<CompletableFuture<IntentData>> futures = phases.stream()
+                    .filter(Objects::nonNull)
+                    .map(phase -> CompletableFuture.supplyAsync(() -> {
+                        phase.execute();
+                        return phase.data();
+                    }, workerExecutor).exceptionally(e -> {
+                        //FIXME
+                        log.warn("Future failed: {}", e);
+                        return null;
+                    })).collect(Collectors.toList());
+
+            return Tools.allOf(futures).thenAccept(data -> store.batchWrite(
+                    data.stream().filter(Objects::nonNull).collect(Collectors.toList())));
         }
     }
 
@@ -26,6 +26,7 @@ import org.onosproject.net.intent.ConnectivityIntent;
 import org.onosproject.net.intent.Constraint;
 import org.onosproject.net.intent.IntentCompiler;
 import org.onosproject.net.intent.IntentExtensionService;
+import org.onosproject.net.intent.impl.IntentCompilationContext;
 import org.onosproject.net.intent.impl.PathNotFoundException;
 import org.onosproject.net.resource.ResourceQueryService;
 import org.onosproject.net.provider.ProviderId;
@@ -85,7 +86,9 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
     }
 
     /**
-     * Computes a path between two ConnectPoints.
+     * Computes a path between two ConnectPoints. Paths already computed for
+     * other intents with the same end-points and constraints in the current
+     * {@link IntentCompilationContext} are reused.
      *
      * @param intent intent on which behalf path is being computed
      * @param one    start of the path
@@ -95,8 +98,8 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected Path getPath(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<Path> paths = pathService.getPaths(one, two, weight(intent.constraints()));
         final List<Constraint> constraints = intent.constraints();
+        Set<Path> paths = getPaths(one, two, constraints);
         ImmutableList<Path> filtered = FluentIterable.from(paths)
                 .filter(path -> checkPath(path, constraints))
                 .toList();
@@ -107,6 +110,17 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
         return filtered.iterator().next();
     }
 
+    // Computes the paths between the given end-points, or reuses those
+    // computed earlier in the current compilation context.
+    private Set<Path> getPaths(ElementId one, ElementId two, List<Constraint> constraints) {
+        IntentCompilationContext context = IntentCompilationContext.current();
+        if (context == null) {
+            return pathService.getPaths(one, two, weight(constraints));
+        }
+        return context.getPaths(getClass(), one, two, constraints,
+                                () -> pathService.getPaths(one, two, weight(constraints)));
+    }
+
     /**
      * Edge-weight capable of evaluating link cost using a set of constraints.
      */
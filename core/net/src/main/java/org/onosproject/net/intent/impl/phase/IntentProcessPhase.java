@@ -59,14 +59,26 @@ public interface IntentProcessPhase {
     }
 
     static FinalIntentProcessPhase process(IntentProcessPhase initial) {
-        Optional<IntentProcessPhase> currentPhase = Optional.of(initial);
-        IntentProcessPhase previousPhase = initial;
+        FinalIntentProcessPhase finalPhase = prepare(initial);
+        finalPhase.execute();
+        return finalPhase;
+    }
 
-        while (currentPhase.isPresent()) {
-            previousPhase = currentPhase.get();
-            currentPhase = previousPhase.execute();
+    /**
+     * Executes the specified phase and the phases that follow it, such as
+     * compilation, until the final phase is reached. The final phase, which
+     * is where installation or withdrawal takes place, is returned without
+     * being executed.
+     *
+     * @param initial starting intent process phase
+     * @return final intent process phase, yet to be executed
+     */
+    static FinalIntentProcessPhase prepare(IntentProcessPhase initial) {
+        IntentProcessPhase currentPhase = initial;
+        while (!(currentPhase instanceof FinalIntentProcessPhase)) {
+            currentPhase = currentPhase.execute().get();
         }
-        return (FinalIntentProcessPhase) previousPhase;
+        return (FinalIntentProcessPhase) currentPhase;
     }
 
     static void transferErrorCount(IntentData data, Optional<IntentData> stored) {
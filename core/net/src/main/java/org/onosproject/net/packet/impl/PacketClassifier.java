@@ -0,0 +1,205 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.TCP;
+import org.onlab.packet.UDP;
+import org.onlab.packet.ipv6.IExtensionHeader;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Immutable classifier which selects, from an ordered list of packet
+ * processor entries, those that may be interested in a given packet based
+ * on the ethertype, IP protocol and transport ports of their selectors.
+ * <p>
+ * Any other selector criteria are ignored, so entries may be selected for
+ * packets which do not fully match their selectors. Entries without a
+ * selector are selected for all packets.
+ * </p>
+ *
+ * @param <T> type of the classified entries
+ */
+final class PacketClassifier<T> {
+
+    // Unconstrained selector field, or packet field that could not be determined
+    private static final int ANY = -1;
+    // Packet field which is not present
+    private static final int NONE = -2;
+
+    // Candidates for packets of the given ethertypes, in the original order.
+    private final Map<Short, ImmutableList<Candidate<T>>> byEthType;
+    // Candidates for packets of any other ethertype.
+    private final ImmutableList<Candidate<T>> others;
+    // All candidates, for packets which could not be parsed.
+    private final ImmutableList<Candidate<T>> all;
+
+    private PacketClassifier(Map<Short, ImmutableList<Candidate<T>>> byEthType,
+                             ImmutableList<Candidate<T>> others,
+                             ImmutableList<Candidate<T>> all) {
+        this.byEthType = byEthType;
+        this.others = others;
+        this.all = all;
+    }
+
+    /**
+     * Creates a classifier for the given entries.
+     *
+     * @param entries   entries in the order in which they are to be selected
+     * @param selectors function yielding the selector of each entry; the
+     *                  selector may be null to select the entry for all packets
+     * @param <T>       type of the classified entries
+     * @return packet classifier
+     */
+    static <T> PacketClassifier<T> of(List<T> entries, Function<T, TrafficSelector> selectors) {
+        ImmutableList.Builder<Candidate<T>> all = ImmutableList.builder();
+        Set<Short> ethTypes = new LinkedHashSet<>();
+        for (T entry : entries) {
+            Candidate<T> candidate = new Candidate<>(entry, selectors.apply(entry));
+            all.add(candidate);
+            if (candidate.ethType != ANY) {
+                ethTypes.add((short) candidate.ethType);
+            }
+        }
+        ImmutableList<Candidate<T>> candidates = all.build();
+
+        ImmutableMap.Builder<Short, ImmutableList<Candidate<T>>> byEthType = ImmutableMap.builder();
+        for (short ethType : ethTypes) {
+            byEthType.put(ethType, filter(candidates, ethType & 0xffff));
+        }
+        return new PacketClassifier<>(byEthType.build(), filter(candidates, ANY), candidates);
+    }
+
+    // Retains the candidates which accept the given ethertype.
+    private static <T> ImmutableList<Candidate<T>> filter(List<Candidate<T>> candidates, int ethType) {
+        ImmutableList.Builder<Candidate<T>> builder = ImmutableList.builder();
+        for (Candidate<T> candidate : candidates) {
+            if (candidate.ethType == ANY || candidate.ethType == ethType) {
+                builder.add(candidate);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Performs the given action, in order, for all entries which may be
+     * interested in the specified packet.
+     *
+     * @param packet parsed packet; null if the packet could not be parsed
+     * @param action action to perform for each selected entry
+     */
+    void forEach(Ethernet packet, Consumer<T> action) {
+        if (packet == null) {
+            all.forEach(c -> action.accept(c.entry));
+            return;
+        }
+
+        List<Candidate<T>> candidates = byEthType.getOrDefault(packet.getEtherType(), others);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // Extract the remaining fields only once for all candidates.
+        int ipProto = NONE;
+        IPacket payload = packet.getPayload();
+        if (payload instanceof IPv4) {
+            ipProto = ((IPv4) payload).getProtocol() & 0xff;
+            payload = payload.getPayload();
+        } else if (payload instanceof IPv6) {
+            ipProto = ((IPv6) payload).getNextHeader() & 0xff;
+            payload = payload.getPayload();
+        } else {
+            payload = null;
+        }
+
+        int tcpSrc = NONE;
+        int tcpDst = NONE;
+        int udpSrc = NONE;
+        int udpDst = NONE;
+        if (payload instanceof IExtensionHeader) {
+            // Protocols behind IPv6 extension headers are not looked into.
+            ipProto = tcpSrc = tcpDst = udpSrc = udpDst = ANY;
+        } else if (payload instanceof TCP) {
+            tcpSrc = ((TCP) payload).getSourcePort();
+            tcpDst = ((TCP) payload).getDestinationPort();
+        } else if (payload instanceof UDP) {
+            udpSrc = ((UDP) payload).getSourcePort();
+            udpDst = ((UDP) payload).getDestinationPort();
+        }
+
+        for (Candidate<T> candidate : candidates) {
+            if (matches(candidate.ipProto, ipProto) &&
+                    matches(candidate.tcpSrc, tcpSrc) && matches(candidate.tcpDst, tcpDst) &&
+                    matches(candidate.udpSrc, udpSrc) && matches(candidate.udpDst, udpDst)) {
+                action.accept(candidate.entry);
+            }
+        }
+    }
+
+    // Unconstrained fields match anything; constrained fields only match
+    // the same value, or a value that could not be determined.
+    private static boolean matches(int expected, int actual) {
+        return expected == ANY || actual == ANY || expected == actual;
+    }
+
+    // Entry along with the fields of its selector used for classification.
+    private static final class Candidate<T> {
+        private final T entry;
+        private final int ethType;
+        private final int ipProto;
+        private final int tcpSrc;
+        private final int tcpDst;
+        private final int udpSrc;
+        private final int udpDst;
+
+        private Candidate(T entry, TrafficSelector selector) {
+            this.entry = entry;
+            if (selector == null) {
+                ethType = ipProto = tcpSrc = tcpDst = udpSrc = udpDst = ANY;
+                return;
+            }
+            Criterion c = selector.getCriterion(Criterion.Type.ETH_TYPE);
+            ethType = c == null ? ANY : ((EthTypeCriterion) c).ethType().toShort() & 0xffff;
+            c = selector.getCriterion(Criterion.Type.IP_PROTO);
+            ipProto = c == null ? ANY : ((IPProtocolCriterion) c).protocol() & 0xff;
+            c = selector.getCriterion(Criterion.Type.TCP_SRC);
+            tcpSrc = c == null ? ANY : ((TcpPortCriterion) c).tcpPort().toInt();
+            c = selector.getCriterion(Criterion.Type.TCP_DST);
+            tcpDst = c == null ? ANY : ((TcpPortCriterion) c).tcpPort().toInt();
+            c = selector.getCriterion(Criterion.Type.UDP_SRC);
+            udpSrc = c == null ? ANY : ((UdpPortCriterion) c).udpPort().toInt();
+            c = selector.getCriterion(Criterion.Type.UDP_DST);
+            udpDst = c == null ? ANY : ((UdpPortCriterion) c).udpPort().toInt();
+        }
+    }
+}
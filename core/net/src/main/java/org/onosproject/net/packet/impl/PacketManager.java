@@ -111,6 +111,8 @@ public class PacketManager
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
     private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
+    private volatile PacketClassifier<ProcessorEntry> classifier =
+            PacketClassifier.of(ImmutableList.of(), ProcessorEntry::selector);
 
     private final  PacketDriverProvider defaultProvider = new PacketDriverProvider();
 
@@ -145,18 +147,26 @@ public class PacketManager
 
     @Override
     public void addProcessor(PacketProcessor processor, int priority) {
+        addProcessor(processor, priority, null);
+    }
+
+    @Override
+    public void addProcessor(PacketProcessor processor, int priority, TrafficSelector selector) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, "Processor cannot be null");
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
-
-        // Insert the new processor according to its priority.
-        int i = 0;
-        for (; i < processors.size(); i++) {
-            if (priority < processors.get(i).priority()) {
-                break;
+        ProcessorEntry entry = new ProcessorEntry(processor, priority, selector);
+
+        synchronized (processors) {
+            // Insert the new processor according to its priority.
+            int i = 0;
+            for (; i < processors.size(); i++) {
+                if (priority < processors.get(i).priority()) {
+                    break;
+                }
             }
+            processors.add(i, entry);
+            classifier = PacketClassifier.of(processors, ProcessorEntry::selector);
         }
-        processors.add(i, entry);
     }
 
     @Override
@@ -164,12 +174,15 @@ public class PacketManager
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, "Processor cannot be null");
 
-        // Remove the processor entry.
-        for (int i = 0; i < processors.size(); i++) {
-            if (processors.get(i).processor() == processor) {
-                processors.remove(i);
-                break;
+        synchronized (processors) {
+            // Remove the processor entry.
+            for (int i = 0; i < processors.size(); i++) {
+                if (processors.get(i).processor() == processor) {
+                    processors.remove(i);
+                    break;
+                }
             }
+            classifier = PacketClassifier.of(processors, ProcessorEntry::selector);
         }
     }
 
@@ -366,8 +379,8 @@ public class PacketManager
 
         @Override
         public void processPacket(PacketContext context) {
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
+            // Only processors whose selectors may match the packet get to see it.
+            classifier.forEach(context.inPacket().parsed(), entry -> {
                 try {
                     long start = System.nanoTime();
                     entry.processor().process(context);
@@ -375,7 +388,7 @@ public class PacketManager
                 } catch (Exception e) {
                     log.warn("Packet processor {} threw an exception", entry.processor(), e);
                 }
-            }
+            });
         }
 
     }
@@ -445,12 +458,14 @@ public class PacketManager
     private class ProcessorEntry implements PacketProcessorEntry {
         private final PacketProcessor processor;
         private final int priority;
+        private final TrafficSelector selector;
         private long invocations = 0;
         private long nanos = 0;
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        public ProcessorEntry(PacketProcessor processor, int priority, TrafficSelector selector) {
             this.processor = processor;
             this.priority = priority;
+            this.selector = selector;
         }
 
         @Override
@@ -478,6 +493,10 @@ public class PacketManager
             return invocations > 0 ? nanos / invocations : 0;
         }
 
+        TrafficSelector selector() {
+            return selector;
+        }
+
         void addNanos(long nanos) {
             this.nanos += nanos;
             this.invocations++;
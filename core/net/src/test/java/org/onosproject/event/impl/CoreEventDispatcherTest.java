@@ -18,15 +18,23 @@ package org.onosproject.event.impl;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.EventSink;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onlab.junit.TestTools.assertAfter;
 
 /**
  * Test of the event dispatcher mechanism.
@@ -39,6 +47,7 @@ public class CoreEventDispatcherTest {
 
     @Before
     public void setUp() {
+        dispatcher.metricsService = new MetricsManager();
         dispatcher.activate();
         dispatcher.addSink(Prickle.class, prickleSink);
         dispatcher.addSink(Goo.class, gooSink);
@@ -76,6 +85,87 @@ public class CoreEventDispatcherTest {
         validate(prickleSink);
     }
 
+    @Test
+    public void postWithMultipleLoops() throws Exception {
+        dispatcher.setDispatchLoops(4);
+        assertEquals("incorrect loop count", 4, dispatcher.getDispatchLoops());
+
+        // events of one class stay in order whatever their subjects
+        prickleSink.latch = new CountDownLatch(3);
+        dispatcher.post(new Prickle("a"));
+        dispatcher.post(new Prickle("b"));
+        dispatcher.post(new Prickle("c"));
+        prickleSink.latch.await(100, TimeUnit.MILLISECONDS);
+        validate(prickleSink, "a", "b", "c");
+        validate(gooSink);
+    }
+
+    @Test
+    public void orderPreservedAcrossRepartition() throws Exception {
+        String[] subjects = new String[100];
+        prickleSink.latch = new CountDownLatch(subjects.length);
+        for (int i = 0; i < subjects.length; i++) {
+            subjects[i] = "p" + i;
+            dispatcher.post(new Prickle(subjects[i]));
+            if (i == subjects.length / 2) {
+                dispatcher.setDispatchLoops(3);
+            }
+        }
+        prickleSink.latch.await(500, TimeUnit.MILLISECONDS);
+        validate(prickleSink, subjects);
+    }
+
+    @Test
+    public void hungSinkDuringRepartition() throws Exception {
+        HangSink hangSink = new HangSink();
+        dispatcher.addSink(Hang.class, hangSink);
+        try {
+            dispatcher.setDispatchTimeLimit(500);
+            dispatcher.post(new Hang("stuck"));
+            assertTrue("sink should have been invoked", hangSink.entered.await(1, TimeUnit.SECONDS));
+
+            // the hung loop gets retired; its successors must not wait on it forever
+            dispatcher.setDispatchLoops(3);
+            prickleSink.latch = new CountDownLatch(1);
+            dispatcher.post(new Prickle("after"));
+            assertTrue("event should have been dispatched",
+                       prickleSink.latch.await(3, TimeUnit.SECONDS));
+            validate(prickleSink, "after");
+            assertTrue("sink should have been notified", hangSink.limitReached);
+        } finally {
+            hangSink.release.countDown();
+            dispatcher.removeSink(Hang.class);
+        }
+    }
+
+    @Test
+    public void failedPostNotCounted() {
+        CoreEventDispatcher inactive = new CoreEventDispatcher();
+        inactive.metricsService = new MetricsManager();
+        inactive.post(new Prickle("lost"));
+        inactive.metricsService.getCounters((name, metric) -> name.contains(Prickle.class.getSimpleName()))
+                .values().forEach(counter -> assertEquals("incorrect queue depth", 0, counter.getCount()));
+    }
+
+    @Test
+    public void sinkMetrics() throws Exception {
+        prickleSink.latch = new CountDownLatch(2);
+        dispatcher.post(new Prickle("yo"));
+        dispatcher.post(new Prickle("yo"));
+        prickleSink.latch.await(100, TimeUnit.MILLISECONDS);
+        validate(prickleSink, "yo", "yo");
+
+        MetricsService metrics = dispatcher.metricsService;
+        Timer timer = metrics.getTimers((name, metric) -> name.contains(Prickle.class.getSimpleName()))
+                .values().iterator().next();
+        Counter counter = metrics.getCounters((name, metric) -> name.contains(Prickle.class.getSimpleName()))
+                .values().iterator().next();
+        assertAfter(100, () -> {
+            assertEquals("incorrect processed count", 2, timer.getCount());
+            assertEquals("incorrect queue depth", 0, counter.getCount());
+        });
+    }
+
     private void validate(Sink sink, String... strings) {
         int i = 0;
         assertEquals("incorrect event count", strings.length, sink.subjects.size());
@@ -104,8 +194,14 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    private static class Hang extends Thing {
+        protected Hang(String subject) {
+            super(subject);
+        }
+    }
+
     private static class Sink {
-        final List<String> subjects = new ArrayList<>();
+        final List<String> subjects = Collections.synchronizedList(new ArrayList<>());
         CountDownLatch latch;
 
         protected void process(String subject) {
@@ -129,4 +225,25 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    private static class HangSink implements EventSink<Hang> {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean limitReached;
+
+        @Override
+        public void process(Hang event) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onProcessLimit() {
+            limitReached = true;
+        }
+    }
+
 }
@@ -345,6 +345,42 @@ public class FlowRuleManagerTest {
                        RULE_ADDED, RULE_ADDED);
     }
 
+    /*
+     * Tests that statistics are updated in place while the device has the
+     * same rules as the store, and that rules are reconciled once they differ.
+     */
+    @Test
+    public void incrementalFlowMetrics() {
+        FlowRule f1 = flowRule(1, 1);
+        FlowRule f2 = flowRule(2, 2);
+        FlowRule f3 = flowRule(3, 3);
+        mgr.applyFlowRules(f1, f2);
+
+        FlowEntry fe2 = new DefaultFlowEntry(f2);
+        providerService.pushFlowMetrics(DID, Lists.newArrayList(
+                new DefaultFlowEntry(f1, FlowEntryState.ADDED, 1, 5, 50), fe2));
+        validateEvents(RULE_ADD_REQUESTED, RULE_ADD_REQUESTED, RULE_ADDED, RULE_ADDED);
+
+        providerService.pushFlowMetrics(DID, Lists.newArrayList(
+                new DefaultFlowEntry(f1, FlowEntryState.ADDED, 2, 10, 100), fe2));
+        validateEvents(RULE_UPDATED, RULE_UPDATED);
+        for (FlowEntry entry : service.getFlowEntries(DID)) {
+            if (entry.equals(f1)) {
+                assertEquals("packets should be updated", 10, entry.packets());
+                assertEquals("bytes should be updated", 100, entry.bytes());
+            }
+        }
+
+        // Same number of rules, but f3 replaced f2 on the device
+        providerService.pushFlowMetrics(DID, Lists.newArrayList(
+                new DefaultFlowEntry(f1, FlowEntryState.ADDED, 3, 10, 100), new DefaultFlowEntry(f3)));
+        validateEvents(RULE_UPDATED, RULE_UPDATED);
+        assertTrue("f2 should be reinstalled",
+                   validateState(ImmutableMap.of(
+                           f1, FlowEntryState.ADDED,
+                           f2, FlowEntryState.PENDING_ADD)));
+    }
+
     @Test
     public void extraneousFlow() {
         FlowRule f1 = flowRule(1, 1);
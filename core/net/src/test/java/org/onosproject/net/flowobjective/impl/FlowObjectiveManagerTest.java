@@ -16,7 +16,10 @@
 package org.onosproject.net.flowobjective.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Before;
@@ -60,12 +63,18 @@ import org.onosproject.net.flowobjective.FilteringObjective;
 import org.onosproject.net.flowobjective.FlowObjectiveStoreDelegate;
 import org.onosproject.net.flowobjective.ForwardingObjective;
 import org.onosproject.net.flowobjective.NextObjective;
+import org.onosproject.net.flowobjective.Objective;
+import org.onosproject.net.flowobjective.ObjectiveContext;
+import org.onosproject.net.flowobjective.ObjectiveError;
 import org.onosproject.net.flowobjective.ObjectiveEvent;
 import org.onosproject.net.intent.TestTools;
 
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.onlab.junit.TestUtils.TestUtilsException;
 
@@ -75,6 +84,7 @@ import static org.onlab.junit.TestUtils.TestUtilsException;
 public class FlowObjectiveManagerTest {
 
     private static final int RETRY_MS = 250;
+    private static final int FAILING_PRIORITY = 1000;
     private FlowObjectiveManager manager;
     DeviceId id1 = NetTestTools.did("d1");
     DefaultDevice d1 = new DefaultDevice(NetTestTools.PID, id1, Device.Type.SWITCH,
@@ -91,6 +101,8 @@ public class FlowObjectiveManagerTest {
     List<String> filteringObjectives;
     List<String> forwardingObjectives;
     List<String> nextObjectives;
+    List<Objective> installedObjectives;
+    List<Integer> batchSizes;
 
     private class TestDeviceService extends DeviceServiceAdapter {
 
@@ -162,19 +174,31 @@ public class FlowObjectiveManagerTest {
             this.deviceId = deviceId;
         }
 
+        @Override
+        public void apply(List<Objective> objectives) {
+            batchSizes.add(objectives.size());
+            super.apply(objectives);
+        }
+
         @Override
         public void filter(FilteringObjective filterObjective) {
             filteringObjectives.add(deviceId.toString());
+            installedObjectives.add(filterObjective);
         }
 
         @Override
         public void forward(ForwardingObjective forwardObjective) {
+            if (forwardObjective.priority() == FAILING_PRIORITY) {
+                throw new IllegalStateException("Failing objective");
+            }
             forwardingObjectives.add(deviceId.toString());
+            installedObjectives.add(forwardObjective);
         }
 
         @Override
         public void next(NextObjective nextObjective) {
             nextObjectives.add(deviceId.toString());
+            installedObjectives.add(nextObjective);
         }
     }
 
@@ -198,6 +222,8 @@ public class FlowObjectiveManagerTest {
         filteringObjectives = new ArrayList<>();
         forwardingObjectives = new ArrayList<>();
         nextObjectives = new ArrayList<>();
+        installedObjectives = Collections.synchronizedList(new ArrayList<>());
+        batchSizes = Collections.synchronizedList(new ArrayList<>());
         manager.activate();
     }
 
@@ -343,6 +369,154 @@ public class FlowObjectiveManagerTest {
         assertThat(nextObjectives, hasSize(0));
     }
 
+    /**
+     * Tests that a forwarding objective is installed when its next objective
+     * is added, and its addition notified, after the objective was found to
+     * be pending but before it was queued.
+     */
+    @Test
+    public void pendingForwardingObjectiveRace() {
+        AtomicInteger lookups = new AtomicInteger();
+        manager.flowObjectiveStore = new TestFlowObjectiveStore() {
+            @Override
+            public NextGroup getNextGroup(Integer nextId) {
+                // Missing on the first lookup only
+                return lookups.getAndIncrement() == 0 ? null : new DefaultNextGroup(new byte[]{5});
+            }
+        };
+
+        ForwardingObjective forward =
+                DefaultForwardingObjective.builder()
+                        .fromApp(NetTestTools.APP_ID)
+                        .withFlag(ForwardingObjective.Flag.SPECIFIC)
+                        .withSelector(DefaultTrafficSelector.emptySelector())
+                        .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                        .makePermanent()
+                        .nextStep(4)
+                        .add();
+        manager.forward(id1, forward);
+
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(forwardingObjectives, hasSize(1)));
+    }
+
+    /**
+     * Tests that the objectives of a device are installed in the order they
+     * were submitted, in bounded batches.
+     */
+    @Test
+    public void objectiveOrder() {
+        TrafficSelector selector = DefaultTrafficSelector.emptySelector();
+        TrafficTreatment treatment = DefaultTrafficTreatment.emptyTreatment();
+        List<Objective> submitted = new ArrayList<>();
+
+        for (int i = 0; i < 250; i++) {
+            NextObjective next =
+                    DefaultNextObjective.builder()
+                            .withId(manager.allocateNextId())
+                            .addTreatment(treatment)
+                            .withType(NextObjective.Type.BROADCAST)
+                            .fromApp(NetTestTools.APP_ID)
+                            .makePermanent()
+                            .add();
+            ForwardingObjective forward =
+                    DefaultForwardingObjective.builder()
+                            .fromApp(NetTestTools.APP_ID)
+                            .withFlag(ForwardingObjective.Flag.SPECIFIC)
+                            .withSelector(selector)
+                            .withTreatment(treatment)
+                            .withPriority(i)
+                            .makePermanent()
+                            .add();
+            manager.next(id1, next);
+            manager.forward(id1, forward);
+            submitted.add(next);
+            submitted.add(forward);
+        }
+
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(installedObjectives, hasSize(submitted.size())));
+
+        assertThat(installedObjectives, is(submitted));
+        assertThat(batchSizes, everyItem(lessThanOrEqualTo(100)));
+    }
+
+    /**
+     * Tests that an objective failing to install is reported through its
+     * context, without affecting the other objectives of its batch.
+     */
+    @Test
+    public void failingObjective() {
+        TrafficSelector selector = DefaultTrafficSelector.emptySelector();
+        TrafficTreatment treatment = DefaultTrafficTreatment.emptyTreatment();
+        List<ObjectiveError> errors = Collections.synchronizedList(new ArrayList<>());
+        ObjectiveContext context = new ObjectiveContext() {
+            @Override
+            public void onError(Objective objective, ObjectiveError error) {
+                errors.add(error);
+            }
+        };
+
+        for (int priority = FAILING_PRIORITY - 1; priority <= FAILING_PRIORITY + 1; priority++) {
+            ForwardingObjective forward =
+                    DefaultForwardingObjective.builder()
+                            .fromApp(NetTestTools.APP_ID)
+                            .withFlag(ForwardingObjective.Flag.SPECIFIC)
+                            .withSelector(selector)
+                            .withTreatment(treatment)
+                            .withPriority(priority)
+                            .makePermanent()
+                            .add(context);
+            manager.forward(id1, forward);
+        }
+
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(forwardingObjectives, hasSize(2)));
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(errors, is(Collections.singletonList(ObjectiveError.UNKNOWN))));
+    }
+
+    /**
+     * Tests that the queue of a device is discarded when the device is removed.
+     *
+     * @throws TestUtilsException if lookup of a field fails
+     */
+    @Test
+    public void deviceRemovedEvent() throws TestUtilsException {
+        TrafficTreatment treatment = DefaultTrafficTreatment.emptyTreatment();
+        NextObjective next =
+                DefaultNextObjective.builder()
+                        .withId(manager.allocateNextId())
+                        .addTreatment(treatment)
+                        .withType(NextObjective.Type.BROADCAST)
+                        .fromApp(NetTestTools.APP_ID)
+                        .makePermanent()
+                        .add();
+        manager.next(id1, next);
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(nextObjectives, hasSize(1)));
+
+        Map<DeviceId, ?> deviceQueues = TestUtils.getField(manager, "deviceQueues");
+        assertThat(deviceQueues.containsKey(id1), is(true));
+
+        DeviceListener listener = TestUtils.getField(manager, "deviceListener");
+        listener.event(new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, d1));
+        assertThat(deviceQueues.containsKey(id1), is(false));
+
+        // Objectives submitted afterwards go to a new queue
+        NextObjective next2 =
+                DefaultNextObjective.builder()
+                        .withId(manager.allocateNextId())
+                        .addTreatment(treatment)
+                        .withType(NextObjective.Type.BROADCAST)
+                        .fromApp(NetTestTools.APP_ID)
+                        .makePermanent()
+                        .add();
+        manager.next(id1, next2);
+        TestTools.assertAfter(RETRY_MS, () ->
+                assertThat(nextObjectives, hasSize(2)));
+    }
+
     /**
      * Tests receipt of a device up event.
      *
@@ -20,8 +20,10 @@ import org.junit.Before;
 import org.junit.Test;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.TestApplicationId;
+import org.onosproject.net.ElementId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
+import org.onosproject.net.Path;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
 import org.onosproject.net.host.HostService;
@@ -30,13 +32,18 @@ import org.onosproject.net.intent.HostToHostIntent;
 import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentTestsMocks;
 import org.onosproject.net.intent.PathIntent;
+import org.onosproject.net.intent.impl.IntentCompilationContext;
+import org.onosproject.net.topology.LinkWeight;
 import org.onlab.packet.MacAddress;
 import org.onlab.packet.VlanId;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.easymock.EasyMock.*;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -165,4 +172,32 @@ public class HostToHostIntentCompilerTest extends AbstractIntentTest {
             assertThat(reversePathIntent.path().links(), linksHasPath(HOST_TWO, "h8"));
         }
     }
+
+    /**
+     * Tests that paths are computed once for intents between the same hosts
+     * compiled within the same compilation context.
+     */
+    @Test
+    public void testPathsSharedWithinContext() {
+        String[] hops = {HOST_ONE, "h1", "h2", HOST_TWO};
+        AtomicInteger searches = new AtomicInteger();
+        HostToHostIntentCompiler compiler = makeCompiler(hops);
+        compiler.pathService = new IntentTestsMocks.MockPathService(hops) {
+            @Override
+            public Set<Path> getPaths(ElementId src, ElementId dst, LinkWeight weight) {
+                searches.incrementAndGet();
+                return super.getPaths(src, dst, weight);
+            }
+        };
+
+        IntentCompilationContext context = new IntentCompilationContext();
+        List<Intent> first = context.run(() -> compiler.compile(makeIntent(HOST_ONE, HOST_TWO), null));
+        List<Intent> second = context.run(() -> compiler.compile(makeIntent(HOST_ONE, HOST_TWO), null));
+        assertThat(searches.get(), is(1));
+        assertThat(((PathIntent) second.get(0)).path(), is(((PathIntent) first.get(0)).path()));
+
+        compiler.compile(makeIntent(HOST_ONE, HOST_TWO), null);
+        assertThat(searches.get(), is(2));
+        assertThat(IntentCompilationContext.current(), is(nullValue()));
+    }
 }
@@ -20,30 +20,48 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.packet.ARP;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.TCP;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.UDP;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.TestListener;
 import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
 import org.onosproject.net.driver.DefaultDriver;
 import org.onosproject.net.driver.impl.DriverManager;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.packet.DefaultInboundPacket;
 import org.onosproject.net.packet.DefaultOutboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
 import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketProcessor;
 import org.onosproject.net.packet.PacketProgrammable;
+import org.onosproject.net.packet.PacketProvider;
 import org.onosproject.net.packet.PacketProviderRegistry;
+import org.onosproject.net.packet.PacketProviderService;
+import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.provider.TestProvider;
 import org.onosproject.store.trivial.SimplePacketStore;
 
 import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
@@ -102,6 +120,77 @@ public class PacketManagerTest {
         assertEquals("Packet not emitted correctly", packet, emittedPacket);
     }
 
+    /**
+     * Tests that packets are only dispatched to processors whose selectors
+     * may match them, in priority order.
+     */
+    @Test
+    public void processorSelectors() {
+        List<String> seen = new CopyOnWriteArrayList<>();
+        mgr.addProcessor(recorder(seen, "all"), 2);
+        mgr.addProcessor(recorder(seen, "arp"), 1,
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_ARP).build());
+        mgr.addProcessor(recorder(seen, "http"), 3,
+                         DefaultTrafficSelector.builder()
+                                 .matchEthType(Ethernet.TYPE_IPV4)
+                                 .matchIPProtocol(IPv4.PROTOCOL_TCP)
+                                 .matchTcpDst(TpPort.tpPort(80))
+                                 .build());
+
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+
+        providerService.processPacket(context(new Ethernet()
+                                                      .setEtherType(Ethernet.TYPE_ARP)
+                                                      .setPayload(new ARP())));
+        assertEquals("incorrect processors", ImmutableList.of("arp", "all"), seen);
+
+        seen.clear();
+        providerService.processPacket(context(ipv4(IPv4.PROTOCOL_TCP, new TCP().setDestinationPort(80))));
+        assertEquals("incorrect processors", ImmutableList.of("all", "http"), seen);
+
+        seen.clear();
+        providerService.processPacket(context(ipv4(IPv4.PROTOCOL_TCP, new TCP().setDestinationPort(8080))));
+        assertEquals("incorrect processors", ImmutableList.of("all"), seen);
+
+        seen.clear();
+        providerService.processPacket(context(ipv4(IPv4.PROTOCOL_UDP, new UDP().setDestinationPort(80))));
+        assertEquals("incorrect processors", ImmutableList.of("all"), seen);
+
+        seen.clear();
+        providerService.processPacket(context(null));
+        assertEquals("incorrect processors", ImmutableList.of("arp", "all", "http"), seen);
+    }
+
+    private static PacketProcessor recorder(List<String> seen, String name) {
+        return context -> seen.add(name);
+    }
+
+    private static Ethernet ipv4(byte protocol, IPacket transport) {
+        return (Ethernet) new Ethernet()
+                .setEtherType(Ethernet.TYPE_IPV4)
+                .setPayload(new IPv4().setProtocol(protocol).setPayload(transport));
+    }
+
+    private static DefaultPacketContext context(Ethernet parsed) {
+        ConnectPoint cp = new ConnectPoint(FOO_DID, PortNumber.portNumber(1));
+        return new DefaultPacketContext(0, new DefaultInboundPacket(cp, parsed, ByteBuffer.allocate(0)),
+                                        null, false) {
+            @Override
+            public void send() {
+            }
+        };
+    }
+
+    private static class TestPacketProvider extends AbstractProvider implements PacketProvider {
+        TestPacketProvider() {
+            super(FOO_PID);
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
     private static class TestDeviceService extends DeviceServiceAdapter {
         @Override
         public int getDeviceCount() {
@@ -16,12 +16,18 @@
 package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.MoreObjects;
-import org.onlab.util.ByteArraySizeHashPrinter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.onosproject.store.cluster.messaging.Endpoint;
 
+import java.nio.ByteBuffer;
+
 /**
  * Internal message representation with additional attributes
  * for supporting, synchronous request/reply behavior.
+ * <p>
+ * The payload is held in a (possibly pooled) buffer that is owned by the
+ * message. Whoever consumes the message last must {@link #release()} it.
  */
 public final class InternalMessage {
 
@@ -58,7 +64,7 @@ public final class InternalMessage {
     private final long id;
     private final Endpoint sender;
     private final String type;
-    private final byte[] payload;
+    private final ByteBuf payload;
     private final Status status;
 
     public InternalMessage(int preamble, long id, Endpoint sender, String type, byte[] payload) {
@@ -66,6 +72,14 @@ public final class InternalMessage {
     }
 
     public InternalMessage(int preamble, long id, Endpoint sender, String type, byte[] payload, Status status) {
+        this(preamble, id, sender, type, Unpooled.wrappedBuffer(payload), status);
+    }
+
+    public InternalMessage(int preamble, long id, Endpoint sender, String type, ByteBuf payload) {
+        this(preamble, id, sender, type, payload, Status.OK);
+    }
+
+    public InternalMessage(int preamble, long id, Endpoint sender, String type, ByteBuf payload, Status status) {
         this.preamble = preamble;
         this.id = id;
         this.sender = sender;
@@ -90,10 +104,48 @@ public final class InternalMessage {
         return sender;
     }
 
+    /**
+     * Returns the payload as a byte array. The backing array is returned
+     * as is if the payload wraps a whole array; otherwise it is copied.
+     *
+     * @return payload bytes
+     */
     public byte[] payload() {
+        if (payload.hasArray() && payload.arrayOffset() == 0 && payload.readerIndex() == 0
+                && payload.array().length == payload.readableBytes()) {
+            return payload.array();
+        }
+        byte[] bytes = new byte[payload.readableBytes()];
+        payload.getBytes(payload.readerIndex(), bytes);
+        return bytes;
+    }
+
+    /**
+     * Returns a read-only view of the payload without copying it.
+     * The view is only valid until the message is released.
+     *
+     * @return payload view
+     */
+    public ByteBuffer payloadView() {
+        return payload.nioBuffer().asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the buffer holding the payload.
+     *
+     * @return payload buffer
+     */
+    public ByteBuf payloadBuffer() {
         return payload;
     }
 
+    /**
+     * Releases the payload buffer back to its pool, if any.
+     */
+    public void release() {
+        payload.release();
+    }
+
     public Status status() {
         return status;
     }
@@ -105,7 +157,7 @@ public final class InternalMessage {
                 .add("type", type)
                 .add("sender", sender)
                 .add("status", status)
-                .add("payload", ByteArraySizeHashPrinter.of(payload))
+                .add("payloadLength", payload.readableBytes())
                 .toString();
     }
 }
@@ -18,6 +18,7 @@ package org.onosproject.store.cluster.messaging.impl;
 import com.google.common.base.Charsets;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ReplayingDecoder;
 
@@ -93,13 +94,14 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
             contentLength = buffer.readInt();
             checkpoint(DecoderState.READ_CONTENT);
         case READ_CONTENT:
-            byte[] payload;
+            ByteBuf payload;
             if (contentLength > 0) {
-                //TODO Perform a sanity check on the size before allocating
-                payload = new byte[contentLength];
-                buffer.readBytes(payload);
+                //TODO Perform a sanity check on the size
+                // Hand out a retained slice of the inbound buffer rather
+                // than copying; the message is released once dispatched.
+                payload = buffer.readSlice(contentLength).retain();
             } else {
-                payload = new byte[0];
+                payload = Unpooled.EMPTY_BUFFER;
             }
             InternalMessage message = new InternalMessage(preamble,
                                                           messageId,
@@ -19,7 +19,7 @@ import com.google.common.base.Charsets;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpAddress.Version;
 import org.onosproject.store.cluster.messaging.Endpoint;
@@ -27,12 +27,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
- * Encode InternalMessage out into a byte buffer.
+ * Encode InternalMessage out into a header buffer followed by the
+ * payload buffer, which is passed on without being copied.
  */
 @Sharable
-public class MessageEncoder extends MessageToByteEncoder<InternalMessage> {
+public class MessageEncoder extends MessageToMessageEncoder<InternalMessage> {
+
+    // preamble + id + ip version + port + type length + status + payload length
+    private static final int FIXED_HEADER_LENGTH = 4 + 8 + 1 + 4 + 4 + 4 + 4;
 
     private final int preamble;
 
@@ -47,16 +52,21 @@ public class MessageEncoder extends MessageToByteEncoder<InternalMessage> {
     protected void encode(
             ChannelHandlerContext context,
             InternalMessage message,
-            ByteBuf out) throws Exception {
+            List<Object> encoded) throws Exception {
+
+        Endpoint sender = message.sender();
+        IpAddress senderIp = sender.host();
+        byte[] messageTypeBytes = message.type().getBytes(Charsets.UTF_8);
+        ByteBuf payload = message.payloadBuffer();
+
+        ByteBuf out = context.alloc().ioBuffer(FIXED_HEADER_LENGTH
+                + IpAddress.byteLength(senderIp.version()) + messageTypeBytes.length);
 
         out.writeInt(this.preamble);
 
         // write message id
         out.writeLong(message.id());
 
-        Endpoint sender = message.sender();
-
-        IpAddress senderIp = sender.host();
         if (senderIp.version() == Version.INET) {
             out.writeByte(0);
         } else {
@@ -67,8 +77,6 @@ public class MessageEncoder extends MessageToByteEncoder<InternalMessage> {
         // write sender port
         out.writeInt(sender.port());
 
-        byte[] messageTypeBytes = message.type().getBytes(Charsets.UTF_8);
-
         // write length of message type
         out.writeInt(messageTypeBytes.length);
 
@@ -78,13 +86,13 @@ public class MessageEncoder extends MessageToByteEncoder<InternalMessage> {
         // write message status value
         out.writeInt(message.status().ordinal());
 
-        byte[] payload = message.payload();
-
         // write payload length
-        out.writeInt(payload.length);
+        out.writeInt(payload.readableBytes());
+
+        encoded.add(out);
 
-        // write payload.
-        out.writeBytes(payload);
+        // write payload; ownership of the buffer passes on to the channel.
+        encoded.add(payload);
     }
 
     @Override
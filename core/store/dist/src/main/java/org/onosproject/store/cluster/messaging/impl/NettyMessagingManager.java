@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import com.codahale.metrics.Histogram;
 import com.google.common.base.Strings;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -24,7 +25,10 @@ import com.google.common.util.concurrent.MoreExecutors;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
@@ -50,6 +54,9 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.Tools;
 import org.onosproject.cluster.ClusterMetadataService;
 import org.onosproject.cluster.ControllerNode;
@@ -67,6 +74,8 @@ import javax.net.ssl.TrustManagerFactory;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.security.KeyStore;
 import java.util.Map;
 import java.util.Optional;
@@ -81,6 +90,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.CLUSTER_WRITE;
@@ -99,6 +109,23 @@ public class NettyMessagingManager implements MessagingService {
 
     private static final String REPLY_MESSAGE_TYPE = "NETTY_MESSAGING_REQUEST_REPLY";
 
+    // Batching settings, read from system properties when activated
+    private static final String MAX_BATCH_DELAY_MICROS = "nettyMaxBatchDelayMicros";
+    private static final String MAX_BATCH_BYTES = "nettyMaxBatchBytes";
+    private static final int DEFAULT_MAX_BATCH_DELAY_MICROS = 0;
+    private static final int DEFAULT_MAX_BATCH_BYTES = 64 * 1024;
+
+    private static final String METRICS_COMPONENT = "ClusterMessaging";
+    private static final String METRICS_FEATURE = "outboundBatch";
+    private static final String BATCH_MESSAGES = "messages";
+    private static final String BATCH_BYTES = "bytes";
+
+    // Maximum delay in microseconds for coalescing outbound messages to a
+    // peer into a single flush; 0 flushes as soon as no more writes are queued
+    private int maxBatchDelayMicros = DEFAULT_MAX_BATCH_DELAY_MICROS;
+    // Outbound payload bytes to a peer after which a batch is flushed right away
+    private int maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
+
     private Endpoint localEp;
     private int preamble;
     private final AtomicBoolean started = new AtomicBoolean(false);
@@ -135,10 +162,17 @@ public class NettyMessagingManager implements MessagingService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterMetadataService clusterMetadataService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private Histogram batchMessages;
+    private Histogram batchBytes;
+
     @Activate
     public void activate() throws Exception {
         ControllerNode localNode = clusterMetadataService.getLocalNode();
         getTlsParameters();
+        getBatchParameters();
 
         if (started.get()) {
             log.warn("Already running at local endpoint: {}", localEp);
@@ -151,6 +185,12 @@ public class NettyMessagingManager implements MessagingService {
         channels.setTestOnReturn(true);
         channels.setMinEvictableIdleTimeMillis(60_000L);
         channels.setTimeBetweenEvictionRunsMillis(30_000L);
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+            batchMessages = metricsService.createHistogram(component, feature, BATCH_MESSAGES);
+            batchBytes = metricsService.createHistogram(component, feature, BATCH_BYTES);
+        }
         initEventLoopGroup();
         startAcceptingConnections();
         started.set(true);
@@ -169,6 +209,17 @@ public class NettyMessagingManager implements MessagingService {
         log.info("Stopped");
     }
 
+    // The batching settings are not component properties: the component
+    // configuration service depends on the storage stack, which in turn
+    // depends on this service.
+    private void getBatchParameters() {
+        maxBatchDelayMicros = Math.max(0, Integer.getInteger(MAX_BATCH_DELAY_MICROS,
+                                                             DEFAULT_MAX_BATCH_DELAY_MICROS));
+        maxBatchBytes = Math.max(1, Integer.getInteger(MAX_BATCH_BYTES, DEFAULT_MAX_BATCH_BYTES));
+        log.info("{} = {}, {} = {}", MAX_BATCH_DELAY_MICROS, maxBatchDelayMicros,
+                 MAX_BATCH_BYTES, maxBatchBytes);
+    }
+
     private void getTlsParameters() {
         String tempString = System.getProperty("enableNettyTLS");
         enableNettyTls = Strings.isNullOrEmpty(tempString) ? TLS_DISABLED : Boolean.parseBoolean(tempString);
@@ -217,6 +268,22 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public CompletableFuture<Void> sendAsync(Endpoint ep, String type, byte[] payload) {
         checkPermission(CLUSTER_WRITE);
+        return sendAsync(ep, type, Unpooled.wrappedBuffer(payload));
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(Endpoint ep, String type, Consumer<OutputStream> payloadWriter) {
+        checkPermission(CLUSTER_WRITE);
+        ByteBuf payload;
+        try {
+            payload = writePayload(payloadWriter);
+        } catch (RuntimeException e) {
+            return Tools.exceptionalFuture(e);
+        }
+        return sendAsync(ep, type, payload);
+    }
+
+    private CompletableFuture<Void> sendAsync(Endpoint ep, String type, ByteBuf payload) {
         InternalMessage message = new InternalMessage(preamble,
                                                       messageIdGenerator.incrementAndGet(),
                                                       localEp,
@@ -225,6 +292,30 @@ public class NettyMessagingManager implements MessagingService {
         return sendAsync(ep, message);
     }
 
+    /**
+     * Serializes a payload straight into a pooled direct buffer.
+     *
+     * @param payloadWriter writer of the payload
+     * @return buffer holding the payload; owned by the caller
+     */
+    private ByteBuf writePayload(Consumer<OutputStream> payloadWriter) {
+        ByteBuf buffer = PooledByteBufAllocator.DEFAULT.directBuffer();
+        try {
+            payloadWriter.accept(new ByteBufOutputStream(buffer));
+            return buffer;
+        } catch (RuntimeException e) {
+            buffer.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a message, taking over ownership of its payload buffer.
+     *
+     * @param ep      end point to send the message to
+     * @param message message to send
+     * @return future that is completed when the message is sent
+     */
     protected CompletableFuture<Void> sendAsync(Endpoint ep, InternalMessage message) {
         checkPermission(CLUSTER_WRITE);
         if (ep.equals(localEp)) {
@@ -243,6 +334,10 @@ public class NettyMessagingManager implements MessagingService {
                 connection = channels.borrowObject(ep);
                 connection.send(message, future);
             } finally {
+                if (connection == null) {
+                    // never made it to a channel
+                    message.release();
+                }
                 channels.returnObject(ep, connection);
             }
         } catch (Exception e) {
@@ -260,6 +355,23 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, byte[] payload, Executor executor) {
         checkPermission(CLUSTER_WRITE);
+        return sendAndReceive(ep, type, Unpooled.wrappedBuffer(payload), executor);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type,
+                                                    Consumer<OutputStream> payloadWriter, Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        ByteBuf payload;
+        try {
+            payload = writePayload(payloadWriter);
+        } catch (RuntimeException e) {
+            return Tools.exceptionalFuture(e);
+        }
+        return sendAndReceive(ep, type, payload, executor);
+    }
+
+    private CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, ByteBuf payload, Executor executor) {
         CompletableFuture<byte[]> response = new CompletableFuture<>();
         Callback callback = new Callback(response, executor);
         Long messageId = messageIdGenerator.incrementAndGet();
@@ -275,17 +387,58 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public void registerHandler(String type, BiConsumer<Endpoint, byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
-        handlers.put(type, message -> executor.execute(() -> handler.accept(message.sender(), message.payload())));
+        registerHandler(type, InternalMessage::payload, handler, executor);
     }
 
     @Override
     public void registerHandler(String type, BiFunction<Endpoint, byte[], byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
-        handlers.put(type, message -> executor.execute(() -> {
+        registerHandler(type, InternalMessage::payload, handler, executor);
+    }
+
+    @Override
+    public void registerHandler(String type, BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> handler) {
+        checkPermission(CLUSTER_WRITE);
+        registerHandler(type, InternalMessage::payload, handler);
+    }
+
+    @Override
+    public void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        registerHandler(type, InternalMessage::payloadView, handler, executor);
+    }
+
+    @Override
+    public void registerBufferHandler(String type, BiFunction<Endpoint, ByteBuffer, byte[]> handler,
+                                      Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        registerHandler(type, InternalMessage::payloadView, handler, executor);
+    }
+
+    @Override
+    public void registerBufferHandler(String type,
+                                      BiFunction<Endpoint, ByteBuffer, CompletableFuture<byte[]>> handler) {
+        checkPermission(CLUSTER_WRITE);
+        registerHandler(type, InternalMessage::payloadView, handler);
+    }
+
+    private <P> void registerHandler(String type,
+                                     Function<InternalMessage, P> payload,
+                                     BiConsumer<Endpoint, P> handler,
+                                     Executor executor) {
+        handlers.put(type, message -> execute(executor, message,
+                () -> handler.accept(message.sender(), payload.apply(message))));
+    }
+
+    private <P> void registerHandler(String type,
+                                     Function<InternalMessage, P> payload,
+                                     BiFunction<Endpoint, P, byte[]> handler,
+                                     Executor executor) {
+        handlers.put(type, message -> execute(executor, message, () -> {
             byte[] responsePayload = null;
             Status status = Status.OK;
             try {
-                responsePayload = handler.apply(message.sender(), message.payload());
+                responsePayload = handler.apply(message.sender(), payload.apply(message));
             } catch (Exception e) {
                 status = Status.ERROR_HANDLER_EXCEPTION;
             }
@@ -293,17 +446,46 @@ public class NettyMessagingManager implements MessagingService {
         }));
     }
 
-    @Override
-    public void registerHandler(String type, BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> handler) {
-        checkPermission(CLUSTER_WRITE);
+    private <P> void registerHandler(String type,
+                                     Function<InternalMessage, P> payload,
+                                     BiFunction<Endpoint, P, CompletableFuture<byte[]>> handler) {
         handlers.put(type, message -> {
-            handler.apply(message.sender(), message.payload()).whenComplete((result, error) -> {
+            CompletableFuture<byte[]> response;
+            try {
+                response = handler.apply(message.sender(), payload.apply(message));
+            } finally {
+                message.release();
+            }
+            response.whenComplete((result, error) -> {
                 Status status = error == null ? Status.OK : Status.ERROR_HANDLER_EXCEPTION;
                 sendReply(message, status, Optional.ofNullable(result));
             });
         });
     }
 
+    /**
+     * Runs a handler task on the given executor and releases the message
+     * once the task has completed or could not be scheduled.
+     *
+     * @param executor executor to run the task on
+     * @param message  message consumed by the task
+     * @param task     handler task
+     */
+    private void execute(Executor executor, InternalMessage message, Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    message.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            message.release();
+            throw e;
+        }
+    }
+
     @Override
     public void unregisterHandler(String type) {
         checkPermission(CLUSTER_WRITE);
@@ -524,15 +706,18 @@ public class NettyMessagingManager implements MessagingService {
                 }
             } finally {
                 callbacks.invalidate(message.id());
+                message.release();
             }
             return;
         }
         Consumer<InternalMessage> handler = handlers.get(type);
         if (handler != null) {
+            // the handler takes over the message and releases it when done
             handler.accept(message);
         } else {
             log.debug("No handler for message type {}", message.type(), message.sender());
             sendReply(message, Status.ERROR_NO_HANDLER, Optional.empty());
+            message.release();
         }
     }
 
@@ -567,8 +752,20 @@ public class NettyMessagingManager implements MessagingService {
             executor.execute(() -> future.completeExceptionally(error));
         }
     }
+    /**
+     * Pooled connection to a peer.
+     * <p>
+     * Outbound messages are written to the channel as they come, but flushes
+     * are coalesced: a single flush is scheduled on the channel's event loop
+     * once the first message of a batch is written, and is brought forward
+     * when the batch exceeds {@code maxBatchBytes}. The batch state is only
+     * ever touched from the event loop.
+     */
     private final class Connection {
         private final CompletableFuture<Channel> internalFuture;
+        private int pendingMessages;
+        private long pendingBytes;
+        private boolean flushScheduled;
 
         public Connection(CompletableFuture<Channel> internalFuture) {
             this.internalFuture = internalFuture;
@@ -576,27 +773,75 @@ public class NettyMessagingManager implements MessagingService {
 
         /**
          * Sends a message out on its channel and associated the message with a
-         * completable future used for signaling.
+         * completable future used for signaling. The connection takes over
+         * ownership of the message payload.
          * @param message the message to be sent
          * @param future a future that is completed normally or exceptionally if
          *               message sending succeeds or fails respectively
          */
-        public void send(Object message, CompletableFuture<Void> future) {
+        public void send(InternalMessage message, CompletableFuture<Void> future) {
             internalFuture.whenComplete((channel, throwable) -> {
                 if (throwable == null) {
-                    channel.writeAndFlush(message).addListener(channelFuture -> {
-                        if (!channelFuture.isSuccess()) {
-                            future.completeExceptionally(channelFuture.cause());
-                        } else {
-                            future.complete(null);
-                        }
-                    });
+                    if (channel.eventLoop().inEventLoop()) {
+                        write(channel, message, future);
+                        return;
+                    }
+                    try {
+                        channel.eventLoop().execute(() -> write(channel, message, future));
+                    } catch (RejectedExecutionException e) {
+                        message.release();
+                        future.completeExceptionally(e);
+                    }
                 } else {
+                    message.release();
                     future.completeExceptionally(throwable);
                 }
             });
         }
 
+        private void write(Channel channel, InternalMessage message, CompletableFuture<Void> future) {
+            int size = message.payloadBuffer().readableBytes();
+            channel.write(message).addListener(channelFuture -> {
+                if (!channelFuture.isSuccess()) {
+                    future.completeExceptionally(channelFuture.cause());
+                } else {
+                    future.complete(null);
+                }
+            });
+            pendingMessages++;
+            pendingBytes += size;
+            if (pendingBytes >= maxBatchBytes) {
+                flush(channel);
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                int delay = maxBatchDelayMicros;
+                if (delay > 0) {
+                    channel.eventLoop().schedule(() -> scheduledFlush(channel), delay, TimeUnit.MICROSECONDS);
+                } else {
+                    // runs after the writes already queued on the event loop
+                    channel.eventLoop().execute(() -> scheduledFlush(channel));
+                }
+            }
+        }
+
+        private void scheduledFlush(Channel channel) {
+            flushScheduled = false;
+            flush(channel);
+        }
+
+        private void flush(Channel channel) {
+            if (pendingMessages == 0) {
+                return;
+            }
+            if (batchMessages != null) {
+                batchMessages.update(pendingMessages);
+                batchBytes.update(pendingBytes);
+            }
+            pendingMessages = 0;
+            pendingBytes = 0;
+            channel.flush();
+        }
+
         /**
          * Destroys a channel by closing its channel (if it exists) and
          * cancelling its future.
@@ -91,6 +91,7 @@ package org.onosproject.store.flow.impl;
  import java.util.concurrent.ScheduledFuture;
  import java.util.concurrent.TimeUnit;
  import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
  import java.util.concurrent.atomic.AtomicReference;
  import java.util.stream.Collectors;
 
@@ -119,6 +120,8 @@ public class DistributedFlowRuleStore
     private static final long FLOW_RULE_STORE_TIMEOUT_MILLIS = 5000;
     // number of devices whose flow entries will be backed up in one communication round
     private static final int FLOW_TABLE_BACKUP_BATCH_SIZE = 1;
+    // number of flow table changes retained per device for computing delta backups
+    private static final int FLOW_TABLE_CHANGE_LOG_SIZE = 50000;
 
     @Property(name = "msgHandlerPoolSize", intValue = MESSAGE_HANDLER_THREAD_POOL_SIZE,
             label = "Number of threads in the message handler pool")
@@ -126,7 +129,7 @@ public class DistributedFlowRuleStore
 
     @Property(name = "backupEnabled", boolValue = DEFAULT_BACKUP_ENABLED,
             label = "Indicates whether backups are enabled or not")
-    private boolean backupEnabled = DEFAULT_BACKUP_ENABLED;
+    private volatile boolean backupEnabled = DEFAULT_BACKUP_ENABLED;
 
     @Property(name = "backupPeriod", intValue = DEFAULT_BACKUP_PERIOD_MILLIS,
             label = "Delay in ms between successive backup runs")
@@ -180,6 +183,7 @@ public class DistributedFlowRuleStore
             KryoNamespace.newBuilder()
                     .register(DistributedStoreSerializers.STORE_COMMON)
                     .nextId(DistributedStoreSerializers.STORE_CUSTOM_BEGIN)
+                    .register(FlowTableBackup.class)
                     .build("FlowRuleStore"));
 
     protected static final KryoNamespace.Builder SERIALIZER_BUILDER = KryoNamespace.newBuilder()
@@ -274,6 +278,9 @@ public class DistributedFlowRuleStore
         boolean restartBackupTask = false;
         if (newBackupEnabled != backupEnabled) {
             backupEnabled = newBackupEnabled;
+            // changes are not logged while backups are disabled, so the
+            // first backup after enabling them has to be a full one
+            flowTable.resetChangeLogs();
             if (!backupEnabled) {
                 replicaInfoManager.removeListener(flowTable);
                 if (backupTask != null) {
@@ -350,10 +357,26 @@ public class DistributedFlowRuleStore
     @Override
     public int getFlowRuleCount() {
         AtomicInteger sum = new AtomicInteger(0);
-        deviceService.getDevices().forEach(device -> sum.addAndGet(Iterables.size(getFlowEntries(device.id()))));
+        deviceService.getDevices().forEach(device -> sum.addAndGet(getFlowRuleCount(device.id())));
         return sum.get();
     }
 
+    @Override
+    public int getFlowRuleCount(DeviceId deviceId) {
+        if (Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
+            return flowTable.getSummary(deviceId).count();
+        }
+        return Iterables.size(getFlowEntries(deviceId));
+    }
+
+    @Override
+    public long getFlowRuleCookieHash(DeviceId deviceId) {
+        if (Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
+            return flowTable.getSummary(deviceId).cookieHash();
+        }
+        return FlowRuleStore.super.getFlowRuleCookieHash(deviceId);
+    }
+
     @Override
     public FlowEntry getFlowEntry(FlowRule rule) {
         NodeId master = mastershipService.getMasterFor(rule.deviceId());
@@ -499,6 +522,7 @@ public class DistributedFlowRuleStore
                             if (entry != null) {
                                 //FIXME modification of "stored" flow entry outside of flow table
                                 entry.setState(FlowEntryState.PENDING_REMOVE);
+                                flowTable.updated(entry);
                                 log.debug("Setting state of rule to pending remove: {}", entry);
                                 return op;
                             }
@@ -531,6 +555,7 @@ public class DistributedFlowRuleStore
             if (stored != null &&
                     stored.state() != FlowEntryState.PENDING_ADD) {
                 stored.setState(FlowEntryState.PENDING_ADD);
+                flowTable.updated(stored);
                 return new FlowRuleEvent(Type.RULE_UPDATED, rule);
             }
         }
@@ -560,8 +585,10 @@ public class DistributedFlowRuleStore
             stored.setLastSeen();
             if (stored.state() == FlowEntryState.PENDING_ADD) {
                 stored.setState(FlowEntryState.ADDED);
+                flowTable.updated(stored);
                 return new FlowRuleEvent(Type.RULE_ADDED, rule);
             }
+            // statistics only; the standby does not need to hear about these
             return new FlowRuleEvent(Type.RULE_UPDATED, rule);
         }
 
@@ -661,9 +688,15 @@ public class DistributedFlowRuleStore
         private final Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
                 flowEntries = Maps.newConcurrentMap();
 
-        private final Map<DeviceId, Long> lastBackupTimes = Maps.newConcurrentMap();
-        private final Map<DeviceId, Long> lastUpdateTimes = Maps.newConcurrentMap();
+        // per device change logs used to compute delta backups while this node is master
+        private final Map<DeviceId, FlowTableChangeLog> changeLogs = Maps.newConcurrentMap();
+        // last change log sequence acknowledged by the backup node
+        private final Map<DeviceId, Long> lastBackupSequences = Maps.newConcurrentMap();
         private final Map<DeviceId, NodeId> lastBackupNodes = Maps.newConcurrentMap();
+        // change log position of the backups received while this node is standby
+        private final Map<DeviceId, BackupVersion> backupVersions = Maps.newConcurrentMap();
+        // number of entries and sum of their cookie hashes, per device
+        private final Map<DeviceId, FlowTableSummary> summaries = Maps.newConcurrentMap();
 
         @Override
         public void event(ReplicaInfoEvent event) {
@@ -674,7 +707,15 @@ public class DistributedFlowRuleStore
             if (!backupEnabled) {
                 return;
             }
-            if (event.type() == ReplicaInfoEvent.Type.BACKUPS_CHANGED) {
+            if (event.type() == ReplicaInfoEvent.Type.MASTER_CHANGED) {
+                // Change logs and backup positions are only meaningful for a single
+                // mastership term; start afresh so that the next backup is a full one.
+                DeviceId deviceId = event.subject();
+                changeLogs.remove(deviceId);
+                lastBackupSequences.remove(deviceId);
+                lastBackupNodes.remove(deviceId);
+                backupVersions.remove(deviceId);
+            } else if (event.type() == ReplicaInfoEvent.Type.BACKUPS_CHANGED) {
                 DeviceId deviceId = event.subject();
                 NodeId master = mastershipService.getMasterFor(deviceId);
                 if (!Objects.equals(local, master)) {
@@ -695,7 +736,7 @@ public class DistributedFlowRuleStore
                     log.warn("Lost backup location {} for deviceId {} and no alternate backup node exists. "
                             + "Flows can be lost if the master goes down", currentBackupNode, deviceId);
                     lastBackupNodes.remove(deviceId);
-                    lastBackupTimes.remove(deviceId);
+                    lastBackupSequences.remove(deviceId);
                     return;
                     // TODO: Pick any available node as backup and ensure hand-off occurs when
                     // a new master is elected.
@@ -719,34 +760,60 @@ public class DistributedFlowRuleStore
                 return;
             }
             log.debug("Sending flowEntries for devices {} to {} as backup.", deviceIds, nodeId);
-            Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
-                    deviceFlowEntries = Maps.newConcurrentMap();
-            deviceIds.forEach(id -> deviceFlowEntries.put(id, ImmutableMap.copyOf(getFlowTable(id))));
-            clusterCommunicator.<Map<DeviceId,
-                                 Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>,
-                                 Set<DeviceId>>
-                    sendAndReceive(deviceFlowEntries,
+            Map<DeviceId, FlowTableBackup> backups = Maps.newConcurrentMap();
+            deviceIds.forEach(id -> backups.put(id, createBackup(nodeId, id)));
+            clusterCommunicator.<Map<DeviceId, FlowTableBackup>, Set<DeviceId>>
+                    sendAndReceive(backups,
                                    FLOW_TABLE_BACKUP,
                                    SERIALIZER::encode,
                                    SERIALIZER::decode,
                                    nodeId)
                     .whenComplete((backedupDevices, error) -> {
                         Set<DeviceId> devicesNotBackedup = error != null ?
-                            deviceFlowEntries.keySet() :
-                            Sets.difference(deviceFlowEntries.keySet(), backedupDevices);
+                            backups.keySet() :
+                            Sets.difference(backups.keySet(), backedupDevices);
                         if (devicesNotBackedup.size() > 0) {
                             log.warn("Failed to backup devices: {}. Reason: {}",
-                                     devicesNotBackedup, error.getMessage());
+                                     devicesNotBackedup, error != null ? error.getMessage() : "rejected");
+                            // force a full resync for these devices in the next round
+                            devicesNotBackedup.forEach(lastBackupSequences::remove);
                         }
                         if (backedupDevices != null) {
                             backedupDevices.forEach(id -> {
-                                lastBackupTimes.put(id, System.currentTimeMillis());
+                                lastBackupSequences.put(id, backups.get(id).sequence());
                                 lastBackupNodes.put(id, nodeId);
                             });
                         }
                     });
         }
 
+        /**
+         * Creates a backup of the flow table of the specified device. A delta is
+         * produced when the backup node already acknowledged an earlier position in
+         * the change log and the log still retains all changes since then; otherwise
+         * the whole flow table is copied.
+         *
+         * @param nodeId   backup node
+         * @param deviceId identifier of the device
+         * @return flow table backup
+         */
+        private FlowTableBackup createBackup(NodeId nodeId, DeviceId deviceId) {
+            FlowTableChangeLog changeLog = getChangeLog(deviceId);
+            Long lastBackupSequence = lastBackupSequences.get(deviceId);
+            if (lastBackupSequence != null && Objects.equals(nodeId, lastBackupNodes.get(deviceId))) {
+                FlowTableBackup delta = changeLog.deltaSince(deviceId, lastBackupSequence);
+                if (delta != null) {
+                    return delta;
+                }
+                log.debug("Backup of {} on {} fell too far behind; sending full flow table",
+                          deviceId, nodeId);
+            }
+            // read the sequence before copying so that concurrent changes are resent later
+            long sequence = changeLog.sequence();
+            return FlowTableBackup.full(deviceId, changeLog.epoch(), sequence,
+                                        ImmutableMap.copyOf(getFlowTable(deviceId)));
+        }
+
         /**
          * Returns the flow table for specified device.
          *
@@ -775,6 +842,26 @@ public class DistributedFlowRuleStore
             }
         }
 
+        /**
+         * Returns the summary of the flow table of the specified device. It is
+         * kept up to date as entries are added and removed, and computed from
+         * the table when it is filled otherwise, e.g. from a backup.
+         *
+         * @param deviceId identifier of the device
+         * @return flow table summary
+         */
+        private FlowTableSummary getSummary(DeviceId deviceId) {
+            return summaries.computeIfAbsent(deviceId, id -> {
+                FlowTableSummary summary = new FlowTableSummary();
+                getFlowTable(id).values().forEach(m -> m.values().forEach(summary::added));
+                return summary;
+            });
+        }
+
+        private FlowTableChangeLog getChangeLog(DeviceId deviceId) {
+            return changeLogs.computeIfAbsent(deviceId, id -> new FlowTableChangeLog(FLOW_TABLE_CHANGE_LOG_SIZE));
+        }
+
         private Map<StoredFlowEntry, StoredFlowEntry> getFlowEntriesInternal(DeviceId deviceId, FlowId flowId) {
             return getFlowTable(deviceId).computeIfAbsent(flowId, id -> Maps.newConcurrentMap());
         }
@@ -802,9 +889,27 @@ public class DistributedFlowRuleStore
                     .compute((StoredFlowEntry) rule, (k, stored) -> {
                         //TODO compare stored and rule timestamps
                         //TODO the key is not updated
+                        if (stored == null) {
+                            getSummary(rule.deviceId()).added(rule);
+                        }
                         return (StoredFlowEntry) rule;
                     });
-            lastUpdateTimes.put(rule.deviceId(), System.currentTimeMillis());
+            if (backupEnabled) {
+                getChangeLog(rule.deviceId()).updated((StoredFlowEntry) rule);
+            }
+        }
+
+        /**
+         * Records an in-place state change of a stored entry so that it is
+         * included in the next delta backup. Statistics updates are not
+         * recorded.
+         *
+         * @param entry modified flow entry
+         */
+        public void updated(StoredFlowEntry entry) {
+            if (backupEnabled) {
+                getChangeLog(entry.deviceId()).updated(entry);
+            }
         }
 
         public FlowEntry remove(DeviceId deviceId, FlowEntry rule) {
@@ -824,19 +929,36 @@ public class DistributedFlowRuleStore
                         }
                     }
                     removedRule.set(stored);
+                    getSummary(deviceId).removed(stored);
                     return null;
                 });
 
             if (removedRule.get() != null) {
-                lastUpdateTimes.put(deviceId, System.currentTimeMillis());
+                if (backupEnabled) {
+                    getChangeLog(deviceId).removed((StoredFlowEntry) removedRule.get());
+                }
                 return removedRule.get();
             } else {
                 return null;
             }
         }
 
+        /**
+         * Drops all change logs and backup positions, so that the next backup
+         * of every device is a full one.
+         */
+        private void resetChangeLogs() {
+            changeLogs.clear();
+            lastBackupSequences.clear();
+            lastBackupNodes.clear();
+        }
+
         public void purgeFlowRule(DeviceId deviceId) {
             flowEntries.remove(deviceId);
+            summaries.remove(deviceId);
+            changeLogs.remove(deviceId);
+            lastBackupSequences.remove(deviceId);
+            backupVersions.remove(deviceId);
         }
 
         private NodeId getBackupNode(DeviceId deviceId) {
@@ -855,13 +977,12 @@ public class DistributedFlowRuleStore
                             .stream()
                             .filter(mastershipService::isLocalMaster)
                             .filter(deviceId -> {
-                                Long lastBackupTime = lastBackupTimes.get(deviceId);
-                                Long lastUpdateTime = lastUpdateTimes.get(deviceId);
+                                Long lastBackupSequence = lastBackupSequences.get(deviceId);
                                 NodeId lastBackupNode = lastBackupNodes.get(deviceId);
                                 NodeId newBackupNode = getBackupNode(deviceId);
-                                return lastBackupTime == null
+                                return lastBackupSequence == null
                                         ||  !Objects.equals(lastBackupNode, newBackupNode)
-                                        || (lastUpdateTime != null && lastUpdateTime > lastBackupTime);
+                                        || getChangeLog(deviceId).sequence() > lastBackupSequence;
                             })
                             .collect(Collectors.toSet());
 
@@ -881,18 +1002,14 @@ public class DistributedFlowRuleStore
             }
         }
 
-        private Set<DeviceId> onBackupReceipt(Map<DeviceId,
-                Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>> flowTables) {
-            log.debug("Received flowEntries for {} to backup", flowTables.keySet());
+        private Set<DeviceId> onBackupReceipt(Map<DeviceId, FlowTableBackup> backups) {
+            log.debug("Received flowEntries for {} to backup", backups.keySet());
             Set<DeviceId> backedupDevices = Sets.newHashSet();
             try {
-                flowTables.forEach((deviceId, deviceFlowTable) -> {
+                backups.forEach((deviceId, backup) -> {
                     // Only process those devices are that not managed by the local node.
-                    if (!Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
-                        Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> backupFlowTable =
-                                getFlowTable(deviceId);
-                        backupFlowTable.clear();
-                        backupFlowTable.putAll(deviceFlowTable);
+                    if (!Objects.equals(local, mastershipService.getMasterFor(deviceId))
+                            && applyBackup(deviceId, backup)) {
                         backedupDevices.add(deviceId);
                     }
                 });
@@ -901,6 +1018,87 @@ public class DistributedFlowRuleStore
             }
             return backedupDevices;
         }
+
+        private boolean applyBackup(DeviceId deviceId, FlowTableBackup backup) {
+            Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> backupFlowTable = getFlowTable(deviceId);
+            if (backup.isFull()) {
+                backupFlowTable.clear();
+                backupFlowTable.putAll(backup.flowTable());
+            } else {
+                BackupVersion expected = new BackupVersion(backup.epoch(), backup.baseSequence());
+                if (!expected.equals(backupVersions.get(deviceId))) {
+                    // delta does not apply on top of what we have; let master resend the full table
+                    log.debug("Rejecting out of sequence backup {}", backup);
+                    return false;
+                }
+                backup.removed().forEach(entry -> getFlowEntriesInternal(deviceId, entry.id()).remove(entry));
+                backup.updated().forEach(entry -> {
+                    Map<StoredFlowEntry, StoredFlowEntry> entries = getFlowEntriesInternal(deviceId, entry.id());
+                    entries.remove(entry);
+                    entries.put(entry, entry);
+                });
+            }
+            // Standby tables are only summarized when this node becomes master
+            summaries.remove(deviceId);
+            backupVersions.put(deviceId, new BackupVersion(backup.epoch(), backup.sequence()));
+            return true;
+        }
+    }
+
+    /**
+     * Number of entries of a flow table and sum of their cookie hashes.
+     */
+    private static final class FlowTableSummary {
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong cookieHash = new AtomicLong();
+
+        private void added(FlowRule rule) {
+            count.incrementAndGet();
+            cookieHash.addAndGet(FlowRuleStore.cookieHash(rule));
+        }
+
+        private void removed(FlowRule rule) {
+            count.decrementAndGet();
+            cookieHash.addAndGet(-FlowRuleStore.cookieHash(rule));
+        }
+
+        private int count() {
+            return count.get();
+        }
+
+        private long cookieHash() {
+            return cookieHash.get();
+        }
+    }
+
+    /**
+     * Position in a master's change log up to which a backup flow table is current.
+     */
+    private static final class BackupVersion {
+        private final long epoch;
+        private final long sequence;
+
+        private BackupVersion(long epoch, long sequence) {
+            this.epoch = epoch;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(epoch, sequence);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof BackupVersion)) {
+                return false;
+            }
+            BackupVersion that = (BackupVersion) obj;
+            return this.epoch == that.epoch && this.sequence == that.sequence;
+        }
     }
 
     @Override
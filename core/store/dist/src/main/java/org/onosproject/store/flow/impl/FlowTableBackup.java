@@ -0,0 +1,188 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.base.MoreObjects;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backup of a device flow table shipped from the master to its standby.
+ * <p>
+ * A backup is either a full copy of the flow table or a delta carrying only
+ * the entries updated and removed since {@link #baseSequence()} in the
+ * change log identified by {@link #epoch()}.
+ */
+public final class FlowTableBackup {
+
+    private final DeviceId deviceId;
+    private final long epoch;
+    private final long baseSequence;
+    private final long sequence;
+    private final Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowTable;
+    private final List<StoredFlowEntry> updated;
+    private final List<StoredFlowEntry> removed;
+
+    private FlowTableBackup(DeviceId deviceId, long epoch,
+                            long baseSequence, long sequence,
+                            Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowTable,
+                            List<StoredFlowEntry> updated,
+                            List<StoredFlowEntry> removed) {
+        this.deviceId = deviceId;
+        this.epoch = epoch;
+        this.baseSequence = baseSequence;
+        this.sequence = sequence;
+        this.flowTable = flowTable;
+        this.updated = updated;
+        this.removed = removed;
+    }
+
+    /**
+     * Creates a full backup of a device flow table.
+     *
+     * @param deviceId  device identifier
+     * @param epoch     epoch of the change log the table was taken from
+     * @param sequence  change log sequence the table reflects
+     * @param flowTable flow table snapshot
+     * @return full flow table backup
+     */
+    public static FlowTableBackup full(DeviceId deviceId, long epoch, long sequence,
+                                       Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowTable) {
+        return new FlowTableBackup(deviceId, epoch, sequence, sequence, flowTable,
+                                   Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Creates a delta backup of a device flow table.
+     *
+     * @param deviceId     device identifier
+     * @param epoch        epoch of the change log the delta was taken from
+     * @param baseSequence change log sequence the delta applies on top of
+     * @param sequence     change log sequence after applying the delta
+     * @param updated      entries added or updated since the base sequence
+     * @param removed      entries removed since the base sequence
+     * @return delta flow table backup
+     */
+    public static FlowTableBackup delta(DeviceId deviceId, long epoch,
+                                        long baseSequence, long sequence,
+                                        List<StoredFlowEntry> updated,
+                                        List<StoredFlowEntry> removed) {
+        return new FlowTableBackup(deviceId, epoch, baseSequence, sequence, null,
+                                   updated, removed);
+    }
+
+    /**
+     * Returns the device identifier.
+     *
+     * @return device identifier
+     */
+    public DeviceId deviceId() {
+        return deviceId;
+    }
+
+    /**
+     * Returns the epoch of the change log this backup was taken from.
+     *
+     * @return change log epoch
+     */
+    public long epoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the change log sequence this backup applies on top of.
+     * For full backups this is the same as {@link #sequence()}.
+     *
+     * @return base sequence
+     */
+    public long baseSequence() {
+        return baseSequence;
+    }
+
+    /**
+     * Returns the change log sequence reflected by this backup.
+     *
+     * @return sequence
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns whether this backup is a full copy of the flow table.
+     *
+     * @return true if full backup; false if delta
+     */
+    public boolean isFull() {
+        return flowTable != null;
+    }
+
+    /**
+     * Returns the flow table snapshot of a full backup.
+     *
+     * @return flow table or null if this is a delta
+     */
+    public Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowTable() {
+        return flowTable;
+    }
+
+    /**
+     * Returns the entries added or updated by a delta backup.
+     *
+     * @return updated entries
+     */
+    public List<StoredFlowEntry> updated() {
+        return updated;
+    }
+
+    /**
+     * Returns the entries removed by a delta backup.
+     *
+     * @return removed entries
+     */
+    public List<StoredFlowEntry> removed() {
+        return removed;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("deviceId", deviceId)
+                .add("epoch", epoch)
+                .add("baseSequence", baseSequence)
+                .add("sequence", sequence)
+                .add("full", isFull())
+                .add("updated", updated.size())
+                .add("removed", removed.size())
+                .toString();
+    }
+
+    // for serializer
+    private FlowTableBackup() {
+        this.deviceId = null;
+        this.epoch = 0;
+        this.baseSequence = 0;
+        this.sequence = 0;
+        this.flowTable = null;
+        this.updated = null;
+        this.removed = null;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Bounded, sequence-numbered log of changes made to a single device flow table.
+ * <p>
+ * The log is used to compute delta backups. Each log instance is tagged with
+ * a random epoch so that a standby can tell deltas computed against a log it
+ * has never seen apart from deltas it can safely apply.
+ */
+final class FlowTableChangeLog {
+
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final int capacity;
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private long sequence = 0;
+
+    /**
+     * Creates a change log retaining at most the given number of changes.
+     *
+     * @param capacity maximum number of retained changes
+     */
+    FlowTableChangeLog(int capacity) {
+        checkArgument(capacity > 0, "capacity must be positive");
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the epoch of this log.
+     *
+     * @return epoch
+     */
+    long epoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the sequence number of the latest recorded change.
+     *
+     * @return sequence number
+     */
+    synchronized long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Records that an entry was added or updated.
+     *
+     * @param entry flow entry
+     */
+    synchronized void updated(StoredFlowEntry entry) {
+        append(new Change(++sequence, entry, false));
+    }
+
+    /**
+     * Records that an entry was removed.
+     *
+     * @param entry flow entry
+     */
+    synchronized void removed(StoredFlowEntry entry) {
+        append(new Change(++sequence, entry, true));
+    }
+
+    private void append(Change change) {
+        changes.addLast(change);
+        if (changes.size() > capacity) {
+            changes.removeFirst();
+        }
+    }
+
+    /**
+     * Computes a delta backup containing all changes recorded after the given
+     * sequence number. Multiple changes to the same entry are coalesced into
+     * the latest one.
+     *
+     * @param deviceId     device the log belongs to
+     * @param baseSequence sequence number acknowledged by the standby
+     * @return delta backup or null if the log no longer retains all changes
+     * since the given sequence number
+     */
+    synchronized FlowTableBackup deltaSince(DeviceId deviceId, long baseSequence) {
+        if (baseSequence > sequence || baseSequence < sequence - changes.size()) {
+            return null;
+        }
+        Map<StoredFlowEntry, Change> latest = Maps.newLinkedHashMap();
+        Iterator<Change> it = changes.descendingIterator();
+        while (it.hasNext()) {
+            Change change = it.next();
+            if (change.sequence <= baseSequence) {
+                break;
+            }
+            latest.putIfAbsent(change.entry, change);
+        }
+        List<StoredFlowEntry> updated = Lists.newArrayList();
+        List<StoredFlowEntry> removed = Lists.newArrayList();
+        latest.values().forEach(change -> (change.removed ? removed : updated).add(change.entry));
+        return FlowTableBackup.delta(deviceId, epoch, baseSequence, sequence, updated, removed);
+    }
+
+    private static final class Change {
+        private final long sequence;
+        private final StoredFlowEntry entry;
+        private final boolean removed;
+
+        private Change(long sequence, StoredFlowEntry entry, boolean removed) {
+            this.sequence = sequence;
+            this.entry = entry;
+            this.removed = removed;
+        }
+    }
+}
@@ -57,7 +57,6 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -82,8 +81,11 @@ public class DistributedHostStore
     private ConsistentMap<HostId, DefaultHost> hostsConsistentMap;
     private Map<HostId, DefaultHost> hosts;
 
+    // Local copy of the hosts as of the latest map events, along with
+    // secondary indexes used to look them up by their attributes
     private final ConcurrentHashMap<HostId, DefaultHost> prevHosts =
             new ConcurrentHashMap<>();
+    private final HostIndex hostIndex = new HostIndex();
 
     private MapEventListener<HostId, DefaultHost> hostLocationTracker =
             new HostLocationTracker();
@@ -102,6 +104,7 @@ public class DistributedHostStore
         hosts = hostsConsistentMap.asJavaMap();
 
         prevHosts.putAll(hosts);
+        prevHosts.values().forEach(host -> hostIndex.update(null, host));
 
         hostsConsistentMap.addListener(hostLocationTracker);
 
@@ -112,6 +115,7 @@ public class DistributedHostStore
     public void deactivate() {
         hostsConsistentMap.removeListener(hostLocationTracker);
         prevHosts.clear();
+        hostIndex.clear();
 
         log.info("Stopped");
     }
@@ -245,46 +249,48 @@ public class DistributedHostStore
 
     @Override
     public Set<Host> getHosts(VlanId vlanId) {
-        return filter(hosts.values(), host -> Objects.equals(host.vlan(), vlanId));
+        return filter(hostIndex.hosts(vlanId), host -> Objects.equals(host.vlan(), vlanId));
     }
 
     @Override
     public Set<Host> getHosts(MacAddress mac) {
-        return filter(hosts.values(), host -> Objects.equals(host.mac(), mac));
+        return filter(hostIndex.hosts(mac), host -> Objects.equals(host.mac(), mac));
     }
 
     @Override
     public Set<Host> getHosts(IpAddress ip) {
-        return filter(hosts.values(), host -> host.ipAddresses().contains(ip));
+        return filter(hostIndex.hosts(ip), host -> host.ipAddresses().contains(ip));
     }
 
     @Override
     public Set<Host> getConnectedHosts(ConnectPoint connectPoint) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().location().equals(connectPoint))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return filter(hostIndex.hosts(connectPoint), host -> host.location().equals(connectPoint));
     }
 
     @Override
     public Set<Host> getConnectedHosts(DeviceId deviceId) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().location().deviceId().equals(deviceId))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return filter(hostIndex.hosts(deviceId), host -> host.location().deviceId().equals(deviceId));
     }
 
-    private Set<Host> filter(Collection<DefaultHost> collection, Predicate<DefaultHost> predicate) {
-        return collection.stream().filter(predicate).collect(Collectors.toSet());
+    // Resolves the indexed hosts, re-checking them in case they are being
+    // updated concurrently.
+    private Set<Host> filter(Collection<HostId> ids, Predicate<DefaultHost> predicate) {
+        ImmutableSet.Builder<Host> builder = ImmutableSet.builder();
+        for (HostId id : ids) {
+            DefaultHost host = prevHosts.get(id);
+            if (host != null && predicate.test(host)) {
+                builder.add(host);
+            }
+        }
+        return builder.build();
     }
 
     private class HostLocationTracker implements MapEventListener<HostId, DefaultHost> {
         @Override
         public void event(MapEvent<HostId, DefaultHost> event) {
             DefaultHost host = checkNotNull(event.value().value());
-            Host prevHost = prevHosts.put(host.id(), host);
+            DefaultHost prevHost = prevHosts.put(host.id(), host);
+            hostIndex.update(prevHost, host);
             switch (event.type()) {
                 case INSERT:
                     notifyDelegate(new HostEvent(HOST_ADDED, host));
@@ -297,6 +303,7 @@ public class DistributedHostStore
                     }
                     break;
                 case REMOVE:
+                    hostIndex.update(host, null);
                     if (prevHosts.remove(host.id()) != null) {
                         notifyDelegate(new HostEvent(HOST_REMOVED, host));
                     }
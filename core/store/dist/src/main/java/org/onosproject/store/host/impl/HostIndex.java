@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.host.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Secondary indexes of host identifiers by IP address, MAC address, VLAN,
+ * connect point and device.
+ * <p>
+ * The indexes are updated one host at a time by a single writer, while any
+ * number of threads may look them up concurrently. During an update a reader
+ * may still see a host under its previous keys, so callers are expected to
+ * re-check the attributes of the hosts they resolve.
+ * </p>
+ */
+final class HostIndex {
+
+    private final ConcurrentMap<IpAddress, Set<HostId>> byIp = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MacAddress, Set<HostId>> byMac = new ConcurrentHashMap<>();
+    private final ConcurrentMap<VlanId, Set<HostId>> byVlan = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ConnectPoint, Set<HostId>> byLocation = new ConcurrentHashMap<>();
+    private final ConcurrentMap<DeviceId, Set<HostId>> byDevice = new ConcurrentHashMap<>();
+
+    /**
+     * Updates the indexes to reflect a change of the given host.
+     *
+     * @param previous previous state of the host; null if it was just added
+     * @param current  current state of the host; null if it was just removed
+     */
+    void update(Host previous, Host current) {
+        if (previous == null && current == null) {
+            return;
+        }
+        HostId id = current != null ? current.id() : previous.id();
+        update(byIp, id, previous, current, Host::ipAddresses);
+        update(byMac, id, previous, current, host -> ImmutableSet.of(host.mac()));
+        update(byVlan, id, previous, current, host -> ImmutableSet.of(host.vlan()));
+        update(byLocation, id, previous, current, host -> ImmutableSet.of(location(host)));
+        update(byDevice, id, previous, current, host -> ImmutableSet.of(host.location().deviceId()));
+    }
+
+    // Adds the host under its new keys before dropping it from the stale ones,
+    // so that concurrent lookups on unchanged keys never miss it.
+    private static <K> void update(ConcurrentMap<K, Set<HostId>> index, HostId id,
+                                   Host previous, Host current, Function<Host, Set<K>> keys) {
+        Set<K> oldKeys = previous == null ? ImmutableSet.of() : keys.apply(previous);
+        Set<K> newKeys = current == null ? ImmutableSet.of() : keys.apply(current);
+        for (K key : newKeys) {
+            if (!oldKeys.contains(key)) {
+                index.compute(key, (k, ids) -> {
+                    Set<HostId> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                    result.add(id);
+                    return result;
+                });
+            }
+        }
+        for (K key : oldKeys) {
+            if (!newKeys.contains(key)) {
+                index.computeIfPresent(key, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    // Host locations are indexed as plain connect points.
+    private static ConnectPoint location(Host host) {
+        return new ConnectPoint(host.location().elementId(), host.location().port());
+    }
+
+    /**
+     * Removes all hosts from the indexes.
+     */
+    void clear() {
+        byIp.clear();
+        byMac.clear();
+        byVlan.clear();
+        byLocation.clear();
+        byDevice.clear();
+    }
+
+    /**
+     * Returns the identifiers of the hosts with the given IP address.
+     *
+     * @param ip IP address
+     * @return set of host identifiers
+     */
+    Set<HostId> hosts(IpAddress ip) {
+        return lookup(byIp, ip);
+    }
+
+    /**
+     * Returns the identifiers of the hosts with the given MAC address.
+     *
+     * @param mac MAC address
+     * @return set of host identifiers
+     */
+    Set<HostId> hosts(MacAddress mac) {
+        return lookup(byMac, mac);
+    }
+
+    /**
+     * Returns the identifiers of the hosts on the given VLAN.
+     *
+     * @param vlanId VLAN identifier
+     * @return set of host identifiers
+     */
+    Set<HostId> hosts(VlanId vlanId) {
+        return lookup(byVlan, vlanId);
+    }
+
+    /**
+     * Returns the identifiers of the hosts attached to the given connect point.
+     *
+     * @param connectPoint connect point
+     * @return set of host identifiers
+     */
+    Set<HostId> hosts(ConnectPoint connectPoint) {
+        return connectPoint == null ? Collections.emptySet() :
+                lookup(byLocation, new ConnectPoint(connectPoint.elementId(), connectPoint.port()));
+    }
+
+    /**
+     * Returns the identifiers of the hosts attached to the given device.
+     *
+     * @param deviceId device identifier
+     * @return set of host identifiers
+     */
+    Set<HostId> hosts(DeviceId deviceId) {
+        return lookup(byDevice, deviceId);
+    }
+
+    private static <K> Set<HostId> lookup(ConcurrentMap<K, Set<HostId>> index, K key) {
+        Set<HostId> ids = key == null ? null : index.get(key);
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+}
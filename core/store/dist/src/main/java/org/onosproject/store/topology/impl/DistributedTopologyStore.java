@@ -24,6 +24,9 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.graph.GraphPathSearch;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.common.DefaultTopology;
@@ -72,6 +75,7 @@ import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.onlab.util.Tools.get;
+import static org.onlab.util.Tools.getIntegerProperty;
 import static org.onlab.util.Tools.isNullOrEmpty;
 import static org.onosproject.net.topology.TopologyEvent.Type.TOPOLOGY_CHANGED;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -91,7 +95,7 @@ public class DistributedTopologyStore
 
     private final Logger log = getLogger(getClass());
 
-    private static final String FORMAT = "Settings: linkWeightFunction={}";
+    private static final String FORMAT = "Settings: linkWeightFunction={}, pathCacheSize={}";
 
     private volatile DefaultTopology current =
             new DefaultTopology(ProviderId.NONE,
@@ -114,6 +118,9 @@ public class DistributedTopologyStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private static final String HOP_COUNT = "hopCount";
     private static final String LINK_METRIC = "linkMetric";
     private static final String GEO_DISTANCE = "geoDistance";
@@ -123,6 +130,13 @@ public class DistributedTopologyStore
             label = "Default link-weight function: hopCount, linkMetric, geoDistance")
     private String linkWeightFunction = DEFAULT_LINK_WEIGHT_FUNCTION;
 
+    @Property(name = "pathCacheSize", intValue = DefaultTopology.DEFAULT_PATH_CACHE_SIZE,
+            label = "Maximum number of shortest-path trees cached per topology; 0 to disable")
+    private int pathCacheSize = DefaultTopology.DEFAULT_PATH_CACHE_SIZE;
+
+    private static final String METRICS_COMPONENT = "Topology";
+    private static final String METRICS_FEATURE = "pathCache";
+
     // Cluster root to broadcast points bindings to allow convergence to
     // a shared broadcast tree; node that is the master of the cluster root
     // is the primary.
@@ -134,6 +148,11 @@ public class DistributedTopologyStore
     @Activate
     protected void activate() {
         configService.registerProperties(getClass());
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+        DefaultTopology.setPathCacheMetrics(metricsService.createCounter(component, feature, "hits"),
+                                            metricsService.createCounter(component, feature, "misses"));
+
         KryoNamespace.Builder hostSerializer = KryoNamespace.newBuilder()
                 .register(KryoNamespaces.API);
 
@@ -168,7 +187,13 @@ public class DistributedTopologyStore
                             new GeoDistanceLinkWeight(deviceService) : null;
             setDefaultLinkWeight(weight);
         }
-        log.info(FORMAT, linkWeightFunction);
+
+        int newPathCacheSize = getIntegerProperty(properties, "pathCacheSize", pathCacheSize);
+        if (newPathCacheSize >= 0 && newPathCacheSize != pathCacheSize) {
+            pathCacheSize = newPathCacheSize;
+            DefaultTopology.setPathCacheSize(pathCacheSize);
+        }
+        log.info(FORMAT, linkWeightFunction, pathCacheSize);
     }
 
     @Override
@@ -277,9 +302,12 @@ public class DistributedTopologyStore
             return null;
         }
 
-        // Have the default topology construct self from the description data.
+        // Have the default topology construct self from the description data,
+        // deriving what it can from the current topology and the events
+        // that changed it.
         DefaultTopology newTopology =
-                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint);
+                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint,
+                                    current, reasons);
         updateBroadcastPoints(newTopology);
 
         // Promote the new topology to current and return a ready-to-send event.
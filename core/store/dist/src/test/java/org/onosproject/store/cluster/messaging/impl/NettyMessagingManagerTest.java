@@ -15,7 +15,11 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -24,10 +28,13 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 
+import com.codahale.metrics.Histogram;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
 import org.onlab.packet.IpAddress;
 import org.onosproject.cluster.ClusterMetadata;
 import org.onosproject.cluster.ClusterMetadataEventListener;
@@ -63,11 +70,13 @@ public class NettyMessagingManagerTest {
         ep1 = new Endpoint(IpAddress.valueOf("127.0.0.1"), findAvailablePort(5001));
         netty1 = new NettyMessagingManager();
         netty1.clusterMetadataService = dummyMetadataService(DUMMY_NAME, IP_STRING, ep1);
+        netty1.metricsService = new MetricsManager();
         netty1.activate();
 
         ep2 = new Endpoint(IpAddress.valueOf("127.0.0.1"), findAvailablePort(5003));
         netty2 = new NettyMessagingManager();
         netty2.clusterMetadataService = dummyMetadataService(DUMMY_NAME, IP_STRING, ep2);
+        netty2.metricsService = new MetricsManager();
         netty2.activate();
     }
 
@@ -101,6 +110,27 @@ public class NettyMessagingManagerTest {
         Uninterruptibles.awaitUninterruptibly(latch2);
     }
 
+    @Test
+    public void testSendAsyncBatched() {
+        int count = 100;
+        CountDownLatch received = new CountDownLatch(count);
+        netty2.registerHandler("test-subject", (ep, data) -> received.countDown(), MoreExecutors.directExecutor());
+
+        List<CompletableFuture<Void>> responses = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            responses.add(netty1.sendAsync(ep2, "test-subject", "hello world".getBytes()));
+        }
+        responses.forEach(CompletableFuture::join);
+        Uninterruptibles.awaitUninterruptibly(received);
+
+        Histogram batchMessages = netty1.metricsService.getHistograms(
+                (name, metric) -> name.endsWith("outboundBatch.messages")).values().iterator().next();
+        assertTrue(batchMessages.getCount() > 0);
+        assertTrue(batchMessages.getCount() <= count);
+        // every message is accounted for in exactly one batch
+        assertEquals(count, Arrays.stream(batchMessages.getSnapshot().getValues()).sum());
+    }
+
     @Test
     public void testSendAndReceive() {
         AtomicBoolean handlerInvoked = new AtomicBoolean(false);
@@ -122,6 +152,36 @@ public class NettyMessagingManagerTest {
         assertEquals(ep1, sender.get());
     }
 
+    /*
+     * Sends a payload written straight into the transport buffer and verifies the
+     * handler sees it as a read-only buffer.
+     */
+    @Test
+    public void testSendAndReceiveWithBuffers() {
+        AtomicReference<byte[]> request = new AtomicReference<>();
+        AtomicBoolean readOnly = new AtomicBoolean(false);
+
+        BiFunction<Endpoint, ByteBuffer, byte[]> handler = (ep, data) -> {
+            readOnly.set(data.isReadOnly());
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            request.set(bytes);
+            return "hello there".getBytes();
+        };
+        netty2.registerBufferHandler("test-subject", handler, MoreExecutors.directExecutor());
+
+        CompletableFuture<byte[]> response = netty1.sendAndReceive(ep2, "test-subject", out -> {
+            try {
+                out.write("hello world".getBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, MoreExecutors.directExecutor());
+        assertTrue(Arrays.equals("hello there".getBytes(), response.join()));
+        assertTrue(Arrays.equals("hello world".getBytes(), request.get()));
+        assertTrue(readOnly.get());
+    }
+
     /*
      * Supplies executors when registering a handler and calling sendAndReceive and verifies the request handling
      * and response completion occurs on the expected thread.
@@ -162,6 +222,47 @@ public class NettyMessagingManagerTest {
         assertEquals("handler-thread", handlerThreadName.get());
     }
 
+    /*
+     * Activates a messaging service without any other service than the cluster metadata and
+     * metrics, and verifies that the batching settings are read from the system properties.
+     */
+    @Test
+    public void testActivateWithBatchProperties() throws Exception {
+        Endpoint ep3 = new Endpoint(IpAddress.valueOf(IP_STRING), findAvailablePort(5005));
+        NettyMessagingManager netty3 = new NettyMessagingManager();
+        netty3.clusterMetadataService = dummyMetadataService(DUMMY_NAME, IP_STRING, ep3);
+        netty3.metricsService = new MetricsManager();
+        System.setProperty("nettyMaxBatchBytes", "1");
+        System.setProperty("nettyMaxBatchDelayMicros", "100");
+        try {
+            netty3.activate();
+        } finally {
+            System.clearProperty("nettyMaxBatchBytes");
+            System.clearProperty("nettyMaxBatchDelayMicros");
+        }
+        try {
+            int count = 20;
+            CountDownLatch received = new CountDownLatch(count);
+            netty2.registerHandler("test-subject", (ep, data) -> received.countDown(),
+                                   MoreExecutors.directExecutor());
+
+            List<CompletableFuture<Void>> responses = Lists.newArrayList();
+            for (int i = 0; i < count; i++) {
+                responses.add(netty3.sendAsync(ep2, "test-subject", "hello world".getBytes()));
+            }
+            responses.forEach(CompletableFuture::join);
+            Uninterruptibles.awaitUninterruptibly(received);
+
+            // every message exceeds the batch size, so each one is flushed on its own
+            Histogram batchMessages = netty3.metricsService.getHistograms(
+                    (name, metric) -> name.endsWith("outboundBatch.messages")).values().iterator().next();
+            assertEquals(count, batchMessages.getCount());
+            assertEquals(1, batchMessages.getSnapshot().getMax());
+        } finally {
+            netty3.deactivate();
+        }
+    }
+
     private ClusterMetadataService dummyMetadataService(String name, String ipAddress, Endpoint ep) {
         return new ClusterMetadataService() {
             @Override
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import org.junit.Test;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the flow table change log.
+ */
+public class FlowTableChangeLogTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("of:1");
+
+    private StoredFlowEntry entry(int priority) {
+        return new DefaultFlowEntry(DefaultFlowRule.builder()
+                                            .forDevice(DID)
+                                            .withSelector(DefaultTrafficSelector.emptySelector())
+                                            .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                                            .withPriority(priority)
+                                            .fromApp(new DefaultApplicationId(1, "test"))
+                                            .makePermanent()
+                                            .build());
+    }
+
+    @Test
+    public void coalescedDelta() {
+        FlowTableChangeLog log = new FlowTableChangeLog(10);
+        StoredFlowEntry e1 = entry(1);
+        StoredFlowEntry e2 = entry(2);
+        StoredFlowEntry e3 = entry(3);
+
+        log.updated(e1);
+        long base = log.sequence();
+        log.updated(e2);
+        log.updated(e2);
+        log.updated(e3);
+        log.removed(e3);
+        log.removed(e1);
+
+        FlowTableBackup delta = log.deltaSince(DID, base);
+        assertFalse(delta.isFull());
+        assertEquals(log.epoch(), delta.epoch());
+        assertEquals(base, delta.baseSequence());
+        assertEquals(6, delta.sequence());
+        assertEquals(1, delta.updated().size());
+        assertSame(e2, delta.updated().get(0));
+        assertEquals(2, delta.removed().size());
+        assertTrue(delta.removed().contains(e1));
+        assertTrue(delta.removed().contains(e3));
+    }
+
+    @Test
+    public void readdAfterRemove() {
+        FlowTableChangeLog log = new FlowTableChangeLog(10);
+        StoredFlowEntry e1 = entry(1);
+        StoredFlowEntry e1Again = entry(1);
+
+        log.updated(e1);
+        log.removed(e1);
+        log.updated(e1Again);
+
+        FlowTableBackup delta = log.deltaSince(DID, 0);
+        assertEquals(1, delta.updated().size());
+        assertSame(e1Again, delta.updated().get(0));
+        assertTrue(delta.removed().isEmpty());
+    }
+
+    @Test
+    public void emptyDelta() {
+        FlowTableChangeLog log = new FlowTableChangeLog(10);
+        log.updated(entry(1));
+
+        FlowTableBackup delta = log.deltaSince(DID, log.sequence());
+        assertTrue(delta.updated().isEmpty());
+        assertTrue(delta.removed().isEmpty());
+    }
+
+    @Test
+    public void tooFarBehind() {
+        FlowTableChangeLog log = new FlowTableChangeLog(2);
+        log.updated(entry(1));
+        log.updated(entry(2));
+        log.updated(entry(3));
+
+        assertNull(log.deltaSince(DID, 0));
+        assertEquals(1, log.deltaSince(DID, 2).updated().size());
+        assertEquals(2, log.deltaSince(DID, 1).updated().size());
+        assertNull(log.deltaSince(DID, 4));
+    }
+}
@@ -15,22 +15,31 @@
  */
 package org.onosproject.store.host.impl;
 
+import com.google.common.collect.ImmutableSet;
 import junit.framework.TestCase;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
 import org.onosproject.net.HostLocation;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.host.DefaultHostDescription;
 import org.onosproject.net.host.HostDescription;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.service.TestStorageService;
 
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 /**
  * Tests for the ECHostStore.
@@ -80,4 +89,58 @@ public class DistributedHostStoreTest extends TestCase {
         assertTrue(host.ipAddresses().contains(IP2));
     }
 
-}
\ No newline at end of file
+    /**
+     * Tests that indexed lookups agree with scanning all hosts while hosts
+     * are added, moved, re-addressed and removed.
+     */
+    @Test
+    public void testIndexedLookups() {
+        Random random = new Random(1234);
+        for (int round = 0; round < 500; round++) {
+            HostId id = HostId.hostId(MacAddress.valueOf(random.nextInt(40)),
+                                      VlanId.vlanId((short) random.nextInt(3)));
+            if (random.nextInt(5) == 0) {
+                if (ecXHostStore.getHost(id) != null) {
+                    ecXHostStore.removeHost(id);
+                }
+            } else if (random.nextInt(5) == 0) {
+                if (ecXHostStore.getHost(id) != null) {
+                    ecXHostStore.removeIp(id, ip(random));
+                }
+            } else {
+                HostLocation location = new HostLocation(device(random),
+                                                         PortNumber.portNumber(random.nextInt(3)),
+                                                         round);
+                HostDescription description =
+                        new DefaultHostDescription(id.mac(), id.vlanId(), location,
+                                                   ImmutableSet.of(ip(random), ip(random)));
+                ecXHostStore.createOrUpdateHost(PID, id, description, random.nextBoolean());
+            }
+
+            IpAddress ip = ip(random);
+            assertEquals(scan(h -> h.ipAddresses().contains(ip)), ecXHostStore.getHosts(ip));
+            MacAddress mac = MacAddress.valueOf(random.nextInt(40));
+            assertEquals(scan(h -> h.mac().equals(mac)), ecXHostStore.getHosts(mac));
+            VlanId vlan = VlanId.vlanId((short) random.nextInt(3));
+            assertEquals(scan(h -> h.vlan().equals(vlan)), ecXHostStore.getHosts(vlan));
+            ConnectPoint cp = new ConnectPoint(device(random), PortNumber.portNumber(random.nextInt(3)));
+            assertEquals(scan(h -> h.location().equals(cp)), ecXHostStore.getConnectedHosts(cp));
+            DeviceId device = device(random);
+            assertEquals(scan(h -> h.location().deviceId().equals(device)),
+                         ecXHostStore.getConnectedHosts(device));
+        }
+    }
+
+    private static IpAddress ip(Random random) {
+        return IpAddress.valueOf(0x0a000000 + random.nextInt(20));
+    }
+
+    private static DeviceId device(Random random) {
+        return DeviceId.deviceId("of:" + random.nextInt(4));
+    }
+
+    private Set<Host> scan(Predicate<Host> predicate) {
+        return StreamSupport.stream(ecXHostStore.getHosts().spliterator(), false)
+                .filter(predicate).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.base.MoreObjects;
+import org.onosproject.cluster.NodeId;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Anti-entropy advertisement message carrying the hashes of the key buckets
+ * of an eventually consistent map.
+ */
+public class AntiEntropyBucketAdvertisement {
+
+    private final NodeId sender;
+    private final long[] bucketHashes;
+
+    /**
+     * Creates a new bucket hash advertisement message.
+     *
+     * @param sender       the sender's node ID
+     * @param bucketHashes hash of each key bucket
+     */
+    public AntiEntropyBucketAdvertisement(NodeId sender, long[] bucketHashes) {
+        this.sender = checkNotNull(sender);
+        this.bucketHashes = checkNotNull(bucketHashes);
+    }
+
+    /**
+     * Returns the sender's node ID.
+     *
+     * @return the sender's node ID
+     */
+    public NodeId sender() {
+        return sender;
+    }
+
+    /**
+     * Returns the hash of each key bucket.
+     *
+     * @return bucket hashes indexed by bucket
+     */
+    public long[] bucketHashes() {
+        return bucketHashes;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("sender", sender)
+                .add("totalBuckets", bucketHashes.length)
+                .toString();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.onosproject.store.serializers.StoreSerializer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Partitioning of eventually consistent map entries into a fixed number of
+ * key buckets, each summarized by a single hash.
+ * <p>
+ * Keys and timestamps are hashed in their serialized form so that all
+ * replicas agree on bucket placement and hashes regardless of how the key
+ * and timestamp types implement {@code hashCode}. The hash of a bucket is the
+ * exclusive or of the hashes of its entries and therefore independent of
+ * iteration order. This also allows the bucket hashes to be maintained as
+ * entries change, by exclusive or-ing the hash of the replaced entry out and
+ * the hash of the new entry in, rather than hashing all entries each time
+ * the hashes are exchanged.
+ * </p>
+ * <p>
+ * The bucket and hash of each entry are cached along with the value they were
+ * computed for, so that neither needs to be serialized again as long as the
+ * value of the key does not change.
+ * </p>
+ */
+final class AntiEntropyBuckets {
+
+    private static final HashFunction BUCKET_HASH = Hashing.murmur3_32();
+    private static final HashFunction ENTRY_HASH = Hashing.murmur3_128();
+
+    private final StoreSerializer serializer;
+    private final int bucketCount;
+    private final AtomicLongArray hashes;
+    private final Map<Object, EntryHash> entryHashes = Maps.newConcurrentMap();
+
+    /**
+     * Creates a new bucketing scheme with all buckets empty.
+     *
+     * @param serializer serializer for keys and timestamps
+     * @param bucketCount number of buckets
+     */
+    AntiEntropyBuckets(StoreSerializer serializer, int bucketCount) {
+        checkArgument(bucketCount > 0, "bucket count must be greater than 0");
+        this.serializer = serializer;
+        this.bucketCount = bucketCount;
+        this.hashes = new AtomicLongArray(bucketCount);
+    }
+
+    /**
+     * Returns the bucket the specified key belongs to.
+     *
+     * @param key key
+     * @return bucket index
+     */
+    int bucket(Object key) {
+        EntryHash cached = entryHashes.get(key);
+        return cached != null ? cached.bucket : bucket(serializer.encode(key));
+    }
+
+    private int bucket(byte[] keyBytes) {
+        return Math.floorMod(BUCKET_HASH.hashBytes(keyBytes).asInt(), bucketCount);
+    }
+
+    // Returns the bucket and hash of the entry, computing them only if the
+    // value differs from the one they were last computed for.
+    private EntryHash entryHash(Object key, MapValue<?> value) {
+        EntryHash cached = entryHashes.get(key);
+        if (cached != null && cached.value == value) {
+            return cached;
+        }
+        EntryHash computed;
+        if (cached != null) {
+            computed = new EntryHash(cached.bucket, cached.keyHash, value);
+        } else {
+            byte[] keyBytes = serializer.encode(key);
+            computed = new EntryHash(bucket(keyBytes), ENTRY_HASH.hashBytes(keyBytes).asLong(), value);
+        }
+        entryHashes.put(key, computed);
+        return computed;
+    }
+
+    /**
+     * Accounts for the value of a key having been replaced. Each change of
+     * a map entry must be reported exactly once.
+     *
+     * @param key key
+     * @param oldValue value replaced; null if the key was absent
+     * @param newValue new value; null if the key was removed
+     */
+    void update(Object key, MapValue<?> oldValue, MapValue<?> newValue) {
+        long change = 0;
+        int bucket;
+        if (oldValue != null) {
+            change ^= entryHash(key, oldValue).hash;
+        }
+        if (newValue != null) {
+            EntryHash entry = entryHash(key, newValue);
+            change ^= entry.hash;
+            bucket = entry.bucket;
+        } else {
+            EntryHash removed = entryHashes.remove(key);
+            bucket = removed != null ? removed.bucket : bucket(serializer.encode(key));
+        }
+        if (change != 0) {
+            hashes.accumulateAndGet(bucket, change, (a, b) -> a ^ b);
+        }
+    }
+
+    /**
+     * Returns the current hash of each bucket.
+     *
+     * @return bucket hashes indexed by bucket
+     */
+    long[] hashes() {
+        long[] snapshot = new long[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            snapshot[i] = hashes.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Computes the hashes of the specified buckets from the map entries
+     * afresh, replacing the hashes maintained so far. Meant to be used for
+     * buckets whose hashes differ from those of a peer, so that the local
+     * hashes cannot stay off for good.
+     *
+     * @param items map entries
+     * @param buckets indices of buckets to compute
+     * @param <K> key type
+     * @param <V> value type
+     */
+    <K, V> void recompute(Map<K, MapValue<V>> items, Set<Integer> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        long[] recomputed = new long[bucketCount];
+        items.forEach((key, value) -> {
+            EntryHash entry = entryHash(key, value);
+            if (buckets.contains(entry.bucket)) {
+                recomputed[entry.bucket] ^= entry.hash;
+            }
+        });
+        buckets.forEach(bucket -> hashes.set(bucket, recomputed[bucket]));
+    }
+
+    /**
+     * Returns the buckets whose hashes differ between two sets of bucket hashes.
+     * All buckets are considered to differ if the number of buckets does not match.
+     *
+     * @param local local bucket hashes
+     * @param remote remote bucket hashes
+     * @return indices of buckets that differ
+     */
+    Set<Integer> differing(long[] local, long[] remote) {
+        ImmutableSet.Builder<Integer> buckets = ImmutableSet.builder();
+        for (int i = 0; i < bucketCount; i++) {
+            if (local.length != remote.length || local[i] != remote[i]) {
+                buckets.add(i);
+            }
+        }
+        return buckets.build();
+    }
+
+    // Bucket and hash of a map entry, along with the value they were computed for.
+    private final class EntryHash {
+        private final int bucket;
+        private final long keyHash;
+        private final MapValue<?> value;
+        private final long hash;
+
+        private EntryHash(int bucket, long keyHash, MapValue<?> value) {
+            this.bucket = bucket;
+            this.keyHash = keyHash;
+            this.value = value;
+            this.hash = ENTRY_HASH.newHasher()
+                    .putLong(keyHash)
+                    .putBytes(serializer.encode(value.timestamp()))
+                    .putBoolean(value.isTombstone())
+                    .hash()
+                    .asLong();
+        }
+    }
+}
@@ -17,19 +17,26 @@ package org.onosproject.store.primitives.impl;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToIntBiFunction;
 
 import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.Versioned;
 import org.slf4j.Logger;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Maps;
 
 import static org.onosproject.store.service.DistributedPrimitive.Status.INACTIVE;
 import static org.onosproject.store.service.DistributedPrimitive.Status.SUSPENDED;
@@ -38,18 +45,30 @@ import static org.onosproject.store.service.DistributedPrimitive.Status.SUSPENDE
  * {@code AsyncConsistentMap} that caches entries on read.
  * <p>
  * The cache entries are automatically invalidated when updates are detected either locally or
- * remotely.
+ * remotely. The cache is bounded either by number of entries or by the total weight of the
+ * entries, and least recently used entries are evicted first.
+ * <p>
+ * Entries are versioned: an update received from the backing map never replaces a cached entry
+ * with an older version, and the result of a read which raced with an update of the same key is
+ * not cached. Hence once a local update completes, subsequent reads never return the value it
+ * replaced.
  * <p> This implementation only attempts to serve cached entries for {@link AsyncConsistentMap#get get}
- * calls. All other calls skip the cache and directly go the backing map.
+ * and {@link AsyncConsistentMap#getAll getAll} calls. All other calls skip the cache and directly
+ * go the backing map.
  *
  * @param <K> key type
  * @param <V> value type
  */
 public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMap<K, V> {
     private static final int DEFAULT_CACHE_SIZE = 10000;
+    private static final int STRIPES = 64;
     private final Logger log = getLogger(getClass());
 
-    private final LoadingCache<K, CompletableFuture<Versioned<V>>> cache;
+    // Absent keys are cached as empty values
+    private final Cache<K, Optional<Versioned<V>>> cache;
+    private final Map<K, CompletableFuture<Versioned<V>>> loads = new ConcurrentHashMap<>();
+    // Invalidation stamps of the keys, striped by key hash
+    private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
 
     private final MapEventListener<K, V> cacheUpdater;
     private final Consumer<Status> statusListener;
@@ -70,16 +89,37 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
      * @param cacheSize the maximum size of the cache
      */
     public CachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap, int cacheSize) {
+        this(backingMap, CacheBuilder.newBuilder().maximumSize(cacheSize));
+    }
+
+    /**
+     * Constructor to configure the maximum weight of the cache.
+     *
+     * @param backingMap a distributed, strongly consistent map for backing
+     * @param maximumWeight the maximum total weight of the cache entries
+     * @param weigher function computing the weight of an entry
+     */
+    public CachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap, long maximumWeight,
+                                     ToIntBiFunction<? super K, ? super V> weigher) {
+        this(backingMap, CacheBuilder.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((K key, Optional<Versioned<V>> value) ->
+                        value.map(v -> weigher.applyAsInt(key, v.value())).orElse(1)));
+    }
+
+    private CachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap,
+                                      CacheBuilder<? super K, ? super Optional<Versioned<V>>> cacheBuilder) {
         super(backingMap);
-        cache = CacheBuilder.newBuilder()
-                            .maximumSize(cacheSize)
-                            .build(CacheLoader.from(CachingAsyncConsistentMap.super::get));
+        cache = cacheBuilder.recordStats().build();
         cacheUpdater = event -> {
             Versioned<V> newValue = event.newValue();
             if (newValue == null) {
-                cache.invalidate(event.key());
+                invalidate(event.key());
             } else {
-                cache.put(event.key(), CompletableFuture.completedFuture(newValue));
+                // Only keys which are read are cached; reads of the key in
+                // progress may have missed the update and are not cached.
+                stamps.incrementAndGet(stripe(event.key()));
+                cache.asMap().computeIfPresent(event.key(), (k, v) -> newer(v, Optional.of(newValue)));
             }
         };
         statusListener = status -> {
@@ -87,13 +127,31 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
             // If the status of the underlying map is SUSPENDED or INACTIVE
             // we can no longer guarantee that the cache will be in sync.
             if (status == SUSPENDED || status == INACTIVE) {
-                cache.invalidateAll();
+                invalidateAll();
             }
         };
         super.addListener(cacheUpdater);
         super.addStatusChangeListener(statusListener);
     }
 
+    /**
+     * Returns the statistics of the cache.
+     *
+     * @return cache statistics
+     */
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return cache size
+     */
+    public long cacheSize() {
+        return cache.size();
+    }
+
     @Override
     public CompletableFuture<Void> destroy() {
         super.removeStatusChangeListener(statusListener);
@@ -102,12 +160,92 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
 
     @Override
     public CompletableFuture<Versioned<V>> get(K key) {
-        return cache.getUnchecked(key)
-                .whenComplete((r, e) -> {
-                    if (e != null) {
-                        cache.invalidate(key);
-                    }
-                });
+        Optional<Versioned<V>> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.orElse(null));
+        }
+
+        // Concurrent reads of the same key share a single load
+        CompletableFuture<Versioned<V>> load = new CompletableFuture<>();
+        CompletableFuture<Versioned<V>> existing = loads.putIfAbsent(key, load);
+        if (existing != null) {
+            return existing;
+        }
+        long stamp = stamps.get(stripe(key));
+        super.get(key).whenComplete((r, e) -> {
+            loads.remove(key, load);
+            if (e != null) {
+                load.completeExceptionally(e);
+            } else {
+                loaded(key, r, stamp);
+                load.complete(r);
+            }
+        });
+        return load;
+    }
+
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        Map<K, Versioned<V>> values = Maps.newHashMap();
+        Map<K, Long> missing = Maps.newHashMap();
+        keys.forEach(key -> {
+            Optional<Versioned<V>> cached = cache.getIfPresent(key);
+            if (cached == null) {
+                missing.put(key, stamps.get(stripe(key)));
+            } else {
+                cached.ifPresent(value -> values.put(key, value));
+            }
+        });
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(values);
+        }
+        return super.getAll(missing.keySet()).thenApply(loaded -> {
+            missing.forEach((key, stamp) -> {
+                Versioned<V> value = loaded.get(key);
+                loaded(key, value, stamp);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            });
+            return values;
+        });
+    }
+
+    // Caches the result of a read unless the key was invalidated while reading it.
+    // The stamp is checked while holding the entry, so an invalidation either
+    // happened before and the value is never installed, or happens after and
+    // removes it.
+    private void loaded(K key, Versioned<V> value, long stamp) {
+        Optional<Versioned<V>> loaded = Optional.ofNullable(value);
+        cache.asMap().compute(key, (k, v) -> stamps.get(stripe(k)) == stamp ? newer(v, loaded) : v);
+    }
+
+    private Optional<Versioned<V>> newer(Optional<Versioned<V>> current, Optional<Versioned<V>> candidate) {
+        if (current == null || !current.isPresent()) {
+            return candidate;
+        }
+        if (!candidate.isPresent() || current.get().version() > candidate.get().version()) {
+            return current;
+        }
+        return candidate;
+    }
+
+    private int stripe(K key) {
+        return Math.floorMod(key.hashCode(), STRIPES);
+    }
+
+    private void invalidate(K key) {
+        stamps.incrementAndGet(stripe(key));
+        loads.remove(key);
+        cache.invalidate(key);
+    }
+
+    private void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            stamps.incrementAndGet(i);
+        }
+        loads.clear();
+        cache.invalidateAll();
     }
 
     @Override
@@ -115,31 +253,49 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
             Predicate<? super V> condition,
             BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
         return super.computeIf(key, condition, remappingFunction)
-                .whenComplete((r, e) -> cache.invalidate(key));
+                .whenComplete((r, e) -> invalidate(key));
     }
 
     @Override
     public CompletableFuture<Versioned<V>> put(K key, V value) {
         return super.put(key, value)
-                .whenComplete((r, e) -> cache.invalidate(key));
+                .whenComplete((r, e) -> invalidate(key));
     }
 
     @Override
     public CompletableFuture<Versioned<V>> putAndGet(K key, V value) {
         return super.putAndGet(key, value)
-                .whenComplete((r, e) -> cache.invalidate(key));
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    @Override
+    public CompletableFuture<Versioned<V>> putIfAbsent(K key, V value) {
+        return super.putIfAbsent(key, value)
+                .whenComplete((r, e) -> invalidate(key));
     }
 
     @Override
     public CompletableFuture<Versioned<V>> remove(K key) {
         return super.remove(key)
-                .whenComplete((r, e) -> cache.invalidate(key));
+                .whenComplete((r, e) -> invalidate(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return super.putAll(entries)
+                .whenComplete((r, e) -> entries.keySet().forEach(this::invalidate));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        return super.removeAll(keys)
+                .whenComplete((r, e) -> keys.forEach(this::invalidate));
     }
 
     @Override
     public CompletableFuture<Void> clear() {
         return super.clear()
-                .whenComplete((r, e) -> cache.invalidateAll());
+                .whenComplete((r, e) -> invalidateAll());
     }
 
     @Override
@@ -147,7 +303,7 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         return super.remove(key, value)
                 .whenComplete((r, e) -> {
                     if (r) {
-                        cache.invalidate(key);
+                        invalidate(key);
                     }
                 });
     }
@@ -157,7 +313,7 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         return super.remove(key, version)
                 .whenComplete((r, e) -> {
                     if (r) {
-                        cache.invalidate(key);
+                        invalidate(key);
                     }
                 });
     }
@@ -165,7 +321,7 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
     @Override
     public CompletableFuture<Versioned<V>> replace(K key, V value) {
         return super.replace(key, value)
-                .whenComplete((r, e) -> cache.invalidate(key));
+                .whenComplete((r, e) -> invalidate(key));
     }
 
     @Override
@@ -173,7 +329,7 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         return super.replace(key, oldValue, newValue)
                 .whenComplete((r, e) -> {
                     if (r) {
-                        cache.invalidate(key);
+                        invalidate(key);
                     }
                 });
     }
@@ -183,7 +339,7 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         return super.replace(key, oldVersion, newValue)
                 .whenComplete((r, e) -> {
                     if (r) {
-                        cache.invalidate(key);
+                        invalidate(key);
                     }
                 });
     }
@@ -19,7 +19,6 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import io.atomix.catalyst.concurrent.Listener;
 import io.atomix.catalyst.concurrent.Listeners;
 import io.atomix.catalyst.concurrent.ThreadContext;
-import io.atomix.catalyst.serializer.SerializationException;
 import io.atomix.catalyst.transport.Address;
 import io.atomix.catalyst.transport.Connection;
 import io.atomix.catalyst.transport.MessageHandler;
@@ -33,6 +32,8 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
@@ -106,30 +107,36 @@ public class CopycatTransportConnection implements Connection {
     public <T, U> CompletableFuture<U> send(T message) {
         ThreadContext context = ThreadContext.currentContextOrThrow();
         CompletableFuture<U> result = new CompletableFuture<>();
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            new DataOutputStream(baos).writeLong(connectionId);
-            context.serializer().writeObject(message, baos);
+        // serialize straight into the messaging layer's transport buffer
+        messagingService.sendAndReceive(CopycatTransport.toEndpoint(remoteAddress),
+                                        outboundMessageSubject,
+                                        out -> writeMessage(message, out, context),
+                                        context.executor())
+                .whenComplete((r, e) -> {
+                    Throwable wrappedError = e;
+                    if (e != null) {
+                        Throwable rootCause = Throwables.getRootCause(e);
+                        if (MessagingException.class.isAssignableFrom(rootCause.getClass())) {
+                            wrappedError = new TransportException(e);
+                        } else if (e instanceof UncheckedIOException) {
+                            wrappedError = e.getCause();
+                        }
+                    }
+                    handleResponse(r, wrappedError, result, context);
+                });
+        return result;
+    }
+
+    private void writeMessage(Object message, OutputStream out, ThreadContext context) {
+        try {
+            new DataOutputStream(out).writeLong(connectionId);
+            context.serializer().writeObject(message, out);
             if (message instanceof ReferenceCounted) {
                 ((ReferenceCounted<?>) message).release();
             }
-            messagingService.sendAndReceive(CopycatTransport.toEndpoint(remoteAddress),
-                                            outboundMessageSubject,
-                                            baos.toByteArray(),
-                                            context.executor())
-                    .whenComplete((r, e) -> {
-                        Throwable wrappedError = e;
-                        if (e != null) {
-                            Throwable rootCause = Throwables.getRootCause(e);
-                            if (MessagingException.class.isAssignableFrom(rootCause.getClass())) {
-                                wrappedError = new TransportException(e);
-                            }
-                        }
-                        handleResponse(r, wrappedError, result, context);
-                    });
-        } catch (SerializationException | IOException e) {
-            result.completeExceptionally(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return result;
     }
 
     private <T> void handleResponse(byte[] response,
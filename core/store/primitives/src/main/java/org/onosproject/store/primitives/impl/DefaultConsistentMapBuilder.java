@@ -42,8 +42,18 @@ public class DefaultConsistentMapBuilder<K, V> extends ConsistentMapBuilder<K, V
     @Override
     public AsyncConsistentMap<K, V> buildAsyncMap() {
         AsyncConsistentMap<K, V> map = primitiveCreator.newAsyncConsistentMap(name(), serializer());
-        map = relaxedReadConsistency() ? DistributedPrimitives.newCachingMap(map) : map;
+        CachingAsyncConsistentMap<K, V> cachingMap = null;
+        if (relaxedReadConsistency()) {
+            if (cacheWeigher() != null) {
+                cachingMap = DistributedPrimitives.newCachingMap(map, cacheMaximumWeight(), cacheWeigher());
+            } else if (cacheSize() > 0) {
+                cachingMap = DistributedPrimitives.newCachingMap(map, cacheSize());
+            } else {
+                cachingMap = DistributedPrimitives.newCachingMap(map);
+            }
+            map = cachingMap;
+        }
         map = readOnly() ? DistributedPrimitives.newUnmodifiableMap(map) : map;
-        return meteringEnabled() ? DistributedPrimitives.newMeteredMap(map) : map;
+        return meteringEnabled() ? DistributedPrimitives.newMeteredMap(map, cachingMap) : map;
     }
 }
\ No newline at end of file
@@ -16,6 +16,7 @@
 package org.onosproject.store.primitives.impl;
 
 import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
 
 import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.AsyncDistributedSet;
@@ -50,6 +51,21 @@ public final class DistributedPrimitives {
         return new MeteredAsyncConsistentMap<>(map);
     }
 
+    /**
+     * Creates an instance of {@code AsyncConsistentMap} that records metrics for all its operations
+     * as well as for the given cache.
+     *
+     * @param map map whose operations are to be metered
+     * @param cache caching map whose cache is to be metered; may be null
+     * @return metered map
+     * @param <K> map key type
+     * @param <V> map value type
+     */
+    public static <K, V> AsyncConsistentMap<K, V> newMeteredMap(AsyncConsistentMap<K, V> map,
+                                                                 CachingAsyncConsistentMap<K, V> cache) {
+        return new MeteredAsyncConsistentMap<>(map, cache);
+    }
+
     /**
      * Creates an instance of {@code AsyncConsistentMap} that caches entries on get.
      *
@@ -58,10 +74,41 @@ public final class DistributedPrimitives {
      * @param <K> map key type
      * @param <V> map value type
      */
-    public static <K, V> AsyncConsistentMap<K, V> newCachingMap(AsyncConsistentMap<K, V> map) {
+    public static <K, V> CachingAsyncConsistentMap<K, V> newCachingMap(AsyncConsistentMap<K, V> map) {
         return new CachingAsyncConsistentMap<>(map);
     }
 
+    /**
+     * Creates an instance of {@code AsyncConsistentMap} that caches up to the given number of entries on get.
+     *
+     * @param map backing map
+     * @param cacheSize maximum number of cached entries
+     * @return caching map
+     * @param <K> map key type
+     * @param <V> map value type
+     */
+    public static <K, V> CachingAsyncConsistentMap<K, V> newCachingMap(AsyncConsistentMap<K, V> map,
+                                                                       int cacheSize) {
+        return new CachingAsyncConsistentMap<>(map, cacheSize);
+    }
+
+    /**
+     * Creates an instance of {@code AsyncConsistentMap} that caches entries on get, up to the given
+     * total weight.
+     *
+     * @param map backing map
+     * @param maximumWeight maximum total weight of the cached entries
+     * @param weigher function computing the weight of an entry
+     * @return caching map
+     * @param <K> map key type
+     * @param <V> map value type
+     */
+    public static <K, V> CachingAsyncConsistentMap<K, V> newCachingMap(AsyncConsistentMap<K, V> map,
+            long maximumWeight,
+            ToIntBiFunction<? super K, ? super V> weigher) {
+        return new CachingAsyncConsistentMap<>(map, maximumWeight, weigher);
+    }
+
     /**
      * Creates an instance of {@code AsyncConsistentMap} that disallows updates.
      *
@@ -55,6 +55,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
     private boolean convergeFaster = false;
     private boolean persistent = false;
     private boolean persistentMap = false;
+    private int antiEntropyBuckets = 0;
     private final PersistenceService persistenceService;
 
     /**
@@ -151,6 +152,13 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
         return this;
     }
 
+    @Override
+    public EventuallyConsistentMapBuilder<K, V> withBucketAntiEntropy(int buckets) {
+        checkArgument(buckets > 0, "number of anti-entropy buckets must be greater than 0");
+        antiEntropyBuckets = buckets;
+        return this;
+    }
+
     @Override
     public EventuallyConsistentMap<K, V> build() {
         checkNotNull(name, "name is a mandatory parameter");
@@ -174,6 +182,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
                                                  antiEntropyTimeUnit,
                                                  convergeFaster,
                                                  persistent,
-                                                 persistenceService);
+                                                 persistenceService,
+                                                 antiEntropyBuckets);
     }
 }
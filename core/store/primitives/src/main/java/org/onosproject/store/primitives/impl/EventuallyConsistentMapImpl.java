@@ -91,6 +91,7 @@ public class EventuallyConsistentMapImpl<K, V>
     private final MessageSubject updateMessageSubject;
     private final MessageSubject antiEntropyAdvertisementSubject;
     private final MessageSubject updateRequestSubject;
+    private final MessageSubject antiEntropyBucketSubject;
 
     private final Set<EventuallyConsistentMapListener<K, V>> listeners
             = Sets.newCopyOnWriteArraySet();
@@ -117,6 +118,7 @@ public class EventuallyConsistentMapImpl<K, V>
     private final long initialDelaySec = 5;
     private final boolean lightweightAntiEntropy;
     private final boolean tombstonesDisabled;
+    private final AntiEntropyBuckets antiEntropyBuckets;
 
     private static final int WINDOW_SIZE = 5;
     private static final int HIGH_LOAD_THRESHOLD = 2;
@@ -155,6 +157,9 @@ public class EventuallyConsistentMapImpl<K, V>
      * @param convergeFaster        make anti-entropy try to converge faster
      * @param persistent            persist data to disk
      * @param persistenceService    persistence service
+     * @param antiEntropyBucketCount number of key buckets whose hashes are
+     *                              exchanged before entry digests; 0 to always
+     *                              exchange the digests of all entries
      */
     EventuallyConsistentMapImpl(String mapName,
                                 ClusterService clusterService,
@@ -170,7 +175,8 @@ public class EventuallyConsistentMapImpl<K, V>
                                 TimeUnit antiEntropyTimeUnit,
                                 boolean convergeFaster,
                                 boolean persistent,
-                                PersistenceService persistenceService) {
+                                PersistenceService persistenceService,
+                                int antiEntropyBucketCount) {
         this.mapName = mapName;
         this.serializer = createSerializer(ns);
         this.persistenceService = persistenceService;
@@ -251,6 +257,19 @@ public class EventuallyConsistentMapImpl<K, V>
                                           this::handleUpdateRequests,
                                           this.backgroundExecutor);
 
+        antiEntropyBucketSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy-buckets");
+        if (antiEntropyBucketCount > 0) {
+            antiEntropyBuckets = new AntiEntropyBuckets(serializer, antiEntropyBucketCount);
+            items.forEach((key, value) -> antiEntropyBuckets.update(key, null, value));
+            clusterCommunicator.addSubscriber(antiEntropyBucketSubject,
+                                              serializer::decode,
+                                              this::handleAntiEntropyBucketAdvertisement,
+                                              serializer::encode,
+                                              this.backgroundExecutor);
+        } else {
+            antiEntropyBuckets = null;
+        }
+
         if (!tombstonesDisabled) {
             previousTombstonePurgeTime = 0;
             this.backgroundExecutor.scheduleWithFixedDelay(this::purgeTombstones,
@@ -281,6 +300,7 @@ public class EventuallyConsistentMapImpl<K, V>
                          .register(MapValue.class)
                          .register(MapValue.Digest.class)
                          .register(UpdateRequest.class)
+                         .register(AntiEntropyBucketAdvertisement.class)
                          .build(name() + "-ecmap"));
     }
 
@@ -397,6 +417,7 @@ public class EventuallyConsistentMapImpl<K, V>
             }
             if (updated.get()) {
                 previousValue.set(existing);
+                updateBuckets(k, existing, tombstone.orElse(null));
                 return tombstone.orElse(null);
             } else {
                 return existing;
@@ -421,7 +442,9 @@ public class EventuallyConsistentMapImpl<K, V>
                 updated.set(true);
                 // We return a copy to ensure updates to peers can be serialized.
                 // This prevents replica divergence due to serialization failures.
-                return serializer.copy(newValue);
+                MapValue<V> copy = serializer.copy(newValue);
+                updateBuckets(k, mv, copy);
+                return copy;
             } else {
                 return mv;
             }
@@ -492,6 +515,7 @@ public class EventuallyConsistentMapImpl<K, V>
         items.compute(key, (k, existing) -> {
             if (existing == null || newValue.isNewerThan(existing)) {
                 updated.set(true);
+                updateBuckets(k, existing, newValue);
                 return newValue;
             }
             return existing;
@@ -499,6 +523,13 @@ public class EventuallyConsistentMapImpl<K, V>
         return updated.get();
     }
 
+    // Keeps the key bucket hashes in step with a change of the entry of a key.
+    private void updateBuckets(K key, MapValue<V> oldValue, MapValue<V> newValue) {
+        if (antiEntropyBuckets != null) {
+            antiEntropyBuckets.update(key, oldValue, newValue);
+        }
+    }
+
     @Override
     public void addListener(EventuallyConsistentMapListener<K, V> listener) {
         checkState(!destroyed, destroyedMessage);
@@ -526,6 +557,9 @@ public class EventuallyConsistentMapImpl<K, V>
         clusterCommunicator.removeSubscriber(updateMessageSubject);
         clusterCommunicator.removeSubscriber(updateRequestSubject);
         clusterCommunicator.removeSubscriber(antiEntropyAdvertisementSubject);
+        if (antiEntropyBuckets != null) {
+            clusterCommunicator.removeSubscriber(antiEntropyBucketSubject);
+        }
         return CompletableFuture.completedFuture(null);
     }
 
@@ -575,6 +609,10 @@ public class EventuallyConsistentMapImpl<K, V>
     }
 
     private void sendAdvertisementToPeer(NodeId peer) {
+        if (antiEntropyBuckets != null) {
+            sendBucketAdvertisementToPeer(peer);
+            return;
+        }
         long adCreationTime = System.currentTimeMillis();
         AntiEntropyAdvertisement<K> ad = createAdvertisement();
         clusterCommunicator.sendAndReceive(ad,
@@ -591,6 +629,34 @@ public class EventuallyConsistentMapImpl<K, V>
                 });
     }
 
+    /**
+     * Sends the hashes of all key buckets to the peer. The peer answers with
+     * the digests of its entries in the buckets whose hashes differ, which are
+     * then reconciled locally just like a regular advertisement.
+     */
+    private void sendBucketAdvertisementToPeer(NodeId peer) {
+        long adCreationTime = System.currentTimeMillis();
+        AntiEntropyBucketAdvertisement ad =
+                new AntiEntropyBucketAdvertisement(localNodeId, antiEntropyBuckets.hashes());
+        clusterCommunicator.<AntiEntropyBucketAdvertisement, AntiEntropyAdvertisement<K>>sendAndReceive(ad,
+                antiEntropyBucketSubject,
+                serializer::encode,
+                serializer::decode,
+                peer)
+                .whenCompleteAsync((result, error) -> {
+                    if (error != null) {
+                        log.debug("Failed to send anti-entropy bucket advertisement to {}", peer, error);
+                    } else if (result != null) {
+                        if (handleAntiEntropyAdvertisement(result) == AntiEntropyResponse.PROCESSED) {
+                            antiEntropyTimes.put(peer, adCreationTime);
+                        }
+                        // The buckets still differ on the peer, so make sure
+                        // that the local hashes are not the ones that are off.
+                        antiEntropyBuckets.recompute(items, result.buckets());
+                    }
+                }, backgroundExecutor);
+    }
+
     private void sendUpdateRequestToPeer(NodeId peer, Set<K> keys) {
         UpdateRequest<K> request = new UpdateRequest<>(localNodeId, keys);
         clusterCommunicator.unicast(request,
@@ -609,6 +675,30 @@ public class EventuallyConsistentMapImpl<K, V>
                 ImmutableMap.copyOf(Maps.transformValues(items, MapValue::digest)));
     }
 
+    /**
+     * Compares the peer's bucket hashes with the local ones and returns the
+     * digests of the local entries in the buckets that differ, or null if the
+     * advertisement was ignored.
+     */
+    private AntiEntropyAdvertisement<K> handleAntiEntropyBucketAdvertisement(AntiEntropyBucketAdvertisement ad) {
+        if (destroyed || underHighLoad()) {
+            return null;
+        }
+        // Only buckets that still differ once hashed afresh need reconciling.
+        antiEntropyBuckets.recompute(items,
+                antiEntropyBuckets.differing(antiEntropyBuckets.hashes(), ad.bucketHashes()));
+        Set<Integer> buckets = antiEntropyBuckets.differing(antiEntropyBuckets.hashes(), ad.bucketHashes());
+        if (log.isTraceEnabled()) {
+            log.trace("Received anti-entropy bucket advertisement from {} for {}; {} buckets differ",
+                    ad.sender(), mapName, buckets.size());
+        }
+        Map<K, MapValue.Digest> digest = buckets.isEmpty() ? ImmutableMap.of() :
+                ImmutableMap.copyOf(Maps.transformValues(
+                        Maps.filterKeys(items, key -> buckets.contains(antiEntropyBuckets.bucket(key))),
+                        MapValue::digest));
+        return new AntiEntropyAdvertisement<>(localNodeId, digest, buckets);
+    }
+
     private AntiEntropyResponse handleAntiEntropyAdvertisement(AntiEntropyAdvertisement<K> ad) {
         if (destroyed || underHighLoad()) {
             return AntiEntropyResponse.IGNORED;
@@ -639,8 +729,11 @@ public class EventuallyConsistentMapImpl<K, V>
         final List<NodeId> peers = ImmutableList.of(sender);
         Set<K> staleOrMissing = new HashSet<>();
         Set<K> locallyUnknown = new HashSet<>(ad.digest().keySet());
+        // only reconcile the entries covered by the advertisement
+        Map<K, MapValue<V>> coveredItems = ad.buckets() == null ? items :
+                Maps.filterKeys(items, key -> ad.buckets().contains(antiEntropyBuckets.bucket(key)));
 
-        items.forEach((key, localValue) -> {
+        coveredItems.forEach((key, localValue) -> {
             locallyUnknown.remove(key);
             MapValue.Digest remoteValueDigest = ad.digest().get(key);
             if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
@@ -665,7 +758,9 @@ public class EventuallyConsistentMapImpl<K, V>
         // Keys missing in local map
         staleOrMissing.addAll(locallyUnknown);
         // Request updates that we missed out on
-        sendUpdateRequestToPeer(sender, staleOrMissing);
+        if (!staleOrMissing.isEmpty() || ad.buckets() == null) {
+            sendUpdateRequestToPeer(sender, staleOrMissing);
+        }
         return externalEvents;
     }
 
@@ -703,7 +798,11 @@ public class EventuallyConsistentMapImpl<K, V>
                                           .filter(e -> e.getValue().creationTime() <= currentSafeTombstonePurgeTime)
                                           .collect(Collectors.toList());
         previousTombstonePurgeTime = currentSafeTombstonePurgeTime;
-        tombStonesToDelete.forEach(entry -> items.remove(entry.getKey(), entry.getValue()));
+        tombStonesToDelete.forEach(entry -> {
+            if (items.remove(entry.getKey(), entry.getValue())) {
+                updateBuckets(entry.getKey(), entry.getValue(), null);
+            }
+        });
     }
 
     private void processUpdates(Collection<UpdateEntry<K, V>> updates) {
@@ -22,6 +22,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -52,11 +53,14 @@ public class MeteredAsyncConsistentMap<K, V>  extends DelegatingAsyncConsistentM
     private static final String CONTAINS_KEY = "containsKey";
     private static final String CONTAINS_VALUE = "containsValue";
     private static final String GET = "get";
+    private static final String GET_ALL = "getAll";
     private static final String COMPUTE_IF = "computeIf";
     private static final String PUT = "put";
     private static final String PUT_AND_GET = "putAndGet";
+    private static final String PUT_ALL = "putAll";
     private static final String PUT_IF_ABSENT = "putIfAbsent";
     private static final String REMOVE = "remove";
+    private static final String REMOVE_ALL = "removeAll";
     private static final String CLEAR = "clear";
     private static final String KEY_SET = "keySet";
     private static final String VALUES = "values";
@@ -70,14 +74,52 @@ public class MeteredAsyncConsistentMap<K, V>  extends DelegatingAsyncConsistentM
     private static final String ADD_LISTENER = "addListener";
     private static final String REMOVE_LISTENER = "removeListener";
     private static final String NOTIFY_LISTENER = "notifyListener";
+    private static final String CACHE_HIT_RATIO = "cacheHitRatio";
+    private static final String CACHE_EVICTIONS = "cacheEvictions";
+    private static final String CACHE_SIZE = "cacheSize";
+
+    // Distinguishes the cache gauges of the instances of the same map
+    private static final AtomicLong INSTANCES = new AtomicLong();
 
     private final Map<MapEventListener<K, V>, InternalMeteredMapEventListener> listeners =
             Maps.newIdentityHashMap();
     private final MeteringAgent monitor;
+    private final String cacheGaugeSuffix;
 
     public MeteredAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap) {
+        this(backingMap, null);
+    }
+
+    /**
+     * Creates a metered map which also reports the hit ratio, evictions
+     * and size of the cache of the given caching map.
+     *
+     * @param backingMap map whose operations are to be metered
+     * @param cache caching map whose cache is to be metered; may be null
+     */
+    public MeteredAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap,
+                                     CachingAsyncConsistentMap<K, V> cache) {
         super(backingMap);
         this.monitor = new MeteringAgent(PRIMITIVE_NAME, backingMap.name(), true);
+        if (cache != null) {
+            cacheGaugeSuffix = "-" + INSTANCES.incrementAndGet();
+            monitor.registerGauge(CACHE_HIT_RATIO + cacheGaugeSuffix, () -> cache.cacheStats().hitRate());
+            monitor.registerGauge(CACHE_EVICTIONS + cacheGaugeSuffix, () -> cache.cacheStats().evictionCount());
+            monitor.registerGauge(CACHE_SIZE + cacheGaugeSuffix, cache::cacheSize);
+        } else {
+            cacheGaugeSuffix = null;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> destroy() {
+        // The gauges hold on to the cache, so they must not outlive the map
+        if (cacheGaugeSuffix != null) {
+            monitor.removeGauge(CACHE_HIT_RATIO + cacheGaugeSuffix);
+            monitor.removeGauge(CACHE_EVICTIONS + cacheGaugeSuffix);
+            monitor.removeGauge(CACHE_SIZE + cacheGaugeSuffix);
+        }
+        return super.destroy();
     }
 
     @Override
@@ -115,6 +157,13 @@ public class MeteredAsyncConsistentMap<K, V>  extends DelegatingAsyncConsistentM
                     .whenComplete((r, e) -> timer.stop(e));
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        final MeteringAgent.Context timer = monitor.startTimer(GET_ALL);
+        return super.getAll(keys)
+                    .whenComplete((r, e) -> timer.stop(e));
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> computeIfAbsent(K key,
                                                            Function<? super K, ? extends V> mappingFunction) {
@@ -153,6 +202,20 @@ public class MeteredAsyncConsistentMap<K, V>  extends DelegatingAsyncConsistentM
                     .whenComplete((r, e) -> timer.stop(e));
     }
 
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        final MeteringAgent.Context timer = monitor.startTimer(PUT_ALL);
+        return super.putAll(entries)
+                    .whenComplete((r, e) -> timer.stop(e));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        final MeteringAgent.Context timer = monitor.startTimer(REMOVE_ALL);
+        return super.removeAll(keys)
+                    .whenComplete((r, e) -> timer.stop(e));
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         final MeteringAgent.Context timer = monitor.startTimer(CLEAR);
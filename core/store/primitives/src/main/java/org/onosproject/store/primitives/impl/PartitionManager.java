@@ -19,6 +19,7 @@ package org.onosproject.store.primitives.impl;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.io.File;
+import java.util.Dictionary;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,9 +30,11 @@ import java.util.stream.Collectors;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.Tools;
 import org.onosproject.cluster.ClusterMetadata;
 import org.onosproject.cluster.ClusterMetadataDiff;
@@ -51,16 +54,25 @@ import org.onosproject.store.primitives.PartitionEventListener;
 import org.onosproject.store.primitives.PartitionService;
 import org.onosproject.store.service.PartitionClientInfo;
 import org.onosproject.store.service.PartitionInfo;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.PARTITION_READ;
 
 /**
  * Implementation of {@code PartitionService} and {@code PartitionAdminService}.
+ * <p>
+ * The storage and compaction settings of the partition logs are read from the
+ * component configuration when the partitions are opened. As the partitions
+ * back the distributed component configuration store, they cannot be changed
+ * at runtime through the component configuration service and must instead be
+ * set in the configuration file of this component.
  */
 @Component
 @Service
@@ -78,12 +90,41 @@ public class PartitionManager extends AbstractListenerManager<PartitionEvent, Pa
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterService clusterService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    @Property(name = "maxSegmentSize", intValue = PartitionStorageConfig.DEFAULT_MAX_SEGMENT_SIZE,
+            label = "Maximum size of a partition log segment, in bytes")
+    private int maxSegmentSize = PartitionStorageConfig.DEFAULT_MAX_SEGMENT_SIZE;
+
+    @Property(name = "maxEntriesPerSegment", intValue = PartitionStorageConfig.DEFAULT_MAX_ENTRIES_PER_SEGMENT,
+            label = "Maximum number of entries of a partition log segment")
+    private int maxEntriesPerSegment = PartitionStorageConfig.DEFAULT_MAX_ENTRIES_PER_SEGMENT;
+
+    @Property(name = "minorCompactionInterval", longValue = PartitionStorageConfig.DEFAULT_MINOR_COMPACTION_INTERVAL,
+            label = "Interval between minor compactions of the partition logs, in milliseconds")
+    private long minorCompactionInterval = PartitionStorageConfig.DEFAULT_MINOR_COMPACTION_INTERVAL;
+
+    @Property(name = "majorCompactionInterval", longValue = PartitionStorageConfig.DEFAULT_MAJOR_COMPACTION_INTERVAL,
+            label = "Interval between major compactions of the partition logs, in milliseconds")
+    private long majorCompactionInterval = PartitionStorageConfig.DEFAULT_MAJOR_COMPACTION_INTERVAL;
+
+    @Property(name = "compactionThreshold", doubleValue = PartitionStorageConfig.DEFAULT_COMPACTION_THRESHOLD,
+            label = "Fraction of released entries beyond which a log segment is compacted")
+    private double compactionThreshold = PartitionStorageConfig.DEFAULT_COMPACTION_THRESHOLD;
+
+    @Property(name = "compactionThreads", intValue = PartitionStorageConfig.DEFAULT_COMPACTION_THREADS,
+            label = "Number of threads compacting each partition log")
+    private int compactionThreads = PartitionStorageConfig.DEFAULT_COMPACTION_THREADS;
+
     private final Map<PartitionId, StoragePartition> partitions = Maps.newConcurrentMap();
     private final AtomicReference<ClusterMetadata> currentClusterMetadata = new AtomicReference<>();
     private final InternalClusterMetadataListener metadataListener = new InternalClusterMetadataListener();
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        PartitionStorageConfig storageConfig = readStorageConfig(context);
+        log.info("Partition log settings: {}", storageConfig);
         eventDispatcher.addSink(PartitionEvent.class, listenerRegistry);
         currentClusterMetadata.set(metadataService.getClusterMetadata());
         metadataService.addListener(metadataListener);
@@ -94,7 +135,9 @@ public class PartitionManager extends AbstractListenerManager<PartitionEvent, Pa
                                messagingService,
                                clusterService,
                                CatalystSerializers.getSerializer(),
-                               new File(System.getProperty("karaf.data") + "/partitions/" + partition.getId()))));
+                               new File(System.getProperty("karaf.data") + "/partitions/" + partition.getId()),
+                               storageConfig,
+                               metricsService)));
 
         CompletableFuture<Void> openFuture = CompletableFuture.allOf(partitions.values()
                                                                                .stream()
@@ -104,6 +147,44 @@ public class PartitionManager extends AbstractListenerManager<PartitionEvent, Pa
         log.info("Started");
     }
 
+    /**
+     * Reads the storage settings of the partition logs from the component
+     * configuration, keeping the defaults for settings which are missing
+     * or invalid.
+     *
+     * @param context component context
+     * @return storage settings
+     */
+    private PartitionStorageConfig readStorageConfig(ComponentContext context) {
+        Dictionary<?, ?> properties = context != null ? context.getProperties() : null;
+        if (properties != null) {
+            try {
+                String s = get(properties, "maxSegmentSize");
+                maxSegmentSize = isNullOrEmpty(s) ? maxSegmentSize : Integer.parseInt(s.trim());
+                s = get(properties, "maxEntriesPerSegment");
+                maxEntriesPerSegment = isNullOrEmpty(s) ? maxEntriesPerSegment : Integer.parseInt(s.trim());
+                s = get(properties, "minorCompactionInterval");
+                minorCompactionInterval = isNullOrEmpty(s) ? minorCompactionInterval : Long.parseLong(s.trim());
+                s = get(properties, "majorCompactionInterval");
+                majorCompactionInterval = isNullOrEmpty(s) ? majorCompactionInterval : Long.parseLong(s.trim());
+                s = get(properties, "compactionThreshold");
+                compactionThreshold = isNullOrEmpty(s) ? compactionThreshold : Double.parseDouble(s.trim());
+                s = get(properties, "compactionThreads");
+                compactionThreads = isNullOrEmpty(s) ? compactionThreads : Integer.parseInt(s.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid partition log settings: {}", e.getMessage());
+            }
+        }
+        try {
+            return new PartitionStorageConfig(maxSegmentSize, maxEntriesPerSegment,
+                                              minorCompactionInterval, majorCompactionInterval,
+                                              compactionThreshold, compactionThreads);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid partition log settings, using defaults: {}", e.getMessage());
+            return PartitionStorageConfig.DEFAULT;
+        }
+    }
+
     @Deactivate
     public void deactivate() {
         metadataService.removeListener(metadataListener);
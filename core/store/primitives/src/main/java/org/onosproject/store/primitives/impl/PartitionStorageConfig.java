@@ -0,0 +1,182 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import io.atomix.copycat.server.storage.Storage;
+import io.atomix.copycat.server.storage.StorageLevel;
+
+import java.io.File;
+import java.time.Duration;
+
+import com.google.common.base.MoreObjects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Storage and compaction settings of the Raft logs of the storage partitions.
+ * <p>
+ * Logs are split into segments, which are bounded both in size and in number
+ * of entries. Minor compaction periodically rewrites individual segments to
+ * drop entries which are no longer needed; major compaction periodically
+ * rewrites and merges all segments up to the last snapshot. A segment is
+ * rewritten by minor compaction only once the fraction of its entries which
+ * were released exceeds the compaction threshold.
+ */
+public final class PartitionStorageConfig {
+
+    public static final int DEFAULT_MAX_SEGMENT_SIZE = 32 * 1024 * 1024;
+    public static final int DEFAULT_MAX_ENTRIES_PER_SEGMENT = 32768;
+    public static final long DEFAULT_MINOR_COMPACTION_INTERVAL = 60_000;
+    public static final long DEFAULT_MAJOR_COMPACTION_INTERVAL = 3_600_000;
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+    public static final int DEFAULT_COMPACTION_THREADS = 1;
+
+    /**
+     * Default storage settings.
+     */
+    public static final PartitionStorageConfig DEFAULT = new PartitionStorageConfig(
+            DEFAULT_MAX_SEGMENT_SIZE,
+            DEFAULT_MAX_ENTRIES_PER_SEGMENT,
+            DEFAULT_MINOR_COMPACTION_INTERVAL,
+            DEFAULT_MAJOR_COMPACTION_INTERVAL,
+            DEFAULT_COMPACTION_THRESHOLD,
+            DEFAULT_COMPACTION_THREADS);
+
+    private final int maxSegmentSize;
+    private final int maxEntriesPerSegment;
+    private final long minorCompactionInterval;
+    private final long majorCompactionInterval;
+    private final double compactionThreshold;
+    private final int compactionThreads;
+
+    /**
+     * Creates storage settings.
+     *
+     * @param maxSegmentSize maximum size of a log segment, in bytes
+     * @param maxEntriesPerSegment maximum number of entries of a log segment
+     * @param minorCompactionInterval interval between minor compactions, in milliseconds
+     * @param majorCompactionInterval interval between major compactions, in milliseconds
+     * @param compactionThreshold fraction of released entries beyond which a
+     * segment is rewritten by minor compaction
+     * @param compactionThreads number of threads compacting the log
+     */
+    public PartitionStorageConfig(int maxSegmentSize,
+                                  int maxEntriesPerSegment,
+                                  long minorCompactionInterval,
+                                  long majorCompactionInterval,
+                                  double compactionThreshold,
+                                  int compactionThreads) {
+        checkArgument(maxSegmentSize > 0, "Maximum segment size must be positive");
+        checkArgument(maxEntriesPerSegment > 0, "Maximum entries per segment must be positive");
+        checkArgument(minorCompactionInterval > 0, "Minor compaction interval must be positive");
+        checkArgument(majorCompactionInterval > 0, "Major compaction interval must be positive");
+        checkArgument(compactionThreshold > 0 && compactionThreshold <= 1,
+                      "Compaction threshold must be in (0, 1]");
+        checkArgument(compactionThreads > 0, "Compaction threads must be positive");
+        this.maxSegmentSize = maxSegmentSize;
+        this.maxEntriesPerSegment = maxEntriesPerSegment;
+        this.minorCompactionInterval = minorCompactionInterval;
+        this.majorCompactionInterval = majorCompactionInterval;
+        this.compactionThreshold = compactionThreshold;
+        this.compactionThreads = compactionThreads;
+    }
+
+    /**
+     * Returns the maximum size of a log segment.
+     *
+     * @return size in bytes
+     */
+    public int maxSegmentSize() {
+        return maxSegmentSize;
+    }
+
+    /**
+     * Returns the maximum number of entries of a log segment.
+     *
+     * @return number of entries
+     */
+    public int maxEntriesPerSegment() {
+        return maxEntriesPerSegment;
+    }
+
+    /**
+     * Returns the interval between minor compactions.
+     *
+     * @return interval in milliseconds
+     */
+    public long minorCompactionInterval() {
+        return minorCompactionInterval;
+    }
+
+    /**
+     * Returns the interval between major compactions.
+     *
+     * @return interval in milliseconds
+     */
+    public long majorCompactionInterval() {
+        return majorCompactionInterval;
+    }
+
+    /**
+     * Returns the fraction of released entries beyond which a segment is
+     * rewritten by minor compaction.
+     *
+     * @return compaction threshold
+     */
+    public double compactionThreshold() {
+        return compactionThreshold;
+    }
+
+    /**
+     * Returns the number of threads compacting the log.
+     *
+     * @return number of threads
+     */
+    public int compactionThreads() {
+        return compactionThreads;
+    }
+
+    /**
+     * Builds the disk storage of a partition log with these settings.
+     *
+     * @param directory directory holding the log
+     * @return log storage
+     */
+    public Storage storage(File directory) {
+        return Storage.builder()
+                .withStorageLevel(StorageLevel.DISK)
+                .withDirectory(directory)
+                .withMaxSegmentSize(maxSegmentSize)
+                .withMaxEntriesPerSegment(maxEntriesPerSegment)
+                .withMinorCompactionInterval(Duration.ofMillis(minorCompactionInterval))
+                .withMajorCompactionInterval(Duration.ofMillis(majorCompactionInterval))
+                .withCompactionThreshold(compactionThreshold)
+                .withCompactionThreads(compactionThreads)
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("maxSegmentSize", maxSegmentSize)
+                .add("maxEntriesPerSegment", maxEntriesPerSegment)
+                .add("minorCompactionInterval", minorCompactionInterval)
+                .add("majorCompactionInterval", majorCompactionInterval)
+                .add("compactionThreshold", compactionThreshold)
+                .add("compactionThreads", compactionThreads)
+                .toString();
+    }
+}
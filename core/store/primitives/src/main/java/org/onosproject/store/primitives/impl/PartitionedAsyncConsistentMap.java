@@ -105,6 +105,18 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return getMap(key).get(key);
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Set<K> keys) {
+        Map<K, Versioned<V>> values = Maps.newConcurrentMap();
+        return CompletableFuture.allOf(groupByPartition(keys).entrySet()
+                                           .stream()
+                                           .map(e -> partitions.get(e.getKey())
+                                                               .getAll(e.getValue())
+                                                               .thenAccept(values::putAll))
+                                           .toArray(CompletableFuture[]::new))
+                                .thenApply(v -> values);
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> computeIf(K key,
             Predicate<? super V> condition,
@@ -127,6 +139,25 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return getMap(key).remove(key);
     }
 
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        Map<PartitionId, Map<K, V>> entriesByPartition = Maps.newHashMap();
+        entries.forEach((k, v) -> entriesByPartition.computeIfAbsent(keyHasher.hash(k), p -> Maps.newHashMap())
+                                                    .put(k, v));
+        return CompletableFuture.allOf(entriesByPartition.entrySet()
+                                           .stream()
+                                           .map(e -> partitions.get(e.getKey()).putAll(e.getValue()))
+                                           .toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        return CompletableFuture.allOf(groupByPartition(keys).entrySet()
+                                           .stream()
+                                           .map(e -> partitions.get(e.getKey()).removeAll(e.getValue()))
+                                           .toArray(CompletableFuture[]::new));
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return CompletableFuture.allOf(getMaps().stream()
@@ -280,6 +311,17 @@ public class PartitionedAsyncConsistentMap<K, V> implements AsyncConsistentMap<K
         return partitions.get(keyHasher.hash(key));
     }
 
+    /**
+     * Groups the specified keys by the partition to which they map.
+     * @param keys keys
+     * @return keys by partition
+     */
+    private Map<PartitionId, Set<K>> groupByPartition(Set<K> keys) {
+        Map<PartitionId, Set<K>> keysByPartition = Maps.newHashMap();
+        keys.forEach(k -> keysByPartition.computeIfAbsent(keyHasher.hash(k), p -> Sets.newHashSet()).add(k));
+        return keysByPartition;
+    }
+
     /**
      * Returns all the constituent maps.
      * @return collection of maps.
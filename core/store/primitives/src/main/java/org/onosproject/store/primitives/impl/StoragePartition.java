@@ -27,6 +27,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.NodeId;
@@ -50,6 +51,8 @@ public class StoragePartition implements Managed<StoragePartition> {
     private final MessagingService messagingService;
     private final ClusterService clusterService;
     private final File logFolder;
+    private final PartitionStorageConfig storageConfig;
+    private final MetricsService metricsService;
     private Partition partition;
     private NodeId localNodeId;
     private StoragePartitionServer server;
@@ -63,13 +66,17 @@ public class StoragePartition implements Managed<StoragePartition> {
             MessagingService messagingService,
             ClusterService clusterService,
             Serializer serializer,
-            File logFolder) {
+            File logFolder,
+            PartitionStorageConfig storageConfig,
+            MetricsService metricsService) {
         this.partition = partition;
         this.messagingService = messagingService;
         this.clusterService = clusterService;
         this.localNodeId = clusterService.getLocalNode().id();
         this.serializer = serializer;
         this.logFolder = logFolder;
+        this.storageConfig = storageConfig;
+        this.metricsService = metricsService;
     }
 
     /**
@@ -134,7 +141,9 @@ public class StoragePartition implements Managed<StoragePartition> {
                 () -> new CopycatTransport(CopycatTransport.Mode.SERVER,
                                      partition.getId(),
                                      messagingService),
-                logFolder);
+                logFolder,
+                storageConfig,
+                metricsService);
         return server.open().thenRun(() -> this.server = server);
     }
 
@@ -153,7 +162,9 @@ public class StoragePartition implements Managed<StoragePartition> {
                 () -> new CopycatTransport(CopycatTransport.Mode.SERVER,
                                      partition.getId(),
                                      messagingService),
-                logFolder);
+                logFolder,
+                storageConfig,
+                metricsService);
         return server.join(Collections2.transform(otherMembers, this::toAddress)).thenRun(() -> this.server = server);
     }
 
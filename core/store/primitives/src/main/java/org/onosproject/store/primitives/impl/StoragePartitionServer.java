@@ -20,49 +20,87 @@ import io.atomix.catalyst.serializer.Serializer;
 import io.atomix.catalyst.transport.Address;
 import io.atomix.catalyst.transport.Transport;
 import io.atomix.copycat.server.CopycatServer;
-import io.atomix.copycat.server.storage.Storage;
-import io.atomix.copycat.server.storage.StorageLevel;
 import io.atomix.manager.internal.ResourceManagerState;
 import io.atomix.manager.util.ResourceManagerTypeResolver;
 
 import java.io.File;
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.store.service.PartitionInfo;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
+
 /**
  * {@link StoragePartition} server.
+ * <p>
+ * When a metrics service is available, the size of the partition log on disk
+ * and the time it took the server to start, which includes replaying the log,
+ * are published as {@code StoragePartitionServer.<partition>.*} metrics.
  */
 public class StoragePartitionServer implements Managed<StoragePartitionServer> {
 
     private final Logger log = getLogger(getClass());
 
-    private static final int MAX_ENTRIES_PER_LOG_SEGMENT = 32768;
+    private static final String COMPONENT = "StoragePartitionServer";
+    private static final String LOG_SIZE = "logSize";
+    private static final String LOG_SEGMENTS = "logSegments";
+    private static final String SNAPSHOT_SIZE = "snapshotSize";
+    private static final String STARTUP_TIME = "startupTime";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
     private final StoragePartition partition;
     private final Address localAddress;
     private final Supplier<Transport> transport;
     private final Serializer serializer;
     private final File dataFolder;
+    private final PartitionStorageConfig storageConfig;
+    private final MetricsService metricsService;
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
     private CopycatServer server;
 
+    /**
+     * Creates a partition server.
+     *
+     * @param localAddress address of the local server
+     * @param partition partition served
+     * @param serializer serializer of the partition
+     * @param transport supplier of the transport of the server
+     * @param dataFolder directory holding the partition log
+     * @param storageConfig storage and compaction settings of the partition log
+     * @param metricsService metrics service used to publish the log metrics;
+     * null if they are not to be published
+     */
     public StoragePartitionServer(Address localAddress,
             StoragePartition partition,
             Serializer serializer,
             Supplier<Transport> transport,
-            File dataFolder) {
+            File dataFolder,
+            PartitionStorageConfig storageConfig,
+            MetricsService metricsService) {
         this.partition = partition;
         this.localAddress = localAddress;
         this.serializer = serializer;
         this.transport = transport;
         this.dataFolder = dataFolder;
+        this.storageConfig = storageConfig;
+        this.metricsService = metricsService;
     }
 
     @Override
     public CompletableFuture<Void> open() {
         CompletableFuture<CopycatServer> serverOpenFuture;
+        long start = System.nanoTime();
         if (partition.getMemberAddresses().contains(localAddress)) {
             if (server != null && server.isRunning()) {
                 return CompletableFuture.completedFuture(null);
@@ -76,6 +114,9 @@ public class StoragePartitionServer implements Managed<StoragePartitionServer> {
         }
         return serverOpenFuture.whenComplete((r, e) -> {
             if (e == null) {
+                if (r != null) {
+                    recordStartup(start);
+                }
                 log.info("Successfully started server for partition {}", partition.getId());
             } else {
                 log.info("Failed to start server for partition {}", partition.getId(), e);
@@ -85,6 +126,7 @@ public class StoragePartitionServer implements Managed<StoragePartitionServer> {
 
     @Override
     public CompletableFuture<Void> close() {
+        removeMetrics();
         return server.shutdown();
     }
 
@@ -93,30 +135,30 @@ public class StoragePartitionServer implements Managed<StoragePartitionServer> {
      * @return future that is completed when the operation is complete
      */
     public CompletableFuture<Void> closeAndExit() {
+        removeMetrics();
         return server.leave();
     }
 
     private CopycatServer buildServer() {
+        log.debug("Building server for partition {} with {}", partition.getId(), storageConfig);
         CopycatServer server = CopycatServer.builder(localAddress)
                 .withName("partition-" + partition.getId())
                 .withSerializer(serializer.clone())
                 .withTransport(transport.get())
                 .withStateMachine(ResourceManagerState::new)
-                .withStorage(Storage.builder()
-                        .withStorageLevel(StorageLevel.DISK)
-                        .withCompactionThreads(1)
-                        .withDirectory(dataFolder)
-                        .withMaxEntriesPerSegment(MAX_ENTRIES_PER_LOG_SEGMENT)
-                        .build())
+                .withStorage(storageConfig.storage(dataFolder))
                 .build();
         server.serializer().resolve(new ResourceManagerTypeResolver());
+        registerMetrics();
         return server;
     }
 
     public CompletableFuture<Void> join(Collection<Address> otherMembers) {
         server = buildServer();
+        long start = System.nanoTime();
         return server.join(otherMembers).whenComplete((r, e) -> {
             if (e == null) {
+                recordStartup(start);
                 log.info("Successfully joined partition {}", partition.getId());
             } else {
                 log.info("Failed to join partition {}", partition.getId(), e);
@@ -124,6 +166,50 @@ public class StoragePartitionServer implements Managed<StoragePartitionServer> {
         }).thenApply(v -> null);
     }
 
+    private synchronized void registerMetrics() {
+        if (metricsService == null || metricsFeature != null) {
+            return;
+        }
+        metricsComponent = metricsService.registerComponent(COMPONENT);
+        metricsFeature = metricsComponent.registerFeature(partition.getId().toString());
+        metricsService.registerMetric(metricsComponent, metricsFeature, LOG_SIZE,
+                                      (Gauge<Long>) () -> sizeOf(LOG_SUFFIX));
+        metricsService.registerMetric(metricsComponent, metricsFeature, LOG_SEGMENTS,
+                                      (Gauge<Long>) () -> files(LOG_SUFFIX).count());
+        metricsService.registerMetric(metricsComponent, metricsFeature, SNAPSHOT_SIZE,
+                                      (Gauge<Long>) () -> sizeOf(SNAPSHOT_SUFFIX));
+    }
+
+    private synchronized void removeMetrics() {
+        if (metricsFeature == null) {
+            return;
+        }
+        metricsService.removeMetric(metricsComponent, metricsFeature, LOG_SIZE);
+        metricsService.removeMetric(metricsComponent, metricsFeature, LOG_SEGMENTS);
+        metricsService.removeMetric(metricsComponent, metricsFeature, SNAPSHOT_SIZE);
+        metricsFeature = null;
+    }
+
+    // Records the time the server took to start, replaying its log included.
+    private synchronized void recordStartup(long start) {
+        long elapsed = System.nanoTime() - start;
+        log.info("Server for partition {} started in {} ms", partition.getId(),
+                 TimeUnit.NANOSECONDS.toMillis(elapsed));
+        if (metricsFeature != null) {
+            Timer timer = metricsService.createTimer(metricsComponent, metricsFeature, STARTUP_TIME);
+            timer.update(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Stream<File> files(String suffix) {
+        File[] files = dataFolder.listFiles((dir, name) -> name.endsWith(suffix));
+        return files == null ? Stream.empty() : Stream.of(files);
+    }
+
+    private long sizeOf(String suffix) {
+        return files(suffix).mapToLong(File::length).sum();
+    }
+
     @Override
     public boolean isOpen() {
         return server.isRunning();
@@ -108,6 +108,23 @@ public class TranscodingAsyncConsistentMap<K1, V1, K2, V2> implements AsyncConsi
         }
     }
 
+    @Override
+    public CompletableFuture<Map<K1, Versioned<V1>>> getAll(Set<K1> keys) {
+        try {
+            Map<K2, K1> encodedKeys = Maps.newHashMap();
+            keys.forEach(key -> encodedKeys.put(keyEncoder.apply(key), key));
+            return backingMap.getAll(encodedKeys.keySet())
+                             .thenApply(values -> {
+                                 Map<K1, Versioned<V1>> decoded = Maps.newHashMap();
+                                 values.forEach((k, v) -> decoded.put(encodedKeys.get(k),
+                                                                      versionedValueTransform.apply(v)));
+                                 return decoded;
+                             });
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
     @Override
     public CompletableFuture<Versioned<V1>> computeIf(K1 key,
             Predicate<? super V1> condition,
@@ -152,6 +169,26 @@ public class TranscodingAsyncConsistentMap<K1, V1, K2, V2> implements AsyncConsi
         }
     }
 
+    @Override
+    public CompletableFuture<Void> putAll(Map<K1, V1> entries) {
+        try {
+            Map<K2, V2> encodedEntries = Maps.newHashMap();
+            entries.forEach((k, v) -> encodedEntries.put(keyEncoder.apply(k), valueEncoder.apply(v)));
+            return backingMap.putAll(encodedEntries);
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K1> keys) {
+        try {
+            return backingMap.removeAll(keys.stream().map(keyEncoder).collect(Collectors.toSet()));
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return backingMap.clear();
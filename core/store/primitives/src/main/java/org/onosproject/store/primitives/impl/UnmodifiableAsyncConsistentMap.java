@@ -16,6 +16,8 @@
 
 package org.onosproject.store.primitives.impl;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
@@ -63,6 +65,16 @@ public class UnmodifiableAsyncConsistentMap<K, V> extends DelegatingAsyncConsist
         return Tools.exceptionalFuture(new UnsupportedOperationException(ERROR_MSG));
     }
 
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return Tools.exceptionalFuture(new UnsupportedOperationException(ERROR_MSG));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<K> keys) {
+        return Tools.exceptionalFuture(new UnsupportedOperationException(ERROR_MSG));
+    }
+
     @Override
     public CompletableFuture<Void> clear() {
         return Tools.exceptionalFuture(new UnsupportedOperationException(ERROR_MSG));
@@ -88,10 +88,15 @@ public class AsyncConsistentSetMultimapState extends ResourceStateMachine
 
     @Override
     public void snapshot(SnapshotWriter writer) {
+        writer.writeLong(globalVersion.get());
     }
 
     @Override
     public void install(SnapshotReader reader) {
+        // Snapshots taken before the version counter was added are empty
+        if (reader.hasRemaining()) {
+            globalVersion.set(reader.readLong());
+        }
     }
 
     @Override
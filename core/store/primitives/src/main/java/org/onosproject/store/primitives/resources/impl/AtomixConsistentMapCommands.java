@@ -35,6 +35,8 @@ import org.onosproject.store.service.MapTransaction;
 import org.onosproject.store.service.Versioned;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
  * {@link AtomixConsistentMap} resource state machine operations.
@@ -438,6 +440,169 @@ public final class AtomixConsistentMapCommands {
         }
     }
 
+    /**
+     * Get all query.
+     */
+    @SuppressWarnings("serial")
+    public static class GetAll extends MapQuery<Map<String, Versioned<byte[]>>> {
+        private Set<String> keys;
+
+        public GetAll() {
+        }
+
+        public GetAll(Set<String> keys) {
+            this.keys = Assert.notNull(keys, "keys");
+        }
+
+        /**
+         * Returns the keys.
+         * @return keys
+         */
+        public Set<String> keys() {
+            return keys;
+        }
+
+        @Override
+        public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+            super.writeObject(buffer, serializer);
+            writeKeys(keys, buffer, serializer);
+        }
+
+        @Override
+        public void readObject(BufferInput<?> buffer, Serializer serializer) {
+            super.readObject(buffer, serializer);
+            keys = readKeys(buffer, serializer);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("keys", keys.size())
+                    .toString();
+        }
+    }
+
+    /**
+     * Put all command.
+     * <p>
+     * All entries are written by a single log entry, which is retained for as
+     * long as any of the values it wrote remains in the map.
+     */
+    @SuppressWarnings("serial")
+    public static class PutAll extends MapCommand<MapEntryUpdateResult.Status> {
+        private Map<String, byte[]> entries;
+
+        public PutAll() {
+        }
+
+        public PutAll(Map<String, byte[]> entries) {
+            this.entries = Assert.notNull(entries, "entries");
+        }
+
+        /**
+         * Returns the entries.
+         * @return entries
+         */
+        public Map<String, byte[]> entries() {
+            return entries;
+        }
+
+        @Override
+        public CompactionMode compaction() {
+          return CompactionMode.QUORUM;
+        }
+
+        @Override
+        public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+            super.writeObject(buffer, serializer);
+            buffer.writeInt(entries.size());
+            entries.forEach((key, value) -> {
+                serializer.writeObject(key, buffer);
+                serializer.writeObject(value, buffer);
+            });
+        }
+
+        @Override
+        public void readObject(BufferInput<?> buffer, Serializer serializer) {
+            super.readObject(buffer, serializer);
+            int size = buffer.readInt();
+            entries = Maps.newHashMapWithExpectedSize(size);
+            for (int i = 0; i < size; i++) {
+                String key = serializer.readObject(buffer);
+                byte[] value = serializer.readObject(buffer);
+                entries.put(key, value);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("entries", entries.size())
+                    .toString();
+        }
+    }
+
+    /**
+     * Remove all command.
+     */
+    @SuppressWarnings("serial")
+    public static class RemoveAll extends MapCommand<MapEntryUpdateResult.Status> {
+        private Set<String> keys;
+
+        public RemoveAll() {
+        }
+
+        public RemoveAll(Set<String> keys) {
+            this.keys = Assert.notNull(keys, "keys");
+        }
+
+        /**
+         * Returns the keys.
+         * @return keys
+         */
+        public Set<String> keys() {
+            return keys;
+        }
+
+        @Override
+        public CompactionMode compaction() {
+          return CompactionMode.FULL;
+        }
+
+        @Override
+        public void writeObject(BufferOutput<?> buffer, Serializer serializer) {
+            super.writeObject(buffer, serializer);
+            writeKeys(keys, buffer, serializer);
+        }
+
+        @Override
+        public void readObject(BufferInput<?> buffer, Serializer serializer) {
+            super.readObject(buffer, serializer);
+            keys = readKeys(buffer, serializer);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("keys", keys.size())
+                    .toString();
+        }
+    }
+
+    private static void writeKeys(Set<String> keys, BufferOutput<?> buffer, Serializer serializer) {
+        buffer.writeInt(keys.size());
+        keys.forEach(key -> serializer.writeObject(key, buffer));
+    }
+
+    private static Set<String> readKeys(BufferInput<?> buffer, Serializer serializer) {
+        int size = buffer.readInt();
+        Set<String> keys = Sets.newHashSetWithExpectedSize(size);
+        for (int i = 0; i < size; i++) {
+            keys.add(serializer.readObject(buffer));
+        }
+        return keys;
+    }
+
     /**
      * Is empty query.
      */
@@ -535,6 +700,9 @@ public final class AtomixConsistentMapCommands {
             registry.register(TransactionRollback.class, -774);
             registry.register(TransactionPrepareAndCommit.class, -775);
             registry.register(UpdateAndGet.class, -776);
+            registry.register(GetAll.class, -777);
+            registry.register(PutAll.class, -778);
+            registry.register(RemoveAll.class, -779);
         }
     }
 }
@@ -47,9 +47,12 @@ import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapComman
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.ContainsValue;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.EntrySet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Get;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.GetAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.IsEmpty;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.KeySet;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Listen;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.PutAll;
+import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.RemoveAll;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.Size;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.TransactionCommit;
 import org.onosproject.store.primitives.resources.impl.AtomixConsistentMapCommands.TransactionPrepare;
@@ -106,12 +109,15 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         executor.register(ContainsValue.class, this::containsValue);
         executor.register(EntrySet.class, this::entrySet);
         executor.register(Get.class, this::get);
+        executor.register(GetAll.class, this::getAll);
         executor.register(IsEmpty.class, this::isEmpty);
         executor.register(KeySet.class, this::keySet);
         executor.register(Size.class, this::size);
         executor.register(Values.class, this::values);
         // Commands
         executor.register(UpdateAndGet.class, this::updateAndGet);
+        executor.register(PutAll.class, this::putAll);
+        executor.register(RemoveAll.class, this::removeAll);
         executor.register(AtomixConsistentMapCommands.Clear.class, this::clear);
         executor.register(TransactionPrepare.class, this::prepare);
         executor.register(TransactionCommit.class, this::commit);
@@ -176,6 +182,27 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         }
     }
 
+    /**
+     * Handles a get all commit.
+     *
+     * @param commit getAll commit
+     * @return values mapped to the keys which are present in the map
+     */
+    protected Map<String, Versioned<byte[]>> getAll(Commit<? extends GetAll> commit) {
+        try {
+            Map<String, Versioned<byte[]>> values = new HashMap<>();
+            commit.operation().keys().forEach(key -> {
+                Versioned<byte[]> value = toVersioned(mapEntries.get(key));
+                if (value != null) {
+                    values.put(key, value);
+                }
+            });
+            return values;
+        } finally {
+            commit.close();
+        }
+    }
+
     /**
      * Handles a count commit.
      *
@@ -296,6 +323,80 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         }
     }
 
+    /**
+     * Handles a put all commit.
+     * <p>
+     * The commit is retained until all the values it wrote are discarded.
+     *
+     * @param commit putAll commit
+     * @return update status; {@code WRITE_LOCK} if any of the keys is locked
+     * by a transaction, in which case no entry is written
+     */
+    protected MapEntryUpdateResult.Status putAll(Commit<? extends PutAll> commit) {
+        boolean retained = false;
+        try {
+            Map<String, byte[]> entries = commit.operation().entries();
+            if (entries.keySet().stream().anyMatch(preparedKeys::contains)) {
+                return MapEntryUpdateResult.Status.WRITE_LOCK;
+            }
+            if (entries.isEmpty()) {
+                return MapEntryUpdateResult.Status.NOOP;
+            }
+            CountDownCompleter<Commit<? extends PutAll>> completer =
+                    new CountDownCompleter<>(commit, entries.size(), Commit::close);
+            retained = true;
+            List<MapEvent<String, byte[]>> events = Lists.newArrayListWithCapacity(entries.size());
+            entries.keySet().forEach(key -> {
+                MapEntryValue newValue = new BatchCommit(key, versionCounter.incrementAndGet(), completer);
+                MapEntryValue previousValue = mapEntries.put(key, newValue);
+                events.add(new MapEvent<>("", key, toVersioned(newValue), toVersioned(previousValue)));
+                if (previousValue != null) {
+                    previousValue.discard();
+                }
+            });
+            publish(events);
+            return MapEntryUpdateResult.Status.OK;
+        } catch (Exception e) {
+            log.error("State machine operation failed", e);
+            throw Throwables.propagate(e);
+        } finally {
+            if (!retained) {
+                commit.close();
+            }
+        }
+    }
+
+    /**
+     * Handles a remove all commit.
+     *
+     * @param commit removeAll commit
+     * @return update status; {@code WRITE_LOCK} if any of the keys is locked
+     * by a transaction, in which case no entry is removed
+     */
+    protected MapEntryUpdateResult.Status removeAll(Commit<? extends RemoveAll> commit) {
+        try {
+            Set<String> keys = commit.operation().keys();
+            if (keys.stream().anyMatch(preparedKeys::contains)) {
+                return MapEntryUpdateResult.Status.WRITE_LOCK;
+            }
+            List<MapEvent<String, byte[]>> events = Lists.newArrayList();
+            keys.forEach(key -> {
+                MapEntryValue previousValue = mapEntries.remove(key);
+                if (previousValue != null) {
+                    events.add(new MapEvent<>("", key, null, toVersioned(previousValue)));
+                    previousValue.discard();
+                }
+            });
+            if (events.isEmpty()) {
+                return MapEntryUpdateResult.Status.NOOP;
+            }
+            publish(events);
+            return MapEntryUpdateResult.Status.OK;
+        } finally {
+            commit.close();
+        }
+    }
+
     /**
      * Handles a clear commit.
      *
@@ -617,6 +718,38 @@ public class AtomixConsistentMapState extends ResourceStateMachine implements Se
         }
     }
 
+    /**
+     * A {@code MapEntryValue} that is derived from a put all update.
+     */
+    private class BatchCommit implements MapEntryValue {
+        private final String key;
+        private final long version;
+        private final CountDownCompleter<Commit<? extends PutAll>> completer;
+
+        public BatchCommit(String key,
+                           long version,
+                           CountDownCompleter<Commit<? extends PutAll>> completer) {
+            this.key = key;
+            this.version = version;
+            this.completer = completer;
+        }
+
+        @Override
+        public byte[] value() {
+            return completer.object().operation().entries().get(key);
+        }
+
+        @Override
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public void discard() {
+            completer.countDown();
+        }
+    }
+
     /**
      * A {@code MapEntryValue} that is derived from updates submitted via a
      * transaction.
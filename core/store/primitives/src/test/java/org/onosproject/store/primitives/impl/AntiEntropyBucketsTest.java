@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.LogicalTimestamp;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.serializers.StoreSerializer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for AntiEntropyBuckets.
+ */
+public class AntiEntropyBucketsTest {
+
+    private static final int BUCKETS = 16;
+
+    private static final StoreSerializer SERIALIZER =
+            StoreSerializer.using(KryoNamespace.newBuilder()
+                                          .register(KryoNamespaces.BASIC)
+                                          .register(LogicalTimestamp.class)
+                                          .build());
+
+    private final AntiEntropyBuckets buckets = new AntiEntropyBuckets(SERIALIZER, BUCKETS);
+
+    // Hashes the entries into buckets of their own.
+    private static long[] hashes(Map<String, MapValue<String>> items) {
+        AntiEntropyBuckets buckets = new AntiEntropyBuckets(SERIALIZER, BUCKETS);
+        items.forEach((key, value) -> buckets.update(key, null, value));
+        return buckets.hashes();
+    }
+
+    private Map<String, MapValue<String>> items(int count) {
+        Map<String, MapValue<String>> items = Maps.newHashMap();
+        for (int i = 0; i < count; i++) {
+            items.put("key" + i, new MapValue<>("value" + i, new LogicalTimestamp(i)));
+        }
+        return items;
+    }
+
+    @Test
+    public void testIdenticalMaps() {
+        long[] local = hashes(items(100));
+        long[] remote = hashes(new TreeMap<>(items(100)));
+        assertEquals(BUCKETS, local.length);
+        assertArrayEquals(local, remote);
+        assertTrue(buckets.differing(local, remote).isEmpty());
+    }
+
+    @Test
+    public void testNewerEntry() {
+        Map<String, MapValue<String>> remoteItems = items(100);
+        remoteItems.put("key7", new MapValue<>("value7", new LogicalTimestamp(1000)));
+
+        assertEquals(ImmutableSet.of(buckets.bucket("key7")),
+                     buckets.differing(hashes(items(100)), hashes(remoteItems)));
+    }
+
+    @Test
+    public void testTombstone() {
+        Map<String, MapValue<String>> remoteItems = items(100);
+        remoteItems.put("key3", MapValue.tombstone(new LogicalTimestamp(3)));
+
+        assertEquals(ImmutableSet.of(buckets.bucket("key3")),
+                     buckets.differing(hashes(items(100)), hashes(remoteItems)));
+    }
+
+    @Test
+    public void testMissingEntry() {
+        Map<String, MapValue<String>> remoteItems = items(100);
+        remoteItems.remove("key42");
+
+        assertEquals(ImmutableSet.of(buckets.bucket("key42")),
+                     buckets.differing(hashes(items(100)), hashes(remoteItems)));
+    }
+
+    @Test
+    public void testBucketCountMismatch() {
+        assertEquals(BUCKETS, buckets.differing(hashes(items(10)), new long[BUCKETS / 2]).size());
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        Map<String, MapValue<String>> items = Maps.newHashMap();
+        for (int i = 0; i < 100; i++) {
+            put(items, "key" + i, new MapValue<>("value" + i, new LogicalTimestamp(i)));
+        }
+        put(items, "key7", new MapValue<>("value7", new LogicalTimestamp(1000)));
+        put(items, "key3", MapValue.tombstone(new LogicalTimestamp(3)));
+        put(items, "key42", null);
+
+        assertArrayEquals(hashes(items), buckets.hashes());
+    }
+
+    @Test
+    public void testRecompute() {
+        Map<String, MapValue<String>> items = items(100);
+        items.forEach((key, value) -> buckets.update(key, null, value));
+
+        // An update that is not reflected in the entries throws a bucket off.
+        buckets.update("key7", null, new MapValue<>("value7", new LogicalTimestamp(1000)));
+        Set<Integer> differing = buckets.differing(buckets.hashes(), hashes(items));
+        assertEquals(ImmutableSet.of(buckets.bucket("key7")), differing);
+
+        buckets.recompute(items, differing);
+        assertArrayEquals(hashes(items), buckets.hashes());
+    }
+
+    // Replaces the value of a key, reporting the change to the buckets.
+    private void put(Map<String, MapValue<String>> items, String key, MapValue<String> value) {
+        MapValue<String> previous = value == null ? items.remove(key) : items.put(key, value);
+        buckets.update(key, previous, value);
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+import org.onosproject.store.primitives.TransactionId;
+import org.onosproject.store.service.AsyncConsistentMap;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.MapTransaction;
+import org.onosproject.store.service.Versioned;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Unit tests for CachingAsyncConsistentMap.
+ */
+public class CachingAsyncConsistentMapTest {
+
+    private final TestAsyncConsistentMap backingMap = new TestAsyncConsistentMap();
+
+    private static String value(CompletableFuture<Versioned<String>> future) {
+        Versioned<String> versioned = future.join();
+        return versioned == null ? null : versioned.value();
+    }
+
+    @Test
+    public void testCachedReads() {
+        CachingAsyncConsistentMap<String, String> map = new CachingAsyncConsistentMap<>(backingMap);
+        backingMap.put("foo", "bar");
+
+        assertEquals("bar", value(map.get("foo")));
+        assertEquals("bar", value(map.get("foo")));
+        assertNull(value(map.get("baz")));
+        assertNull(value(map.get("baz")));
+        assertEquals(2, backingMap.gets);
+        assertEquals(0.5, map.cacheStats().hitRate(), 0.0);
+    }
+
+    @Test
+    public void testCachedBatchReads() {
+        CachingAsyncConsistentMap<String, String> map = new CachingAsyncConsistentMap<>(backingMap);
+        backingMap.put("foo", "bar");
+        backingMap.put("baz", "qux");
+        assertEquals("bar", value(map.get("foo")));
+
+        // Only the keys missing from the cache are read from the backing map
+        Map<String, Versioned<String>> values = map.getAll(ImmutableSet.of("foo", "baz", "none")).join();
+        assertEquals(ImmutableSet.of("foo", "baz"), values.keySet());
+        assertEquals("qux", values.get("baz").value());
+        assertEquals(3, backingMap.gets);
+
+        map.getAll(ImmutableSet.of("foo", "baz", "none")).join();
+        assertEquals(3, backingMap.gets);
+
+        map.removeAll(ImmutableSet.of("foo", "baz")).join();
+        assertTrue(map.getAll(ImmutableSet.of("foo", "baz")).join().isEmpty());
+        assertEquals(5, backingMap.gets);
+    }
+
+    @Test
+    public void testRemoteUpdates() {
+        CachingAsyncConsistentMap<String, String> map = new CachingAsyncConsistentMap<>(backingMap);
+        backingMap.put("foo", "bar");
+        assertEquals("bar", value(map.get("foo")));
+
+        // Updates are applied to the cache, but never with an older version
+        backingMap.put("foo", "baz");
+        assertEquals("baz", value(map.get("foo")));
+        backingMap.notify("foo", new Versioned<>("old", 1));
+        assertEquals("baz", value(map.get("foo")));
+
+        backingMap.remove("foo");
+        assertNull(value(map.get("foo")));
+        assertEquals(2, backingMap.gets);
+    }
+
+    @Test
+    public void testNoStaleReadAfterLocalWrite() {
+        CachingAsyncConsistentMap<String, String> map = new CachingAsyncConsistentMap<>(backingMap);
+        backingMap.put("foo", "bar");
+
+        // A read issued before a local write completes after it
+        backingMap.hold = true;
+        CompletableFuture<Versioned<String>> staleRead = map.get("foo");
+        backingMap.hold = false;
+        assertEquals("bar", value(map.put("foo", "baz")));
+        backingMap.release();
+
+        assertEquals("bar", value(staleRead));
+        assertEquals("baz", value(map.get("foo")));
+        assertEquals("baz", value(map.get("foo")));
+    }
+
+    @Test
+    public void testSizeBound() {
+        CachingAsyncConsistentMap<String, String> map = new CachingAsyncConsistentMap<>(backingMap, 2);
+        for (int i = 0; i < 10; i++) {
+            backingMap.put("key" + i, "value" + i);
+            map.get("key" + i).join();
+        }
+        assertTrue(map.cacheSize() <= 2);
+        assertEquals(8, map.cacheStats().evictionCount());
+    }
+
+    @Test
+    public void testWeightBound() {
+        CachingAsyncConsistentMap<String, String> map =
+                new CachingAsyncConsistentMap<>(backingMap, 10, (k, v) -> v.length());
+        backingMap.put("a", "12345");
+        backingMap.put("b", "12345");
+        backingMap.put("c", "12345");
+        map.get("a").join();
+        map.get("b").join();
+        assertEquals(0, map.cacheStats().evictionCount());
+        map.get("c").join();
+        assertTrue(map.cacheStats().evictionCount() > 0);
+    }
+
+    /**
+     * In-memory map which notifies its listeners synchronously and can hold
+     * back the results of reads.
+     */
+    private static class TestAsyncConsistentMap implements AsyncConsistentMap<String, String> {
+
+        private final Map<String, Versioned<String>> map = Maps.newHashMap();
+        private final List<MapEventListener<String, String>> listeners = Lists.newArrayList();
+        private final List<Runnable> held = Lists.newArrayList();
+        private long version;
+        private int gets;
+        private boolean hold;
+
+        private void notify(String key, Versioned<String> newValue) {
+            listeners.forEach(l -> l.event(new MapEvent<>(name(), key, newValue, null)));
+        }
+
+        private void release() {
+            held.forEach(Runnable::run);
+            held.clear();
+        }
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> get(String key) {
+            gets++;
+            Versioned<String> value = map.get(key);
+            if (hold) {
+                CompletableFuture<Versioned<String>> future = new CompletableFuture<>();
+                held.add(() -> future.complete(value));
+                return future;
+            }
+            return CompletableFuture.completedFuture(value);
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> put(String key, String value) {
+            Versioned<String> newValue = new Versioned<>(value, ++version);
+            Versioned<String> oldValue = map.put(key, newValue);
+            notify(key, newValue);
+            return CompletableFuture.completedFuture(oldValue);
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> remove(String key) {
+            Versioned<String> oldValue = map.remove(key);
+            notify(key, null);
+            return CompletableFuture.completedFuture(oldValue);
+        }
+
+        @Override
+        public CompletableFuture<Void> addListener(MapEventListener<String, String> listener,
+                                                  Executor executor) {
+            listeners.add(listener);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> removeListener(MapEventListener<String, String> listener) {
+            listeners.remove(listener);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Integer> size() {
+            return CompletableFuture.completedFuture(map.size());
+        }
+
+        @Override
+        public CompletableFuture<Boolean> containsKey(String key) {
+            return CompletableFuture.completedFuture(map.containsKey(key));
+        }
+
+        @Override
+        public CompletableFuture<Boolean> containsValue(String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> computeIf(String key,
+                Predicate<? super String> condition,
+                BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> putAndGet(String key, String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Void> clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Set<String>> keySet() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Collection<Versioned<String>>> values() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Set<Entry<String, Versioned<String>>>> entrySet() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> putIfAbsent(String key, String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> remove(String key, String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> remove(String key, long version) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Versioned<String>> replace(String key, String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> replace(String key, String oldValue, String newValue) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> replace(String key, long oldVersion, String newValue) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> prepare(MapTransaction<String, String> transaction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Void> commit(TransactionId transactionId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Void> rollback(TransactionId transactionId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> prepareAndCommit(MapTransaction<String, String> transaction) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.util.KryoNamespace;
+import org.onlab.util.Tools;
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.cluster.ControllerNode;
+import org.onosproject.cluster.DefaultControllerNode;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.store.LogicalTimestamp;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.persistence.TestPersistenceService;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.EventuallyConsistentMap;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onlab.junit.TestTools.assertAfter;
+
+/**
+ * Verifies that two replicas of an eventually consistent map converge
+ * through bucket hash anti-entropy alone.
+ */
+public class EventuallyConsistentMapBucketAntiEntropyTest {
+
+    private static final String MAP_NAME = "test";
+    private static final MessageSubject BUCKET_SUBJECT =
+            new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy-buckets");
+    private static final MessageSubject ANTI_ENTROPY_SUBJECT =
+            new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy");
+
+    private final ControllerNode node1 = new DefaultControllerNode(new NodeId("node1"), IpAddress.valueOf(1));
+    private final ControllerNode node2 = new DefaultControllerNode(new NodeId("node2"), IpAddress.valueOf(2));
+
+    // Message handlers of each node by subject
+    private final Map<NodeId, ConcurrentMap<MessageSubject, Function<byte[], CompletableFuture<byte[]>>>>
+            handlers = ImmutableMap.of(node1.id(), Maps.newConcurrentMap(),
+                                       node2.id(), Maps.newConcurrentMap());
+    private final Map<MessageSubject, AtomicInteger> messageCounts = Maps.newConcurrentMap();
+    private final AtomicLong clock = new AtomicLong();
+
+    private EventuallyConsistentMap<String, String> map1;
+    private EventuallyConsistentMap<String, String> map2;
+
+    @Before
+    public void setUp() {
+        map1 = createMap(node1);
+        map2 = createMap(node2);
+    }
+
+    @After
+    public void tearDown() {
+        map1.destroy();
+        map2.destroy();
+    }
+
+    private EventuallyConsistentMap<String, String> createMap(ControllerNode local) {
+        return new EventuallyConsistentMapBuilderImpl<String, String>(
+                new TestClusterService(local), new TestClusterCommunicator(local.id()),
+                new TestPersistenceService())
+                .withName(MAP_NAME)
+                .withSerializer(KryoNamespace.newBuilder().register(KryoNamespaces.API))
+                .withTimestampProvider((k, v) -> new LogicalTimestamp(clock.incrementAndGet()))
+                // updates are not sent to peers directly, only through anti-entropy
+                .withPeerUpdateFunction((k, v) -> Collections.emptyList())
+                .withAntiEntropyPeriod(100, TimeUnit.MILLISECONDS)
+                .withBucketAntiEntropy(8)
+                .build();
+    }
+
+    @Test
+    public void replicasConverge() {
+        for (int i = 0; i < 50; i++) {
+            map1.put("key" + i, "one" + i);
+        }
+        for (int i = 40; i < 60; i++) {
+            map2.put("key" + i, "two" + i);
+        }
+        map1.remove("key3");
+        map2.remove("key55");
+
+        Map<String, String> expected = Maps.newHashMap();
+        for (int i = 0; i < 40; i++) {
+            expected.put("key" + i, "one" + i);
+        }
+        for (int i = 40; i < 60; i++) {
+            expected.put("key" + i, "two" + i);
+        }
+        expected.remove("key3");
+        expected.remove("key55");
+
+        assertAfter(100, 15_000, () -> {
+            assertEquals(expected, contents(map1));
+            assertEquals(expected, contents(map2));
+        });
+
+        assertTrue("bucket hashes should have been exchanged", count(BUCKET_SUBJECT) > 0);
+        assertEquals("entry digests should not have been advertised", 0, count(ANTI_ENTROPY_SUBJECT));
+    }
+
+    private int count(MessageSubject subject) {
+        AtomicInteger count = messageCounts.get(subject);
+        return count == null ? 0 : count.get();
+    }
+
+    private static Map<String, String> contents(EventuallyConsistentMap<String, String> map) {
+        Map<String, String> contents = Maps.newHashMap();
+        map.entrySet().forEach(entry -> contents.put(entry.getKey(), entry.getValue()));
+        return contents;
+    }
+
+    // Cluster of the two test nodes, both of them active.
+    private final class TestClusterService extends ClusterServiceAdapter {
+        private final ControllerNode local;
+
+        private TestClusterService(ControllerNode local) {
+            this.local = local;
+        }
+
+        @Override
+        public ControllerNode getLocalNode() {
+            return local;
+        }
+
+        @Override
+        public Set<ControllerNode> getNodes() {
+            return ImmutableSet.of(node1, node2);
+        }
+
+        @Override
+        public ControllerNode.State getState(NodeId nodeId) {
+            return ControllerNode.State.ACTIVE;
+        }
+    }
+
+    // Delivers messages in memory to the handlers registered by the other node.
+    private final class TestClusterCommunicator extends ClusterCommunicationServiceAdapter {
+        private final NodeId local;
+
+        private TestClusterCommunicator(NodeId local) {
+            this.local = local;
+        }
+
+        private CompletableFuture<byte[]> deliver(MessageSubject subject, byte[] payload, NodeId toNodeId) {
+            messageCounts.computeIfAbsent(subject, s -> new AtomicInteger()).incrementAndGet();
+            Function<byte[], CompletableFuture<byte[]>> handler = handlers.get(toNodeId).get(subject);
+            if (handler == null) {
+                return Tools.exceptionalFuture(new IllegalStateException("No handler for " + subject));
+            }
+            return handler.apply(payload);
+        }
+
+        @Override
+        public <M> void addSubscriber(MessageSubject subject, Function<byte[], M> decoder,
+                                      Consumer<M> handler, Executor executor) {
+            handlers.get(local).put(subject, payload -> CompletableFuture.runAsync(
+                    () -> handler.accept(decoder.apply(payload)), executor).thenApply(v -> null));
+        }
+
+        @Override
+        public <M, R> void addSubscriber(MessageSubject subject, Function<byte[], M> decoder,
+                                         Function<M, R> handler, Function<R, byte[]> encoder,
+                                         Executor executor) {
+            handlers.get(local).put(subject, payload -> CompletableFuture.supplyAsync(
+                    () -> encoder.apply(handler.apply(decoder.apply(payload))), executor));
+        }
+
+        @Override
+        public void removeSubscriber(MessageSubject subject) {
+            handlers.get(local).remove(subject);
+        }
+
+        @Override
+        public <M> CompletableFuture<Void> unicast(M message, MessageSubject subject,
+                                                   Function<M, byte[]> encoder, NodeId toNodeId) {
+            return deliver(subject, encoder.apply(message), toNodeId).thenApply(v -> null);
+        }
+
+        @Override
+        public <M, R> CompletableFuture<R> sendAndReceive(M message, MessageSubject subject,
+                                                          Function<M, byte[]> encoder,
+                                                          Function<byte[], R> decoder, NodeId toNodeId) {
+            return deliver(subject, encoder.apply(message), toNodeId).thenApply(decoder);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import io.atomix.copycat.server.storage.Storage;
+import io.atomix.copycat.server.storage.StorageLevel;
+import org.junit.Test;
+
+import java.io.File;
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for PartitionStorageConfig.
+ */
+public class PartitionStorageConfigTest {
+
+    @Test
+    public void testDefaults() {
+        PartitionStorageConfig config = PartitionStorageConfig.DEFAULT;
+        assertEquals(PartitionStorageConfig.DEFAULT_MAX_SEGMENT_SIZE, config.maxSegmentSize());
+        assertEquals(PartitionStorageConfig.DEFAULT_MAX_ENTRIES_PER_SEGMENT, config.maxEntriesPerSegment());
+        assertEquals(PartitionStorageConfig.DEFAULT_MINOR_COMPACTION_INTERVAL, config.minorCompactionInterval());
+        assertEquals(PartitionStorageConfig.DEFAULT_MAJOR_COMPACTION_INTERVAL, config.majorCompactionInterval());
+        assertEquals(PartitionStorageConfig.DEFAULT_COMPACTION_THRESHOLD, config.compactionThreshold(), 0);
+        assertEquals(PartitionStorageConfig.DEFAULT_COMPACTION_THREADS, config.compactionThreads());
+    }
+
+    @Test
+    public void testStorage() {
+        File directory = new File("partitions/1");
+        Storage storage = new PartitionStorageConfig(1024, 16, 100, 1000, 0.25, 2).storage(directory);
+        assertEquals(StorageLevel.DISK, storage.level());
+        assertEquals(directory, storage.directory());
+        assertEquals(1024, storage.maxSegmentSize());
+        assertEquals(16, storage.maxEntriesPerSegment());
+        assertEquals(Duration.ofMillis(100), storage.minorCompactionInterval());
+        assertEquals(Duration.ofMillis(1000), storage.majorCompactionInterval());
+        assertEquals(0.25, storage.compactionThreshold(), 0);
+        assertEquals(2, storage.compactionThreads());
+    }
+
+    @Test
+    public void testFullThreshold() {
+        assertEquals(1, new PartitionStorageConfig(1024, 16, 100, 1000, 1, 1).compactionThreshold(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveSegmentSize() {
+        new PartitionStorageConfig(0, 16, 100, 1000, 0.5, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveEntriesPerSegment() {
+        new PartitionStorageConfig(1024, 0, 100, 1000, 0.5, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveMinorCompactionInterval() {
+        new PartitionStorageConfig(1024, 16, 0, 1000, 0.5, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveMajorCompactionInterval() {
+        new PartitionStorageConfig(1024, 16, 100, -1, 0.5, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroCompactionThreshold() {
+        new PartitionStorageConfig(1024, 16, 100, 1000, 0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExcessiveCompactionThreshold() {
+        new PartitionStorageConfig(1024, 16, 100, 1000, 1.5, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveCompactionThreads() {
+        new PartitionStorageConfig(1024, 16, 100, 1000, 0.5, 0);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.resources.impl;
+
+import io.atomix.catalyst.serializer.Serializer;
+import io.atomix.copycat.server.storage.Storage;
+import io.atomix.copycat.server.storage.StorageLevel;
+import io.atomix.copycat.server.storage.snapshot.Snapshot;
+import io.atomix.copycat.server.storage.snapshot.SnapshotReader;
+import io.atomix.copycat.server.storage.snapshot.SnapshotStore;
+import io.atomix.copycat.server.storage.snapshot.SnapshotWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit tests for the snapshots of {@link AsyncConsistentSetMultimapState}.
+ */
+public class AsyncConsistentSetMultimapStateTest {
+
+    private SnapshotStore snapshots;
+    private long index;
+
+    @Before
+    public void setUp() {
+        snapshots = new SnapshotStore("test", new Storage(StorageLevel.MEMORY), new Serializer());
+    }
+
+    @After
+    public void tearDown() {
+        snapshots.close();
+    }
+
+    /**
+     * Writes a snapshot of the given state and returns it.
+     */
+    private Snapshot snapshot(AsyncConsistentSetMultimapState state) {
+        Snapshot snapshot = snapshots.createSnapshot(++index);
+        try (SnapshotWriter writer = snapshot.writer()) {
+            state.snapshot(writer);
+        }
+        return snapshot.complete();
+    }
+
+    /**
+     * Installs the given snapshot into the given state.
+     */
+    private void install(AsyncConsistentSetMultimapState state, Snapshot snapshot) {
+        try (SnapshotReader reader = snapshot.reader()) {
+            state.install(reader);
+        }
+    }
+
+    /**
+     * Returns the version counter held in the given snapshot.
+     */
+    private long version(Snapshot snapshot) {
+        try (SnapshotReader reader = snapshot.reader()) {
+            return reader.readLong();
+        }
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() {
+        Snapshot previous = snapshots.createSnapshot(++index);
+        try (SnapshotWriter writer = previous.writer()) {
+            writer.writeLong(42);
+        }
+        previous.complete();
+
+        AsyncConsistentSetMultimapState state = new AsyncConsistentSetMultimapState(new Properties());
+        install(state, previous);
+        assertEquals(42, version(snapshot(state)));
+    }
+
+    @Test
+    public void testInstallEmptySnapshot() {
+        Snapshot previous = snapshots.createSnapshot(++index).complete();
+        try (SnapshotReader reader = previous.reader()) {
+            assertFalse(reader.hasRemaining());
+        }
+
+        AsyncConsistentSetMultimapState state = new AsyncConsistentSetMultimapState(new Properties());
+        install(state, previous);
+        assertEquals(1, version(snapshot(state)));
+    }
+}
@@ -16,6 +16,8 @@
 package org.onosproject.store.primitives.resources.impl;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.atomix.resource.ResourceType;
 import org.junit.AfterClass;
@@ -84,6 +86,14 @@ public class AtomixConsistentMapTest extends AtomixTestBase {
         mapComputeOperationTests(3);
     }
 
+    /**
+     * Tests batched map operations.
+     */
+    @Test
+    public void testBatchMapOperations() throws Throwable {
+        batchMapOperationTests(3);
+    }
+
     /**
      * Tests map event notifications.
      */
@@ -274,6 +284,35 @@ public class AtomixConsistentMapTest extends AtomixTestBase {
         }).join();
     }
 
+    protected void batchMapOperationTests(int clusterSize) throws Throwable {
+        final byte[] value1 = Tools.getBytesUtf8("value1");
+        final byte[] value2 = Tools.getBytesUtf8("value2");
+
+        AtomixConsistentMap map = createAtomixClient().getResource("testBatchMapOperationMap",
+                                                                   AtomixConsistentMap.class).join();
+        TestMapEventListener listener = new TestMapEventListener();
+        map.addListener(listener).join();
+
+        map.putAll(ImmutableMap.of("foo", value1, "bar", value2)).join();
+        assertEquals(MapEvent.Type.INSERT, listener.event().type());
+        assertEquals(MapEvent.Type.INSERT, listener.event().type());
+
+        map.getAll(ImmutableSet.of("foo", "bar", "baz")).thenAccept(result -> {
+            assertEquals(ImmutableSet.of("foo", "bar"), result.keySet());
+            assertArrayEquals(value1, result.get("foo").value());
+            assertArrayEquals(value2, result.get("bar").value());
+        }).join();
+
+        map.removeAll(ImmutableSet.of("foo", "baz")).join();
+        assertEquals(MapEvent.Type.REMOVE, listener.event().type());
+        assertFalse(listener.eventReceived());
+
+        map.keySet().thenAccept(result -> {
+            assertEquals(ImmutableSet.of("bar"), result);
+        }).join();
+
+        map.removeListener(listener).join();
+    }
 
     protected void mapListenerTests(int clusterSize) throws Throwable {
         final byte[] value1 = Tools.getBytesUtf8("value1");
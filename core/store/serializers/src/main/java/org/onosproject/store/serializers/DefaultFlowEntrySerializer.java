@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo Serializer for {@link DefaultFlowEntry}.
+ * <p>
+ * Entries are written as their rule, followed by their state, statistics and
+ * last seen time, and are restored with their original creation and last seen
+ * times.
+ */
+public class DefaultFlowEntrySerializer extends Serializer<DefaultFlowEntry> {
+
+    private static final FlowEntryState[] STATES = FlowEntryState.values();
+
+    /**
+     * Creates {@link DefaultFlowEntry} serializer instance.
+     */
+    public DefaultFlowEntrySerializer() {
+        // non-null, mutable
+        super(false, false);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, DefaultFlowEntry object) {
+        DefaultFlowRuleSerializer.writeRule(kryo, output, object);
+        output.writeVarInt(object.state().ordinal(), true);
+        output.writeVarLong(object.life(), true);
+        output.writeVarLong(object.packets(), true);
+        output.writeVarLong(object.bytes(), true);
+        output.writeVarInt(object.errType(), false);
+        output.writeVarInt(object.errCode(), false);
+        output.writeLong(object.lastSeen());
+    }
+
+    @Override
+    public DefaultFlowEntry read(Kryo kryo, Input input, Class<DefaultFlowEntry> type) {
+        DefaultFlowRule rule = DefaultFlowRuleSerializer.readRule(kryo, input);
+        FlowEntryState state = STATES[input.readVarInt(true)];
+        long life = input.readVarLong(true);
+        long packets = input.readVarLong(true);
+        long bytes = input.readVarLong(true);
+        int errType = input.readVarInt(false);
+        int errCode = input.readVarInt(false);
+        long lastSeen = input.readLong();
+        return new DefaultFlowEntry(rule, state, life, packets, bytes,
+                                    errType, errCode, lastSeen);
+    }
+
+    @Override
+    public DefaultFlowEntry copy(Kryo kryo, DefaultFlowEntry original) {
+        // The attributes of the underlying rule are immutable and are shared
+        return new DefaultFlowEntry(original, original.state(), original.life(),
+                                    original.packets(), original.bytes(),
+                                    original.errType(), original.errCode(),
+                                    original.lastSeen());
+    }
+}
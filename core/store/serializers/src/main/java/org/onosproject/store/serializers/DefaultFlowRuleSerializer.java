@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import org.onosproject.core.GroupId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRuleExtPayLoad;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.TrafficTreatment;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo Serializer for {@link DefaultFlowRule}.
+ * <p>
+ * Rules are written attribute by attribute, including their creation time,
+ * and read back straight into a new {@link DefaultFlowRule}.
+ */
+public class DefaultFlowRuleSerializer extends Serializer<DefaultFlowRule> {
+
+    /**
+     * Creates {@link DefaultFlowRule} serializer instance.
+     */
+    public DefaultFlowRuleSerializer() {
+        // non-null, immutable
+        super(false, true);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, DefaultFlowRule object) {
+        writeRule(kryo, output, object);
+    }
+
+    @Override
+    public DefaultFlowRule read(Kryo kryo, Input input, Class<DefaultFlowRule> type) {
+        return readRule(kryo, input);
+    }
+
+    /**
+     * Writes the attributes of a flow rule.
+     *
+     * @param kryo Kryo instance
+     * @param output output to write to
+     * @param rule flow rule
+     */
+    static void writeRule(Kryo kryo, Output output, DefaultFlowRule rule) {
+        kryo.writeObject(output, rule.deviceId());
+        output.writeLong(rule.id().value());
+        output.writeShort(rule.appId());
+        kryo.writeClassAndObject(output, rule.groupId());
+        output.writeVarInt(rule.priority(), true);
+        output.writeVarInt(rule.timeout(), true);
+        output.writeBoolean(rule.isPermanent());
+        output.writeVarInt(rule.tableId(), true);
+        output.writeLong(rule.created());
+        kryo.writeClassAndObject(output, rule.selector());
+        kryo.writeClassAndObject(output, rule.treatment());
+        kryo.writeClassAndObject(output, rule.payLoad());
+    }
+
+    /**
+     * Reads a flow rule written by
+     * {@link #writeRule(Kryo, Output, DefaultFlowRule)}.
+     *
+     * @param kryo Kryo instance
+     * @param input input to read from
+     * @return flow rule
+     */
+    static DefaultFlowRule readRule(Kryo kryo, Input input) {
+        DeviceId deviceId = kryo.readObject(input, DeviceId.class);
+        FlowId id = FlowId.valueOf(input.readLong());
+        short appId = input.readShort();
+        GroupId groupId = (GroupId) kryo.readClassAndObject(input);
+        int priority = input.readVarInt(true);
+        int timeout = input.readVarInt(true);
+        boolean permanent = input.readBoolean();
+        int tableId = input.readVarInt(true);
+        long created = input.readLong();
+        TrafficSelector selector = (TrafficSelector) kryo.readClassAndObject(input);
+        TrafficTreatment treatment = (TrafficTreatment) kryo.readClassAndObject(input);
+        FlowRuleExtPayLoad payLoad = (FlowRuleExtPayLoad) kryo.readClassAndObject(input);
+        return new DefaultFlowRule(deviceId, id, appId, groupId, priority, timeout,
+                                   permanent, tableId, created, selector, treatment,
+                                   payLoad);
+    }
+}
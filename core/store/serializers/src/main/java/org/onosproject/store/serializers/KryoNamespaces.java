@@ -340,29 +340,36 @@ public final class KryoNamespaces {
                     LeadershipEvent.Type.class,
                     HostId.class,
                     HostDescription.class,
-                    DefaultHostDescription.class,
-                    DefaultFlowEntry.class,
-                    StoredFlowEntry.class,
-                    DefaultFlowRule.class,
-                    DefaultPacketRequest.class,
-                    PacketPriority.class,
-                    FlowEntry.FlowEntryState.class,
-                    FlowId.class,
-                    DefaultTrafficSelector.class,
-                    PortCriterion.class,
-                    MetadataCriterion.class,
-                    EthCriterion.class,
-                    EthType.class,
-                    EthTypeCriterion.class,
-                    VlanIdCriterion.class,
-                    VlanPcpCriterion.class,
-                    IPDscpCriterion.class,
-                    IPEcnCriterion.class,
-                    IPProtocolCriterion.class,
-                    IPCriterion.class,
-                    TpPort.class,
-                    TcpPortCriterion.class,
-                    UdpPortCriterion.class,
+                    DefaultHostDescription.class
+            )
+            // Hot flow store types are registered with hand-written
+            // serializers without changing their registration ids
+            .register(new DefaultFlowEntrySerializer(), DefaultFlowEntry.class)
+            .register(StoredFlowEntry.class)
+            .register(new DefaultFlowRuleSerializer(), DefaultFlowRule.class)
+            .register(DefaultPacketRequest.class,
+                      PacketPriority.class,
+                      FlowEntry.FlowEntryState.class,
+                      FlowId.class)
+            .register(new DefaultTrafficSelectorSerializer(), DefaultTrafficSelector.class)
+            .register(new CriterionSerializer(), PortCriterion.class)
+            .register(MetadataCriterion.class)
+            .register(new CriterionSerializer(), EthCriterion.class)
+            .register(EthType.class)
+            .register(new CriterionSerializer(),
+                      EthTypeCriterion.class,
+                      VlanIdCriterion.class)
+            .register(VlanPcpCriterion.class,
+                      IPDscpCriterion.class,
+                      IPEcnCriterion.class)
+            .register(new CriterionSerializer(),
+                      IPProtocolCriterion.class,
+                      IPCriterion.class)
+            .register(TpPort.class)
+            .register(new CriterionSerializer(),
+                      TcpPortCriterion.class,
+                      UdpPortCriterion.class)
+            .register(
                     SctpPortCriterion.class,
                     IcmpTypeCriterion.class,
                     IcmpCodeCriterion.class,
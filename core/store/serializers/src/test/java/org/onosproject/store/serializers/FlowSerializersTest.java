@@ -0,0 +1,198 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import org.junit.Test;
+import org.onlab.packet.EthType;
+import org.onlab.packet.IpPrefix;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.VlanId;
+import org.onlab.util.HexString;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.criteria.Criteria;
+import org.onosproject.net.flow.criteria.Criterion;
+
+import com.google.common.testing.EqualsTester;
+
+import static org.junit.Assert.assertEquals;
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Unit tests for the serializers of flow rules, flow entries, traffic
+ * selectors and criteria.
+ */
+public class FlowSerializersTest {
+
+    private static final long CREATED = 1457000000000L;
+    private static final long LAST_SEEN = 1457000012345L;
+
+    private static final String GOLDEN_SELECTOR =
+            "8701010a88010100010000000000000000018a0101030000000000028a010105"
+            + "0000000000018c01010708008d01010800649101010e00069201010f44010000"
+            + "00040a00000100000020920101104401000000040a0001000000001894010111"
+            + "d2099401011250";
+    private static final String GOLDEN_RULE =
+            "820101016f663a303030303030303030303030303030b100a000000000012300"
+            + "a0a5020100c0b8020a0001000001533bf7aa008701010a880101000100000000"
+            + "00000000018a0101030000000000028a0101050000000000018c01010708008d"
+            + "01010800649101010e00069201010f4401000000040a00000100000020920101"
+            + "104401000000040a0001000000001894010111d2099401011250ac0101170100"
+            + "000001ae01010100000000000000000218010000000000170100000001ae0115"
+            + "00000000";
+    private static final String GOLDEN_ENTRY =
+            "800101016f663a303030303030303030303030303030b100a000000000012300"
+            + "a0a5020100c0b8020a0001000001533bf7aa008701010a880101000100000000"
+            + "00000000018a0101030000000000028a0101050000000000018c01010708008d"
+            + "01010800649101010e00069201010f4401000000040a00000100000020920101"
+            + "104401000000040a0001000000001894010111d2099401011250ac0101170100"
+            + "000001ae01010100000000000000000218010000000000170100000001ae0115"
+            + "00000000010cd902b292040101000001533bf7da39";
+
+    private static final TrafficSelector SELECTOR = DefaultTrafficSelector.builder()
+            .matchInPort(portNumber(1))
+            .matchEthType(EthType.EtherType.IPV4.ethType().toShort())
+            .matchEthSrc(MacAddress.valueOf("00:00:00:00:00:01"))
+            .matchEthDst(MacAddress.valueOf("00:00:00:00:00:02"))
+            .matchVlanId(VlanId.vlanId((short) 100))
+            .matchIPProtocol((byte) 6)
+            .matchIPSrc(IpPrefix.valueOf("10.0.0.1/32"))
+            .matchIPDst(IpPrefix.valueOf("10.0.1.0/24"))
+            .matchTcpSrc(TpPort.tpPort(1234))
+            .matchTcpDst(TpPort.tpPort(80))
+            .build();
+
+    private final StoreSerializer serializer = StoreSerializer.using(KryoNamespaces.API);
+
+    private static DefaultFlowRule rule() {
+        FlowRule rule = DefaultFlowRule.builder()
+                .forDevice(deviceId("of:0000000000000001"))
+                .withSelector(SELECTOR)
+                .withTreatment(DefaultTrafficTreatment.builder().setOutput(portNumber(2)).build())
+                .withPriority(40000)
+                .withCookie(0x00a0000000000123L)
+                .makeTemporary(10)
+                .forTable(1)
+                .build();
+        return new DefaultFlowRule(rule.deviceId(), rule.id(), rule.appId(), rule.groupId(),
+                                   rule.priority(), rule.timeout(), rule.isPermanent(),
+                                   rule.tableId(), CREATED, rule.selector(), rule.treatment(),
+                                   rule.payLoad());
+    }
+
+    private static DefaultFlowEntry entry(FlowEntryState state, long life, long packets,
+                                          long bytes, int errType, int errCode) {
+        return new DefaultFlowEntry(rule(), state, life, packets, bytes,
+                                    errType, errCode, LAST_SEEN);
+    }
+
+    private <T> T copy(T original) {
+        return serializer.decode(serializer.encode(original));
+    }
+
+    private void assertRuleEquals(FlowRule expected, FlowRule actual) {
+        assertEquals(expected, actual);
+        assertEquals(expected.id(), actual.id());
+        assertEquals(expected.appId(), actual.appId());
+        assertEquals(expected.groupId(), actual.groupId());
+        assertEquals(expected.timeout(), actual.timeout());
+        assertEquals(expected.isPermanent(), actual.isPermanent());
+        assertEquals(expected.treatment(), actual.treatment());
+        assertEquals(expected.payLoad(), actual.payLoad());
+        assertEquals(((DefaultFlowRule) expected).created(), ((DefaultFlowRule) actual).created());
+    }
+
+    @Test
+    public void testCriteria() {
+        Criterion[] criteria = {
+                Criteria.matchInPort(portNumber(7)),
+                Criteria.matchInPhyPort(portNumber(8)),
+                Criteria.matchEthSrcMasked(MacAddress.valueOf("00:00:00:00:00:01"),
+                                           MacAddress.valueOf("ff:ff:ff:00:00:00")),
+                Criteria.matchEthDst(MacAddress.BROADCAST),
+                Criteria.matchEthType(0x86dd),
+                Criteria.matchVlanId(VlanId.ANY),
+                Criteria.matchInnerVlanId(VlanId.vlanId((short) 4094)),
+                Criteria.matchIPProtocol((short) 17),
+                Criteria.matchIPv6Src(IpPrefix.valueOf("2001:db8::/32")),
+                Criteria.matchIPv6Dst(IpPrefix.valueOf("::1/128")),
+                Criteria.matchUdpSrc(TpPort.tpPort(65535)),
+                Criteria.matchUdpDst(TpPort.tpPort(0)),
+        };
+        for (Criterion criterion : criteria) {
+            new EqualsTester()
+                    .addEqualityGroup(criterion, copy(criterion))
+                    .testEquals();
+        }
+    }
+
+    @Test
+    public void testSelector() {
+        new EqualsTester()
+                .addEqualityGroup(SELECTOR, copy(SELECTOR))
+                .addEqualityGroup(DefaultTrafficSelector.emptySelector(),
+                                  copy(DefaultTrafficSelector.emptySelector()))
+                .testEquals();
+    }
+
+    @Test
+    public void testFlowRule() {
+        DefaultFlowRule rule = rule();
+        assertRuleEquals(rule, copy(rule));
+        assertRuleEquals(rule, serializer.copy(rule));
+    }
+
+    @Test
+    public void testFlowEntry() {
+        DefaultFlowEntry entry = entry(FlowEntryState.ADDED, 12, 345, 67890, -1, -1);
+        DefaultFlowEntry copy = copy(entry);
+        assertRuleEquals(entry, copy);
+        assertEquals(FlowEntryState.ADDED, copy.state());
+        assertEquals(12, copy.life());
+        assertEquals(345, copy.packets());
+        assertEquals(67890, copy.bytes());
+        assertEquals(-1, copy.errType());
+        assertEquals(-1, copy.errCode());
+        assertEquals(LAST_SEEN, copy.lastSeen());
+
+        DefaultFlowEntry failed = entry(FlowEntryState.FAILED, 0, 0, 0, 5, 2);
+        copy = serializer.copy(failed);
+        assertRuleEquals(failed, copy);
+        assertEquals(FlowEntryState.FAILED, copy.state());
+        assertEquals(5, copy.errType());
+        assertEquals(2, copy.errCode());
+        assertEquals(LAST_SEEN, copy.lastSeen());
+    }
+
+    /**
+     * Pins the encoding of flow rules and flow entries, which are exchanged
+     * between cluster nodes and must not change unnoticed.
+     */
+    @Test
+    public void testGoldenBytes() {
+        assertEquals(GOLDEN_SELECTOR, HexString.toHexString(serializer.encode(SELECTOR), ""));
+        assertEquals(GOLDEN_RULE, HexString.toHexString(serializer.encode(rule()), ""));
+        assertEquals(GOLDEN_ENTRY, HexString.toHexString(serializer.encode(
+                entry(FlowEntryState.ADDED, 12, 345, 67890, -1, -1)), ""));
+    }
+}
@@ -18,6 +18,8 @@ package org.onosproject.incubator.net.routing.impl;
 
 import org.onosproject.incubator.net.routing.RouteEvent;
 
+import java.util.Collection;
+
 /**
  * Queues updates for a route listener to ensure they are received in the
  * correct order.
@@ -31,6 +33,23 @@ interface ListenerQueue {
      */
     void post(RouteEvent event);
 
+    /**
+     * Posts a batch of events to the listener, in order.
+     *
+     * @param events events
+     */
+    default void post(Collection<RouteEvent> events) {
+        events.forEach(this::post);
+    }
+
+    /**
+     * Waits until the listener has caught up enough for more events to be
+     * posted without letting its backlog grow without limit. Posting never
+     * waits by itself; only producers of bulk updates call this.
+     */
+    default void awaitSpace() {
+    }
+
     /**
      * Initiates event delivery to the listener.
      */
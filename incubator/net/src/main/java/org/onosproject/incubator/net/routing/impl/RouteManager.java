@@ -16,13 +16,21 @@
 
 package org.onosproject.incubator.net.routing.impl;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
 import org.onlab.packet.MacAddress;
 import org.onosproject.event.ListenerService;
 import org.onosproject.incubator.net.routing.NextHop;
@@ -43,9 +51,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.GuardedBy;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -53,6 +65,8 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -69,6 +83,17 @@ public class RouteManager implements ListenerService<RouteEvent, RouteListener>,
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    // Events queued per listener before bulk updates wait for it
+    private static final int QUEUE_CAPACITY = 100_000;
+    // Events handed to a listener per dequeue
+    private static final int DELIVERY_BATCH = 1_000;
+    private static final long AWAIT_TIMEOUT_MS = 1_000;
+
+    private static final String METRICS_COMPONENT = "RouteManager";
+    private static final String METRICS_FEATURE = "ListenerQueues";
+    private static final String QUEUE_DEPTH = "queueDepth";
+    private static final String BLOCKED_TIME = "blockedTime";
+
     private RouteStoreDelegate delegate = new InternalRouteStoreDelegate();
     private InternalHostListener hostListener = new InternalHostListener();
 
@@ -78,15 +103,37 @@ public class RouteManager implements ListenerService<RouteEvent, RouteListener>,
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected HostService hostService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     @GuardedBy(value = "this")
     private Map<RouteListener, ListenerQueue> listeners = new HashMap<>();
 
+    // Events of the update being applied, posted together once it completes
+    @GuardedBy(value = "this")
+    private List<RouteEvent> pendingEvents;
+
+    // Keeps the batches posted in the order their updates were applied, once
+    // the events are posted outside of the manager lock
+    private final Lock postLock = new ReentrantLock();
+
     private ThreadFactory threadFactory;
 
+    // Events queued for all listeners, and time spent waiting for queue space
+    private Counter queueDepth;
+    private Timer blockedTime;
+
     @Activate
     protected void activate() {
         threadFactory = groupedThreads("onos/route", "listener-%d");
 
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+            queueDepth = metricsService.createCounter(component, feature, QUEUE_DEPTH);
+            blockedTime = metricsService.createTimer(component, feature, BLOCKED_TIME);
+        }
+
         routeStore.setDelegate(delegate);
         hostService.addListener(hostListener);
 
@@ -115,18 +162,19 @@ public class RouteManager implements ListenerService<RouteEvent, RouteListener>,
         synchronized (this) {
             log.debug("Synchronizing current routes to new listener");
             ListenerQueue l = createListenerQueue(listener);
+            l.start();
             routeStore.getRouteTables().forEach(table -> {
                 Collection<Route> routes = routeStore.getRoutes(table);
                 if (routes != null) {
-                    routes.forEach(route ->
-                        l.post(new RouteEvent(RouteEvent.Type.ROUTE_UPDATED,
-                                        new ResolvedRoute(route, routeStore.getNextHop(route.nextHop())))));
+                    l.post(routes.stream()
+                                   .map(route -> new RouteEvent(RouteEvent.Type.ROUTE_UPDATED,
+                                           new ResolvedRoute(route, routeStore.getNextHop(route.nextHop()))))
+                                   .collect(Collectors.toList()));
                 }
             });
 
             listeners.put(listener, l);
 
-            l.start();
             log.debug("Route synchronization complete");
         }
     }
@@ -149,10 +197,62 @@ public class RouteManager implements ListenerService<RouteEvent, RouteListener>,
     private void post(RouteEvent event) {
         log.debug("Sending event {}", event);
         synchronized (this) {
-            listeners.values().forEach(l -> l.post(event));
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            } else {
+                postLock.lock();
+                try {
+                    listeners.values().forEach(l -> l.post(event));
+                } finally {
+                    postLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies an update to the route store, collecting the events it raises
+     * and posting them to the listeners as a single batch once the manager
+     * lock is released.
+     *
+     * @param update update to apply
+     */
+    private void postBatched(Runnable update) {
+        List<RouteEvent> events;
+        List<ListenerQueue> queues;
+        synchronized (this) {
+            pendingEvents = new ArrayList<>();
+            try {
+                update.run();
+            } finally {
+                events = pendingEvents;
+                pendingEvents = null;
+                queues = ImmutableList.copyOf(listeners.values());
+                postLock.lock();
+            }
+        }
+        try {
+            if (!events.isEmpty()) {
+                queues.forEach(l -> l.post(events));
+            }
+        } finally {
+            postLock.unlock();
         }
     }
 
+    /**
+     * Waits for all listeners to have room for more events. Called by bulk
+     * route producers before applying their updates, so that they are slowed
+     * down by listeners falling behind; host events are never held up.
+     */
+    private void awaitListeners() {
+        List<ListenerQueue> queues;
+        synchronized (this) {
+            queues = ImmutableList.copyOf(listeners.values());
+        }
+        queues.forEach(ListenerQueue::awaitSpace);
+    }
+
     @Override
     public Map<RouteTableId, Collection<Route>> getAllRoutes() {
         return routeStore.getRouteTables().stream()
@@ -178,34 +278,62 @@ public class RouteManager implements ListenerService<RouteEvent, RouteListener>,
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The collection is applied to the route store in slices no larger
+     * than the capacity of the listener queues, waiting for the listeners to
+     * have room before each slice. When it holds several routes for the same prefix
+     * only the last one is applied, and each distinct next hop is resolved
+     * once.
+     *
+     * @param routes collection of routes to update
+     */
     @Override
     public void update(Collection<Route> routes) {
-        synchronized (this) {
-            routes.forEach(route -> {
-                log.debug("Received update {}", route);
-                routeStore.updateRoute(route);
-                resolve(route);
+        Map<IpPrefix, Route> latest = new LinkedHashMap<>();
+        routes.forEach(route -> {
+            log.debug("Received update {}", route);
+            latest.put(route.prefix(), route);
+        });
+        Set<IpAddress> resolved = new HashSet<>();
+        for (List<Route> slice : Iterables.partition(latest.values(), QUEUE_CAPACITY)) {
+            awaitListeners();
+            postBatched(() -> {
+                routeStore.updateRoutes(slice);
+                slice.stream()
+                        .map(Route::nextHop)
+                        .filter(resolved::add)
+                        .forEach(this::resolve);
             });
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The collection is removed from the route store in slices no larger
+     * than the capacity of the listener queues, waiting for the listeners to
+     * have room before each slice.
+     *
+     * @param routes collection of routes to withdraw
+     */
     @Override
     public void withdraw(Collection<Route> routes) {
-        synchronized (this) {
-            routes.forEach(route -> {
-                log.debug("Received withdraw {}", routes);
-                routeStore.removeRoute(route);
-            });
+        routes.forEach(route -> log.debug("Received withdraw {}", route));
+        for (List<Route> slice : Iterables.partition(routes, QUEUE_CAPACITY)) {
+            awaitListeners();
+            postBatched(() -> routeStore.removeRoutes(slice));
         }
     }
 
-    private void resolve(Route route) {
+    private void resolve(IpAddress nextHop) {
         // Monitor the IP address for updates of the MAC address
-        hostService.startMonitoringIp(route.nextHop());
+        hostService.startMonitoringIp(nextHop);
 
-        MacAddress nextHopMac = routeStore.getNextHop(route.nextHop());
+        MacAddress nextHopMac = routeStore.getNextHop(nextHop);
         if (nextHopMac == null) {
-            Set<Host> hosts = hostService.getHostsByIp(route.nextHop());
+            Set<Host> hosts = hostService.getHostsByIp(nextHop);
             Optional<Host> host = hosts.stream().findFirst();
             if (host.isPresent()) {
                 nextHopMac = host.get().mac();
@@ -213,24 +341,24 @@ public class RouteManager implements ListenerService<RouteEvent, RouteListener>,
         }
 
         if (nextHopMac != null) {
-            routeStore.updateNextHop(route.nextHop(), nextHopMac);
+            routeStore.updateNextHop(nextHop, nextHopMac);
         }
     }
 
     private void hostUpdated(Host host) {
-        synchronized (this) {
+        postBatched(() -> {
             for (IpAddress ip : host.ipAddresses()) {
                 routeStore.updateNextHop(ip, host.mac());
             }
-        }
+        });
     }
 
     private void hostRemoved(Host host) {
-        synchronized (this) {
+        postBatched(() -> {
             for (IpAddress ip : host.ipAddresses()) {
                 routeStore.removeNextHop(ip, host.mac());
             }
-        }
+        });
     }
 
     /**
@@ -245,12 +373,21 @@ public class RouteManager implements ListenerService<RouteEvent, RouteListener>,
 
     /**
      * Default route listener queue.
+     * <p>
+     * Posting never blocks, so that host events and store notifications are
+     * not held up by a slow listener. Bulk route producers instead wait for
+     * the queue to drop below its capacity before applying their updates,
+     * which slows them down rather than letting the backlog grow without
+     * limit. Events are handed to the listener in batches drained from the
+     * queue.
+     * </p>
      */
     private class DefaultListenerQueue implements ListenerQueue {
 
         private final ExecutorService executorService;
         private final BlockingQueue<RouteEvent> queue;
         private final RouteListener listener;
+        private volatile boolean stopped;
 
         /**
          * Creates a new listener queue.
@@ -265,7 +402,42 @@ public class RouteManager implements ListenerService<RouteEvent, RouteListener>,
 
         @Override
         public void post(RouteEvent event) {
+            if (stopped) {
+                return;
+            }
+            // Counted before it is queued, so that whoever takes it out of
+            // the queue never uncounts it first
+            if (queueDepth != null) {
+                queueDepth.inc();
+            }
             queue.add(event);
+            if (stopped) {
+                discard();
+            }
+        }
+
+        @Override
+        public synchronized void awaitSpace() {
+            if (stopped || queue.size() < QUEUE_CAPACITY) {
+                return;
+            }
+            Timer.Context context = blockedTime != null ? blockedTime.time() : null;
+            try {
+                while (!stopped && queue.size() >= QUEUE_CAPACITY) {
+                    wait(AWAIT_TIMEOUT_MS);
+                    if (!stopped && queue.size() >= QUEUE_CAPACITY) {
+                        log.warn("Route listener {} is not keeping up; {} events queued",
+                                 listener, queue.size());
+                    }
+                }
+            } catch (InterruptedException e) {
+                log.warn("Interrupted while waiting for route listener {}", listener);
+                Thread.currentThread().interrupt();
+            } finally {
+                if (context != null) {
+                    context.stop();
+                }
+            }
         }
 
         @Override
@@ -275,19 +447,53 @@ public class RouteManager implements ListenerService<RouteEvent, RouteListener>,
 
         @Override
         public void stop() {
-            executorService.shutdown();
+            stopped = true;
+            executorService.shutdownNow();
+            discard();
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+
+        // Drops the events which will never be delivered from the queue and
+        // from the shared queue depth
+        private void discard() {
+            List<RouteEvent> dropped = new ArrayList<>();
+            queue.drainTo(dropped);
+            if (queueDepth != null) {
+                queueDepth.dec(dropped.size());
+            }
         }
 
         private void poll() {
+            List<RouteEvent> batch = new ArrayList<>(DELIVERY_BATCH);
             try {
                 while (true) {
-                    listener.event(queue.take());
+                    batch.add(queue.take());
+                    queue.drainTo(batch, DELIVERY_BATCH - 1);
+                    if (queueDepth != null) {
+                        queueDepth.dec(batch.size());
+                    }
+                    batch.forEach(this::deliver);
+                    batch.clear();
+                    synchronized (this) {
+                        notifyAll();
+                    }
                 }
             } catch (InterruptedException e) {
                 log.info("Route listener event thread shutting down: {}", e.getMessage());
             }
         }
 
+        // Keeps draining the queue when the listener fails on an event
+        private void deliver(RouteEvent event) {
+            try {
+                listener.event(event);
+            } catch (Exception e) {
+                log.warn("Route listener {} failed to process event {}", listener, event, e);
+            }
+        }
+
     }
 
     /**
@@ -16,6 +16,7 @@
 
 package org.onosproject.incubator.net.routing.impl;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
@@ -45,7 +46,9 @@ import org.onosproject.net.host.HostService;
 import org.onosproject.net.host.HostServiceAdapter;
 import org.onosproject.net.provider.ProviderId;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.createMock;
@@ -54,6 +57,9 @@ import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Unit tests for the route manager.
@@ -83,7 +89,7 @@ public class RouteManagerTest {
     private RouteListener routeListener;
     private HostListener hostListener;
 
-    private RouteManager routeManager;
+    private TestRouteManager routeManager;
 
     @Before
     public void setUp() throws Exception {
@@ -356,6 +362,75 @@ public class RouteManagerTest {
         verify(routeListener);
     }
 
+    /**
+     * Tests that a batch of updates is coalesced per prefix and that each
+     * next hop is resolved only once.
+     */
+    @Test
+    public void testBatchUpdate() {
+        Route superseded = new Route(Route.Source.STATIC, V4_PREFIX1, V4_NEXT_HOP1);
+        Route route1 = new Route(Route.Source.STATIC, V4_PREFIX1, V4_NEXT_HOP2);
+        Route route2 = new Route(Route.Source.STATIC, V4_PREFIX2, V4_NEXT_HOP2);
+
+        reset(hostService);
+        expect(hostService.getHostsByIp(V4_NEXT_HOP2))
+                .andReturn(Sets.newHashSet(createHost(MAC2, V4_NEXT_HOP2))).once();
+        hostService.startMonitoringIp(V4_NEXT_HOP2);
+        expectLastCall().once();
+        replay(hostService);
+
+        reset(routeListener);
+        routeListener.event(new RouteEvent(RouteEvent.Type.ROUTE_ADDED, new ResolvedRoute(route1, MAC2)));
+        routeListener.event(new RouteEvent(RouteEvent.Type.ROUTE_ADDED, new ResolvedRoute(route2, MAC2)));
+        replay(routeListener);
+
+        routeManager.update(Lists.newArrayList(superseded, route1, route2));
+
+        verify(hostService);
+        verify(routeListener);
+
+        reset(routeListener);
+        routeListener.event(new RouteEvent(RouteEvent.Type.ROUTE_REMOVED, new ResolvedRoute(route1, null)));
+        routeListener.event(new RouteEvent(RouteEvent.Type.ROUTE_REMOVED, new ResolvedRoute(route2, null)));
+        replay(routeListener);
+
+        routeManager.withdraw(Lists.newArrayList(route1, route2));
+
+        verify(routeListener);
+        assertTrue(routeManager.getRoutesForNextHop(V4_NEXT_HOP2).isEmpty());
+    }
+
+    /**
+     * Tests that only bulk route updates wait for the listeners, and that
+     * events are posted outside of the route manager lock.
+     */
+    @Test
+    public void testListenerBackpressure() {
+        Route route = new Route(Route.Source.STATIC, V4_PREFIX1, V4_NEXT_HOP1);
+        TestListenerQueue queue = routeManager.queues.get(0);
+
+        reset(hostService);
+        expect(hostService.getHostsByIp(anyObject(IpAddress.class))).andReturn(
+                Collections.emptySet()).anyTimes();
+        hostService.startMonitoringIp(V4_NEXT_HOP1);
+        replay(hostService);
+
+        reset(routeListener);
+        routeListener.event(new RouteEvent(RouteEvent.Type.ROUTE_ADDED,
+                new ResolvedRoute(route, MAC1)));
+        replay(routeListener);
+
+        routeManager.update(Collections.singleton(route));
+        assertEquals(1, queue.awaits);
+
+        Host host = createHost(MAC1, V4_NEXT_HOP1);
+        hostListener.event(new HostEvent(HostEvent.Type.HOST_ADDED, host));
+        assertEquals(1, queue.awaits);
+
+        verify(routeListener);
+        assertFalse(queue.postedUnderLock);
+    }
+
     /**
      * Test host service that stores a reference to the host listener.
      */
@@ -371,9 +446,13 @@ public class RouteManagerTest {
      * listener queue instead of the real listener queue.
      */
     private static class TestRouteManager extends RouteManager {
+        private final List<TestListenerQueue> queues = new ArrayList<>();
+
         @Override
         ListenerQueue createListenerQueue(RouteListener listener) {
-            return new TestListenerQueue(listener);
+            TestListenerQueue queue = new TestListenerQueue(listener, this);
+            queues.add(queue);
+            return queue;
         }
     }
 
@@ -384,16 +463,26 @@ public class RouteManagerTest {
     private static class TestListenerQueue implements ListenerQueue {
 
         private final RouteListener listener;
+        private final RouteManager routeManager;
+        private boolean postedUnderLock;
+        private int awaits;
 
-        public TestListenerQueue(RouteListener listener) {
+        public TestListenerQueue(RouteListener listener, RouteManager routeManager) {
             this.listener = listener;
+            this.routeManager = routeManager;
         }
 
         @Override
         public void post(RouteEvent event) {
+            postedUnderLock |= Thread.holdsLock(routeManager);
             listener.event(event);
         }
 
+        @Override
+        public void awaitSpace() {
+            awaits++;
+        }
+
         @Override
         public void start() {
         }
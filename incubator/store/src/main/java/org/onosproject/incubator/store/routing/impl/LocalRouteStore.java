@@ -20,15 +20,11 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
-import com.googlecode.concurrenttrees.common.KeyValuePair;
-import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
-import com.googlecode.concurrenttrees.radixinverted.ConcurrentInvertedRadixTree;
-import com.googlecode.concurrenttrees.radixinverted.InvertedRadixTree;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.packet.IpAddress;
-import org.onlab.packet.IpPrefix;
+import org.onlab.packet.IpPrefixTrie;
 import org.onlab.packet.MacAddress;
 import org.onosproject.incubator.net.routing.ResolvedRoute;
 import org.onosproject.incubator.net.routing.Route;
@@ -42,12 +38,10 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Route store based on in-memory storage.
@@ -69,8 +63,8 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
     public void activate() {
         routeTables = new ConcurrentHashMap<>();
 
-        routeTables.put(IPV4, new RouteTable());
-        routeTables.put(IPV6, new RouteTable());
+        routeTables.put(IPV4, new RouteTable(IpAddress.Version.INET));
+        routeTables.put(IPV6, new RouteTable(IpAddress.Version.INET6));
     }
 
     @Override
@@ -80,13 +74,21 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
 
     @Override
     public void removeRoute(Route route) {
-        RouteTable table = getDefaultRouteTable(route);
-        table.remove(route);
-        Collection<Route> routes = table.getRoutesForNextHop(route.nextHop());
+        getDefaultRouteTable(route).remove(route);
+    }
 
-        if (routes.isEmpty()) {
-            nextHops.remove(route.nextHop());
-        }
+    @Override
+    public void updateRoutes(Collection<Route> routes) {
+        routes.stream()
+                .collect(Collectors.groupingBy(this::getDefaultRouteTable))
+                .forEach(RouteTable::update);
+    }
+
+    @Override
+    public void removeRoutes(Collection<Route> routes) {
+        routes.stream()
+                .collect(Collectors.groupingBy(this::getDefaultRouteTable))
+                .forEach(RouteTable::remove);
     }
 
     @Override
@@ -162,38 +164,22 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
         return routeTables.get(routeTableId);
     }
 
-    private static String createBinaryString(IpPrefix ipPrefix) {
-        byte[] octets = ipPrefix.address().toOctets();
-        StringBuilder result = new StringBuilder(ipPrefix.prefixLength());
-        result.append("0");
-        for (int i = 0; i < ipPrefix.prefixLength(); i++) {
-            int byteOffset = i / Byte.SIZE;
-            int bitOffset = i % Byte.SIZE;
-            int mask = 1 << (Byte.SIZE - 1 - bitOffset);
-            byte value = octets[byteOffset];
-            boolean isSet = ((value & mask) != 0);
-            result.append(isSet ? "1" : "0");
-        }
-
-        return result.toString();
-    }
-
     /**
      * Route table into which routes can be placed.
      */
     private class RouteTable {
-        private final InvertedRadixTree<Route> routeTable;
+        private final IpPrefixTrie<Route> routeTable;
 
-        private final Map<IpPrefix, Route> routes = new ConcurrentHashMap<>();
         private final Multimap<IpAddress, Route> reverseIndex =
                 Multimaps.synchronizedMultimap(HashMultimap.create());
 
         /**
          * Creates a new route table.
+         *
+         * @param version IP version of the routes
          */
-        public RouteTable() {
-            routeTable = new ConcurrentInvertedRadixTree<>(
-                    new DefaultByteArrayNodeFactory());
+        public RouteTable(IpAddress.Version version) {
+            routeTable = new IpPrefixTrie<>(version);
         }
 
         /**
@@ -203,46 +189,61 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
          */
         public void update(Route route) {
             synchronized (this) {
-                Route oldRoute = routes.put(route.prefix(), route);
-                routeTable.put(createBinaryString(route.prefix()), route);
+                apply(route);
+            }
+        }
+
+        /**
+         * Adds or updates the routes in the route table, holding the table
+         * lock once for all of them.
+         *
+         * @param routes routes to update
+         */
+        public void update(Collection<Route> routes) {
+            synchronized (this) {
+                routes.forEach(this::apply);
+            }
+        }
 
-                // TODO manage routes from multiple providers
+        private void apply(Route route) {
+            Route oldRoute = routeTable.put(route.prefix(), route);
 
-                reverseIndex.put(route.nextHop(), route);
+            // TODO manage routes from multiple providers
 
-                if (oldRoute != null) {
-                    reverseIndex.remove(oldRoute.nextHop(), oldRoute);
+            reverseIndex.put(route.nextHop(), route);
 
-                    if (reverseIndex.get(oldRoute.nextHop()).isEmpty()) {
-                        nextHops.remove(oldRoute.nextHop());
-                    }
-                }
+            if (oldRoute != null) {
+                reverseIndex.remove(oldRoute.nextHop(), oldRoute);
 
-                if (route.equals(oldRoute)) {
-                    // No need to send events if the new route is the same
-                    return;
+                if (reverseIndex.get(oldRoute.nextHop()).isEmpty()) {
+                    nextHops.remove(oldRoute.nextHop());
                 }
+            }
 
-                MacAddress nextHopMac = nextHops.get(route.nextHop());
-
-                if (oldRoute != null && !oldRoute.nextHop().equals(route.nextHop())) {
-                    if (nextHopMac == null) {
-                        // We don't know the new MAC address yet so delete the route
-                        notifyDelegate(new RouteEvent(RouteEvent.Type.ROUTE_REMOVED,
-                                new ResolvedRoute(oldRoute, null)));
-                    } else {
-                        // We know the new MAC address so update the route
-                        notifyDelegate(new RouteEvent(RouteEvent.Type.ROUTE_UPDATED,
-                                new ResolvedRoute(route, nextHopMac)));
-                    }
-                    return;
-                }
+            if (route.equals(oldRoute)) {
+                // No need to send events if the new route is the same
+                return;
+            }
 
+            MacAddress nextHopMac = nextHops.get(route.nextHop());
 
-                if (nextHopMac != null) {
-                    notifyDelegate(new RouteEvent(RouteEvent.Type.ROUTE_ADDED,
+            if (oldRoute != null && !oldRoute.nextHop().equals(route.nextHop())) {
+                if (nextHopMac == null) {
+                    // We don't know the new MAC address yet so delete the route
+                    notifyDelegate(new RouteEvent(RouteEvent.Type.ROUTE_REMOVED,
+                            new ResolvedRoute(oldRoute, null)));
+                } else {
+                    // We know the new MAC address so update the route
+                    notifyDelegate(new RouteEvent(RouteEvent.Type.ROUTE_UPDATED,
                             new ResolvedRoute(route, nextHopMac)));
                 }
+                return;
+            }
+
+
+            if (nextHopMac != null) {
+                notifyDelegate(new RouteEvent(RouteEvent.Type.ROUTE_ADDED,
+                        new ResolvedRoute(route, nextHopMac)));
             }
         }
 
@@ -253,14 +254,33 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
          */
         public void remove(Route route) {
             synchronized (this) {
-                Route removed = routes.remove(route.prefix());
-                routeTable.remove(createBinaryString(route.prefix()));
+                withdraw(route);
+            }
+        }
 
-                if (removed != null) {
-                    reverseIndex.remove(removed.nextHop(), removed);
-                    notifyDelegate(new RouteEvent(RouteEvent.Type.ROUTE_REMOVED,
-                            new ResolvedRoute(route, null)));
-                }
+        /**
+         * Removes the routes from the route table, holding the table lock
+         * once for all of them.
+         *
+         * @param routes routes to remove
+         */
+        public void remove(Collection<Route> routes) {
+            synchronized (this) {
+                routes.forEach(this::withdraw);
+            }
+        }
+
+        private void withdraw(Route route) {
+            Route removed = routeTable.remove(route.prefix());
+
+            if (removed != null) {
+                reverseIndex.remove(removed.nextHop(), removed);
+                notifyDelegate(new RouteEvent(RouteEvent.Type.ROUTE_REMOVED,
+                        new ResolvedRoute(route, null)));
+            }
+
+            if (reverseIndex.get(route.nextHop()).isEmpty()) {
+                nextHops.remove(route.nextHop());
             }
         }
 
@@ -280,17 +300,7 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
          * @return all routes
          */
         public Collection<Route> getRoutes() {
-            Iterator<KeyValuePair<Route>> it =
-                    routeTable.getKeyValuePairsForKeysStartingWith("").iterator();
-
-            List<Route> routes = new LinkedList<>();
-
-            while (it.hasNext()) {
-                KeyValuePair<Route> entry = it.next();
-                routes.add(entry.getValue());
-            }
-
-            return routes;
+            return routeTable.values();
         }
 
         /**
@@ -300,17 +310,7 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
          * @return most specific prefix containing the given
          */
         public Route longestPrefixMatch(IpAddress ip) {
-            Iterable<Route> prefixes =
-                    routeTable.getValuesForKeysPrefixing(createBinaryString(ip.toIpPrefix()));
-
-            Iterator<Route> it = prefixes.iterator();
-
-            Route route = null;
-            while (it.hasNext()) {
-                route = it.next();
-            }
-
-            return route;
+            return routeTable.longestPrefixMatch(ip);
         }
     }
 
@@ -16,7 +16,6 @@
 package org.onosproject.openflow.controller.impl;
 
 import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -26,6 +25,8 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
+import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.driver.DefaultDriverProviderService;
@@ -56,11 +57,8 @@ import org.projectfloodlight.openflow.protocol.OFGroupStatsReply;
 import org.projectfloodlight.openflow.protocol.OFMessage;
 import org.projectfloodlight.openflow.protocol.OFPacketIn;
 import org.projectfloodlight.openflow.protocol.OFPortDesc;
-import org.projectfloodlight.openflow.protocol.OFPortStatsEntry;
-import org.projectfloodlight.openflow.protocol.OFPortStatsReply;
 import org.projectfloodlight.openflow.protocol.OFPortStatus;
 import org.projectfloodlight.openflow.protocol.OFStatsReply;
-import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
 import org.projectfloodlight.openflow.protocol.OFTableStatsEntry;
 import org.projectfloodlight.openflow.protocol.OFTableStatsReply;
 import org.projectfloodlight.openflow.protocol.action.OFActionOutput;
@@ -68,8 +66,8 @@ import org.projectfloodlight.openflow.protocol.instruction.OFInstruction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -89,6 +87,10 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     private static final String APP_ID = "org.onosproject.openflow-base";
     private static final String DEFAULT_OFPORT = "6633,6653";
     private static final int DEFAULT_WORKER_THREADS = 16;
+    private static final int DEFAULT_PACKET_IN_THREADS = 8;
+    private static final int DEFAULT_PACKET_IN_QUEUE_SIZE = 1024;
+    private static final String DEFAULT_PACKET_IN_POLICY = "drop-oldest";
+    private static final int DEFAULT_PACKET_IN_RATE = 1000;
 
     private static final Logger log =
             LoggerFactory.getLogger(OpenFlowControllerImpl.class);
@@ -106,6 +108,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ComponentConfigService cfgService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     @Property(name = "openflowPorts", value = DEFAULT_OFPORT,
             label = "Port numbers (comma separated) used by OpenFlow protocol; default is 6633,6653")
     private String openflowPorts = DEFAULT_OFPORT;
@@ -114,6 +119,24 @@ public class OpenFlowControllerImpl implements OpenFlowController {
             label = "Number of controller worker threads; default is 16")
     private int workerThreads = DEFAULT_WORKER_THREADS;
 
+    @Property(name = "packetInThreads", intValue = DEFAULT_PACKET_IN_THREADS,
+            label = "Number of threads dispatching packet-ins to packet listeners; default is 8")
+    private int packetInThreads = DEFAULT_PACKET_IN_THREADS;
+
+    @Property(name = "packetInQueueSize", intValue = DEFAULT_PACKET_IN_QUEUE_SIZE,
+            label = "Number of packet-ins each packet-in thread may queue; default is 1024")
+    private int packetInQueueSize = DEFAULT_PACKET_IN_QUEUE_SIZE;
+
+    @Property(name = "packetInOverloadPolicy", value = DEFAULT_PACKET_IN_POLICY,
+            label = "Policy for dropping packet-ins under overload, either drop-oldest " +
+                    "or token-bucket; default is drop-oldest")
+    private String packetInOverloadPolicy = DEFAULT_PACKET_IN_POLICY;
+
+    @Property(name = "packetInRateLimit", intValue = DEFAULT_PACKET_IN_RATE,
+            label = "Packet-ins per second allowed for each switch with the token-bucket " +
+                    "policy; default is 1000")
+    private int packetInRateLimit = DEFAULT_PACKET_IN_RATE;
+
     protected ExecutorService executorMsgs =
         Executors.newFixedThreadPool(32, groupedThreads("onos/of", "event-stats-%d", log));
 
@@ -137,20 +160,24 @@ public class OpenFlowControllerImpl implements OpenFlowController {
 
     protected Set<OpenFlowMessageListener> ofMessageListener = new CopyOnWriteArraySet<>();
 
-    protected Multimap<Dpid, OFFlowStatsEntry> fullFlowStats =
-            ArrayListMultimap.create();
+    private final StatsReplyAssembler<OFFlowStatsReply, OFFlowStatsEntry> flowStats =
+            new StatsReplyAssembler<>(OFFlowStatsReply::getEntries,
+                                      (r, e) -> r.createBuilder().setEntries(e).build());
 
-    protected Multimap<Dpid, OFTableStatsEntry> fullTableStats =
-            ArrayListMultimap.create();
+    private final StatsReplyAssembler<OFTableStatsReply, OFTableStatsEntry> tableStats =
+            new StatsReplyAssembler<>(OFTableStatsReply::getEntries,
+                                      (r, e) -> r.createBuilder().setEntries(e).build());
 
-    protected Multimap<Dpid, OFGroupStatsEntry> fullGroupStats =
-            ArrayListMultimap.create();
+    private final StatsReplyAssembler<OFGroupStatsReply, OFGroupStatsEntry> groupStats =
+            new StatsReplyAssembler<>(OFGroupStatsReply::getEntries,
+                                      (r, e) -> r.createBuilder().setEntries(e).build());
 
-    protected Multimap<Dpid, OFGroupDescStatsEntry> fullGroupDescStats =
-            ArrayListMultimap.create();
+    private final StatsReplyAssembler<OFGroupDescStatsReply, OFGroupDescStatsEntry> groupDescStats =
+            new StatsReplyAssembler<>(OFGroupDescStatsReply::getEntries,
+                                      (r, e) -> r.createBuilder().setEntries(e).build());
 
-    protected Multimap<Dpid, OFPortStatsEntry> fullPortStats =
-            ArrayListMultimap.create();
+    // Created on activation, once the metrics service is available.
+    volatile PacketInPipeline packetInPipeline;
 
     private final Controller ctrl = new Controller();
 
@@ -158,7 +185,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     public void activate(ComponentContext context) {
         coreService.registerApplication(APP_ID, this::cleanup);
         cfgService.registerProperties(getClass());
-        ctrl.setConfigParams(context.getProperties());
+        Dictionary<?, ?> properties = context.getProperties();
+        ctrl.setConfigParams(properties);
+        readPacketInConfiguration(properties);
         ctrl.start(agent, driverService);
     }
 
@@ -177,16 +206,80 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         if (!connectedSwitches.isEmpty()) {
             cleanup();
         }
+        packetInPipeline.shutdown();
         cfgService.unregisterProperties(getClass(), false);
     }
 
     @Modified
     public void modified(ComponentContext context) {
         ctrl.stop();
-        ctrl.setConfigParams(context.getProperties());
+        Dictionary<?, ?> properties = context.getProperties();
+        ctrl.setConfigParams(properties);
+        readPacketInConfiguration(properties);
         ctrl.start(agent, driverService);
     }
 
+    // Reads the packet-in pipeline configuration and replaces the pipeline
+    // if there is none yet or any of its settings changed.
+    private void readPacketInConfiguration(Dictionary<?, ?> properties) {
+        int threads = getPositiveProperty(properties, "packetInThreads",
+                                          DEFAULT_PACKET_IN_THREADS);
+        int queueSize = getPositiveProperty(properties, "packetInQueueSize",
+                                            DEFAULT_PACKET_IN_QUEUE_SIZE);
+        int rateLimit = getPositiveProperty(properties, "packetInRateLimit",
+                                            DEFAULT_PACKET_IN_RATE);
+        String policy = Tools.get(properties, "packetInOverloadPolicy");
+        policy = policy == null ? DEFAULT_PACKET_IN_POLICY : policy;
+
+        PacketInPipeline previous = packetInPipeline;
+        if (previous != null && threads == packetInThreads && queueSize == packetInQueueSize &&
+                rateLimit == packetInRateLimit && policy.equals(packetInOverloadPolicy)) {
+            return;
+        }
+        packetInThreads = threads;
+        packetInQueueSize = queueSize;
+        packetInRateLimit = rateLimit;
+        packetInOverloadPolicy = policy;
+
+        packetInPipeline = createPacketInPipeline();
+        if (previous != null) {
+            previous.shutdown();
+        }
+        log.info("Settings: packetInThreads={}, packetInQueueSize={}, packetInOverloadPolicy={}, " +
+                         "packetInRateLimit={}", packetInThreads, packetInQueueSize,
+                 packetInOverloadPolicy, packetInRateLimit);
+    }
+
+    private static int getPositiveProperty(Dictionary<?, ?> properties, String name, int defaultValue) {
+        int value = Tools.getIntegerProperty(properties, name, defaultValue);
+        if (value <= 0) {
+            log.warn("Invalid value {} for {}; using {}", value, name, defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    private PacketInPipeline createPacketInPipeline() {
+        PacketInPipeline.OverloadPolicy policy;
+        try {
+            policy = PacketInPipeline.OverloadPolicy.valueOf(
+                    packetInOverloadPolicy.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown packet-in overload policy {}; using {}",
+                     packetInOverloadPolicy, DEFAULT_PACKET_IN_POLICY);
+            policy = PacketInPipeline.OverloadPolicy.DROP_OLDEST;
+        }
+        return new PacketInPipeline(packetInThreads, packetInQueueSize, policy, packetInRateLimit,
+                                    metricsService, this::dispatchPacketIn);
+    }
+
+    // Hands a packet-in over to the packet listeners; runs on the pipeline.
+    private void dispatchPacketIn(OpenFlowPacketContext pktCtx) {
+        for (PacketListener p : ofPacketListener.values()) {
+            p.handlePacket(pktCtx);
+        }
+    }
+
     @Override
     public Iterable<OpenFlowSwitch> getSwitches() {
         return connectedSwitches.values();
@@ -266,12 +359,6 @@ public class OpenFlowControllerImpl implements OpenFlowController {
 
     @Override
     public void processPacket(Dpid dpid, OFMessage msg) {
-        Collection<OFFlowStatsEntry> flowStats;
-        Collection<OFTableStatsEntry> tableStats;
-        Collection<OFGroupStatsEntry> groupStats;
-        Collection<OFGroupDescStatsEntry> groupDescStats;
-        Collection<OFPortStatsEntry> portStats;
-
         switch (msg.getType()) {
         case PORT_STATUS:
             for (OpenFlowSwitchListener l : ofSwitchListener) {
@@ -287,9 +374,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
             OpenFlowPacketContext pktCtx = DefaultOpenFlowPacketContext
             .packetContextFromPacketIn(this.getSwitch(dpid),
                     (OFPacketIn) msg);
-            for (PacketListener p : ofPacketListener.values()) {
-                p.handlePacket(pktCtx);
-            }
+            packetInPipeline.submit(dpid, pktCtx);
             break;
         // TODO: Consider using separate threadpool for sensitive messages.
         //    ie. Back to back error could cause us to starve.
@@ -306,44 +391,16 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                     }
                     break;
                 case FLOW:
-                    flowStats = publishFlowStats(dpid, (OFFlowStatsReply) reply);
-                    if (flowStats != null) {
-                        OFFlowStatsReply.Builder rep =
-                                OFFactories.getFactory(msg.getVersion()).buildFlowStatsReply();
-                        rep.setEntries(Lists.newLinkedList(flowStats));
-                        rep.setXid(reply.getXid());
-                        executorMsgs.execute(new OFMessageHandler(dpid, rep.build()));
-                    }
+                    publishStats(dpid, flowStats, (OFFlowStatsReply) reply);
                     break;
                 case TABLE:
-                    tableStats = publishTableStats(dpid, (OFTableStatsReply) reply);
-                    if (tableStats != null) {
-                        OFTableStatsReply.Builder rep =
-                                OFFactories.getFactory(msg.getVersion()).buildTableStatsReply();
-                        rep.setEntries(Lists.newLinkedList(tableStats));
-                        executorMsgs.execute(new OFMessageHandler(dpid, rep.build()));
-                    }
+                    publishStats(dpid, tableStats, (OFTableStatsReply) reply);
                     break;
                 case GROUP:
-                    groupStats = publishGroupStats(dpid, (OFGroupStatsReply) reply);
-                    if (groupStats != null) {
-                        OFGroupStatsReply.Builder rep =
-                                OFFactories.getFactory(msg.getVersion()).buildGroupStatsReply();
-                        rep.setEntries(Lists.newLinkedList(groupStats));
-                        rep.setXid(reply.getXid());
-                        executorMsgs.execute(new OFMessageHandler(dpid, rep.build()));
-                    }
+                    publishStats(dpid, groupStats, (OFGroupStatsReply) reply);
                     break;
                 case GROUP_DESC:
-                    groupDescStats = publishGroupDescStats(dpid,
-                            (OFGroupDescStatsReply) reply);
-                    if (groupDescStats != null) {
-                        OFGroupDescStatsReply.Builder rep =
-                                OFFactories.getFactory(msg.getVersion()).buildGroupDescStatsReply();
-                        rep.setEntries(Lists.newLinkedList(groupDescStats));
-                        rep.setXid(reply.getXid());
-                        executorMsgs.execute(new OFMessageHandler(dpid, rep.build()));
-                    }
+                    publishStats(dpid, groupDescStats, (OFGroupDescStatsReply) reply);
                     break;
                 case PORT:
                     executorMsgs.execute(new OFMessageHandler(dpid, reply));
@@ -385,14 +442,10 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                             entries.add(fs);
                         }
                         fsr.setEntries(entries);
+                        fsr.setXid(reply.getXid());
+                        fsr.setFlags(reply.getFlags());
 
-                        flowStats = publishFlowStats(dpid, fsr.build());
-                        if (flowStats != null) {
-                            OFFlowStatsReply.Builder rep =
-                                    OFFactories.getFactory(msg.getVersion()).buildFlowStatsReply();
-                            rep.setEntries(Lists.newLinkedList(flowStats));
-                            executorMsgs.execute(new OFMessageHandler(dpid, rep.build()));
-                        }
+                        publishStats(dpid, flowStats, fsr.build());
                     } else {
                         executorMsgs.execute(new OFMessageHandler(dpid, reply));
                     }
@@ -432,53 +485,13 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         }
     }
 
-    private synchronized Collection<OFFlowStatsEntry> publishFlowStats(Dpid dpid,
-                                                                       OFFlowStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullFlowStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullFlowStats.removeAll(dpid);
-        }
-        return null;
-    }
-
-    private synchronized Collection<OFTableStatsEntry> publishTableStats(Dpid dpid,
-                                                                       OFTableStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullTableStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullTableStats.removeAll(dpid);
-        }
-        return null;
-    }
-
-    private synchronized Collection<OFGroupStatsEntry> publishGroupStats(Dpid dpid,
-                                                                      OFGroupStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullGroupStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullGroupStats.removeAll(dpid);
-        }
-        return null;
-    }
-
-    private synchronized Collection<OFGroupDescStatsEntry> publishGroupDescStats(Dpid dpid,
-                                                                  OFGroupDescStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullGroupDescStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullGroupDescStats.removeAll(dpid);
-        }
-        return null;
-    }
-
-    private synchronized Collection<OFPortStatsEntry> publishPortStats(Dpid dpid,
-                                                                 OFPortStatsReply reply) {
-        fullPortStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullPortStats.removeAll(dpid);
+    // Hands complete statistics replies over to the message listeners.
+    private <R extends OFStatsReply> void publishStats(Dpid dpid, StatsReplyAssembler<R, ?> assembler,
+                                                       R reply) {
+        R complete = assembler.add(dpid, reply);
+        if (complete != null) {
+            executorMsgs.execute(new OFMessageHandler(dpid, complete));
         }
-        return null;
     }
 
     @Override
@@ -625,6 +638,11 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                 log.debug("sw was null for {}", dpid);
                 sw = activeEqualSwitches.remove(dpid);
             }
+            flowStats.purge(dpid);
+            tableStats.purge(dpid);
+            groupStats.purge(dpid);
+            groupDescStats.purge(dpid);
+            packetInPipeline.remove(dpid);
             for (OpenFlowSwitchListener l : ofSwitchListener) {
                 l.switchRemoved(dpid);
             }
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import com.codahale.metrics.Counter;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowPacketContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.onlab.util.Tools.groupedThreads;
+
+/**
+ * Bounded pipeline which dispatches packet-ins to the packet listeners off
+ * the OpenFlow I/O threads.
+ * <p>
+ * Packet-ins of each switch are always handled by the same worker, so they
+ * are delivered in the order in which they were received. When a worker
+ * cannot keep up, packet-ins are dropped according to the overload policy.
+ * The number of packet-ins queued, dropped and processed is counted for
+ * each switch; every queued packet-in is eventually either dropped or
+ * processed.
+ * </p>
+ */
+final class PacketInPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(PacketInPipeline.class);
+
+    private static final String COMPONENT = "OpenFlowController";
+    private static final String FEATURE = "packetIn";
+    private static final String QUEUED = "queued";
+    private static final String DROPPED = "dropped";
+    private static final String PROCESSED = "processed";
+    private static final String[] COUNTERS = {QUEUED, DROPPED, PROCESSED};
+
+    /**
+     * Policy applied to packet-ins when the pipeline is overloaded.
+     */
+    enum OverloadPolicy {
+        /**
+         * Packet-ins are queued until the queue of their worker is full,
+         * at which point the oldest queued packet-in is dropped.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Packet-ins exceeding the rate allowed for their switch are dropped
+         * and so are packet-ins arriving while the queue of their worker is
+         * full.
+         */
+        TOKEN_BUCKET
+    }
+
+    private final ThreadPoolExecutor[] workers;
+    private final OverloadPolicy policy;
+    private final int rateLimit;
+    private final Consumer<OpenFlowPacketContext> handler;
+
+    private final MetricsService metricsService;
+    private final MetricsComponent metricsComponent;
+    private final MetricsFeature metricsFeature;
+
+    private final ConcurrentMap<Dpid, DeviceState> devices = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a packet-in pipeline.
+     *
+     * @param workerCount    number of worker threads
+     * @param queueSize      capacity of the queue of each worker
+     * @param policy         overload policy
+     * @param rateLimit      packet-ins allowed per second for each switch;
+     *                       only used with the token bucket policy
+     * @param metricsService metrics service used to publish the counters;
+     *                       null if the counters are not to be published
+     * @param handler        handler of the packet-ins
+     */
+    PacketInPipeline(int workerCount, int queueSize, OverloadPolicy policy, int rateLimit,
+                     MetricsService metricsService, Consumer<OpenFlowPacketContext> handler) {
+        checkArgument(workerCount > 0, "Worker count must be positive");
+        checkArgument(queueSize > 0, "Queue size must be positive");
+        checkArgument(rateLimit > 0, "Rate limit must be positive");
+        this.policy = policy;
+        this.rateLimit = rateLimit;
+        this.handler = handler;
+
+        this.metricsService = metricsService;
+        if (metricsService != null) {
+            this.metricsComponent = metricsService.registerComponent(COMPONENT);
+            this.metricsFeature = metricsComponent.registerFeature(FEATURE);
+        } else {
+            this.metricsComponent = null;
+            this.metricsFeature = null;
+        }
+
+        RejectedExecutionHandler overflow =
+                policy == OverloadPolicy.DROP_OLDEST ? this::dropOldest : this::dropNewest;
+        this.workers = new ThreadPoolExecutor[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                                                new ArrayBlockingQueue<>(queueSize),
+                                                groupedThreads("onos/of", "packet-in-" + i + "-%d", log),
+                                                overflow);
+        }
+    }
+
+    /**
+     * Submits a packet-in for processing.
+     *
+     * @param dpid    switch the packet-in was received from
+     * @param context packet-in context
+     */
+    void submit(Dpid dpid, OpenFlowPacketContext context) {
+        DeviceState device = devices.computeIfAbsent(dpid, this::newDevice);
+        device.queued.inc();
+        if (policy == OverloadPolicy.TOKEN_BUCKET && !device.tryAcquire()) {
+            device.dropped.inc();
+            return;
+        }
+        device.worker.execute(new PacketInTask(device, context));
+    }
+
+    /**
+     * Forgets the rate limit and counters of a switch that went away. Its
+     * packet-ins queued so far are still processed.
+     *
+     * @param dpid switch that was removed
+     */
+    void remove(Dpid dpid) {
+        if (devices.remove(dpid) != null && metricsService != null) {
+            for (String name : COUNTERS) {
+                metricsService.removeMetric(metricsComponent, metricsFeature, dpid + "." + name);
+            }
+        }
+    }
+
+    /**
+     * Stops the workers once they have processed the packet-ins queued so far.
+     */
+    void shutdown() {
+        for (ThreadPoolExecutor worker : workers) {
+            worker.shutdown();
+        }
+    }
+
+    private DeviceState newDevice(Dpid dpid) {
+        ThreadPoolExecutor worker = workers[Math.floorMod(dpid.hashCode(), workers.length)];
+        return new DeviceState(worker, counter(dpid, QUEUED),
+                               counter(dpid, DROPPED), counter(dpid, PROCESSED));
+    }
+
+    private Counter counter(Dpid dpid, String name) {
+        return metricsService == null ? new Counter() :
+                metricsService.createCounter(metricsComponent, metricsFeature, dpid + "." + name);
+    }
+
+    // Makes room for the rejected packet-in by dropping the oldest queued one.
+    private void dropOldest(Runnable task, ThreadPoolExecutor worker) {
+        if (worker.isShutdown()) {
+            dropNewest(task, worker);
+            return;
+        }
+        Runnable oldest;
+        while (!worker.getQueue().offer(task)) {
+            oldest = worker.getQueue().poll();
+            if (oldest != null) {
+                ((PacketInTask) oldest).device.dropped.inc();
+            }
+        }
+    }
+
+    private void dropNewest(Runnable task, ThreadPoolExecutor worker) {
+        ((PacketInTask) task).device.dropped.inc();
+    }
+
+    // Packet-in awaiting processing.
+    private final class PacketInTask implements Runnable {
+        private final DeviceState device;
+        private final OpenFlowPacketContext context;
+
+        private PacketInTask(DeviceState device, OpenFlowPacketContext context) {
+            this.device = device;
+            this.context = context;
+        }
+
+        @Override
+        public void run() {
+            device.processed.inc();
+            try {
+                handler.accept(context);
+            } catch (Exception e) {
+                log.warn("Unable to process packet-in from {}", context.dpid(), e);
+            }
+        }
+    }
+
+    // Worker assignment, rate limit and counters of a switch.
+    private final class DeviceState {
+        private final ThreadPoolExecutor worker;
+        private final Counter queued;
+        private final Counter dropped;
+        private final Counter processed;
+
+        private double tokens = rateLimit;
+        private long lastRefill = System.nanoTime();
+
+        private DeviceState(ThreadPoolExecutor worker, Counter queued,
+                            Counter dropped, Counter processed) {
+            this.worker = worker;
+            this.queued = queued;
+            this.dropped = dropped;
+            this.processed = processed;
+        }
+
+        // Refills the bucket up to one second worth of packet-ins and
+        // takes a token from it if there is one.
+        private synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(rateLimit, tokens + (now - lastRefill) * rateLimit / 1e9);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import org.onosproject.openflow.controller.Dpid;
+import org.projectfloodlight.openflow.protocol.OFStatsReply;
+import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Reassembles multipart statistics replies of one type.
+ * <p>
+ * Parts are buffered per switch and transaction, so replies from different
+ * switches never contend with each other. Replies which fit in a single part
+ * are handed back as they are, without copying their entries.
+ * </p>
+ *
+ * @param <R> type of the statistics reply
+ * @param <E> type of the statistics entries
+ */
+final class StatsReplyAssembler<R extends OFStatsReply, E> {
+
+    private final ConcurrentMap<Key, List<E>> pending = new ConcurrentHashMap<>();
+
+    private final Function<R, List<E>> entries;
+    private final BiFunction<R, List<E>, R> rebuild;
+
+    /**
+     * Creates an assembler for replies of one type.
+     *
+     * @param entries function yielding the entries of a reply part
+     * @param rebuild function producing a copy of the given last reply part
+     *                with the given entries instead of its own
+     */
+    StatsReplyAssembler(Function<R, List<E>> entries, BiFunction<R, List<E>, R> rebuild) {
+        this.entries = entries;
+        this.rebuild = rebuild;
+    }
+
+    /**
+     * Adds a reply part received from the given switch.
+     *
+     * @param dpid  switch the reply was received from
+     * @param reply reply part
+     * @return complete reply if this was the last part; null otherwise
+     */
+    R add(Dpid dpid, R reply) {
+        Key key = new Key(dpid, reply.getXid());
+        if (reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
+            pending.computeIfAbsent(key, k -> new ArrayList<>()).addAll(entries.apply(reply));
+            return null;
+        }
+
+        List<E> previous = pending.remove(key);
+        if (previous == null) {
+            return reply;
+        }
+        previous.addAll(entries.apply(reply));
+        return rebuild.apply(reply, previous);
+    }
+
+    /**
+     * Discards any incomplete replies received from the given switch.
+     *
+     * @param dpid switch identifier
+     */
+    void purge(Dpid dpid) {
+        pending.keySet().removeIf(key -> key.dpid.equals(dpid));
+    }
+
+    // Identifies a multipart transaction with a switch.
+    private static final class Key {
+        private final Dpid dpid;
+        private final long xid;
+
+        private Key(Dpid dpid, long xid) {
+            this.dpid = dpid;
+            this.xid = xid;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dpid, xid);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof Key) {
+                Key that = (Key) obj;
+                return this.xid == that.xid && Objects.equals(this.dpid, that.dpid);
+            }
+            return false;
+        }
+    }
+}
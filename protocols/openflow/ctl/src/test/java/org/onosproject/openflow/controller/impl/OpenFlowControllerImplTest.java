@@ -52,7 +52,10 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 /**
  * Unit tests for the open flow controller implementation test.
@@ -69,6 +72,7 @@ public class OpenFlowControllerImplTest {
     OpenFlowControllerImpl controller;
     OpenFlowControllerImpl.OpenFlowSwitchAgent agent;
     TestSwitchListener switchListener;
+    Dictionary<String, Object> properties;
 
     /**
      * Test harness for a switch listener.
@@ -143,13 +147,17 @@ public class OpenFlowControllerImplTest {
         controller.cfgService = mockConfigService;
         replay(mockConfigService);
 
-        ComponentContext mockContext = EasyMock.createMock(ComponentContext.class);
-        Dictionary<String, Object> properties = new Hashtable<>();
+        properties = new Hashtable<>();
         properties.put("openflowPorts",
                        Integer.toString(TestTools.findAvailablePort(0)));
+        controller.activate(context(properties));
+    }
+
+    private static ComponentContext context(Dictionary<String, Object> properties) {
+        ComponentContext mockContext = EasyMock.createMock(ComponentContext.class);
         expect(mockContext.getProperties()).andReturn(properties);
         replay(mockContext);
-        controller.activate(mockContext);
+        return mockContext;
     }
 
     @After
@@ -285,4 +293,20 @@ public class OpenFlowControllerImplTest {
         // check that changing state on an unconnected switch does not crash
         controller.setRole(dpid3, RoleState.SLAVE);
     }
+
+    /**
+     * Tests that the packet-in pipeline is replaced only when its settings change.
+     */
+    @Test
+    public void testPacketInReconfiguration() {
+        PacketInPipeline pipeline = controller.packetInPipeline;
+        assertThat(pipeline, notNullValue());
+
+        controller.modified(context(properties));
+        assertThat(controller.packetInPipeline, sameInstance(pipeline));
+
+        properties.put("packetInQueueSize", "64");
+        controller.modified(context(properties));
+        assertThat(controller.packetInPipeline, not(sameInstance(pipeline)));
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import com.codahale.metrics.Counter;
+import com.google.common.collect.ImmutableList;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowPacketContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.onosproject.openflow.controller.impl.PacketInPipeline.OverloadPolicy.DROP_OLDEST;
+import static org.onosproject.openflow.controller.impl.PacketInPipeline.OverloadPolicy.TOKEN_BUCKET;
+
+/**
+ * Unit tests for the packet-in pipeline.
+ */
+public class PacketInPipelineTest {
+
+    private static final Dpid DPID = new Dpid(1);
+
+    private final MetricsManager metricsService = new MetricsManager();
+    private final List<OpenFlowPacketContext> processed = new CopyOnWriteArrayList<>();
+    private PacketInPipeline pipeline;
+
+    @After
+    public void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    private static List<OpenFlowPacketContext> contexts(int count) {
+        List<OpenFlowPacketContext> contexts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            OpenFlowPacketContext context = EasyMock.createNiceMock(OpenFlowPacketContext.class);
+            EasyMock.replay(context);
+            contexts.add(context);
+        }
+        return contexts;
+    }
+
+    private long count(String name) {
+        Counter counter = metricsService.getCounters((n, m) -> true)
+                .get("OpenFlowController.packetIn." + DPID + "." + name);
+        return counter == null ? 0 : counter.getCount();
+    }
+
+    // Handler which records packet-ins, waiting for the gate before the first one.
+    private Consumer<OpenFlowPacketContext> recorder(CountDownLatch gate, CountDownLatch done) {
+        return context -> {
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            processed.add(context);
+            done.countDown();
+        };
+    }
+
+    /**
+     * Tests that packet-ins of a switch are processed in order.
+     */
+    @Test
+    public void inOrder() throws InterruptedException {
+        List<OpenFlowPacketContext> contexts = contexts(50);
+        CountDownLatch done = new CountDownLatch(contexts.size());
+        pipeline = new PacketInPipeline(4, 100, DROP_OLDEST, 1, metricsService,
+                                        recorder(new CountDownLatch(0), done));
+        contexts.forEach(context -> pipeline.submit(DPID, context));
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(processed, is(contexts));
+        assertThat(count("queued"), is(50L));
+        assertThat(count("processed"), is(50L));
+        assertThat(count("dropped"), is(0L));
+    }
+
+    /**
+     * Tests that the oldest queued packet-ins are dropped when the queue is full.
+     */
+    @Test
+    public void dropOldest() throws InterruptedException {
+        List<OpenFlowPacketContext> contexts = contexts(5);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        pipeline = new PacketInPipeline(1, 2, DROP_OLDEST, 1, metricsService, recorder(gate, done));
+
+        // The first packet-in is being processed while the others contend
+        // for the two queue slots.
+        contexts.forEach(context -> pipeline.submit(DPID, context));
+        gate.countDown();
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(processed, is(ImmutableList.of(contexts.get(0), contexts.get(3), contexts.get(4))));
+        assertThat(count("queued"), is(5L));
+        assertThat(count("dropped"), is(2L));
+        assertThat(count("processed"), is(3L));
+    }
+
+    /**
+     * Tests that packet-ins exceeding the rate limit are dropped.
+     */
+    @Test
+    public void tokenBucket() throws InterruptedException {
+        List<OpenFlowPacketContext> contexts = contexts(10);
+        CountDownLatch done = new CountDownLatch(3);
+        pipeline = new PacketInPipeline(1, 100, TOKEN_BUCKET, 3, metricsService,
+                                        recorder(new CountDownLatch(0), done));
+        contexts.forEach(context -> pipeline.submit(DPID, context));
+
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(processed.subList(0, 3), is(contexts.subList(0, 3)));
+        assertThat(count("queued"), is(10L));
+        assertThat(count("dropped") >= 6L, is(true));
+    }
+
+    /**
+     * Tests that the counters of a removed switch are dropped.
+     */
+    @Test
+    public void removeSwitch() throws InterruptedException {
+        List<OpenFlowPacketContext> contexts = contexts(3);
+        CountDownLatch done = new CountDownLatch(contexts.size());
+        pipeline = new PacketInPipeline(1, 100, DROP_OLDEST, 1, metricsService,
+                                        recorder(new CountDownLatch(0), done));
+        contexts.forEach(context -> pipeline.submit(DPID, context));
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(count("processed"), is(3L));
+
+        pipeline.remove(DPID);
+        assertThat(metricsService.getCounters((n, m) -> true).isEmpty(), is(true));
+
+        // A switch that comes back starts counting afresh.
+        pipeline.submit(DPID, contexts.get(0));
+        assertThat(count("queued"), is(1L));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.onosproject.openflow.controller.Dpid;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
+import org.projectfloodlight.openflow.protocol.OFTableStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFTableStatsReply;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.types.TableId;
+
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Unit tests for the multipart statistics reply assembler.
+ */
+public class StatsReplyAssemblerTest {
+
+    private static final OFFactory FACTORY = OFFactories.getFactory(OFVersion.OF_13);
+    private static final Set<OFStatsReplyFlags> MORE = ImmutableSet.of(OFStatsReplyFlags.REPLY_MORE);
+    private static final Set<OFStatsReplyFlags> LAST = ImmutableSet.of();
+
+    private static final Dpid DPID1 = new Dpid(1);
+    private static final Dpid DPID2 = new Dpid(2);
+
+    private final StatsReplyAssembler<OFTableStatsReply, OFTableStatsEntry> assembler =
+            new StatsReplyAssembler<>(OFTableStatsReply::getEntries,
+                                      (r, e) -> r.createBuilder().setEntries(e).build());
+
+    private static OFTableStatsEntry entry(int table) {
+        return FACTORY.buildTableStatsEntry().setTableId(TableId.of(table)).build();
+    }
+
+    private static OFTableStatsReply reply(long xid, Set<OFStatsReplyFlags> flags,
+                                           OFTableStatsEntry... entries) {
+        return FACTORY.buildTableStatsReply()
+                .setXid(xid)
+                .setFlags(flags)
+                .setEntries(ImmutableList.copyOf(entries))
+                .build();
+    }
+
+    /**
+     * Tests that single part replies are handed back unchanged.
+     */
+    @Test
+    public void singlePart() {
+        OFTableStatsReply reply = reply(1, LAST, entry(0), entry(1));
+        assertThat(assembler.add(DPID1, reply), sameInstance(reply));
+    }
+
+    /**
+     * Tests reassembly of interleaved multipart replies from two switches.
+     */
+    @Test
+    public void multiPart() {
+        assertThat(assembler.add(DPID1, reply(7, MORE, entry(0))), nullValue());
+        assertThat(assembler.add(DPID2, reply(7, MORE, entry(5))), nullValue());
+        assertThat(assembler.add(DPID1, reply(7, MORE, entry(1))), nullValue());
+
+        OFTableStatsReply complete = assembler.add(DPID1, reply(7, LAST, entry(2)));
+        assertThat(complete.getXid(), is(7L));
+        assertThat(complete.getEntries(), is(ImmutableList.of(entry(0), entry(1), entry(2))));
+
+        complete = assembler.add(DPID2, reply(7, LAST, entry(6)));
+        assertThat(complete.getEntries(), is(ImmutableList.of(entry(5), entry(6))));
+    }
+
+    /**
+     * Tests that incomplete replies are discarded when purged.
+     */
+    @Test
+    public void purge() {
+        assertThat(assembler.add(DPID1, reply(3, MORE, entry(0))), nullValue());
+        assembler.purge(DPID1);
+
+        OFTableStatsReply reply = reply(3, LAST, entry(1));
+        assertThat(assembler.add(DPID1, reply), sameInstance(reply));
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.impl;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.onosproject.net.flow.FlowRuleBatchOperation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Send window of flow rule batches to a single switch.
+ * <p>
+ * Batches are sent as flow-mods followed by a barrier. Consecutive batches
+ * waiting to be sent are merged under a single barrier, and only a limited
+ * number of barriers may be outstanding at any time. The limit adapts to the
+ * measured barrier round-trip time: it grows while round trips stay close to
+ * the fastest one seen, and is halved when they become much slower, which
+ * indicates that the switch is falling behind.
+ * </p>
+ */
+final class FlowModWindow {
+
+    // Round trips up to this multiple of the fastest one let the window grow
+    private static final int GROW_THRESHOLD = 2;
+    // Round trips beyond this multiple of the fastest one shrink the window
+    private static final int SHRINK_THRESHOLD = 4;
+
+    /**
+     * Sends flow rule batches and barriers to the switch.
+     */
+    interface Sender {
+        /**
+         * Sends the flow-mods of the given batch.
+         *
+         * @param batch flow rule batch
+         * @return true if the batch was sent; false if it could not be sent,
+         * in which case it is dropped from the window
+         */
+        boolean send(FlowRuleBatchOperation batch);
+
+        /**
+         * Sends a barrier request with the given transaction id.
+         *
+         * @param xid transaction id
+         */
+        void sendBarrier(long xid);
+    }
+
+    private final Sender sender;
+    private final Histogram rtt;
+    private final Meter installRate;
+    private final LongSupplier clock;
+
+    private final Deque<FlowRuleBatchOperation> queued = new ArrayDeque<>();
+    // Outstanding barriers by transaction id, oldest first
+    private final Map<Long, Barrier> outstanding = new LinkedHashMap<>();
+
+    private int maxWindow;
+    private int mergeLimit;
+    private int window;
+    private long minRtt = Long.MAX_VALUE;
+
+    /**
+     * Creates a send window.
+     *
+     * @param initialWindow initial number of outstanding barriers allowed
+     * @param maxWindow     maximum number of outstanding barriers allowed
+     * @param mergeLimit    number of flow-mods beyond which no more batches
+     *                      are merged under the same barrier
+     * @param sender        sender of batches and barriers
+     * @param rtt           histogram of barrier round-trip times, in microseconds
+     * @param installRate   meter of acknowledged flow-mods
+     * @param clock         source of nanosecond timestamps
+     */
+    FlowModWindow(int initialWindow, int maxWindow, int mergeLimit, Sender sender,
+                  Histogram rtt, Meter installRate, LongSupplier clock) {
+        configure(maxWindow, mergeLimit);
+        this.window = Math.max(1, Math.min(initialWindow, maxWindow));
+        this.sender = sender;
+        this.rtt = rtt;
+        this.installRate = installRate;
+        this.clock = clock;
+    }
+
+    /**
+     * Changes the limits of the window.
+     *
+     * @param maxWindow  maximum number of outstanding barriers allowed
+     * @param mergeLimit number of flow-mods beyond which no more batches
+     *                   are merged under the same barrier
+     */
+    synchronized void configure(int maxWindow, int mergeLimit) {
+        checkArgument(maxWindow > 0, "Maximum window must be positive");
+        checkArgument(mergeLimit > 0, "Merge limit must be positive");
+        this.maxWindow = maxWindow;
+        this.mergeLimit = mergeLimit;
+        this.window = Math.min(window, maxWindow);
+    }
+
+    /**
+     * Submits a batch to be sent once the window allows.
+     *
+     * @param batch flow rule batch
+     */
+    synchronized void submit(FlowRuleBatchOperation batch) {
+        queued.add(batch);
+        sendQueued();
+    }
+
+    /**
+     * Handles a barrier reply, sending any batches the window now allows.
+     *
+     * @param xid transaction id of the barrier reply
+     * @return identifiers of the batches acknowledged by the barrier; empty
+     * if the barrier is not outstanding in this window
+     */
+    synchronized List<Long> barrierReplied(long xid) {
+        Barrier barrier = outstanding.remove(xid);
+        if (barrier == null) {
+            return ImmutableList.of();
+        }
+
+        long sample = clock.getAsLong() - barrier.sent;
+        rtt.update(TimeUnit.NANOSECONDS.toMicros(sample));
+        installRate.mark(barrier.flowMods);
+        minRtt = Math.min(minRtt, sample);
+        if (sample <= GROW_THRESHOLD * minRtt) {
+            window = Math.min(maxWindow, window + 1);
+        } else if (sample > SHRINK_THRESHOLD * minRtt) {
+            window = Math.max(1, window / 2);
+        }
+
+        sendQueued();
+        return barrier.batches;
+    }
+
+    /**
+     * Forgets a batch which is no longer awaited, either by dropping it from
+     * the queue or by no longer waiting for its barrier.
+     *
+     * @param batchId batch identifier
+     */
+    synchronized void expired(long batchId) {
+        if (!queued.removeIf(batch -> batch.id() == batchId)) {
+            Iterator<Barrier> it = outstanding.values().iterator();
+            while (it.hasNext()) {
+                Barrier barrier = it.next();
+                if (barrier.batches.remove(batchId) && barrier.batches.isEmpty()) {
+                    it.remove();
+                    break;
+                }
+            }
+        }
+        sendQueued();
+    }
+
+    /**
+     * Empties the window, returning the batches which were never sent.
+     *
+     * @return unsent batches
+     */
+    synchronized List<FlowRuleBatchOperation> clear() {
+        List<FlowRuleBatchOperation> unsent = ImmutableList.copyOf(queued);
+        queued.clear();
+        outstanding.clear();
+        return unsent;
+    }
+
+    /**
+     * Returns the number of outstanding barriers currently allowed.
+     *
+     * @return window size
+     */
+    synchronized int window() {
+        return window;
+    }
+
+    /**
+     * Returns the number of barriers currently outstanding.
+     *
+     * @return outstanding barrier count
+     */
+    synchronized int outstanding() {
+        return outstanding.size();
+    }
+
+    // Sends queued batches, merging consecutive ones, while the window allows.
+    // Batches that cannot be sent take no part in the barrier.
+    private void sendQueued() {
+        while (!queued.isEmpty() && outstanding.size() < window) {
+            List<Long> batches = Lists.newArrayList();
+            int flowMods = 0;
+            long xid = 0;
+            do {
+                FlowRuleBatchOperation batch = queued.poll();
+                if (sender.send(batch)) {
+                    batches.add(batch.id());
+                    flowMods += batch.size();
+                    xid = batch.id();
+                }
+            } while (!queued.isEmpty() && flowMods + queued.peek().size() <= mergeLimit);
+
+            if (!batches.isEmpty()) {
+                outstanding.put(xid, new Barrier(batches, flowMods, clock.getAsLong()));
+                sender.sendBarrier(xid);
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return toStringHelper(this)
+                .add("window", window)
+                .add("outstanding", outstanding.size())
+                .add("queued", queued.size())
+                .toString();
+    }
+
+    // Barrier awaited for a group of merged batches.
+    private static final class Barrier {
+        private final List<Long> batches;
+        private final int flowMods;
+        private final long sent;
+
+        private Barrier(List<Long> batches, int flowMods, long sent) {
+            this.batches = batches;
+            this.flowMods = flowMods;
+            this.sent = sent;
+        }
+    }
+}
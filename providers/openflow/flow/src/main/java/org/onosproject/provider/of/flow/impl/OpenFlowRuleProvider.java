@@ -19,6 +19,7 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalCause;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -31,6 +32,9 @@ import org.apache.felix.scr.annotations.Modified;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.DeviceId;
@@ -59,7 +63,6 @@ import org.onosproject.openflow.controller.ThirdPartyMessage;
 import org.onosproject.provider.of.flow.util.FlowEntryBuilder;
 import org.osgi.service.component.ComponentContext;
 import org.projectfloodlight.openflow.protocol.OFBadRequestCode;
-import org.projectfloodlight.openflow.protocol.OFBarrierRequest;
 import org.projectfloodlight.openflow.protocol.OFErrorMsg;
 import org.projectfloodlight.openflow.protocol.OFErrorType;
 import org.projectfloodlight.openflow.protocol.OFFlowMod;
@@ -113,6 +116,9 @@ public class OpenFlowRuleProvider extends AbstractProvider
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DriverService driverService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private static final int DEFAULT_POLL_FREQUENCY = 5;
     @Property(name = "flowPollFrequency", intValue = DEFAULT_POLL_FREQUENCY,
             label = "Frequency (in seconds) for polling flow statistics")
@@ -123,6 +129,20 @@ public class OpenFlowRuleProvider extends AbstractProvider
             label = "Adaptive Flow Sampling is on or off")
     private boolean adaptiveFlowSampling = DEFAULT_ADAPTIVE_FLOW_SAMPLING;
 
+    private static final int DEFAULT_FLOW_MOD_WINDOW = 8;
+    @Property(name = "flowModWindow", intValue = DEFAULT_FLOW_MOD_WINDOW,
+            label = "Maximum number of outstanding barriers per switch")
+    private int flowModWindow = DEFAULT_FLOW_MOD_WINDOW;
+
+    private static final int DEFAULT_FLOW_MOD_MERGE_LIMIT = 1000;
+    @Property(name = "flowModMergeLimit", intValue = DEFAULT_FLOW_MOD_MERGE_LIMIT,
+            label = "Number of flow-mods beyond which batches are no longer " +
+                    "merged under the same barrier")
+    private int flowModMergeLimit = DEFAULT_FLOW_MOD_MERGE_LIMIT;
+
+    private static final String METRICS_COMPONENT = "OpenFlowRuleProvider";
+    private static final String METRICS_FEATURE = "flowMods";
+
     private FlowRuleProviderService providerService;
 
     private final InternalFlowProvider listener = new InternalFlowProvider();
@@ -136,6 +156,10 @@ public class OpenFlowRuleProvider extends AbstractProvider
     private final Map<Dpid, NewAdaptiveFlowStatsCollector> afsCollectors = Maps.newConcurrentMap();
     private final Map<Dpid, TableStatisticsCollector> tableStatsCollectors = Maps.newConcurrentMap();
 
+    private final Map<Dpid, FlowModWindow> windows = Maps.newConcurrentMap();
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+
     /**
      * Creates an OpenFlow host provider.
      */
@@ -150,6 +174,9 @@ public class OpenFlowRuleProvider extends AbstractProvider
         controller.addListener(listener);
         controller.addEventListener(listener);
 
+        metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+        metricsFeature = metricsComponent.registerFeature(METRICS_FEATURE);
+
         modified(context);
 
         pendingBatches = createBatchCache();
@@ -164,6 +191,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
     protected void deactivate(ComponentContext context) {
         cfgService.unregisterProperties(getClass(), false);
         stopCollectors();
+        windows.clear();
         providerRegistry.unregister(this);
         providerService = null;
 
@@ -202,6 +230,23 @@ public class OpenFlowRuleProvider extends AbstractProvider
         }
 
         log.info("Settings: adaptiveFlowSampling={}", adaptiveFlowSampling);
+
+        flowModWindow = getPositiveProperty(properties, "flowModWindow", flowModWindow);
+        flowModMergeLimit = getPositiveProperty(properties, "flowModMergeLimit", flowModMergeLimit);
+        windows.values().forEach(w -> w.configure(flowModWindow, flowModMergeLimit));
+
+        log.info("Settings: flowModWindow={}, flowModMergeLimit={}",
+                 flowModWindow, flowModMergeLimit);
+    }
+
+    private int getPositiveProperty(Dictionary<?, ?> properties, String name, int current) {
+        try {
+            String s = get(properties, name);
+            int value = isNullOrEmpty(s) ? current : Integer.parseInt(s.trim());
+            return value > 0 ? value : current;
+        } catch (NumberFormatException | ClassCastException e) {
+            return current;
+        }
     }
 
     private Cache<Long, InternalCacheEntry> createBatchCache() {
@@ -211,6 +256,11 @@ public class OpenFlowRuleProvider extends AbstractProvider
                     if (notification.getCause() == RemovalCause.EXPIRED) {
                         providerService.batchOperationCompleted(notification.getKey(),
                                                                 notification.getValue().failedCompletion());
+                        // Free the slot the batch may hold in the send window
+                        FlowModWindow window = windows.get(notification.getValue().dpid());
+                        if (window != null) {
+                            window.expired(notification.getKey());
+                        }
                     }
                 }).build();
     }
@@ -353,7 +403,43 @@ public class OpenFlowRuleProvider extends AbstractProvider
                                                     new CompletedBatchOperation(false, failures, batch.deviceId()));
             return;
         }
-        pendingBatches.put(batch.id(), new InternalCacheEntry(batch));
+        windows.computeIfAbsent(dpid, this::createWindow).submit(batch);
+    }
+
+    private FlowModWindow createWindow(Dpid dpid) {
+        FlowModWindow.Sender sender = new FlowModWindow.Sender() {
+            @Override
+            public boolean send(FlowRuleBatchOperation batch) {
+                return sendBatch(dpid, batch);
+            }
+
+            @Override
+            public void sendBarrier(long xid) {
+                OpenFlowSwitch sw = controller.getSwitch(dpid);
+                if (sw != null) {
+                    sw.sendMsg(sw.factory().buildBarrierRequest().setXid(xid).build());
+                }
+            }
+        };
+        return new FlowModWindow(Math.max(1, flowModWindow / 2), flowModWindow, flowModMergeLimit, sender,
+                                 metricsService.createHistogram(metricsComponent, metricsFeature,
+                                                                dpid + ".barrierRtt"),
+                                 metricsService.createMeter(metricsComponent, metricsFeature,
+                                                            dpid + ".installRate"),
+                                 System::nanoTime);
+    }
+
+    // Sends the flow-mods of the batch; the barrier is sent by the window.
+    // The batch starts to time out only now, not while it waits in the window.
+    private boolean sendBatch(Dpid dpid, FlowRuleBatchOperation batch) {
+        InternalCacheEntry entry = new InternalCacheEntry(batch);
+        OpenFlowSwitch sw = controller.getSwitch(dpid);
+        if (sw == null) {
+            // Fail the batch right away rather than holding a slot in the window
+            providerService.batchOperationCompleted(batch.id(), entry.failedCompletion());
+            return false;
+        }
+        pendingBatches.put(batch.id(), entry);
         OFFlowMod mod;
         for (FlowRuleBatchEntry fbe : batch.getOperations()) {
             // flow is the third party privacy flow
@@ -398,9 +484,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
             }
             sw.sendMsg(mod);
         }
-        OFBarrierRequest.Builder builder = sw.factory().buildBarrierRequest()
-                .setXid(batch.id());
-        sw.sendMsg(builder.build());
+        return true;
     }
 
     private boolean hasPayload(FlowRuleExtPayLoad flowRuleExtPayLoad) {
@@ -425,6 +509,16 @@ public class OpenFlowRuleProvider extends AbstractProvider
                 stopCollectorIfNeeded(simpleCollectors.remove(dpid));
             }
             stopCollectorIfNeeded(tableStatsCollectors.remove(dpid));
+
+            FlowModWindow window = windows.remove(dpid);
+            if (window != null && providerService != null) {
+                // Batches which were never sent can be failed right away;
+                // those awaiting a barrier will fail once they expire.
+                for (FlowRuleBatchOperation batch : window.clear()) {
+                    providerService.batchOperationCompleted(batch.id(),
+                                                            new InternalCacheEntry(batch).failedCompletion());
+                }
+            }
         }
 
         @Override
@@ -466,18 +560,26 @@ public class OpenFlowRuleProvider extends AbstractProvider
                     }
                     break;
                 case BARRIER_REPLY:
-                    try {
-                        InternalCacheEntry entry = pendingBatches.getIfPresent(msg.getXid());
-                        if (entry != null) {
-                            providerService
-                                    .batchOperationCompleted(msg.getXid(),
-                                                             entry.completed());
-                        } else {
-                            log.warn("Received unknown Barrier Reply: {}",
-                                     msg.getXid());
+                    // The barrier acknowledges every batch merged under it
+                    FlowModWindow window = windows.get(dpid);
+                    List<Long> batchIds = window == null ? null : window.barrierReplied(msg.getXid());
+                    if (batchIds == null || batchIds.isEmpty()) {
+                        batchIds = ImmutableList.of(msg.getXid());
+                    }
+                    for (long batchId : batchIds) {
+                        try {
+                            InternalCacheEntry entry = pendingBatches.getIfPresent(batchId);
+                            if (entry != null) {
+                                providerService
+                                        .batchOperationCompleted(batchId,
+                                                                 entry.completed());
+                            } else {
+                                log.warn("Received unknown Barrier Reply: {}",
+                                         batchId);
+                            }
+                        } finally {
+                            pendingBatches.invalidate(batchId);
                         }
-                    } finally {
-                        pendingBatches.invalidate(msg.getXid());
                     }
                     break;
                 case ERROR:
@@ -605,6 +707,15 @@ public class OpenFlowRuleProvider extends AbstractProvider
             this.operation = operation;
         }
 
+        /**
+         * Returns the identifier of the switch the batch is sent to.
+         *
+         * @return switch identifier
+         */
+        public Dpid dpid() {
+            return Dpid.dpid(operation.deviceId().uri());
+        }
+
         /**
          * Appends a failed rule to the set of failed items.
          *
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.impl;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.UniformReservoir;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleBatchEntry;
+import org.onosproject.net.flow.FlowRuleBatchOperation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.onosproject.net.flow.FlowRuleBatchEntry.FlowRuleOperation.ADD;
+
+/**
+ * Unit tests for the flow-mod send window.
+ */
+public class FlowModWindowTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("of:0000000000000001");
+    private static final FlowRule RULE = DefaultFlowRule.builder()
+            .forDevice(DID)
+            .withSelector(DefaultTrafficSelector.emptySelector())
+            .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+            .withPriority(1)
+            .fromApp(new DefaultApplicationId(1, "test"))
+            .makePermanent()
+            .build();
+
+    private final List<String> sent = new ArrayList<>();
+    private final Set<Long> unsendable = new HashSet<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final Histogram rtt = new Histogram(new UniformReservoir());
+    private final Meter installRate = new Meter();
+
+    private final FlowModWindow.Sender sender = new FlowModWindow.Sender() {
+        @Override
+        public boolean send(FlowRuleBatchOperation batch) {
+            if (unsendable.contains(batch.id())) {
+                return false;
+            }
+            sent.add("batch " + batch.id());
+            return true;
+        }
+
+        @Override
+        public void sendBarrier(long xid) {
+            sent.add("barrier " + xid);
+        }
+    };
+
+    private FlowModWindow window(int initialWindow, int maxWindow, int mergeLimit) {
+        return new FlowModWindow(initialWindow, maxWindow, mergeLimit, sender,
+                                 rtt, installRate, clock::get);
+    }
+
+    private static FlowRuleBatchOperation batch(long id, int size) {
+        List<FlowRuleBatchEntry> entries = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            entries.add(new FlowRuleBatchEntry(ADD, RULE));
+        }
+        return new FlowRuleBatchOperation(entries, DID, id);
+    }
+
+    private void elapse(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Tests that batches queued behind a full window are merged under a
+     * single barrier once the window opens.
+     */
+    @Test
+    public void merge() {
+        FlowModWindow window = window(1, 1, 10);
+        window.submit(batch(1, 2));
+        window.submit(batch(2, 3));
+        window.submit(batch(3, 4));
+        window.submit(batch(4, 5));
+        assertThat(sent, is(ImmutableList.of("batch 1", "barrier 1")));
+        assertThat(window.outstanding(), is(1));
+
+        sent.clear();
+        assertThat(window.barrierReplied(1), is(ImmutableList.of(1L)));
+        // Batches 2 and 3 fit within the merge limit, batch 4 does not
+        assertThat(sent, is(ImmutableList.of("batch 2", "batch 3", "barrier 3")));
+
+        sent.clear();
+        assertThat(window.barrierReplied(3), is(ImmutableList.of(2L, 3L)));
+        assertThat(sent, is(ImmutableList.of("batch 4", "barrier 4")));
+        assertThat(window.barrierReplied(4), is(ImmutableList.of(4L)));
+        assertThat(installRate.getCount(), is(14L));
+    }
+
+    /**
+     * Tests that the number of outstanding barriers is capped.
+     */
+    @Test
+    public void cap() {
+        FlowModWindow window = window(2, 2, 1);
+        window.submit(batch(1, 1));
+        window.submit(batch(2, 1));
+        window.submit(batch(3, 1));
+        assertThat(sent, is(ImmutableList.of("batch 1", "barrier 1", "batch 2", "barrier 2")));
+        assertThat(window.outstanding(), is(2));
+        assertThat(window.barrierReplied(42), is(ImmutableList.of()));
+        assertThat(window.outstanding(), is(2));
+    }
+
+    /**
+     * Tests that the window grows with fast round trips and shrinks with
+     * slow ones.
+     */
+    @Test
+    public void adapt() {
+        FlowModWindow window = window(2, 4, 1);
+        for (long id = 1; id <= 4; id++) {
+            window.submit(batch(id, 1));
+            elapse(10);
+            window.barrierReplied(id);
+        }
+        assertThat(window.window(), is(4));
+
+        window.submit(batch(5, 1));
+        elapse(100);
+        window.barrierReplied(5);
+        assertThat(window.window(), is(2));
+        assertThat(rtt.getCount(), is(5L));
+        assertThat(rtt.getSnapshot().getMax(), is(100_000L));
+    }
+
+    /**
+     * Tests that expired batches free their slot in the window.
+     */
+    @Test
+    public void expired() {
+        FlowModWindow window = window(1, 1, 1);
+        window.submit(batch(1, 1));
+        window.submit(batch(2, 1));
+        window.submit(batch(3, 1));
+
+        sent.clear();
+        window.expired(2);
+        assertThat(sent, is(ImmutableList.of()));
+        window.expired(1);
+        assertThat(sent, is(ImmutableList.of("batch 3", "barrier 3")));
+        assertThat(window.barrierReplied(1), is(ImmutableList.of()));
+        assertThat(window.clear(), is(ImmutableList.of()));
+    }
+
+    /**
+     * Tests that batches which cannot be sent hold no slot in the window.
+     */
+    @Test
+    public void unsent() {
+        FlowModWindow window = window(1, 1, 10);
+        unsendable.add(1L);
+        window.submit(batch(1, 1));
+        assertThat(sent, is(ImmutableList.of()));
+        assertThat(window.outstanding(), is(0));
+
+        window.submit(batch(2, 1));
+        assertThat(sent, is(ImmutableList.of("batch 2", "barrier 2")));
+        assertThat(window.barrierReplied(2), is(ImmutableList.of(2L)));
+    }
+}
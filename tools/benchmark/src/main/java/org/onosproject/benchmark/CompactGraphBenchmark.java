@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import com.google.common.collect.ImmutableSet;
+import org.onlab.graph.AdjacencyListsGraph;
+import org.onlab.graph.CompactGraph;
+import org.onlab.graph.DijkstraGraphSearch;
+import org.onlab.graph.Graph;
+import org.onlab.graph.GraphPathSearch;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.topology.DefaultTopologyEdge;
+import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyVertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dijkstra searches from every vertex of adjacency-lists and compact graphs
+ * shaped like the grid and spine-leaf topologies of the null providers. Only
+ * one path is built per search so that the timings are not dominated by
+ * enumerating the many equal-cost paths of a grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactGraphBenchmark {
+
+    private static final int GRID_SIDE = 16;
+    private static final int SPINES = 4;
+    private static final int LEAVES = 32;
+
+    @Param({"grid", "spine-leaf"})
+    private String layout;
+
+    private Graph<TopologyVertex, TopologyEdge> graph;
+    private Graph<TopologyVertex, TopologyEdge> compactGraph;
+
+    private final GraphPathSearch<TopologyVertex, TopologyEdge> dijkstra = new DijkstraGraphSearch<>();
+
+    /**
+     * Builds the graph in both representations.
+     */
+    @Setup
+    public void setUp() {
+        List<Link> links = layout.equals("grid") ? Topologies.gridLinks(GRID_SIDE)
+                : Topologies.spineLeafLinks(SPINES, LEAVES);
+        Map<DeviceId, TopologyVertex> vertexes = new HashMap<>();
+        ImmutableSet.Builder<TopologyEdge> edges = ImmutableSet.builder();
+        for (Link link : links) {
+            TopologyVertex src = vertexes.computeIfAbsent(link.src().deviceId(), DefaultTopologyVertex::new);
+            TopologyVertex dst = vertexes.computeIfAbsent(link.dst().deviceId(), DefaultTopologyVertex::new);
+            edges.add(new DefaultTopologyEdge(src, dst, link));
+        }
+        graph = new AdjacencyListsGraph<>(ImmutableSet.copyOf(vertexes.values()), edges.build());
+        compactGraph = CompactGraph.copyOf(graph);
+    }
+
+    @Benchmark
+    public void searchAllAdjacencyLists(Blackhole blackhole) {
+        searchAll(graph, blackhole);
+    }
+
+    @Benchmark
+    public void searchAllCompact(Blackhole blackhole) {
+        searchAll(compactGraph, blackhole);
+    }
+
+    private void searchAll(Graph<TopologyVertex, TopologyEdge> graph, Blackhole blackhole) {
+        for (TopologyVertex src : graph.getVertexes()) {
+            blackhole.consume(dijkstra.search(graph, src, null, null, 1));
+        }
+    }
+}
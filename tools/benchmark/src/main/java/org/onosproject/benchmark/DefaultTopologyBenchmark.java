@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import org.onosproject.common.DefaultTopology;
+import org.onosproject.event.Event;
+import org.onosproject.net.Device;
+import org.onosproject.net.Link;
+import org.onosproject.net.link.LinkEvent;
+import org.onosproject.net.topology.DefaultGraphDescription;
+import org.onosproject.net.topology.GraphDescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of topologies from generated grid graph descriptions,
+ * including the search for their clusters, as done by the topology store
+ * for every topology change. The grid layout forms a single cluster, while
+ * the rows layout forms one cluster per row of the grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultTopologyBenchmark {
+
+    @Param({"8", "16", "32"})
+    private int side;
+
+    @Param({"grid", "rows"})
+    private String layout;
+
+    private GraphDescription description;
+    private GraphDescription changed;
+    private List<Event> reasons;
+    private DefaultTopology previous;
+
+    /**
+     * Builds the graph descriptions, the second one lacking the link of the
+     * last row that was generated last.
+     */
+    @Setup
+    public void setUp() {
+        List<Device> devices = Topologies.gridDevices(side);
+        List<Link> links = layout.equals("rows") ? Topologies.rowLinks(side) : Topologies.gridLinks(side);
+        description = new DefaultGraphDescription(System.nanoTime(), System.currentTimeMillis(),
+                                                  devices, links);
+        previous = new DefaultTopology(Topologies.PID, description, cp -> true);
+        previous.clusterCount();
+
+        Link removed = links.remove(links.size() - 1);
+        reasons = ImmutableList.of(new LinkEvent(LinkEvent.Type.LINK_REMOVED, removed));
+        changed = new DefaultGraphDescription(System.nanoTime(), System.currentTimeMillis(),
+                                              devices, links);
+    }
+
+    @Benchmark
+    public int construct() {
+        DefaultTopology topology = new DefaultTopology(Topologies.PID, description, cp -> true);
+        // Clusters are computed lazily
+        return topology.clusterCount();
+    }
+
+    @Benchmark
+    public int constructIncrementally() {
+        DefaultTopology topology = new DefaultTopology(Topologies.PID, changed, cp -> true, previous, reasons);
+        return topology.clusterCount();
+    }
+}
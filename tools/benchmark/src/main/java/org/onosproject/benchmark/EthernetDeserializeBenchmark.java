@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import org.onlab.packet.ARP;
+import org.onlab.packet.ChassisId;
+import org.onlab.packet.Data;
+import org.onlab.packet.Deserializer;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.ONOSLLDP;
+import org.onlab.packet.TCP;
+import org.onlab.packet.UDP;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the frames most commonly received in packet-ins.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EthernetDeserializeBenchmark {
+
+    private static final MacAddress SRC_MAC = MacAddress.valueOf("00:00:00:00:00:01");
+    private static final MacAddress DST_MAC = MacAddress.valueOf("00:00:00:00:00:02");
+
+    private final Deserializer<Ethernet> deserializer = Ethernet.deserializer();
+
+    private byte[] tcp;
+    private byte[] udp;
+    private byte[] arp;
+    private byte[] lldp;
+
+    /**
+     * Builds the frames to parse.
+     */
+    @Setup
+    public void setUp() {
+        TCP tcpSegment = new TCP().setSourcePort(40000).setDestinationPort(80);
+        tcpSegment.setPayload(new Data(new byte[64]));
+        tcp = ethernet(Ethernet.TYPE_IPV4, ipv4(IPv4.PROTOCOL_TCP, tcpSegment)).serialize();
+
+        UDP udpDatagram = new UDP().setSourcePort(40000).setDestinationPort(53);
+        udpDatagram.setPayload(new Data(new byte[64]));
+        udp = ethernet(Ethernet.TYPE_IPV4, ipv4(IPv4.PROTOCOL_UDP, udpDatagram)).serialize();
+
+        ARP arpRequest = new ARP()
+                .setHardwareType(ARP.HW_TYPE_ETHERNET)
+                .setProtocolType(ARP.PROTO_TYPE_IP)
+                .setHardwareAddressLength((byte) Ethernet.DATALAYER_ADDRESS_LENGTH)
+                .setProtocolAddressLength((byte) 4)
+                .setOpCode(ARP.OP_REQUEST)
+                .setSenderHardwareAddress(SRC_MAC.toBytes())
+                .setSenderProtocolAddress(0x0a000001)
+                .setTargetHardwareAddress(MacAddress.ZERO.toBytes())
+                .setTargetProtocolAddress(0x0a000002);
+        arp = ethernet(Ethernet.TYPE_ARP, arpRequest).serialize();
+
+        ONOSLLDP probe = ONOSLLDP.onosLLDP(Topologies.deviceId(0).toString(), new ChassisId(1), 1);
+        lldp = ethernet(Ethernet.TYPE_LLDP, probe).serialize();
+    }
+
+    private static IPv4 ipv4(byte protocol, IPacket payload) {
+        IPv4 packet = new IPv4()
+                .setSourceAddress("10.0.0.1")
+                .setDestinationAddress("10.0.0.2")
+                .setProtocol(protocol)
+                .setTtl((byte) 64);
+        packet.setPayload(payload);
+        return packet;
+    }
+
+    private static Ethernet ethernet(short type, IPacket payload) {
+        Ethernet frame = new Ethernet()
+                .setSourceMACAddress(SRC_MAC)
+                .setDestinationMACAddress(DST_MAC)
+                .setEtherType(type);
+        frame.setPayload(payload);
+        return frame;
+    }
+
+    @Benchmark
+    public Ethernet tcp() throws Exception {
+        return deserializer.deserialize(tcp, 0, tcp.length);
+    }
+
+    @Benchmark
+    public Ethernet udp() throws Exception {
+        return deserializer.deserialize(udp, 0, udp.length);
+    }
+
+    @Benchmark
+    public Ethernet arp() throws Exception {
+        return deserializer.deserialize(arp, 0, arp.length);
+    }
+
+    @Benchmark
+    public Ethernet lldp() throws Exception {
+        return deserializer.deserialize(lldp, 0, lldp.length);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+import org.onosproject.store.primitives.impl.EventuallyConsistentMapBuilderImpl;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.EventuallyConsistentMap;
+import org.onosproject.store.service.WallClockTimestamp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local operations of an eventually consistent map on a single node
+ * cluster, so that only the cost of the map itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventuallyConsistentMapBenchmark {
+
+    @Param({"10000"})
+    private int size;
+
+    private EventuallyConsistentMap<String, String> map;
+    private String[] keys;
+    private int next;
+
+    /**
+     * Creates and fills the map.
+     */
+    @Setup
+    public void setUp() {
+        map = new EventuallyConsistentMapBuilderImpl<String, String>(
+                new ClusterServiceAdapter(), new ClusterCommunicationServiceAdapter(), null)
+                .withName("benchmark")
+                .withSerializer(KryoNamespaces.API)
+                .withTimestampProvider((k, v) -> new WallClockTimestamp())
+                .build();
+        keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "key" + i;
+            map.put(keys[i], "value" + i);
+        }
+    }
+
+    /**
+     * Destroys the map.
+     */
+    @TearDown
+    public void tearDown() {
+        map.destroy();
+    }
+
+    private String nextKey() {
+        next = (next + 1) % size;
+        return keys[next];
+    }
+
+    @Benchmark
+    public String get() {
+        return map.get(nextKey());
+    }
+
+    @Benchmark
+    public boolean containsKey() {
+        return map.containsKey(nextKey());
+    }
+
+    @Benchmark
+    public void put() {
+        map.put(nextKey(), "value");
+    }
+
+    @Benchmark
+    public String removeAndPut() {
+        String key = nextKey();
+        String value = map.remove(key);
+        map.put(key, "value");
+        return value;
+    }
+}
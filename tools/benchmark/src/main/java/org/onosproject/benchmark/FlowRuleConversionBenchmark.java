@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.onlab.packet.Ip4Prefix;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.VlanId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.driver.DefaultDriver;
+import org.onosproject.net.driver.Driver;
+import org.onosproject.net.driver.DriverService;
+import org.onosproject.net.driver.DriverServiceAdapter;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.provider.of.flow.impl.FlowModBuilder;
+import org.onosproject.provider.of.flow.util.FlowEntryBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowAdd;
+import org.projectfloodlight.openflow.protocol.OFFlowMod;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.types.TableId;
+import org.projectfloodlight.openflow.types.U64;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Conversion between flow rules and OpenFlow 1.3 messages, as done by the
+ * OpenFlow flow rule provider for every flow installed and every flow
+ * statistics entry received.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowRuleConversionBenchmark {
+
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+    private final DriverService driverService = new TestDriverService();
+
+    private DeviceId deviceId;
+    private FlowRule rule;
+    private OFFlowMod flowMod;
+    private OFFlowStatsEntry statsEntry;
+
+    /**
+     * Builds the flow rule and the OpenFlow messages to convert.
+     */
+    @Setup
+    public void setUp() {
+        deviceId = Topologies.deviceId(0);
+        rule = DefaultFlowRule.builder()
+                .forDevice(deviceId)
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchInPort(portNumber(1))
+                                      .matchVlanId(VlanId.vlanId((short) 100))
+                                      .matchEthType((short) 0x0800)
+                                      .matchEthSrc(MacAddress.valueOf("00:00:00:00:00:01"))
+                                      .matchEthDst(MacAddress.valueOf("00:00:00:00:00:02"))
+                                      .matchIPProtocol((byte) 6)
+                                      .matchIPSrc(Ip4Prefix.valueOf("10.0.0.1/32"))
+                                      .matchIPDst(Ip4Prefix.valueOf("10.0.1.0/24"))
+                                      .matchTcpDst(TpPort.tpPort(80))
+                                      .build())
+                .withTreatment(DefaultTrafficTreatment.builder()
+                                       .popVlan()
+                                       .setEthDst(MacAddress.valueOf("00:00:00:00:00:03"))
+                                       .setOutput(portNumber(2))
+                                       .build())
+                .withPriority(40000)
+                .fromApp(new DefaultApplicationId(1, "bench"))
+                .makePermanent()
+                .build();
+
+        flowMod = buildFlowAdd();
+        statsEntry = factory.buildFlowStatsEntry()
+                .setTableId(TableId.of(0))
+                .setDurationSec(10)
+                .setPriority(flowMod.getPriority())
+                .setIdleTimeout(flowMod.getIdleTimeout())
+                .setCookie(flowMod.getCookie())
+                .setPacketCount(U64.of(1000))
+                .setByteCount(U64.of(100000))
+                .setMatch(flowMod.getMatch())
+                .setInstructions(flowMod.getInstructions())
+                .build();
+    }
+
+    @Benchmark
+    public OFFlowAdd buildFlowAdd() {
+        return (OFFlowAdd) FlowModBuilder.builder(rule, factory, Optional.of(1L), Optional.empty())
+                .buildFlowAdd();
+    }
+
+    @Benchmark
+    public FlowEntry buildFlowEntryFromStats() {
+        return new FlowEntryBuilder(deviceId, statsEntry, driverService).build();
+    }
+
+    @Benchmark
+    public FlowEntry buildFlowEntryFromFlowMod() {
+        return new FlowEntryBuilder(deviceId, flowMod, driverService).build();
+    }
+
+    // Driver service providing a driver without extension interpreters
+    private static final class TestDriverService extends DriverServiceAdapter {
+        private final Driver driver = new DefaultDriver("default", ImmutableList.of(), "bench",
+                                                        "1.0", "1.0", ImmutableMap.of(),
+                                                        ImmutableMap.of());
+
+        @Override
+        public Driver getDriver(DeviceId deviceId) {
+            return driver;
+        }
+    }
+}
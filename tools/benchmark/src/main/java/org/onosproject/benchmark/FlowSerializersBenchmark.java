@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import org.onlab.packet.EthType;
+import org.onlab.packet.IpPrefix;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TpPort;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.criteria.EthCriterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.PortCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
+import org.onosproject.net.flow.criteria.VlanIdCriterion;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Round trips of flow entries through the hand-written serializers of
+ * {@link KryoNamespaces#API}, compared with the reflective field serializers
+ * previously used for the same types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowSerializersBenchmark {
+
+    private static final int ENTRY_COUNT = 1_000;
+
+    private static final Class<?>[] FLOW_TYPES = {
+            DefaultFlowEntry.class,
+            DefaultFlowRule.class,
+            DefaultTrafficSelector.class,
+            PortCriterion.class,
+            EthCriterion.class,
+            EthTypeCriterion.class,
+            VlanIdCriterion.class,
+            IPProtocolCriterion.class,
+            IPCriterion.class,
+            TcpPortCriterion.class,
+            UdpPortCriterion.class,
+    };
+
+    @Param({"hand-written", "reflective"})
+    private String serializers;
+
+    private KryoNamespace namespace;
+    private DefaultFlowEntry[] entries;
+    private int next;
+
+    /**
+     * Creates the flow entries and the namespace to encode them with.
+     */
+    @Setup
+    public void setUp() {
+        entries = new DefaultFlowEntry[ENTRY_COUNT];
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            FlowRule rule = DefaultFlowRule.builder()
+                    .forDevice(Topologies.deviceId(i % 64))
+                    .withSelector(DefaultTrafficSelector.builder()
+                                          .matchInPort(portNumber(i % 48 + 1))
+                                          .matchEthType(EthType.EtherType.IPV4.ethType().toShort())
+                                          .matchEthDst(MacAddress.valueOf(i))
+                                          .matchIPProtocol((byte) 6)
+                                          .matchIPDst(IpPrefix.valueOf(0x0a000000 + i, 32))
+                                          .matchTcpDst(TpPort.tpPort(i % 65536))
+                                          .build())
+                    .withTreatment(DefaultTrafficTreatment.builder()
+                                           .setOutput(portNumber(i % 48 + 1))
+                                           .build())
+                    .withPriority(40000)
+                    .fromApp(new DefaultApplicationId(1, "bench"))
+                    .makePermanent()
+                    .build();
+            entries[i] = new DefaultFlowEntry(rule, FlowEntryState.ADDED, i, i * 10L, i * 1000L);
+        }
+
+        if (serializers.equals("reflective")) {
+            // API with the flow store types registered again with field serializers
+            KryoNamespace.Builder builder = KryoNamespace.newBuilder()
+                    .register(KryoNamespaces.API)
+                    .nextId(KryoNamespaces.BEGIN_USER_CUSTOM_ID);
+            for (Class<?> type : FLOW_TYPES) {
+                builder.register(new ReflectiveSerializer(type), type);
+            }
+            namespace = builder.build("reflective");
+        } else {
+            namespace = KryoNamespaces.API;
+        }
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        next = (next + 1) % ENTRY_COUNT;
+        return namespace.deserialize(namespace.serialize(entries[next]));
+    }
+
+    // Field serializer of a type, created for the Kryo instance in use; the
+    // benchmark is single threaded.
+    private static final class ReflectiveSerializer extends Serializer<Object> {
+        private final Class<?> type;
+        private Kryo kryo;
+        private FieldSerializer<Object> delegate;
+
+        private ReflectiveSerializer(Class<?> type) {
+            this.type = type;
+        }
+
+        @SuppressWarnings("unchecked")
+        private FieldSerializer<Object> delegate(Kryo kryo) {
+            if (kryo != this.kryo) {
+                this.kryo = kryo;
+                this.delegate = new FieldSerializer<>(kryo, (Class<Object>) type);
+            }
+            return delegate;
+        }
+
+        @Override
+        public void write(Kryo kryo, Output output, Object object) {
+            delegate(kryo).write(kryo, output, object);
+        }
+
+        @Override
+        public Object read(Kryo kryo, Input input, Class<Object> type) {
+            return delegate(kryo).read(kryo, input, type);
+        }
+    }
+}
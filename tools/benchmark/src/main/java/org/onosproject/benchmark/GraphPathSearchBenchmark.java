@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import com.google.common.collect.ImmutableSet;
+import org.onlab.graph.AdjacencyListsGraph;
+import org.onlab.graph.BreadthFirstSearch;
+import org.onlab.graph.CompactGraph;
+import org.onlab.graph.DijkstraGraphSearch;
+import org.onlab.graph.EdgeWeight;
+import org.onlab.graph.Graph;
+import org.onlab.graph.GraphPathSearch;
+import org.onlab.graph.KShortestPathsSearch;
+import org.onosproject.net.Link;
+import org.onosproject.net.topology.DefaultTopologyEdge;
+import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyVertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path searches between opposite corners of generated grid topologies.
+ * <p>
+ * Disjoint path searches are not included: Suurballe's search first
+ * enumerates all the shortest paths between the two vertexes, of which a
+ * grid has combinatorially many.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphPathSearchBenchmark {
+
+    private static final EdgeWeight<TopologyVertex, TopologyEdge> HOP_COUNT = edge -> 1;
+
+    @Param({"8", "16"})
+    private int side;
+
+    private Graph<TopologyVertex, TopologyEdge> graph;
+    private Graph<TopologyVertex, TopologyEdge> compactGraph;
+    private TopologyVertex src;
+    private TopologyVertex dst;
+
+    private final GraphPathSearch<TopologyVertex, TopologyEdge> dijkstra = new DijkstraGraphSearch<>();
+    private final GraphPathSearch<TopologyVertex, TopologyEdge> breadthFirst = new BreadthFirstSearch<>();
+    private final GraphPathSearch<TopologyVertex, TopologyEdge> kShortest = new KShortestPathsSearch<>();
+
+    /**
+     * Builds the grid graph.
+     */
+    @Setup
+    public void setUp() {
+        Map<Object, TopologyVertex> vertexes = new HashMap<>();
+        Topologies.gridDevices(side)
+                .forEach(d -> vertexes.put(d.id(), new DefaultTopologyVertex(d.id())));
+        ImmutableSet.Builder<TopologyEdge> edges = ImmutableSet.builder();
+        for (Link link : Topologies.gridLinks(side)) {
+            edges.add(new DefaultTopologyEdge(vertexes.get(link.src().deviceId()),
+                                              vertexes.get(link.dst().deviceId()), link));
+        }
+        graph = new AdjacencyListsGraph<>(ImmutableSet.copyOf(vertexes.values()), edges.build());
+        compactGraph = CompactGraph.copyOf(graph);
+        src = vertexes.get(Topologies.deviceId(0));
+        dst = vertexes.get(Topologies.deviceId(side * side - 1));
+    }
+
+    @Benchmark
+    public Object dijkstraSinglePath() {
+        return dijkstra.search(graph, src, dst, null, 1);
+    }
+
+    @Benchmark
+    public Object dijkstraSinglePathCompact() {
+        return dijkstra.search(compactGraph, src, dst, null, 1);
+    }
+
+    @Benchmark
+    public Object dijkstraAllDestinations() {
+        return dijkstra.search(compactGraph, src, null, null, 1);
+    }
+
+    @Benchmark
+    public Object breadthFirst() {
+        return breadthFirst.search(graph, src, dst, null, 1);
+    }
+
+    @Benchmark
+    public Object kShortestPaths() {
+        return kShortest.search(graph, src, dst, HOP_COUNT, 4);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import org.onlab.packet.IpPrefix;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TpPort;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.Device;
+import org.onosproject.net.Link;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Serialization and deserialization of store types with the API namespace,
+ * as done by the distributed stores for every replicated update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KryoNamespaceBenchmark {
+
+    private final KryoNamespace namespace = KryoNamespaces.API;
+
+    private ConnectPoint connectPoint;
+    private Device device;
+    private Link link;
+    private DefaultFlowEntry flowEntry;
+
+    private byte[] connectPointBytes;
+    private byte[] deviceBytes;
+    private byte[] linkBytes;
+    private byte[] flowEntryBytes;
+
+    /**
+     * Builds the objects to serialize and their serialized forms.
+     */
+    @Setup
+    public void setUp() {
+        device = Topologies.gridDevices(1).get(0);
+        link = Topologies.gridLinks(2).get(0);
+        connectPoint = link.src();
+
+        FlowRule rule = DefaultFlowRule.builder()
+                .forDevice(device.id())
+                .withSelector(DefaultTrafficSelector.builder()
+                                      .matchInPort(portNumber(1))
+                                      .matchEthType((short) 0x0800)
+                                      .matchEthDst(MacAddress.valueOf("00:00:00:00:00:02"))
+                                      .matchIPProtocol((byte) 6)
+                                      .matchIPDst(IpPrefix.valueOf("10.0.0.2/32"))
+                                      .matchTcpDst(TpPort.tpPort(80))
+                                      .build())
+                .withTreatment(DefaultTrafficTreatment.builder()
+                                       .setOutput(portNumber(2))
+                                       .build())
+                .withPriority(40000)
+                .fromApp(new DefaultApplicationId(1, "bench"))
+                .makePermanent()
+                .build();
+        flowEntry = new DefaultFlowEntry(rule, FlowEntryState.ADDED, 10, 1000, 100000);
+
+        connectPointBytes = namespace.serialize(connectPoint);
+        deviceBytes = namespace.serialize(device);
+        linkBytes = namespace.serialize(link);
+        flowEntryBytes = namespace.serialize(flowEntry);
+    }
+
+    @Benchmark
+    public byte[] serializeConnectPoint() {
+        return namespace.serialize(connectPoint);
+    }
+
+    @Benchmark
+    public Object deserializeConnectPoint() {
+        return namespace.deserialize(connectPointBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeDevice() {
+        return namespace.serialize(device);
+    }
+
+    @Benchmark
+    public Object deserializeDevice() {
+        return namespace.deserialize(deviceBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeLink() {
+        return namespace.serialize(link);
+    }
+
+    @Benchmark
+    public Object deserializeLink() {
+        return namespace.deserialize(linkBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeFlowEntry() {
+        return namespace.serialize(flowEntry);
+    }
+
+    @Benchmark
+    public Object deserializeFlowEntry() {
+        return namespace.deserialize(flowEntryBytes);
+    }
+}
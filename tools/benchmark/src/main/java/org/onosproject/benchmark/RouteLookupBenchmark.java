@@ -0,0 +1,253 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
+import com.googlecode.concurrenttrees.radixinverted.ConcurrentInvertedRadixTree;
+import com.googlecode.concurrenttrees.radixinverted.InvertedRadixTree;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onlab.packet.IpPrefixTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Longest prefix match over a full Internet routing table, with the prefix
+ * tries used by the route stores and with the radix trees keyed by binary
+ * strings they replaced.
+ * <p>
+ * By default the table is made of 900k IPv4 and 150k IPv6 random prefixes
+ * whose lengths follow the distribution of the global routing table. A real
+ * table can be loaded instead by passing {@code -p dump=<file>}, where the
+ * file lists one prefix per line, for instance the prefix column of a RIB
+ * dump converted with {@code bgpdump -m}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RouteLookupBenchmark {
+
+    private static final int IPV4_PREFIXES = 900_000;
+    private static final int IPV6_PREFIXES = 150_000;
+
+    // Relative frequencies of prefix lengths 0 to 32 and 0 to 64
+    private static final int[] IPV4_LENGTHS = {
+            0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 4, 8, 16,
+            130, 60, 130, 240, 380, 420, 880, 870, 5900, 1, 1, 1, 1, 1, 1, 1, 1,
+    };
+    private static final int[] IPV6_LENGTHS = {
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 2, 10, 20, 5, 180,
+            10, 20, 40, 50, 10, 10, 20, 100, 20, 10, 10, 40, 20, 80, 10, 630,
+            1, 1, 1, 1, 1, 1, 1, 10, 1, 1, 1, 1, 1, 1, 1, 30,
+    };
+
+    private static final int ADDRESSES = 1 << 12;
+
+    @Param({""})
+    private String dump;
+
+    private List<IpPrefix> prefixes;
+
+    private IpPrefixTrie<IpPrefix> trie4;
+    private IpPrefixTrie<IpPrefix> trie6;
+    private InvertedRadixTree<IpPrefix> radix4;
+    private InvertedRadixTree<IpPrefix> radix6;
+
+    private final IpAddress[] addresses4 = new IpAddress[ADDRESSES];
+    private final IpAddress[] addresses6 = new IpAddress[ADDRESSES];
+    private int next;
+
+    /**
+     * Loads the routing table and picks the addresses to look up.
+     *
+     * @throws IOException if the table dump cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(1);
+        if (dump.isEmpty()) {
+            Set<IpPrefix> table = new LinkedHashSet<>();
+            while (table.size() < IPV4_PREFIXES) {
+                table.add(randomPrefix(random, IpAddress.Version.INET, IPV4_LENGTHS));
+            }
+            while (table.size() < IPV4_PREFIXES + IPV6_PREFIXES) {
+                table.add(randomPrefix(random, IpAddress.Version.INET6, IPV6_LENGTHS));
+            }
+            prefixes = new ArrayList<>(table);
+        } else {
+            prefixes = Files.lines(Paths.get(dump))
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .map(IpPrefix::valueOf)
+                    .distinct()
+                    .collect(Collectors.toList());
+        }
+
+        trie4 = new IpPrefixTrie<>(IpAddress.Version.INET);
+        trie6 = new IpPrefixTrie<>(IpAddress.Version.INET6);
+        loadTries(trie4, trie6);
+        radix4 = new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+        radix6 = new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+        loadRadixTrees(radix4, radix6);
+
+        // Addresses within the routed space, like the destinations of packet-ins
+        List<IpPrefix> prefixes4 = new ArrayList<>(trie4.values());
+        List<IpPrefix> prefixes6 = new ArrayList<>(trie6.values());
+        for (int i = 0; i < ADDRESSES; i++) {
+            addresses4[i] = randomAddress(random, prefixes4.get(random.nextInt(prefixes4.size())));
+            addresses6[i] = prefixes6.isEmpty() ? IpAddress.valueOf("::") :
+                    randomAddress(random, prefixes6.get(random.nextInt(prefixes6.size())));
+        }
+    }
+
+    private static IpPrefix randomPrefix(Random random, IpAddress.Version version, int[] lengths) {
+        byte[] octets = new byte[IpAddress.byteLength(version)];
+        random.nextBytes(octets);
+        return IpPrefix.valueOf(version, octets, pick(random, lengths));
+    }
+
+    private static int pick(Random random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int value = random.nextInt(total);
+        int index = 0;
+        while (value >= weights[index]) {
+            value -= weights[index++];
+        }
+        return index;
+    }
+
+    private static IpAddress randomAddress(Random random, IpPrefix prefix) {
+        byte[] octets = prefix.address().toOctets();
+        byte[] noise = new byte[octets.length];
+        random.nextBytes(noise);
+        for (int i = 0; i < octets.length; i++) {
+            int bits = Math.max(0, Math.min(Byte.SIZE, prefix.prefixLength() - i * Byte.SIZE));
+            int mask = 0xff >>> bits;
+            octets[i] |= noise[i] & mask;
+        }
+        return IpAddress.valueOf(prefix.version(), octets);
+    }
+
+    // Same encoding as the route stores used with radix trees
+    private static String binaryString(IpPrefix ipPrefix) {
+        byte[] octets = ipPrefix.address().toOctets();
+        StringBuilder result = new StringBuilder(ipPrefix.prefixLength());
+        result.append("0");
+        for (int i = 0; i < ipPrefix.prefixLength(); i++) {
+            int byteOffset = i / Byte.SIZE;
+            int bitOffset = i % Byte.SIZE;
+            int mask = 1 << (Byte.SIZE - 1 - bitOffset);
+            byte value = octets[byteOffset];
+            boolean isSet = ((value & mask) != 0);
+            result.append(isSet ? "1" : "0");
+        }
+        return result.toString();
+    }
+
+    private void loadTries(IpPrefixTrie<IpPrefix> ipv4, IpPrefixTrie<IpPrefix> ipv6) {
+        for (IpPrefix prefix : prefixes) {
+            (prefix.isIp4() ? ipv4 : ipv6).put(prefix, prefix);
+        }
+    }
+
+    private void loadRadixTrees(InvertedRadixTree<IpPrefix> ipv4, InvertedRadixTree<IpPrefix> ipv6) {
+        for (IpPrefix prefix : prefixes) {
+            (prefix.isIp4() ? ipv4 : ipv6).put(binaryString(prefix), prefix);
+        }
+    }
+
+    private static IpPrefix radixLookup(InvertedRadixTree<IpPrefix> tree, IpAddress address) {
+        Iterator<IpPrefix> it = tree.getValuesForKeysPrefixing(binaryString(address.toIpPrefix())).iterator();
+        IpPrefix match = null;
+        while (it.hasNext()) {
+            match = it.next();
+        }
+        return match;
+    }
+
+    @Benchmark
+    public IpPrefix lookupTrie4() {
+        return trie4.longestPrefixMatch(addresses4[next++ & (ADDRESSES - 1)]);
+    }
+
+    @Benchmark
+    public IpPrefix lookupRadix4() {
+        return radixLookup(radix4, addresses4[next++ & (ADDRESSES - 1)]);
+    }
+
+    @Benchmark
+    public IpPrefix lookupTrie6() {
+        return trie6.longestPrefixMatch(addresses6[next++ & (ADDRESSES - 1)]);
+    }
+
+    @Benchmark
+    public IpPrefix lookupRadix6() {
+        return radixLookup(radix6, addresses6[next++ & (ADDRESSES - 1)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int loadTrie() {
+        IpPrefixTrie<IpPrefix> ipv4 = new IpPrefixTrie<>(IpAddress.Version.INET);
+        IpPrefixTrie<IpPrefix> ipv6 = new IpPrefixTrie<>(IpAddress.Version.INET6);
+        loadTries(ipv4, ipv6);
+        return ipv4.size() + ipv6.size();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int loadRadix() {
+        InvertedRadixTree<IpPrefix> ipv4 = new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+        InvertedRadixTree<IpPrefix> ipv6 = new ConcurrentInvertedRadixTree<>(new DefaultByteArrayNodeFactory());
+        loadRadixTrees(ipv4, ipv6);
+        return ipv4.size() + ipv6.size();
+    }
+}
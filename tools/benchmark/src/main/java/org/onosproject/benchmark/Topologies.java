@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmark;
+
+import org.onlab.packet.ChassisId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.provider.ProviderId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Generated topologies shared by the benchmarks.
+ */
+final class Topologies {
+
+    static final ProviderId PID = new ProviderId("of", "org.onosproject.benchmark");
+
+    private Topologies() {
+    }
+
+    /**
+     * Returns the switches of a square grid.
+     *
+     * @param side number of switches along each side of the grid
+     * @return switches, row by row
+     */
+    static List<Device> gridDevices(int side) {
+        List<Device> devices = new ArrayList<>(side * side);
+        for (int i = 0; i < side * side; i++) {
+            devices.add(new DefaultDevice(PID, deviceId(i), Device.Type.SWITCH,
+                                          "bench", "1.0", "1.0", "sn" + i, new ChassisId(i)));
+        }
+        return devices;
+    }
+
+    /**
+     * Returns the links of a square grid, in both directions between
+     * adjacent switches.
+     *
+     * @param side number of switches along each side of the grid
+     * @return links
+     */
+    static List<Link> gridLinks(int side) {
+        return gridLinks(side, true);
+    }
+
+    /**
+     * Returns the links of a square grid, in both directions between
+     * adjacent switches of the same row but only downwards between rows, so
+     * that each row forms a cluster of its own.
+     *
+     * @param side number of switches along each side of the grid
+     * @return links
+     */
+    static List<Link> rowLinks(int side) {
+        return gridLinks(side, false);
+    }
+
+    private static List<Link> gridLinks(int side, boolean upwards) {
+        List<Link> links = new ArrayList<>();
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int i = r * side + c;
+                if (c < side - 1) {
+                    link(links, i, 1, i + 1, 2);
+                }
+                if (r < side - 1) {
+                    ConnectPoint down = new ConnectPoint(deviceId(i), portNumber(3));
+                    ConnectPoint up = new ConnectPoint(deviceId(i + side), portNumber(4));
+                    links.add(link(down, up));
+                    if (upwards) {
+                        links.add(link(up, down));
+                    }
+                }
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Returns the links of a two-tier fabric, in both directions between
+     * every spine and every leaf. The spines are the first switches, followed
+     * by the leaves.
+     *
+     * @param spines number of spine switches
+     * @param leaves number of leaf switches
+     * @return links
+     */
+    static List<Link> spineLeafLinks(int spines, int leaves) {
+        List<Link> links = new ArrayList<>();
+        for (int s = 0; s < spines; s++) {
+            for (int l = 0; l < leaves; l++) {
+                link(links, s, l + 1, spines + l, s + 1);
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Returns the identifier of a generated switch.
+     *
+     * @param index switch index
+     * @return device identifier
+     */
+    static DeviceId deviceId(int index) {
+        return DeviceId.deviceId(String.format("of:%016x", index + 1));
+    }
+
+    private static void link(List<Link> links, int a, long aPort, int b, long bPort) {
+        ConnectPoint one = new ConnectPoint(deviceId(a), portNumber(aPort));
+        ConnectPoint two = new ConnectPoint(deviceId(b), portNumber(bPort));
+        links.add(link(one, two));
+        links.add(link(two, one));
+    }
+
+    private static Link link(ConnectPoint src, ConnectPoint dst) {
+        return DefaultLink.builder()
+                .providerId(PID)
+                .src(src)
+                .dst(dst)
+                .type(Link.Type.DIRECT)
+                .state(Link.State.ACTIVE)
+                .build();
+    }
+}
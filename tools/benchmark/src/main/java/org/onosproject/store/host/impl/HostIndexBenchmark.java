@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.host.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.DefaultHost;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+import org.onosproject.net.HostLocation;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.provider.ProviderId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Looking hosts up by IP address through the host index, compared with
+ * scanning all hosts as the host store used to do for every query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HostIndexBenchmark {
+
+    private static final ProviderId PID = new ProviderId("of", "org.onosproject.benchmark");
+    private static final int HOSTS_PER_DEVICE = 48;
+
+    @Param({"200000"})
+    private int size;
+
+    private final Map<HostId, DefaultHost> hosts = new ConcurrentHashMap<>();
+    private final HostIndex index = new HostIndex();
+    private IpAddress[] ips;
+    private int next;
+
+    /**
+     * Creates the hosts and indexes them.
+     */
+    @Setup
+    public void setUp() {
+        ips = new IpAddress[size];
+        for (int i = 0; i < size; i++) {
+            IpAddress ip = IpAddress.valueOf(0x0a000000 + i);
+            HostId id = HostId.hostId(MacAddress.valueOf(i), VlanId.NONE);
+            HostLocation location = new HostLocation(DeviceId.deviceId("of:" + i / HOSTS_PER_DEVICE),
+                                                     PortNumber.portNumber(i % HOSTS_PER_DEVICE), 0);
+            DefaultHost host = new DefaultHost(PID, id, id.mac(), id.vlanId(), location,
+                                               ImmutableSet.of(ip));
+            hosts.put(id, host);
+            index.update(null, host);
+            ips[i] = ip;
+        }
+    }
+
+    private IpAddress nextIp() {
+        next = (next + 7919) % size;
+        return ips[next];
+    }
+
+    @Benchmark
+    public Set<Host> lookupByScan() {
+        IpAddress ip = nextIp();
+        return hosts.values().stream()
+                .filter(host -> host.ipAddresses().contains(ip))
+                .collect(Collectors.toSet());
+    }
+
+    @Benchmark
+    public Set<Host> lookupByIndex() {
+        IpAddress ip = nextIp();
+        ImmutableSet.Builder<Host> result = ImmutableSet.builder();
+        for (HostId id : index.hosts(ip)) {
+            DefaultHost host = hosts.get(id);
+            if (host != null && host.ipAddresses().contains(ip)) {
+                result.add(host);
+            }
+        }
+        return result.build();
+    }
+}
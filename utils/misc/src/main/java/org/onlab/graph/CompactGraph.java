@@ -0,0 +1,324 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Objects;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable graph in which vertexes and edges are numbered densely and the
+ * ingress and egress edges of each vertex are kept in compressed sparse row
+ * arrays. Path searches that are aware of this representation can work with
+ * vertex and edge indexes and primitive arrays rather than with object maps.
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+public class CompactGraph<V extends Vertex, E extends Edge<V>>
+        implements Graph<V, E> {
+
+    private final ImmutableSet<V> vertexes;
+    private final ImmutableSet<E> edges;
+    private final ImmutableList<V> vertexList;
+    private final ImmutableList<E> edgeList;
+    private final ImmutableMap<V, Integer> vertexIndexes;
+
+    private final int[] edgeSrc;
+    private final int[] edgeDst;
+
+    // Egress edges of vertex v are egress[egressOffset[v]..egressOffset[v + 1])
+    private final int[] egressOffset;
+    private final int[] egress;
+
+    // Ingress edges of vertex v are ingress[ingressOffset[v]..ingressOffset[v + 1])
+    private final int[] ingressOffset;
+    private final int[] ingress;
+
+    /**
+     * Creates a compact graph comprising of the specified vertexes and edges.
+     *
+     * @param vertexes set of graph vertexes
+     * @param edges    set of graph edges
+     */
+    public CompactGraph(Set<V> vertexes, Set<E> edges) {
+        checkNotNull(vertexes, "Vertex set cannot be null");
+        checkNotNull(edges, "Edge set cannot be null");
+
+        // Make sure that all edge end-points are added as vertexes
+        ImmutableSet.Builder<V> actualVertexes = ImmutableSet.builder();
+        actualVertexes.addAll(vertexes);
+        for (E edge : edges) {
+            actualVertexes.add(edge.src());
+            actualVertexes.add(edge.dst());
+        }
+        this.vertexes = actualVertexes.build();
+        this.edges = ImmutableSet.copyOf(edges);
+        this.vertexList = this.vertexes.asList();
+        this.edgeList = this.edges.asList();
+
+        ImmutableMap.Builder<V, Integer> indexes = ImmutableMap.builder();
+        for (int i = 0; i < vertexList.size(); i++) {
+            indexes.put(vertexList.get(i), i);
+        }
+        this.vertexIndexes = indexes.build();
+
+        int vertexCount = vertexList.size();
+        int edgeCount = edgeList.size();
+        this.edgeSrc = new int[edgeCount];
+        this.edgeDst = new int[edgeCount];
+        this.egressOffset = new int[vertexCount + 1];
+        this.ingressOffset = new int[vertexCount + 1];
+        this.egress = new int[edgeCount];
+        this.ingress = new int[edgeCount];
+
+        // Number the edge end-points and count the degree of each vertex.
+        for (int e = 0; e < edgeCount; e++) {
+            E edge = edgeList.get(e);
+            edgeSrc[e] = vertexIndexes.get(edge.src());
+            edgeDst[e] = vertexIndexes.get(edge.dst());
+            egressOffset[edgeSrc[e] + 1]++;
+            ingressOffset[edgeDst[e] + 1]++;
+        }
+
+        // Turn the degrees into row offsets and then fill in the rows.
+        for (int v = 0; v < vertexCount; v++) {
+            egressOffset[v + 1] += egressOffset[v];
+            ingressOffset[v + 1] += ingressOffset[v];
+        }
+        int[] egressFill = new int[vertexCount];
+        int[] ingressFill = new int[vertexCount];
+        for (int e = 0; e < edgeCount; e++) {
+            int src = edgeSrc[e];
+            int dst = edgeDst[e];
+            egress[egressOffset[src] + egressFill[src]++] = e;
+            ingress[ingressOffset[dst] + ingressFill[dst]++] = e;
+        }
+    }
+
+    /**
+     * Creates a compact copy of the specified graph.
+     *
+     * @param graph graph to be copied
+     * @param <V>   vertex type
+     * @param <E>   edge type
+     * @return compact graph with the same vertexes and edges
+     */
+    public static <V extends Vertex, E extends Edge<V>> CompactGraph<V, E> copyOf(Graph<V, E> graph) {
+        checkNotNull(graph, "Graph cannot be null");
+        if (graph instanceof CompactGraph) {
+            return (CompactGraph<V, E>) graph;
+        }
+        return new CompactGraph<>(graph.getVertexes(), graph.getEdges());
+    }
+
+    /**
+     * Returns the number of vertexes in the graph.
+     *
+     * @return vertex count
+     */
+    public int vertexCount() {
+        return vertexList.size();
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return edge count
+     */
+    public int edgeCount() {
+        return edgeList.size();
+    }
+
+    /**
+     * Returns the index of the specified vertex.
+     *
+     * @param vertex graph vertex
+     * @return vertex index; -1 if the vertex is not part of the graph
+     */
+    public int indexOf(V vertex) {
+        Integer index = vertexIndexes.get(vertex);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the vertex with the specified index.
+     *
+     * @param index vertex index
+     * @return graph vertex
+     */
+    public V vertex(int index) {
+        return vertexList.get(index);
+    }
+
+    /**
+     * Returns the edge with the specified index.
+     *
+     * @param index edge index
+     * @return graph edge
+     */
+    public E edge(int index) {
+        return edgeList.get(index);
+    }
+
+    /**
+     * Returns the index of the source vertex of the specified edge.
+     *
+     * @param edge edge index
+     * @return source vertex index
+     */
+    public int edgeSrc(int edge) {
+        return edgeSrc[edge];
+    }
+
+    /**
+     * Returns the index of the destination vertex of the specified edge.
+     *
+     * @param edge edge index
+     * @return destination vertex index
+     */
+    public int edgeDst(int edge) {
+        return edgeDst[edge];
+    }
+
+    /**
+     * Returns the position of the first egress edge of the specified vertex
+     * for use with {@link #egressEdge(int)}.
+     *
+     * @param vertex vertex index
+     * @return first egress position, inclusive
+     */
+    public int egressStart(int vertex) {
+        return egressOffset[vertex];
+    }
+
+    /**
+     * Returns the position past the last egress edge of the specified vertex
+     * for use with {@link #egressEdge(int)}.
+     *
+     * @param vertex vertex index
+     * @return last egress position, exclusive
+     */
+    public int egressEnd(int vertex) {
+        return egressOffset[vertex + 1];
+    }
+
+    /**
+     * Returns the index of the egress edge at the specified position.
+     *
+     * @param position egress position
+     * @return edge index
+     */
+    public int egressEdge(int position) {
+        return egress[position];
+    }
+
+    /**
+     * Returns the position of the first ingress edge of the specified vertex
+     * for use with {@link #ingressEdge(int)}.
+     *
+     * @param vertex vertex index
+     * @return first ingress position, inclusive
+     */
+    public int ingressStart(int vertex) {
+        return ingressOffset[vertex];
+    }
+
+    /**
+     * Returns the position past the last ingress edge of the specified vertex
+     * for use with {@link #ingressEdge(int)}.
+     *
+     * @param vertex vertex index
+     * @return last ingress position, exclusive
+     */
+    public int ingressEnd(int vertex) {
+        return ingressOffset[vertex + 1];
+    }
+
+    /**
+     * Returns the index of the ingress edge at the specified position.
+     *
+     * @param position ingress position
+     * @return edge index
+     */
+    public int ingressEdge(int position) {
+        return ingress[position];
+    }
+
+    @Override
+    public Set<V> getVertexes() {
+        return vertexes;
+    }
+
+    @Override
+    public Set<E> getEdges() {
+        return edges;
+    }
+
+    @Override
+    public Set<E> getEdgesFrom(V src) {
+        int v = indexOf(src);
+        return v < 0 ? ImmutableSet.of() : edges(egress, egressOffset[v], egressOffset[v + 1]);
+    }
+
+    @Override
+    public Set<E> getEdgesTo(V dst) {
+        int v = indexOf(dst);
+        return v < 0 ? ImmutableSet.of() : edges(ingress, ingressOffset[v], ingressOffset[v + 1]);
+    }
+
+    // Produces the set of edges listed in the given row.
+    private Set<E> edges(int[] row, int start, int end) {
+        ImmutableSet.Builder<E> builder = ImmutableSet.builder();
+        for (int i = start; i < end; i++) {
+            builder.add(edgeList.get(row[i]));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof CompactGraph) {
+            CompactGraph that = (CompactGraph) obj;
+            return this.getClass() == that.getClass() &&
+                    Objects.equals(this.vertexes, that.vertexes) &&
+                    Objects.equals(this.edges, that.edges);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(vertexes, edges);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("vertexes", vertexes)
+                .add("edges", edges)
+                .toString();
+    }
+}
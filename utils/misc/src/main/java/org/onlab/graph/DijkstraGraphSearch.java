@@ -16,12 +16,18 @@
 package org.onlab.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Dijkstra shortest-path graph search algorithm capable of finding not just
  * one, but all shortest paths between the source and destinations.
+ * <p>
+ * When given a {@link CompactGraph}, the search works with vertex and edge
+ * indexes, primitive arrays and an indexed binary heap rather than with
+ * object maps, yielding the same result with far less work.
  */
 public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         extends AbstractGraphPathSearch<V, E> {
@@ -30,6 +36,9 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
     public Result<V, E> search(Graph<V, E> graph, V src, V dst,
                                EdgeWeight<V, E> weight, int maxPaths) {
         checkArguments(graph, src, dst);
+        if (graph instanceof CompactGraph) {
+            return search((CompactGraph<V, E>) graph, src, dst, weight, maxPaths);
+        }
 
         // Use the default result to remember cumulative costs and parent
         // edges to each each respective vertex.
@@ -73,6 +82,179 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         return result;
     }
 
+    // Searches the compact graph using vertex and edge indexes; follows the
+    // same relaxation rules as the generic search above.
+    private Result<V, E> search(CompactGraph<V, E> graph, V src, V dst,
+                                EdgeWeight<V, E> weight, int maxPaths) {
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        double threshold = samenessThreshold();
+
+        int srcIndex = graph.indexOf(src);
+        int dstIndex = dst == null ? -1 : graph.indexOf(dst);
+
+        double[] costs = new double[graph.vertexCount()];
+        Arrays.fill(costs, Double.MAX_VALUE);
+
+        // Parent edges of each vertex are kept as linked lists threaded
+        // through the slot arrays; each edge is relaxed only once, so there
+        // are never more slots needed than there are edges.
+        int[] parentHead = new int[graph.vertexCount()];
+        int[] parentCount = new int[graph.vertexCount()];
+        int[] slotEdge = new int[graph.edgeCount()];
+        int[] slotNext = new int[graph.edgeCount()];
+        int slots = 0;
+        Arrays.fill(parentHead, -1);
+
+        IndexedMinHeap minQueue = new IndexedMinHeap(costs);
+        costs[srcIndex] = 0.0;
+        minQueue.update(srcIndex);
+
+        while (!minQueue.isEmpty()) {
+            int nearest = minQueue.extractMin();
+            if (nearest == dstIndex) {
+                break;
+            }
+
+            double cost = costs[nearest];
+            for (int i = graph.egressStart(nearest); i < graph.egressEnd(nearest); i++) {
+                int edge = graph.egressEdge(i);
+                double hopCost = weight == null ? 1.0 : weight.weight(graph.edge(edge));
+                if (hopCost < 0) {
+                    continue;
+                }
+
+                int v = graph.edgeDst(edge);
+                double oldCost = costs[v];
+                double newCost = cost + hopCost;
+                boolean relaxed = newCost < oldCost;
+                boolean same = Math.abs(newCost - oldCost) <= threshold;
+                if (same || relaxed) {
+                    if (!same) {
+                        parentHead[v] = -1;
+                        parentCount[v] = 0;
+                    }
+                    if (maxPaths == ALL_PATHS || parentCount[v] < maxPaths) {
+                        slotEdge[slots] = edge;
+                        slotNext[slots] = parentHead[v];
+                        parentHead[v] = slots++;
+                        parentCount[v]++;
+                    }
+                    costs[v] = newCost;
+                    minQueue.update(v);
+                }
+            }
+        }
+
+        // Transcribe the costs and parent edges of all reached vertexes.
+        for (int v = 0; v < costs.length; v++) {
+            if (!minQueue.wasQueued(v)) {
+                continue;
+            }
+            V vertex = graph.vertex(v);
+            result.costs.put(vertex, costs[v]);
+            if (parentCount[v] > 0) {
+                Set<E> parents = new HashSet<>();
+                for (int slot = parentHead[v]; slot >= 0; slot = slotNext[slot]) {
+                    parents.add(graph.edge(slotEdge[slot]));
+                }
+                result.parents.put(vertex, parents);
+            }
+        }
+
+        result.buildPaths();
+        return result;
+    }
+
+    // Binary min-heap of vertex indexes ordered by their current costs, which
+    // supports re-prioritizing vertexes already in the heap.
+    private static final class IndexedMinHeap {
+        private static final int NEW = -1;
+        private static final int EXTRACTED = -2;
+
+        private final double[] costs;
+        private final int[] heap;
+        private final int[] positions;
+        private int size = 0;
+
+        private IndexedMinHeap(double[] costs) {
+            this.costs = costs;
+            this.heap = new int[costs.length];
+            this.positions = new int[costs.length];
+            Arrays.fill(positions, NEW);
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private boolean wasQueued(int v) {
+            return positions[v] != NEW;
+        }
+
+        // Adds the vertex or restores heap order after its cost changed;
+        // vertexes already extracted are left alone.
+        private void update(int v) {
+            int position = positions[v];
+            if (position == EXTRACTED) {
+                return;
+            }
+            if (position == NEW) {
+                position = size++;
+                place(v, position);
+            }
+            siftDown(siftUp(position));
+        }
+
+        private int extractMin() {
+            int min = heap[0];
+            positions[min] = EXTRACTED;
+            size--;
+            if (size > 0) {
+                place(heap[size], 0);
+                siftDown(0);
+            }
+            return min;
+        }
+
+        private int siftUp(int position) {
+            int v = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (costs[heap[parent]] <= costs[v]) {
+                    break;
+                }
+                place(heap[parent], position);
+                position = parent;
+            }
+            place(v, position);
+            return position;
+        }
+
+        private void siftDown(int position) {
+            int v = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && costs[heap[child + 1]] < costs[heap[child]]) {
+                    child++;
+                }
+                if (costs[v] <= costs[heap[child]]) {
+                    break;
+                }
+                place(heap[child], position);
+                position = child;
+            }
+            place(v, position);
+        }
+
+        private void place(int v, int position) {
+            heap[position] = v;
+            positions[v] = position;
+        }
+    }
+
     // Compares path weights using their accrued costs; used for sorting the
     // min priority queue.
     private final class PathCostComparator implements Comparator<V> {
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Map of IP prefixes of a single IP version to values, supporting longest
+ * prefix match lookups.
+ * <p>
+ * The prefixes are stored in a path-compressed binary trie whose nodes are
+ * keyed by the bits of the prefix held in two primitive longs, so lookups
+ * take at most one step per address bit and allocate nothing beyond the
+ * address octets. The nodes are immutable: updates copy the path from the
+ * root to the modified node and then publish the new root, which makes reads
+ * lock-free and gives them a consistent snapshot of the trie. Updates are
+ * serialized.
+ * </p>
+ *
+ * @param <V> type of the values
+ */
+public final class IpPrefixTrie<V> {
+
+    private final IpAddress.Version version;
+    private final int maxLength;
+
+    private volatile Node<V> root;
+    private volatile int size;
+
+    /**
+     * Creates an empty trie for prefixes of the given IP version.
+     *
+     * @param version IP version of the prefixes
+     */
+    public IpPrefixTrie(IpAddress.Version version) {
+        this.version = checkNotNull(version);
+        this.maxLength = version == IpAddress.Version.INET ?
+                IpAddress.INET_BIT_LENGTH : IpAddress.INET6_BIT_LENGTH;
+    }
+
+    /**
+     * Returns the IP version of the prefixes of this trie.
+     *
+     * @return IP version
+     */
+    public IpAddress.Version version() {
+        return version;
+    }
+
+    /**
+     * Returns the number of prefixes in this trie.
+     *
+     * @return number of prefixes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether this trie holds no prefix.
+     *
+     * @return true if this trie is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value of a prefix.
+     *
+     * @param prefix IP prefix
+     * @return value of the exact prefix, or null if the prefix is not present
+     */
+    public V get(IpPrefix prefix) {
+        checkVersion(prefix.version());
+        byte[] octets = prefix.address().toOctets();
+        long hi = high(octets);
+        long lo = low(octets);
+        int length = prefix.prefixLength();
+
+        Node<V> node = root;
+        while (node != null && node.length <= length && node.matches(hi, lo)) {
+            if (node.length == length) {
+                return node.value;
+            }
+            node = node.child(bit(hi, lo, node.length));
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value of the longest prefix containing an address.
+     *
+     * @param address IP address
+     * @return value of the most specific prefix containing the address, or
+     * null if no prefix contains it
+     */
+    public V longestPrefixMatch(IpAddress address) {
+        checkVersion(address.version());
+        byte[] octets = address.toOctets();
+        long hi = high(octets);
+        long lo = low(octets);
+
+        V match = null;
+        Node<V> node = root;
+        while (node != null && node.matches(hi, lo)) {
+            if (node.value != null) {
+                match = node.value;
+            }
+            if (node.length == maxLength) {
+                break;
+            }
+            node = node.child(bit(hi, lo, node.length));
+        }
+        return match;
+    }
+
+    /**
+     * Returns the values of all prefixes, shorter prefixes before the longer
+     * prefixes they contain. The returned list is a snapshot which is not
+     * affected by later updates.
+     *
+     * @return values of all prefixes
+     */
+    public List<V> values() {
+        Node<V> snapshot = root;
+        List<V> values = new ArrayList<>(size);
+        collect(snapshot, values);
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Sets the value of a prefix.
+     *
+     * @param prefix IP prefix
+     * @param value value of the prefix
+     * @return previous value of the prefix, or null if the prefix was not present
+     */
+    public synchronized V put(IpPrefix prefix, V value) {
+        checkVersion(prefix.version());
+        checkNotNull(value);
+        V previous = get(prefix);
+        byte[] octets = prefix.address().toOctets();
+        root = insert(root, high(octets), low(octets), prefix.prefixLength(), value);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * Removes a prefix.
+     *
+     * @param prefix IP prefix
+     * @return value of the removed prefix, or null if the prefix was not present
+     */
+    public synchronized V remove(IpPrefix prefix) {
+        V previous = get(prefix);
+        if (previous != null) {
+            byte[] octets = prefix.address().toOctets();
+            root = delete(root, high(octets), low(octets), prefix.prefixLength());
+            size--;
+        }
+        return previous;
+    }
+
+    /**
+     * Removes all prefixes.
+     */
+    public synchronized void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private void checkVersion(IpAddress.Version other) {
+        checkArgument(version == other, "Expected an %s prefix or address", version);
+    }
+
+    private static <V> Node<V> insert(Node<V> node, long hi, long lo, int length, V value) {
+        if (node == null) {
+            return new Node<>(hi, lo, length, value, null, null);
+        }
+        int common = Math.min(commonLength(node.hi, node.lo, hi, lo), Math.min(node.length, length));
+        if (common == node.length && common == length) {
+            return new Node<>(hi, lo, length, value, node.left, node.right);
+        }
+        if (common == node.length) {
+            // The new prefix lies below this node
+            int bit = bit(hi, lo, common);
+            return node.withChild(bit, insert(node.child(bit), hi, lo, length, value));
+        }
+        if (common == length) {
+            // This node lies below the new prefix
+            return bit(node.hi, node.lo, common) == 0 ?
+                    new Node<>(hi, lo, length, value, node, null) :
+                    new Node<>(hi, lo, length, value, null, node);
+        }
+        // The prefixes diverge: join them under a node holding no value
+        Node<V> leaf = new Node<>(hi, lo, length, value, null, null);
+        long joinHi = hi & highMask(common);
+        long joinLo = lo & lowMask(common);
+        return bit(hi, lo, common) == 0 ?
+                new Node<>(joinHi, joinLo, common, null, leaf, node) :
+                new Node<>(joinHi, joinLo, common, null, node, leaf);
+    }
+
+    // Only called for prefixes present in the trie
+    private static <V> Node<V> delete(Node<V> node, long hi, long lo, int length) {
+        Node<V> left = node.left;
+        Node<V> right = node.right;
+        if (node.length == length) {
+            if (left != null && right != null) {
+                return new Node<>(node.hi, node.lo, node.length, null, left, right);
+            }
+            return left != null ? left : right;
+        }
+        if (bit(hi, lo, node.length) == 0) {
+            left = delete(left, hi, lo, length);
+        } else {
+            right = delete(right, hi, lo, length);
+        }
+        if (node.value == null && (left == null || right == null)) {
+            // A node without value is only kept to join two branches
+            return left != null ? left : right;
+        }
+        return new Node<>(node.hi, node.lo, node.length, node.value, left, right);
+    }
+
+    private static <V> void collect(Node<V> node, List<V> values) {
+        if (node != null) {
+            if (node.value != null) {
+                values.add(node.value);
+            }
+            collect(node.left, values);
+            collect(node.right, values);
+        }
+    }
+
+    // Bits 0-63 of the address, most significant bit first
+    private static long high(byte[] octets) {
+        long bits = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            bits <<= Byte.SIZE;
+            if (i < octets.length) {
+                bits |= octets[i] & 0xff;
+            }
+        }
+        return bits;
+    }
+
+    // Bits 64-127 of the address, most significant bit first
+    private static long low(byte[] octets) {
+        long bits = 0;
+        for (int i = Long.BYTES; i < octets.length; i++) {
+            bits = (bits << Byte.SIZE) | (octets[i] & 0xff);
+        }
+        return bits;
+    }
+
+    private static int bit(long hi, long lo, int index) {
+        return (int) (index < Long.SIZE ?
+                hi >>> (Long.SIZE - 1 - index) :
+                lo >>> (2 * Long.SIZE - 1 - index)) & 1;
+    }
+
+    private static int commonLength(long hi1, long lo1, long hi2, long lo2) {
+        long diff = hi1 ^ hi2;
+        if (diff != 0) {
+            return Long.numberOfLeadingZeros(diff);
+        }
+        return Long.SIZE + Long.numberOfLeadingZeros(lo1 ^ lo2);
+    }
+
+    private static long highMask(int length) {
+        return length == 0 ? 0 : length >= Long.SIZE ? -1L : -1L << (Long.SIZE - length);
+    }
+
+    private static long lowMask(int length) {
+        return length <= Long.SIZE ? 0 : -1L << (2 * Long.SIZE - length);
+    }
+
+    /**
+     * Immutable trie node. Nodes holding no value only join two branches.
+     */
+    private static final class Node<V> {
+        private final long hi;
+        private final long lo;
+        private final int length;
+        private final V value;
+        private final Node<V> left;
+        private final Node<V> right;
+
+        private Node(long hi, long lo, int length, V value,
+                     Node<V> left, Node<V> right) {
+            this.hi = hi;
+            this.lo = lo;
+            this.length = length;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+        }
+
+        private boolean matches(long otherHi, long otherLo) {
+            return ((hi ^ otherHi) & highMask(length)) == 0
+                    && ((lo ^ otherLo) & lowMask(length)) == 0;
+        }
+
+        private Node<V> child(int bit) {
+            return bit == 0 ? left : right;
+        }
+
+        private Node<V> withChild(int bit, Node<V> child) {
+            return bit == 0 ?
+                    new Node<>(hi, lo, length, value, child, right) :
+                    new Node<>(hi, lo, length, value, left, child);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.testing.EqualsTester;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the compact graph implementation and of searching it.
+ */
+public class CompactGraphTest extends GraphTest {
+
+    @Test
+    public void equality() {
+        Set<TestVertex> vertexes2 = ImmutableSet.of(A, B, C, D, E, F, G, H, Z);
+
+        CompactGraph<TestVertex, TestEdge> graph = new CompactGraph<>(vertexes(), edges());
+        CompactGraph<TestVertex, TestEdge> same = new CompactGraph<>(vertexes(), edges());
+        CompactGraph<TestVertex, TestEdge> different = new CompactGraph<>(vertexes2, edges());
+
+        new EqualsTester()
+                .addEqualityGroup(graph, same)
+                .addEqualityGroup(different)
+                .testEquals();
+    }
+
+    @Test
+    public void basics() {
+        CompactGraph<TestVertex, TestEdge> graph = new CompactGraph<>(vertexes(), edges());
+        AdjacencyListsGraph<TestVertex, TestEdge> expected = new AdjacencyListsGraph<>(vertexes(), edges());
+        assertEquals("incorrect vertex count", 8, graph.vertexCount());
+        assertEquals("incorrect edge count", 12, graph.edgeCount());
+        assertEquals("incorrect vertexes", expected.getVertexes(), graph.getVertexes());
+        assertEquals("incorrect edges", expected.getEdges(), graph.getEdges());
+
+        for (TestVertex vertex : graph.getVertexes()) {
+            assertEquals("incorrect egress edges", expected.getEdgesFrom(vertex), graph.getEdgesFrom(vertex));
+            assertEquals("incorrect ingress edges", expected.getEdgesTo(vertex), graph.getEdgesTo(vertex));
+
+            int v = graph.indexOf(vertex);
+            assertSame("incorrect vertex index", vertex, graph.vertex(v));
+            for (int i = graph.egressStart(v); i < graph.egressEnd(v); i++) {
+                int e = graph.egressEdge(i);
+                assertEquals("incorrect edge source", v, graph.edgeSrc(e));
+                assertSame("incorrect edge source", vertex, graph.edge(e).src());
+            }
+            for (int i = graph.ingressStart(v); i < graph.ingressEnd(v); i++) {
+                int e = graph.ingressEdge(i);
+                assertEquals("incorrect edge destination", v, graph.edgeDst(e));
+                assertSame("incorrect edge destination", vertex, graph.edge(e).dst());
+            }
+        }
+
+        assertEquals("incorrect vertex index", -1, graph.indexOf(Z));
+        assertTrue("no edges expected", graph.getEdgesFrom(Z).isEmpty());
+        assertSame("copy expected to be the same", graph, CompactGraph.copyOf(graph));
+    }
+
+    @Test
+    public void sameSearchResults() {
+        Graph<TestVertex, TestEdge> expected = new AdjacencyListsGraph<>(vertexes(), edges());
+        Graph<TestVertex, TestEdge> compact = CompactGraph.copyOf(expected);
+        DijkstraGraphSearch<TestVertex, TestEdge> search = new DijkstraGraphSearch<>();
+
+        for (TestVertex src : vertexes()) {
+            assertSameResult(search.search(expected, src, null, weight, GraphPathSearch.ALL_PATHS),
+                             search.search(compact, src, null, weight, GraphPathSearch.ALL_PATHS));
+            assertSameResult(search.search(expected, src, null, null, GraphPathSearch.ALL_PATHS),
+                             search.search(compact, src, null, null, GraphPathSearch.ALL_PATHS));
+            for (TestVertex dst : vertexes()) {
+                assertEquals("incorrect paths",
+                             search.search(expected, src, dst, weight, GraphPathSearch.ALL_PATHS).paths(),
+                             search.search(compact, src, dst, weight, GraphPathSearch.ALL_PATHS).paths());
+                assertEquals("incorrect path count",
+                             search.search(expected, src, dst, weight, 1).paths().size(),
+                             search.search(compact, src, dst, weight, 1).paths().size());
+            }
+        }
+    }
+
+    private void assertSameResult(GraphPathSearch.Result<TestVertex, TestEdge> expected,
+                                  GraphPathSearch.Result<TestVertex, TestEdge> actual) {
+        assertEquals("incorrect paths", expected.paths(), actual.paths());
+        assertEquals("incorrect costs", expected.costs(), actual.costs());
+        assertEquals("incorrect parents", expected.parents(), actual.parents());
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for class {@link IpPrefixTrie}.
+ */
+public class IpPrefixTrieTest {
+
+    private final IpPrefixTrie<String> trie4 = new IpPrefixTrie<>(IpAddress.Version.INET);
+    private final IpPrefixTrie<String> trie6 = new IpPrefixTrie<>(IpAddress.Version.INET6);
+
+    private void put(IpPrefixTrie<String> trie, String prefix) {
+        trie.put(IpPrefix.valueOf(prefix), prefix);
+    }
+
+    private String lpm(IpPrefixTrie<String> trie, String address) {
+        return trie.longestPrefixMatch(IpAddress.valueOf(address));
+    }
+
+    /**
+     * Tests longest prefix match lookups of IPv4 addresses.
+     */
+    @Test
+    public void testLongestPrefixMatch4() {
+        assertThat(lpm(trie4, "10.1.2.3"), is(nullValue()));
+
+        put(trie4, "10.0.0.0/8");
+        put(trie4, "10.1.0.0/16");
+        put(trie4, "10.1.2.0/24");
+        put(trie4, "10.1.2.3/32");
+        put(trie4, "192.168.0.0/16");
+
+        assertThat(lpm(trie4, "10.1.2.3"), is("10.1.2.3/32"));
+        assertThat(lpm(trie4, "10.1.2.4"), is("10.1.2.0/24"));
+        assertThat(lpm(trie4, "10.1.3.4"), is("10.1.0.0/16"));
+        assertThat(lpm(trie4, "10.2.3.4"), is("10.0.0.0/8"));
+        assertThat(lpm(trie4, "192.168.255.255"), is("192.168.0.0/16"));
+        assertThat(lpm(trie4, "11.0.0.0"), is(nullValue()));
+
+        put(trie4, "0.0.0.0/0");
+        assertThat(lpm(trie4, "11.0.0.0"), is("0.0.0.0/0"));
+        assertThat(lpm(trie4, "10.1.2.4"), is("10.1.2.0/24"));
+    }
+
+    /**
+     * Tests longest prefix match lookups of IPv6 addresses, including
+     * prefixes spanning both halves of the address.
+     */
+    @Test
+    public void testLongestPrefixMatch6() {
+        put(trie6, "2001:db8::/32");
+        put(trie6, "2001:db8:0:1::/64");
+        put(trie6, "2001:db8:0:1:8000::/65");
+        put(trie6, "2001:db8:0:1::1/128");
+
+        assertThat(lpm(trie6, "2001:db8:0:1::1"), is("2001:db8:0:1::1/128"));
+        assertThat(lpm(trie6, "2001:db8:0:1::2"), is("2001:db8:0:1::/64"));
+        assertThat(lpm(trie6, "2001:db8:0:1:8000::2"), is("2001:db8:0:1:8000::/65"));
+        assertThat(lpm(trie6, "2001:db8:ffff::"), is("2001:db8::/32"));
+        assertThat(lpm(trie6, "2001:db9::"), is(nullValue()));
+    }
+
+    /**
+     * Tests exact lookups, updates and removals.
+     */
+    @Test
+    public void testPutGetRemove() {
+        IpPrefix prefix = IpPrefix.valueOf("10.1.0.0/16");
+        assertThat(trie4.put(prefix, "a"), is(nullValue()));
+        assertThat(trie4.put(prefix, "b"), is("a"));
+        assertThat(trie4.size(), is(1));
+
+        put(trie4, "10.0.0.0/8");
+        put(trie4, "10.1.2.0/24");
+        assertThat(trie4.get(prefix), is("b"));
+        assertThat(trie4.get(IpPrefix.valueOf("10.1.0.0/17")), is(nullValue()));
+        assertThat(trie4.get(IpPrefix.valueOf("10.0.0.0/7")), is(nullValue()));
+
+        assertThat(trie4.remove(prefix), is("b"));
+        assertThat(trie4.remove(prefix), is(nullValue()));
+        assertThat(trie4.size(), is(2));
+        assertThat(lpm(trie4, "10.1.3.1"), is("10.0.0.0/8"));
+        assertThat(lpm(trie4, "10.1.2.1"), is("10.1.2.0/24"));
+
+        trie4.clear();
+        assertTrue(trie4.isEmpty());
+        assertThat(lpm(trie4, "10.1.2.1"), is(nullValue()));
+    }
+
+    /**
+     * Tests that the values are listed with shorter prefixes first and that
+     * the listing is not affected by later updates.
+     */
+    @Test
+    public void testValues() {
+        put(trie4, "10.1.0.0/16");
+        put(trie4, "10.0.0.0/8");
+        put(trie4, "10.128.0.0/9");
+        List<String> values = trie4.values();
+        assertThat(values, contains("10.0.0.0/8", "10.1.0.0/16", "10.128.0.0/9"));
+
+        trie4.remove(IpPrefix.valueOf("10.0.0.0/8"));
+        assertThat(values.size(), is(3));
+        assertThat(trie4.values(), containsInAnyOrder("10.1.0.0/16", "10.128.0.0/9"));
+    }
+
+    /**
+     * Tests that lookups of the wrong IP version are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongVersion() {
+        put(trie4, "2001:db8::/32");
+    }
+
+    /**
+     * Tests random updates and lookups against a linear scan of the prefixes.
+     */
+    @Test
+    public void testRandom() {
+        Random random = new Random(1);
+        Map<IpPrefix, String> expected = new HashMap<>();
+        List<IpPrefix> prefixes = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            // Few distinct address bits, so that prefixes nest and diverge
+            IpPrefix prefix = IpPrefix.valueOf(random.nextInt() & 0xc0ff00ff, random.nextInt(33));
+            if (random.nextInt(3) == 0 && !prefixes.isEmpty()) {
+                prefix = prefixes.get(random.nextInt(prefixes.size()));
+                assertThat(trie4.remove(prefix), is(expected.remove(prefix)));
+            } else {
+                assertThat(trie4.put(prefix, prefix.toString()), is(expected.put(prefix, prefix.toString())));
+                prefixes.add(prefix);
+            }
+            assertThat(trie4.size(), is(expected.size()));
+        }
+
+        assertThat(trie4.values(), containsInAnyOrder(expected.values().toArray()));
+        for (int i = 0; i < 5000; i++) {
+            IpAddress address = IpAddress.valueOf(random.nextInt() & 0xc0ff00ff);
+            IpPrefix best = null;
+            for (IpPrefix prefix : expected.keySet()) {
+                if (prefix.contains(address) && (best == null || prefix.prefixLength() > best.prefixLength())) {
+                    best = prefix;
+                }
+            }
+            assertThat(trie4.longestPrefixMatch(address), is(best == null ? null : best.toString()));
+        }
+    }
+}
@@ -27,6 +27,7 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.List;
@@ -47,14 +48,21 @@ public class DevicesWebResource extends AbstractWebResource {
      * Gets all infrastructure devices.
      * Returns array of all discovered infrastructure devices.
      *
+     * @param limit  maximum number of devices to return; all by default
+     * @param cursor cursor of the page to return, taken from the "next" field
+     *               of the previous page; the first page by default
+     * @param fields comma-separated list of the device fields to return; all by
+     *               default
      * @return 200 OK with a collection of devices
      * @onos.rsModel DevicesGet
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getDevices() {
+    public Response getDevices(@QueryParam("limit") Integer limit,
+                               @QueryParam("cursor") String cursor,
+                               @QueryParam("fields") String fields) {
         Iterable<Device> devices = get(DeviceService.class).getDevices();
-        return ok(encodeArray(Device.class, "devices", devices)).build();
+        return ok(streamArray(Device.class, "devices", devices, limit, cursor, fields)).build();
     }
 
     /**
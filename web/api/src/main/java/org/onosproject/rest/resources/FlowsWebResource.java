@@ -19,6 +19,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.ListMultimap;
 import org.onlab.util.ItemNotFoundException;
 import org.onosproject.app.ApplicationService;
@@ -48,6 +49,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.StreamSupport;
 
 import static org.onlab.util.Tools.nullIsNotFound;
@@ -76,23 +78,27 @@ public class FlowsWebResource extends AbstractWebResource {
     /**
      * Gets all flow entries. Returns array of all flow rules in the system.
      *
+     * @param limit  maximum number of flows to return; all by default
+     * @param cursor cursor of the page to return, taken from the "next" field
+     *               of the previous page; the first page by default
+     * @param fields comma-separated list of the flow fields to return; all by
+     *               default
      * @return 200 OK with a collection of flows
      * @onos.rsModel FlowEntries
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getFlows() {
+    public Response getFlows(@QueryParam("limit") Integer limit,
+                             @QueryParam("cursor") String cursor,
+                             @QueryParam("fields") String fields) {
         final Iterable<Device> devices = get(DeviceService.class).getDevices();
-        for (final Device device : devices) {
-            final Iterable<FlowEntry> flowEntries = service.getFlowEntries(device.id());
-            if (flowEntries != null) {
-                for (final FlowEntry entry : flowEntries) {
-                    flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-                }
-            }
-        }
+        // The flow entries of each device are only fetched once the response
+        // gets to them
+        final Iterable<FlowEntry> flowEntries = Iterables.concat(Iterables.filter(
+                Iterables.transform(devices, device -> service.getFlowEntries(device.id())),
+                Objects::nonNull));
 
-        return ok(root).build();
+        return ok(streamArray(FlowEntry.class, FLOWS, flowEntries, limit, cursor, fields)).build();
     }
 
     /**
@@ -139,6 +145,11 @@ public class FlowsWebResource extends AbstractWebResource {
      * specified device.
      *
      * @param deviceId device identifier
+     * @param limit  maximum number of flows to return; all by default
+     * @param cursor cursor of the page to return, taken from the "next" field
+     *               of the previous page; the first page by default
+     * @param fields comma-separated list of the flow fields to return; all by
+     *               default
      * @return 200 OK with a collection of flows of given device
      * @onos.rsModel FlowEntries
      */
@@ -146,17 +157,17 @@ public class FlowsWebResource extends AbstractWebResource {
     @Produces(MediaType.APPLICATION_JSON)
     // TODO: we need to add "/device" suffix to the path to differentiate with appId
     @Path("{deviceId}")
-    public Response getFlowByDeviceId(@PathParam("deviceId") String deviceId) {
+    public Response getFlowByDeviceId(@PathParam("deviceId") String deviceId,
+                                      @QueryParam("limit") Integer limit,
+                                      @QueryParam("cursor") String cursor,
+                                      @QueryParam("fields") String fields) {
         final Iterable<FlowEntry> flowEntries =
                 service.getFlowEntries(DeviceId.deviceId(deviceId));
 
         if (flowEntries == null || !flowEntries.iterator().hasNext()) {
             throw new ItemNotFoundException(DEVICE_NOT_FOUND);
         }
-        for (final FlowEntry entry : flowEntries) {
-            flowsNode.add(codec(FlowEntry.class).encode(entry, this));
-        }
-        return ok(root).build();
+        return ok(streamArray(FlowEntry.class, FLOWS, flowEntries, limit, cursor, fields)).build();
     }
 
     /**
@@ -192,19 +203,26 @@ public class FlowsWebResource extends AbstractWebResource {
      * Returns the flow rule specified by the application id.
      *
      * @param appId application identifier
+     * @param limit  maximum number of flows to return; all by default
+     * @param cursor cursor of the page to return, taken from the "next" field
+     *               of the previous page; the first page by default
+     * @param fields comma-separated list of the flow fields to return; all by
+     *               default
      * @return 200 OK with a collection of flows of given application id
      * @onos.rsModel FlowRules
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("application/{appId}")
-    public Response getFlowByAppId(@PathParam("appId") String appId) {
+    public Response getFlowByAppId(@PathParam("appId") String appId,
+                                   @QueryParam("limit") Integer limit,
+                                   @QueryParam("cursor") String cursor,
+                                   @QueryParam("fields") String fields) {
         final ApplicationService appService = get(ApplicationService.class);
         final ApplicationId idInstant = nullIsNotFound(appService.getId(appId), APP_ID_NOT_FOUND);
         final Iterable<FlowRule> flowRules = service.getFlowRulesById(idInstant);
 
-        flowRules.forEach(flow -> flowsNode.add(codec(FlowRule.class).encode(flow, this)));
-        return ok(root).build();
+        return ok(streamArray(FlowRule.class, FLOWS, flowRules, limit, cursor, fields)).build();
     }
 
     /**
@@ -41,6 +41,7 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -72,15 +73,21 @@ public class HostsWebResource extends AbstractWebResource {
      * Get all end-station hosts.
      * Returns array of all known end-station hosts.
      *
+     * @param limit  maximum number of hosts to return; all by default
+     * @param cursor cursor of the page to return, taken from the "next" field
+     *               of the previous page; the first page by default
+     * @param fields comma-separated list of the host fields to return; all by
+     *               default
      * @return 200 OK with array of all known end-station hosts.
      * @onos.rsModel Hosts
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getHosts() {
+    public Response getHosts(@QueryParam("limit") Integer limit,
+                             @QueryParam("cursor") String cursor,
+                             @QueryParam("fields") String fields) {
         final Iterable<Host> hosts = get(HostService.class).getHosts();
-        final ObjectNode root = encodeArray(Host.class, "hosts", hosts);
-        return ok(root).build();
+        return ok(streamArray(Host.class, "hosts", hosts, limit, cursor, fields)).build();
     }
 
     /**
@@ -36,6 +36,7 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -69,15 +70,21 @@ public class IntentsWebResource extends AbstractWebResource {
      * Gets all intents.
      * Returns array containing all the intents in the system.
      *
+     * @param limit  maximum number of intents to return; all by default
+     * @param cursor cursor of the page to return, taken from the "next" field
+     *               of the previous page; the first page by default
+     * @param fields comma-separated list of the intent fields to return; all by
+     *               default
      * @return 200 OK with array of all the intents in the system
      * @onos.rsModel Intents
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getIntents() {
+    public Response getIntents(@QueryParam("limit") Integer limit,
+                               @QueryParam("cursor") String cursor,
+                               @QueryParam("fields") String fields) {
         final Iterable<Intent> intents = get(IntentService.class).getIntents();
-        final ObjectNode root = encodeArray(Intent.class, "intents", intents);
-        return ok(root).build();
+        return ok(streamArray(Intent.class, "intents", intents, limit, cursor, fields)).build();
     }
 
     /**
@@ -45,13 +45,21 @@ public class LinksWebResource extends AbstractWebResource {
      * @param deviceId  (optional) device identifier
      * @param port      (optional) port number
      * @param direction (optional) direction qualifier
+     * @param limit     (optional) maximum number of links to return
+     * @param cursor    (optional) cursor of the page to return, taken from
+     *                  the "next" field of the previous page
+     * @param fields    (optional) comma-separated list of the link fields to
+     *                  return
      * @return 200 OK with array of all links, or links for the specified device or port
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     public Response getLinks(@QueryParam("device") String deviceId,
                              @QueryParam("port") String port,
-                             @QueryParam("direction") String direction) {
+                             @QueryParam("direction") String direction,
+                             @QueryParam("limit") Integer limit,
+                             @QueryParam("cursor") String cursor,
+                             @QueryParam("fields") String fields) {
         LinkService service = get(LinkService.class);
         Iterable<Link> links;
 
@@ -64,7 +72,7 @@ public class LinksWebResource extends AbstractWebResource {
         } else {
             links = service.getLinks();
         }
-        return ok(encodeArray(Link.class, "links", links)).build();
+        return ok(streamArray(Link.class, "links", links, limit, cursor, fields)).build();
     }
 
     private Iterable<Link> getConnectPointLinks(ConnectPoint point,
@@ -54,6 +54,7 @@ import org.onosproject.net.flow.TrafficTreatment;
 import org.onosproject.net.flow.criteria.Criterion;
 import org.onosproject.net.flow.instructions.Instruction;
 
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
@@ -73,6 +74,8 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -774,6 +777,78 @@ public class FlowsResourceTest extends ResourceTest {
         assertThat(jsonFlows, hasFlow(flow4));
     }
 
+    /**
+     * Tests paging through all the flows, with field selection, across the
+     * flows of several devices.
+     */
+    @Test
+    public void testFlowsPages() {
+        setupMockFlows();
+        replay(mockFlowService);
+        expect(mockDeviceService.getDevices())
+                .andReturn(ImmutableSet.of(device1, device2)).anyTimes();
+        replay(mockDeviceService);
+        final WebTarget wt = target();
+
+        String response = wt.path("flows").queryParam("limit", 3)
+                .queryParam("fields", "id,deviceId").request().get(String.class);
+        JsonObject result = Json.parse(response).asObject();
+        assertThat(result.names(), contains("flows", "next"));
+        JsonArray page = result.get("flows").asArray();
+        assertThat(page.size(), is(3));
+        final Set<String> ids = new HashSet<>();
+        for (int i = 0; i < page.size(); i++) {
+            final JsonObject flow = page.get(i).asObject();
+            assertThat(flow.names(), containsInAnyOrder("id", "deviceId"));
+            ids.add(flow.get("id").asString());
+        }
+
+        response = wt.path("flows").queryParam("limit", 3)
+                .queryParam("cursor", result.get("next").asString())
+                .request().get(String.class);
+        result = Json.parse(response).asObject();
+        assertThat(result.names(), contains("flows"));
+        page = result.get("flows").asArray();
+        assertThat(page.size(), is(1));
+        assertThat(page.get(0).asObject().names(), hasSize(Matchers.greaterThan(2)));
+        ids.add(page.get(0).asObject().get("id").asString());
+
+        // Each flow is on exactly one page
+        assertThat(ids, containsInAnyOrder(
+                Long.toString(flow1.id().value()), Long.toString(flow2.id().value()),
+                Long.toString(flow3.id().value()), Long.toString(flow4.id().value())));
+    }
+
+    /**
+     * Tests that a cursor past the last flow returns an empty page.
+     */
+    @Test
+    public void testFlowsCursorPastEnd() {
+        setupMockFlows();
+        replay(mockFlowService);
+        replay(mockDeviceService);
+        final WebTarget wt = target();
+        final String response = wt.path("flows").queryParam("cursor", 10)
+                .request().get(String.class);
+        assertThat(response, is("{\"flows\":[]}"));
+    }
+
+    /**
+     * Tests that fetching the flows with an invalid cursor is rejected.
+     */
+    @Test
+    public void testFlowsBadCursor() {
+        replay(mockFlowService);
+        replay(mockDeviceService);
+        final WebTarget wt = target();
+        try {
+            wt.path("flows").queryParam("cursor", "abc").request().get(String.class);
+            fail("Fetch with an invalid cursor did not throw an exception");
+        } catch (BadRequestException ex) {
+            assertThat(ex.getMessage(), containsString("HTTP 400 Bad Request"));
+        }
+    }
+
     /**
      * Tests the result of a rest api GET for a device.
      */
@@ -43,6 +43,7 @@ import org.onosproject.net.host.HostProviderService;
 import org.onosproject.net.host.HostService;
 import org.onosproject.net.provider.ProviderId;
 
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
@@ -60,6 +61,7 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -292,6 +294,46 @@ public class HostResourceTest extends ResourceTest {
         assertThat(hosts, hasHost(host2));
     }
 
+    /**
+     * Tests paging through the hosts and projecting their fields.
+     */
+    @Test
+    public void testHostsPages() {
+        replay(mockHostService);
+        final ProviderId pid = new ProviderId("of", "foo");
+        for (int i = 1; i <= 3; i++) {
+            final MacAddress mac = MacAddress.valueOf("00:00:11:00:00:0" + i);
+            hosts.add(new DefaultHost(pid, HostId.hostId(mac), mac, vlanId((short) i),
+                    new HostLocation(DeviceId.deviceId(Integer.toString(i)), portNumber(i), 1),
+                    ImmutableSet.of()));
+        }
+        WebTarget wt = target();
+
+        String response = wt.path("hosts").queryParam("limit", 2)
+                .queryParam("fields", "id,mac").request().get(String.class);
+        JsonObject result = Json.parse(response).asObject();
+        assertThat(result.names(), contains("hosts", "next"));
+        JsonArray page = result.get("hosts").asArray();
+        assertThat(page.size(), is(2));
+        assertThat(page.get(0).asObject().names(), contains("id", "mac"));
+
+        response = wt.path("hosts").queryParam("limit", 2)
+                .queryParam("cursor", result.get("next").asString())
+                .request().get(String.class);
+        result = Json.parse(response).asObject();
+        assertThat(result.names(), contains("hosts"));
+        page = result.get("hosts").asArray();
+        assertThat(page.size(), is(1));
+        assertThat(page.get(0).asObject().names(), hasSize(5));
+
+        try {
+            wt.path("hosts").queryParam("limit", 0).request().get(String.class);
+            fail("Fetch with an invalid limit did not throw an exception");
+        } catch (BadRequestException ex) {
+            assertThat(ex.getMessage(), containsString("HTTP 400 Bad Request"));
+        }
+    }
+
     /**
      * Tests fetch of one host by Id.
      */
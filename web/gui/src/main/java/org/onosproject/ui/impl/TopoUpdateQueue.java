@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.ui.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Topology view messages waiting to be sent to the client, accumulated over
+ * one frame. An update of an element whose addition or previous update is
+ * still waiting replaces the payload of that message instead of being queued,
+ * so that the client gets a single message per element and frame however many
+ * times the element changed. The pending message keeps its event type, so an
+ * element added and then updated within the frame is still sent as added.
+ * Additions, removals and moves are always queued in order.
+ */
+final class TopoUpdateQueue {
+
+    private static final String EVENT = "event";
+    private static final String PAYLOAD = "payload";
+    private static final String ID = "id";
+
+    private static final String ADD = "add";
+    private static final String UPDATE = "update";
+    private static final String[] PREFIXES = {ADD, UPDATE, "remove", "move"};
+
+    private final List<ObjectNode> messages = new ArrayList<>();
+
+    // Position of the pending addition or update of each element
+    private final Map<String, Integer> updatable = new HashMap<>();
+
+    /**
+     * Adds a message to the frame.
+     *
+     * @param message topology view message
+     * @return true if the message starts a new frame
+     */
+    synchronized boolean add(ObjectNode message) {
+        boolean first = messages.isEmpty();
+        String event = message.path(EVENT).asText();
+        String key = key(event, message.path(PAYLOAD).path(ID));
+
+        if (key != null && event.startsWith(UPDATE)) {
+            Integer index = updatable.get(key);
+            if (index != null) {
+                messages.get(index).set(PAYLOAD, message.get(PAYLOAD));
+                return false;
+            }
+            updatable.put(key, messages.size());
+        } else if (key != null && event.startsWith(ADD)) {
+            updatable.put(key, messages.size());
+        } else if (key != null) {
+            updatable.remove(key);
+        }
+        messages.add(message);
+        return first;
+    }
+
+    /**
+     * Removes and returns the messages of the frame, in order.
+     *
+     * @return messages to send
+     */
+    synchronized List<ObjectNode> drain() {
+        List<ObjectNode> frame = ImmutableList.copyOf(messages);
+        messages.clear();
+        updatable.clear();
+        return frame;
+    }
+
+    // Key of the element the message is about, e.g. Device:of:0001, or null
+    // if the message is not about a single element
+    private static String key(String event, JsonNode id) {
+        if (!id.isTextual()) {
+            return null;
+        }
+        for (String prefix : PREFIXES) {
+            if (event.startsWith(prefix)) {
+                return event.substring(prefix.length()) + ':' + id.asText();
+            }
+        }
+        return null;
+    }
+}
@@ -22,6 +22,7 @@ import com.google.common.collect.ImmutableSet;
 import org.onlab.osgi.ServiceDirectory;
 import org.onlab.util.AbstractAccumulator;
 import org.onlab.util.Accumulator;
+import org.onlab.util.SharedScheduledExecutors;
 import org.onosproject.cluster.ClusterEvent;
 import org.onosproject.cluster.ClusterEventListener;
 import org.onosproject.cluster.ControllerNode;
@@ -61,6 +62,7 @@ import org.onosproject.ui.JsonUtils;
 import org.onosproject.ui.RequestHandler;
 import org.onosproject.ui.UiConnection;
 import org.onosproject.ui.impl.TrafficMonitor.Mode;
+import org.onosproject.ui.impl.topo.model.UiSharedTopologyModel;
 import org.onosproject.ui.topo.Highlights;
 import org.onosproject.ui.topo.NodeSelection;
 import org.onosproject.ui.topo.PropertyPanel;
@@ -76,6 +78,8 @@ import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
@@ -155,6 +159,9 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private static final long TRAFFIC_PERIOD = 5000;
     private static final long SUMMARY_PERIOD = 30000;
 
+    // Interval over which topology events are coalesced before being sent
+    private static final long FRAME_PERIOD = 200;
+
     private static final Comparator<? super ControllerNode> NODE_COMPARATOR =
             (o1, o2) -> o1.id().toString().compareTo(o2.id().toString());
 
@@ -179,9 +186,15 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private final ExecutorService msgSender =
             newSingleThreadExecutor(groupedThreads("onos/gui", "msg-sender"));
 
+    private final TopoUpdateQueue updates = new TopoUpdateQueue();
+    private final AtomicBoolean pokePending = new AtomicBoolean();
+
     private TopoOverlayCache overlayCache;
     private TrafficMonitor traffic;
 
+    // Highlights last sent, so that unchanged periodic updates can be skipped
+    private ObjectNode lastHighlights;
+
     private TimerTask summaryTask = null;
     private boolean summaryRunning = false;
 
@@ -192,7 +205,9 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     public void init(UiConnection connection, ServiceDirectory directory) {
         super.init(connection, directory);
         appId = directory.get(CoreService.class).registerApplication(MY_APP_ID);
-        traffic = new TrafficMonitor(TRAFFIC_PERIOD, servicesBundle, this);
+        traffic = new TrafficMonitor(TRAFFIC_PERIOD, servicesBundle,
+                                     directory.get(UiSharedTopologyModel.class),
+                                     this);
     }
 
     @Override
@@ -253,6 +268,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
         @Override
         public void process(long sid, ObjectNode payload) {
             addListeners();
+            forgetHighlights();
             sendAllInstances(null);
             sendAllDevices();
             sendAllLinks();
@@ -282,6 +298,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
             String deact = string(payload, DEACTIVATE);
             String act = string(payload, ACTIVATE);
             overlayCache.switchOverlay(deact, act);
+            forgetHighlights();
         }
     }
 
@@ -583,8 +600,58 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     //=======================================================================
 
     // Converts highlights to JSON format and sends the message to the client
-    protected void sendHighlights(Highlights highlights) {
-        sendMessage(highlightsMessage(highlights));
+    protected synchronized void sendHighlights(Highlights highlights) {
+        lastHighlights = highlightsMessage(highlights);
+        sendMessage(lastHighlights);
+    }
+
+    // Sends periodically refreshed highlights, unless they are the same as
+    // the highlights the client already shows
+    protected synchronized void refreshHighlights(Highlights highlights) {
+        ObjectNode message = highlightsMessage(highlights);
+        if (!message.equals(lastHighlights)) {
+            lastHighlights = message;
+            sendMessage(message);
+        }
+    }
+
+    // Makes the next refresh send the highlights even if unchanged, for
+    // when the client may have redrawn or cleared them
+    private synchronized void forgetHighlights() {
+        lastHighlights = null;
+    }
+
+    // Queues a topology update for the next frame
+    private void queueUpdate(ObjectNode message) {
+        if (updates.add(message)) {
+            queueFrame();
+        }
+    }
+
+    // Requests the selected intent traffic to be resent with the next frame
+    private void queuePokeIntent() {
+        if (!pokePending.getAndSet(true)) {
+            queueFrame();
+        }
+    }
+
+    // Schedules the sending of the current frame
+    private void queueFrame() {
+        SharedScheduledExecutors.getSingleThreadExecutor().schedule(
+                () -> msgSender.execute(this::sendFrame),
+                FRAME_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    // Sends the topology updates accumulated over the last frame
+    private void sendFrame() {
+        List<ObjectNode> messages = updates.drain();
+        if (!messages.isEmpty()) {
+            messages.forEach(this::sendMessage);
+            forgetHighlights();
+        }
+        if (pokePending.getAndSet(false)) {
+            traffic.pokeIntent();
+        }
     }
 
     // Subscribes for summary messages.
@@ -610,6 +677,16 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
         }
     }
 
+    // Queues all controller nodes for the next frame, as updates.
+    private void queueAllInstances(String messageType) {
+        List<ControllerNode> nodes = new ArrayList<>(clusterService.getNodes());
+        Collections.sort(nodes, NODE_COMPARATOR);
+        for (ControllerNode node : nodes) {
+            queueUpdate(instanceMessage(new ClusterEvent(INSTANCE_ADDED, node),
+                    messageType));
+        }
+    }
+
     // Sends all devices to the client as device-added messages.
     private void sendAllDevices() {
         // Send optical first, others later for layered rendering
@@ -746,7 +823,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalClusterListener implements ClusterEventListener {
         @Override
         public void event(ClusterEvent event) {
-            msgSender.execute(() -> sendMessage(instanceMessage(event, null)));
+            msgSender.execute(() -> queueUpdate(instanceMessage(event, null)));
         }
     }
 
@@ -757,10 +834,10 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
         @Override
         public void event(MastershipEvent event) {
             msgSender.execute(() -> {
-                sendAllInstances(UPDATE_INSTANCE);
+                queueAllInstances(UPDATE_INSTANCE);
                 Device device = deviceService.getDevice(event.subject());
                 if (device != null) {
-                    sendMessage(deviceMessage(new DeviceEvent(DEVICE_UPDATED, device)));
+                    queueUpdate(deviceMessage(new DeviceEvent(DEVICE_UPDATED, device)));
                 }
             });
         }
@@ -773,8 +850,8 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
         @Override
         public void event(DeviceEvent event) {
             if (event.type() != PORT_STATS_UPDATED) {
-                msgSender.execute(() -> sendMessage(deviceMessage(event)));
-                msgSender.execute(traffic::pokeIntent);
+                msgSender.execute(() -> queueUpdate(deviceMessage(event)));
+                queuePokeIntent();
                 eventAccummulator.add(event);
             }
         }
@@ -786,8 +863,8 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalLinkListener implements LinkListener {
         @Override
         public void event(LinkEvent event) {
-            msgSender.execute(() -> sendMessage(composeLinkMessage(event)));
-            msgSender.execute(traffic::pokeIntent);
+            msgSender.execute(() -> queueUpdate(composeLinkMessage(event)));
+            queuePokeIntent();
             eventAccummulator.add(event);
         }
     }
@@ -798,8 +875,8 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalHostListener implements HostListener {
         @Override
         public void event(HostEvent event) {
-            msgSender.execute(() -> sendMessage(hostMessage(event)));
-            msgSender.execute(traffic::pokeIntent);
+            msgSender.execute(() -> queueUpdate(hostMessage(event)));
+            queuePokeIntent();
             eventAccummulator.add(event);
         }
     }
@@ -810,7 +887,7 @@ public class TopologyViewMessageHandler extends TopologyViewMessageHandlerBase {
     private class InternalIntentListener implements IntentListener {
         @Override
         public void event(IntentEvent event) {
-            msgSender.execute(traffic::pokeIntent);
+            queuePokeIntent();
             eventAccummulator.add(event);
         }
     }
@@ -37,6 +37,7 @@ import org.onosproject.net.intent.OpticalConnectivityIntent;
 import org.onosproject.net.intent.OpticalPathIntent;
 import org.onosproject.net.intent.PathIntent;
 import org.onosproject.net.statistic.Load;
+import org.onosproject.ui.impl.topo.model.UiSharedTopologyModel;
 import org.onosproject.ui.impl.topo.util.IntentSelection;
 import org.onosproject.ui.impl.topo.util.ServicesBundle;
 import org.onosproject.ui.impl.topo.util.TopoIntentFilter;
@@ -50,7 +51,6 @@ import org.onosproject.ui.topo.HostHighlight;
 import org.onosproject.ui.topo.LinkHighlight.Flavor;
 import org.onosproject.ui.topo.NodeHighlight;
 import org.onosproject.ui.topo.NodeSelection;
-import org.onosproject.ui.topo.TopoUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -75,9 +75,6 @@ import static org.onosproject.ui.impl.TrafficMonitor.Mode.SELECTED_INTENT;
  */
 public class TrafficMonitor {
 
-    // 4 Kilo Bytes as threshold
-    private static final double BPS_THRESHOLD = 4 * TopoUtils.KILO;
-
     private static final Logger log =
             LoggerFactory.getLogger(TrafficMonitor.class);
 
@@ -95,6 +92,7 @@ public class TrafficMonitor {
 
     private final long trafficPeriod;
     private final ServicesBundle servicesBundle;
+    private final UiSharedTopologyModel sharedModel;
     private final TopologyViewMessageHandler msgHandler;
     private final TopoIntentFilter intentFilter;
 
@@ -111,12 +109,15 @@ public class TrafficMonitor {
      *
      * @param trafficPeriod   traffic task period in ms
      * @param servicesBundle  bundle of services
+     * @param sharedModel  shared topology model, providing the traffic summaries
      * @param msgHandler  our message handler
      */
     public TrafficMonitor(long trafficPeriod, ServicesBundle servicesBundle,
+                          UiSharedTopologyModel sharedModel,
                           TopologyViewMessageHandler msgHandler) {
         this.trafficPeriod = trafficPeriod;
         this.servicesBundle = servicesBundle;
+        this.sharedModel = sharedModel;
         this.msgHandler = msgHandler;
 
         intentFilter = new TopoIntentFilter(servicesBundle);
@@ -358,26 +359,9 @@ public class TrafficMonitor {
     // =======================================================================
     // === Generate messages in JSON object node format
 
+    // The summary of all traffic is the same for every session
     private Highlights trafficSummary(StatsType type) {
-        Highlights highlights = new Highlights();
-
-        TrafficLinkMap linkMap = new TrafficLinkMap();
-        compileLinks(linkMap);
-        addEdgeLinks(linkMap);
-
-        for (TrafficLink tlink : linkMap.biLinks()) {
-            if (type == StatsType.FLOW_STATS) {
-                attachFlowLoad(tlink);
-            } else if (type == StatsType.PORT_STATS) {
-                attachPortLoad(tlink);
-            }
-
-            // we only want to report on links deemed to have traffic
-            if (tlink.hasTraffic()) {
-                highlights.add(tlink.highlight(type));
-            }
-        }
-        return highlights;
+        return sharedModel.trafficSummary(type);
     }
 
     // create highlights for links, showing flows for selected devices.
@@ -457,17 +441,6 @@ public class TrafficMonitor {
 
     // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -
 
-    private void compileLinks(TrafficLinkMap linkMap) {
-        servicesBundle.linkService().getLinks().forEach(linkMap::add);
-    }
-
-    private void addEdgeLinks(TrafficLinkMap linkMap) {
-        servicesBundle.hostService().getHosts().forEach(host -> {
-            linkMap.add(createEdgeLink(host, true));
-            linkMap.add(createEdgeLink(host, false));
-        });
-    }
-
     private Load getLinkFlowLoad(Link link) {
         if (link != null && link.src().elementId() instanceof DeviceId) {
             return servicesBundle.flowStatsService().load(link);
@@ -475,32 +448,6 @@ public class TrafficMonitor {
         return null;
     }
 
-    private void attachFlowLoad(TrafficLink link) {
-        link.addLoad(getLinkFlowLoad(link.one()));
-        link.addLoad(getLinkFlowLoad(link.two()));
-    }
-
-    private void attachPortLoad(TrafficLink link) {
-        // For bi-directional traffic links, use
-        // the max link rate of either direction
-        // (we choose 'one' since we know that is never null)
-        Link one = link.one();
-        Load egressSrc = servicesBundle.portStatsService().load(one.src());
-        Load egressDst = servicesBundle.portStatsService().load(one.dst());
-        link.addLoad(maxLoad(egressSrc, egressDst), BPS_THRESHOLD);
-//        link.addLoad(maxLoad(egressSrc, egressDst), 10);    // DEBUG ONLY!!
-    }
-
-    private Load maxLoad(Load a, Load b) {
-        if (a == null) {
-            return b;
-        }
-        if (b == null) {
-            return a;
-        }
-        return a.rate() > b.rate() ? a : b;
-    }
-
     // Counts all flow entries that egress on the links of the given device.
     private Map<Link, Integer> getLinkFlowCounts(DeviceId deviceId) {
         // get the flows for the device
@@ -645,23 +592,24 @@ public class TrafficMonitor {
     // =======================================================================
     // === Background Task
 
-    // Provides periodic update of traffic information to the client
+    // Provides periodic update of traffic information to the client; the
+    // update is only sent if it differs from the highlights last sent
     private class TrafficUpdateTask extends TimerTask {
         @Override
         public void run() {
             try {
                 switch (mode) {
                     case ALL_FLOW_TRAFFIC:
-                        sendAllFlowTraffic();
+                        msgHandler.refreshHighlights(trafficSummary(StatsType.FLOW_STATS));
                         break;
                     case ALL_PORT_TRAFFIC:
-                        sendAllPortTraffic();
+                        msgHandler.refreshHighlights(trafficSummary(StatsType.PORT_STATS));
                         break;
                     case DEV_LINK_FLOWS:
-                        sendDeviceLinkFlows();
+                        msgHandler.refreshHighlights(deviceLinkFlows());
                         break;
                     case SELECTED_INTENT:
-                        sendSelectedIntentTraffic();
+                        msgHandler.refreshHighlights(intentTraffic());
                         break;
 
                     default:
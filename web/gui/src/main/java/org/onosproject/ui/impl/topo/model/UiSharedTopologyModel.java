@@ -63,7 +63,11 @@ import org.onosproject.net.region.RegionService;
 import org.onosproject.net.statistic.StatisticService;
 import org.onosproject.net.topology.TopologyService;
 import org.onosproject.ui.impl.topo.UiTopoSession;
+import org.onosproject.ui.impl.topo.util.ServicesBundle;
+import org.onosproject.ui.impl.topo.util.TrafficLink.StatsType;
+import org.onosproject.ui.impl.topo.util.TrafficSummaryCache;
 import org.onosproject.ui.model.ServiceBundle;
+import org.onosproject.ui.topo.Highlights;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,6 +82,10 @@ public final class UiSharedTopologyModel
     private static final Logger log =
             LoggerFactory.getLogger(UiSharedTopologyModel.class);
 
+    // Half the period at which topology views refresh the traffic, so that
+    // every refresh gets a summary of the latest statistics
+    private static final long TRAFFIC_SUMMARY_MAX_AGE_MS = 2500;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private ClusterService clusterService;
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -125,11 +133,17 @@ public final class UiSharedTopologyModel
 
 
     private ModelCache cache;
+    private TrafficSummaryCache trafficSummaries;
 
 
     @Activate
     protected void activate() {
         cache = new ModelCache(new DefaultServiceBundle(), eventDispatcher);
+        trafficSummaries = new TrafficSummaryCache(
+                new ServicesBundle(intentService, deviceService, hostService,
+                                   linkService, flowService, flowStatsService,
+                                   portStatsService),
+                TRAFFIC_SUMMARY_MAX_AGE_MS);
         eventHandler = Executors.newSingleThreadExecutor(Tools.groupedThreads("onos/ui/topo", "event-handler"));
 
         eventDispatcher.addSink(UiModelEvent.class, listenerRegistry);
@@ -165,6 +179,7 @@ public final class UiSharedTopologyModel
 
         cache.clear();
         cache = null;
+        trafficSummaries.clear();
 
         log.info("Stopped");
     }
@@ -190,6 +205,18 @@ public final class UiSharedTopologyModel
         removeListener(session);
     }
 
+    /**
+     * Returns the highlights of the links carrying traffic, according to
+     * the given statistics. The highlights are shared by all sessions and
+     * recomputed at most every few seconds.
+     *
+     * @param type flow or port statistics
+     * @return traffic highlights
+     */
+    public Highlights trafficSummary(StatsType type) {
+        return trafficSummaries.summary(type);
+    }
+
     /**
      * Default implementation of service bundle to return references to our
      * dynamically injected services.
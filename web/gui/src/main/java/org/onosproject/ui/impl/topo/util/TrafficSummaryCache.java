@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2016-present Open Networking Laboratory
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.onosproject.ui.impl.topo.util;
+
+import com.google.common.collect.Maps;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.statistic.Load;
+import org.onosproject.ui.impl.topo.util.TrafficLink.StatsType;
+import org.onosproject.ui.topo.Highlights;
+import org.onosproject.ui.topo.TopoUtils;
+
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.onosproject.net.DefaultEdgeLink.createEdgeLink;
+
+/**
+ * Cache of the highlights summarizing the traffic on all links, shared by
+ * the topology views of all UI sessions. A summary is computed on demand and
+ * then served to every session asking for the same statistics until it gets
+ * older than the configured maximum age, so that the cost of computing it does
+ * not grow with the number of sessions monitoring all traffic.
+ */
+public class TrafficSummaryCache {
+
+    // 4 Kilo Bytes as threshold
+    private static final double BPS_THRESHOLD = 4 * TopoUtils.KILO;
+
+    private final ServicesBundle servicesBundle;
+    private final long maxAgeMs;
+
+    private final Map<StatsType, Summary> summaries = Maps.newConcurrentMap();
+
+    /**
+     * Creates a traffic summary cache.
+     *
+     * @param servicesBundle bundle of services
+     * @param maxAgeMs       maximum age of the summaries served, in ms
+     */
+    public TrafficSummaryCache(ServicesBundle servicesBundle, long maxAgeMs) {
+        this.servicesBundle = servicesBundle;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    /**
+     * Returns the highlights of the links carrying traffic, according to
+     * the given statistics.
+     *
+     * @param type flow or port statistics
+     * @return traffic highlights
+     */
+    public Highlights summary(StatsType type) {
+        checkArgument(type == StatsType.FLOW_STATS || type == StatsType.PORT_STATS,
+                      "Unsupported statistics type %s", type);
+        return summaries.computeIfAbsent(type, Summary::new).get();
+    }
+
+    /**
+     * Discards all summaries.
+     */
+    public void clear() {
+        summaries.clear();
+    }
+
+    private Highlights trafficSummary(StatsType type) {
+        Highlights highlights = new Highlights();
+
+        TrafficLinkMap linkMap = new TrafficLinkMap();
+        compileLinks(linkMap);
+        addEdgeLinks(linkMap);
+
+        for (TrafficLink tlink : linkMap.biLinks()) {
+            if (type == StatsType.FLOW_STATS) {
+                attachFlowLoad(tlink);
+            } else if (type == StatsType.PORT_STATS) {
+                attachPortLoad(tlink);
+            }
+
+            // we only want to report on links deemed to have traffic
+            if (tlink.hasTraffic()) {
+                highlights.add(tlink.highlight(type));
+            }
+        }
+        return highlights;
+    }
+
+    private void compileLinks(TrafficLinkMap linkMap) {
+        servicesBundle.linkService().getLinks().forEach(linkMap::add);
+    }
+
+    private void addEdgeLinks(TrafficLinkMap linkMap) {
+        servicesBundle.hostService().getHosts().forEach(host -> {
+            linkMap.add(createEdgeLink(host, true));
+            linkMap.add(createEdgeLink(host, false));
+        });
+    }
+
+    private Load getLinkFlowLoad(Link link) {
+        if (link != null && link.src().elementId() instanceof DeviceId) {
+            return servicesBundle.flowStatsService().load(link);
+        }
+        return null;
+    }
+
+    private void attachFlowLoad(TrafficLink link) {
+        link.addLoad(getLinkFlowLoad(link.one()));
+        link.addLoad(getLinkFlowLoad(link.two()));
+    }
+
+    private void attachPortLoad(TrafficLink link) {
+        // For bi-directional traffic links, use
+        // the max link rate of either direction
+        // (we choose 'one' since we know that is never null)
+        Link one = link.one();
+        Load egressSrc = servicesBundle.portStatsService().load(one.src());
+        Load egressDst = servicesBundle.portStatsService().load(one.dst());
+        link.addLoad(maxLoad(egressSrc, egressDst), BPS_THRESHOLD);
+    }
+
+    private Load maxLoad(Load a, Load b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.rate() > b.rate() ? a : b;
+    }
+
+    // Latest summary of one type of statistics
+    private final class Summary {
+        private final StatsType type;
+        private Highlights highlights;
+        private long computedAt;
+
+        private Summary(StatsType type) {
+            this.type = type;
+        }
+
+        // Sessions asking while the summary is computed wait for it rather
+        // than computing it again
+        private synchronized Highlights get() {
+            long now = System.currentTimeMillis();
+            if (highlights == null || now - computedAt >= maxAgeMs) {
+                highlights = trafficSummary(type);
+                computedAt = now;
+            }
+            return highlights;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.ui.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.ui.JsonUtils.envelope;
+
+/**
+ * Unit tests for {@link TopoUpdateQueue}.
+ */
+public class TopoUpdateQueueTest extends AbstractUiImplTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final TopoUpdateQueue queue = new TopoUpdateQueue();
+
+    private static ObjectNode message(String type, String id, boolean online) {
+        ObjectNode payload = MAPPER.createObjectNode()
+                .put("id", id)
+                .put("online", online);
+        return envelope(type, payload);
+    }
+
+    private static void assertMessage(ObjectNode message, String type,
+                                      String id, boolean online) {
+        assertEquals("wrong type", type, message.path("event").asText());
+        assertEquals("wrong id", id, message.path("payload").path("id").asText());
+        assertEquals("wrong payload", online,
+                     message.path("payload").path("online").asBoolean());
+    }
+
+    @Test
+    public void frames() {
+        title("frames");
+        assertTrue("first message", queue.add(message("updateDevice", "d1", true)));
+        assertFalse("second message", queue.add(message("updateDevice", "d2", true)));
+        assertEquals("wrong frame size", 2, queue.drain().size());
+        assertEquals("frame not drained", 0, queue.drain().size());
+        assertTrue("next frame", queue.add(message("updateDevice", "d1", true)));
+    }
+
+    @Test
+    public void coalesceUpdates() {
+        title("coalesceUpdates");
+        queue.add(message("updateDevice", "d1", true));
+        queue.add(message("updateDevice", "d2", true));
+        queue.add(message("updateDevice", "d1", false));
+        queue.add(message("updateLink", "d1", true));
+
+        List<ObjectNode> frame = queue.drain();
+        print(frame);
+        assertEquals("wrong frame size", 3, frame.size());
+        assertMessage(frame.get(0), "updateDevice", "d1", false);
+        assertMessage(frame.get(1), "updateDevice", "d2", true);
+        assertMessage(frame.get(2), "updateLink", "d1", true);
+    }
+
+    @Test
+    public void updateAfterAdd() {
+        title("updateAfterAdd");
+        queue.add(message("addDevice", "d1", true));
+        queue.add(message("addLink", "l1", true));
+        queue.add(message("updateDevice", "d1", false));
+
+        List<ObjectNode> frame = queue.drain();
+        print(frame);
+        assertEquals("wrong frame size", 2, frame.size());
+        assertMessage(frame.get(0), "addDevice", "d1", false);
+        assertMessage(frame.get(1), "addLink", "l1", true);
+    }
+
+    @Test
+    public void updateAfterRemoveOrMove() {
+        title("updateAfterRemoveOrMove");
+        queue.add(message("updateHost", "h1", true));
+        queue.add(message("moveHost", "h1", true));
+        queue.add(message("updateHost", "h1", false));
+        queue.add(message("removeDevice", "d1", true));
+        queue.add(message("updateDevice", "d1", false));
+
+        List<ObjectNode> frame = queue.drain();
+        print(frame);
+        assertEquals("wrong frame size", 5, frame.size());
+        assertMessage(frame.get(0), "updateHost", "h1", true);
+        assertMessage(frame.get(1), "moveHost", "h1", true);
+        assertMessage(frame.get(2), "updateHost", "h1", false);
+        assertMessage(frame.get(3), "removeDevice", "d1", true);
+        assertMessage(frame.get(4), "updateDevice", "d1", false);
+    }
+}